@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Inputs shared by the JMH benchmarks: sources of the mock OTP installation.
+ * Paths are relative to the project directory, which is the working directory of the jmh task.
+ */
+public class ErlangBenchmarkCorpus {
+  private static final String SOURCES_PATH = System.getProperty("erlang.benchmarks.corpus", "testData/mockSdk-R15B02/lib");
+  private static final Pattern STRING_LITERAL_PATTERN = Pattern.compile("\"(?:[^\"\\\\\\n]|\\\\.)*\"");
+
+  private ErlangBenchmarkCorpus() {
+  }
+
+  @NotNull
+  public static File getSourcesRoot() {
+    return new File(SOURCES_PATH).getAbsoluteFile();
+  }
+
+  @NotNull
+  public static List<File> getSourceFiles() {
+    List<File> files = ContainerUtil.newArrayList();
+    collectSourceFiles(getSourcesRoot(), files);
+    if (files.isEmpty()) throw new IllegalStateException("No Erlang sources found in " + getSourcesRoot());
+    Collections.sort(files);
+    return files;
+  }
+
+  @NotNull
+  public static List<String> loadSources() throws IOException {
+    List<String> sources = ContainerUtil.newArrayList();
+    for (File file : getSourceFiles()) {
+      sources.add(FileUtil.loadFile(file, true));
+    }
+    return sources;
+  }
+
+  /**
+   * Collects string literals containing control sequences, quotes included, as the format inspection sees them.
+   */
+  @NotNull
+  public static List<String> loadFormatStrings() throws IOException {
+    List<String> formatStrings = ContainerUtil.newArrayList();
+    for (String source : loadSources()) {
+      Matcher matcher = STRING_LITERAL_PATTERN.matcher(source);
+      while (matcher.find()) {
+        String literal = matcher.group();
+        if (literal.indexOf('~') != -1) formatStrings.add(literal);
+      }
+    }
+    return formatStrings;
+  }
+
+  private static void collectSourceFiles(@NotNull File dir, @NotNull List<File> files) {
+    File[] children = dir.listFiles();
+    if (children == null) return;
+    for (File child : children) {
+      if (child.isDirectory()) {
+        collectSourceFiles(child, files);
+      }
+      else {
+        String extension = FileUtilRt.getExtension(child.getName());
+        if ("erl".equals(extension) || "hrl".equals(extension)) files.add(child);
+      }
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.bif;
+
+import com.intellij.util.containers.ContainerUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up a mix of known and unknown functions.
+ * Names are copied, as names taken from PSI are not the strings the table was built from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErlangBifTableBenchmark {
+  private static final String[] MODULES = {"erlang", "lists", "ets", "binary", "io", "lager", "", "my_module"};
+
+  private String[] myModules;
+  private String[] myNames;
+  private int[] myArities;
+
+  @Setup
+  @SuppressWarnings("RedundantStringConstructorCall")
+  public void setUp() {
+    List<ErlangBifDescriptor> queries = ContainerUtil.newArrayList();
+    for (String module : MODULES) {
+      for (ErlangBifDescriptor bif : ErlangBifTable.getBifs(module)) {
+        queries.add(bif);
+        queries.add(new ErlangBifDescriptor(module, bif.getName(), bif.getArity() + 1, ""));
+        queries.add(new ErlangBifDescriptor("my_module", bif.getName(), bif.getArity(), ""));
+      }
+    }
+    Collections.shuffle(queries, new Random(42));
+
+    myModules = new String[queries.size()];
+    myNames = new String[queries.size()];
+    myArities = new int[queries.size()];
+    for (int i = 0; i < queries.size(); i++) {
+      ErlangBifDescriptor query = queries.get(i);
+      myModules[i] = new String(query.getModule());
+      myNames[i] = new String(query.getName());
+      myArities[i] = query.getArity();
+    }
+  }
+
+  @Benchmark
+  public int isBif() {
+    int bifs = 0;
+    for (int i = 0; i < myModules.length; i++) {
+      if (ErlangBifTable.isBif(myModules[i], myNames[i], myArities[i])) bifs++;
+    }
+    return bifs;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.debugger.node;
+
+import com.ericsson.otp.erlang.OtpErlangDecodeException;
+import com.ericsson.otp.erlang.OtpErlangObject;
+import com.ericsson.otp.erlang.OtpInputStream;
+import org.intellij.erlang.debugger.node.events.ErlangDebuggerEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes remote debugger frames the way the debugger node does, alone and together with turning them into debugger events.
+ * The frames are created by {@link ErlangDebuggerFrames} when the benchmark is set up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErlangDebuggerDecodeBenchmark {
+  private List<byte[]> myFrames;
+
+  @Setup
+  public void setUp() {
+    myFrames = ErlangDebuggerFrames.create();
+  }
+
+  @Benchmark
+  public int decode() {
+    int terms = 0;
+    for (byte[] frame : myFrames) {
+      if (decode(frame) != null) terms++;
+    }
+    return terms;
+  }
+
+  @Benchmark
+  public int decodeAndCreateEvents() {
+    int events = 0;
+    for (byte[] frame : myFrames) {
+      OtpErlangObject message = decode(frame);
+      if (message != null && ErlangDebuggerEvent.create(message) != null) events++;
+    }
+    return events;
+  }
+
+  @Nullable
+  private static OtpErlangObject decode(@NotNull byte[] frame) {
+    try {
+      return new OtpInputStream(frame, 0, frame.length, 0).read_any();
+    }
+    catch (OtpErlangDecodeException e) {
+      return null;
+    }
+  }
+}
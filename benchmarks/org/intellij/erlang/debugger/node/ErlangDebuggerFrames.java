@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.debugger.node;
+
+import com.ericsson.otp.erlang.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates the frames used by {@link ErlangDebuggerDecodeBenchmark}: messages of the shapes the remote debugger sends,
+ * each encoded as a term in the external format, as the debugger node reads them from the socket.
+ * Values are pseudo-random with a fixed seed, so the frames are the same on every run.
+ */
+public class ErlangDebuggerFrames {
+  private static final String[] MODULES = {"lists", "gen_server", "my_app_server", "proplists", "io_lib_format"};
+
+  private final Random myRandom = new Random(42);
+
+  private ErlangDebuggerFrames() {
+  }
+
+  @NotNull
+  public static List<byte[]> create() {
+    List<byte[]> frames = new ArrayList<byte[]>();
+    for (OtpErlangObject message : new ErlangDebuggerFrames().createMessages()) {
+      OtpOutputStream frame = new OtpOutputStream();
+      frame.write1(OtpExternal.versionTag);
+      frame.write_any(message);
+      frames.add(frame.toByteArray());
+    }
+    return frames;
+  }
+
+  @NotNull
+  private List<OtpErlangObject> createMessages() {
+    List<OtpErlangObject> messages = new ArrayList<OtpErlangObject>();
+    for (int i = 0; i < 8; i++) {
+      messages.add(tuple(atom("breakpoint_reached"), pid(0), snapshots(i)));
+      messages.add(tuple(atom("bindings_response"), new OtpErlangLong(i), bindings(4 + i * 3)));
+    }
+    List<OtpErlangObject> statuses = new ArrayList<OtpErlangObject>();
+    for (int i = 0; i < 40; i++) {
+      statuses.add(tuple(atom("module_" + i), i % 7 == 0 ? tuple(atom("error"), atom("badarg")) : atom("ok")));
+    }
+    messages.add(tuple(atom("interpret_modules_response"), atom("node@host"), list(statuses)));
+    for (int i = 0; i < 10; i++) {
+      messages.add(tuple(atom("set_breakpoint_response"), atom("module_" + i), new OtpErlangLong(10 * i + 1), atom("ok")));
+    }
+    return messages;
+  }
+
+  /**
+   * {Pid, {Module, Function, Args}, Status, Info, Stack} for every process, the first one is at a breakpoint.
+   */
+  @NotNull
+  private OtpErlangList snapshots(int breakpointIndex) {
+    List<OtpErlangObject> snapshots = new ArrayList<OtpErlangObject>();
+    for (int process = 0; process <= breakpointIndex; process++) {
+      List<OtpErlangObject> stack = new ArrayList<OtpErlangObject>();
+      for (int sp = 0; sp < 3 + breakpointIndex * 2; sp++) {
+        OtpErlangTuple call = call(MODULES[(sp + process) % MODULES.length], "fun_" + sp, sp % 4);
+        stack.add(tuple(new OtpErlangLong(sp + 1), call, bindings(2 + sp % 6)));
+      }
+      String status = process == 0 ? "break" : process % 3 == 0 ? "exit" : "waiting";
+      OtpErlangObject info = process == 0 ? tuple(atom("my_app_server"), new OtpErlangLong(100 + breakpointIndex)) :
+                             process % 3 == 0 ? tuple(atom("badmatch"), value(1)) :
+                             new OtpErlangList();
+      snapshots.add(tuple(pid(process), call("my_app_server", "init", 1), atom(status), info, list(stack)));
+    }
+    return list(snapshots);
+  }
+
+  @NotNull
+  private OtpErlangList bindings(int count) {
+    List<OtpErlangObject> bindings = new ArrayList<OtpErlangObject>();
+    for (int i = 0; i < count; i++) {
+      bindings.add(tuple(atom("Var" + i), value(0)));
+    }
+    return list(bindings);
+  }
+
+  @NotNull
+  private OtpErlangTuple call(@NotNull String module, @NotNull String function, int arity) {
+    List<OtpErlangObject> args = new ArrayList<OtpErlangObject>();
+    for (int i = 0; i < arity; i++) {
+      args.add(value(1));
+    }
+    return tuple(atom(module), atom(function), list(args));
+  }
+
+  @NotNull
+  private OtpErlangObject value(int depth) {
+    switch (myRandom.nextInt(depth > 2 ? 4 : 7)) {
+      case 0: return new OtpErlangLong(myRandom.nextInt(100000));
+      case 1: return atom("atom_" + myRandom.nextInt(50));
+      case 2: return new OtpErlangString("string value " + myRandom.nextInt(1000));
+      case 3: return new OtpErlangBinary(("binary payload " + myRandom.nextInt(1000)).getBytes());
+      case 4: {
+        List<OtpErlangObject> elements = new ArrayList<OtpErlangObject>();
+        int size = myRandom.nextInt(8);
+        for (int i = 0; i < size; i++) {
+          elements.add(value(depth + 1));
+        }
+        return list(elements);
+      }
+      case 5: return tuple(atom("record_" + myRandom.nextInt(5)), value(depth + 1), value(depth + 1), value(depth + 1));
+      default: return new OtpErlangDouble(myRandom.nextDouble());
+    }
+  }
+
+  @NotNull
+  private static OtpErlangAtom atom(@NotNull String text) {
+    return new OtpErlangAtom(text);
+  }
+
+  @NotNull
+  private static OtpErlangTuple tuple(@NotNull OtpErlangObject... elements) {
+    return new OtpErlangTuple(elements);
+  }
+
+  @NotNull
+  private static OtpErlangList list(@NotNull List<OtpErlangObject> elements) {
+    return new OtpErlangList(elements.toArray(new OtpErlangObject[elements.size()]));
+  }
+
+  @NotNull
+  private static OtpErlangPid pid(int id) {
+    return new OtpErlangPid("node@host", id, 0, 1);
+  }
+}
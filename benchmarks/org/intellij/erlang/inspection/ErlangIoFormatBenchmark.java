@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.inspection;
+
+import org.intellij.erlang.ErlangBenchmarkCorpus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts format arguments of every string literal with a control sequence found in the corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErlangIoFormatBenchmark {
+  private List<String> myFormatStrings;
+
+  @Setup
+  public void setUp() throws IOException {
+    myFormatStrings = ErlangBenchmarkCorpus.loadFormatStrings();
+  }
+
+  @Benchmark
+  public int expectedFormatArgsCount() {
+    int arguments = 0;
+    for (String formatString : myFormatStrings) {
+      try {
+        arguments += ErlangIoFormatUtil.getExpectedFormatArgsCount(formatString);
+      }
+      catch (ErlangIoFormatUtil.InvalidControlSequenceException e) {
+        arguments--;
+      }
+    }
+    return arguments;
+  }
+}
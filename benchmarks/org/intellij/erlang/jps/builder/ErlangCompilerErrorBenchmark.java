@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.jps.builder;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.ErlangBenchmarkCorpus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses erlc output lines of the shapes erlc prints for the corpus files: warnings, errors, and lines of other tools.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErlangCompilerErrorBenchmark {
+  private String myRootPath;
+  private List<String> myMessages;
+
+  @Setup
+  public void setUp() {
+    File root = ErlangBenchmarkCorpus.getSourcesRoot();
+    myRootPath = root.getPath();
+    myMessages = ContainerUtil.newArrayList();
+    int line = 1;
+    for (File file : ErlangBenchmarkCorpus.getSourceFiles()) {
+      String relativePath = FileUtil.getRelativePath(root, file);
+      myMessages.add(relativePath + ":" + line++ + ": Warning: variable 'State' is unused\n");
+      myMessages.add(relativePath + ":" + line++ + ": Warning: function handle_info/2 is unused\n");
+      myMessages.add(relativePath + ":" + line++ + ": syntax error before: ')'\n");
+      myMessages.add(relativePath + ": no such file or directory\n");
+      myMessages.add("missing/" + relativePath + ":" + line++ + ": head mismatch\n");
+      myMessages.add("Recompile: " + relativePath + "\n");
+    }
+  }
+
+  @Benchmark
+  public int create() {
+    int errors = 0;
+    for (String message : myMessages) {
+      if (ErlangCompilerError.create(myRootPath, message) != null) errors++;
+    }
+    return errors;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.parser;
+
+import org.intellij.erlang.ErlangBenchmarkCorpus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lexes the whole corpus per invocation, both with the generated lexer alone and with the merging and look-ahead adapters on top.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErlangLexerBenchmark {
+  private List<String> mySources;
+
+  @Setup
+  public void setUp() throws IOException {
+    mySources = ErlangBenchmarkCorpus.loadSources();
+  }
+
+  @Benchmark
+  public int flexLexer() throws IOException {
+    _ErlangLexer lexer = new _ErlangLexer();
+    int tokens = 0;
+    for (String source : mySources) {
+      lexer.reset(source, 0, source.length(), _ErlangLexer.YYINITIAL);
+      while (lexer.advance() != null) {
+        tokens++;
+      }
+    }
+    return tokens;
+  }
+
+  @Benchmark
+  public int erlangLexer() {
+    ErlangLexer lexer = new ErlangLexer();
+    int tokens = 0;
+    for (String source : mySources) {
+      lexer.start(source);
+      while (lexer.getTokenType() != null) {
+        tokens++;
+        lexer.advance();
+      }
+    }
+    return tokens;
+  }
+}
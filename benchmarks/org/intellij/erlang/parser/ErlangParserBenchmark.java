@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.parser;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.testFramework.fixtures.IdeaProjectTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import org.intellij.erlang.ErlangBenchmarkCorpus;
+import org.intellij.erlang.ErlangLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the whole corpus into PSI per invocation, lexer, generated parser and tree building included.
+ * Parsing needs a project, so a light test project is set up on the event dispatch thread once per run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErlangParserBenchmark {
+  private List<String> mySources;
+  private IdeaProjectTestFixture myFixture;
+
+  @Setup
+  public void setUp() throws Exception {
+    mySources = ErlangBenchmarkCorpus.loadSources();
+    myFixture = IdeaTestFixtureFactory.getFixtureFactory().createLightFixtureBuilder().getFixture();
+    invokeAndWait(new FixtureAction() {
+      @Override
+      public void run() throws Exception {
+        myFixture.setUp();
+      }
+    });
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    invokeAndWait(new FixtureAction() {
+      @Override
+      public void run() throws Exception {
+        myFixture.tearDown();
+      }
+    });
+  }
+
+  @Benchmark
+  public int parse() {
+    return ApplicationManager.getApplication().runReadAction(new Computable<Integer>() {
+      @Override
+      public Integer compute() {
+        PsiFileFactory factory = PsiFileFactory.getInstance(myFixture.getProject());
+        int lastOffsets = 0;
+        for (String source : mySources) {
+          PsiFile file = factory.createFileFromText("a.erl", ErlangLanguage.INSTANCE, source);
+          lastOffsets += file.getNode().getLastChildNode().getStartOffset();
+        }
+        return lastOffsets;
+      }
+    });
+  }
+
+  private static void invokeAndWait(final FixtureAction action) throws Exception {
+    final Exception[] exception = new Exception[1];
+    try {
+      SwingUtilities.invokeAndWait(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            action.run();
+          }
+          catch (Exception e) {
+            exception[0] = e;
+          }
+        }
+      });
+    }
+    catch (InvocationTargetException e) {
+      throw new IOException(e.getCause());
+    }
+    if (exception[0] != null) throw exception[0];
+  }
+
+  private interface FixtureAction {
+    void run() throws Exception;
+  }
+}
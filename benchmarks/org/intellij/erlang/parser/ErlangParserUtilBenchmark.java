@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.parser;
+
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.impl.PsiBuilderAdapter;
+import com.intellij.lang.parser.GeneratedParserUtilBase;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderBase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing mode bookkeeping the generated parser performs around guards, attributes and else branches.
+ * The builder only keeps user data, as that is all the mode handling touches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErlangParserUtilBenchmark {
+  private static final int CALLS = 100;
+
+  private final GeneratedParserUtilBase.Parser myGuardParser = new GeneratedParserUtilBase.Parser() {
+    @Override
+    public boolean parse(PsiBuilder builder, int level) {
+      return ErlangParserUtil.isModeOn(builder, level, ErlangParserUtil.GUARD_MODE) && ErlangParserUtil.isModeOff(builder, level, ErlangParserUtil.ELSE_MODE);
+    }
+  };
+  private final GeneratedParserUtilBase.Parser myElseParser = new GeneratedParserUtilBase.Parser() {
+    @Override
+    public boolean parse(PsiBuilder builder, int level) {
+      return ErlangParserUtil.withOn(builder, level, ErlangParserUtil.GUARD_MODE, myGuardParser);
+    }
+  };
+  private PsiBuilder myBuilder;
+
+  @Setup
+  public void setUp() {
+    myBuilder = new UserDataOnlyBuilder();
+  }
+
+  @Benchmark
+  public boolean enterAndExit() {
+    boolean result = true;
+    for (int i = 0; i < CALLS; i++) {
+      ErlangParserUtil.enterMode(myBuilder, 0, ErlangParserUtil.ATOM_ATTRIBUTE_MODE);
+      result &= ErlangParserUtil.isModeOn(myBuilder, 0, ErlangParserUtil.ATOM_ATTRIBUTE_MODE);
+      result &= ErlangParserUtil.isModeOff(myBuilder, 0, ErlangParserUtil.GUARD_MODE);
+      ErlangParserUtil.exitMode(myBuilder, 0, ErlangParserUtil.ATOM_ATTRIBUTE_MODE);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public boolean nestedWith() {
+    boolean result = true;
+    for (int i = 0; i < CALLS; i++) {
+      result &= ErlangParserUtil.withCleared(myBuilder, 0, ErlangParserUtil.ELSE_MODE, myElseParser, myGuardParser);
+    }
+    return result;
+  }
+
+  private static class UserDataOnlyBuilder extends PsiBuilderAdapter {
+    private final UserDataHolderBase myUserData = new UserDataHolderBase();
+
+    UserDataOnlyBuilder() {
+      super((PsiBuilder) Proxy.newProxyInstance(PsiBuilder.class.getClassLoader(), new Class[]{PsiBuilder.class}, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          throw new UnsupportedOperationException(method.getName());
+        }
+      }));
+    }
+
+    @Nullable
+    @Override
+    public <T> T getUserDataUnprotected(@NotNull Key<T> key) {
+      return myUserData.getUserData(key);
+    }
+
+    @Override
+    public <T> void putUserDataUnprotected(@NotNull Key<T> key, @Nullable T value) {
+      myUserData.putUserData(key, value);
+    }
+  }
+}
@@ -36,7 +36,7 @@ public interface ErlangTypes {
   IElementType ERL_CALLBACK_SPEC = ErlangElementTypeFactory.factory("ERL_CALLBACK_SPEC");
   IElementType ERL_CASE_EXPRESSION = new ErlangCompositeElementType("ERL_CASE_EXPRESSION");
   IElementType ERL_CATCH_EXPRESSION = new ErlangCompositeElementType("ERL_CATCH_EXPRESSION");
-  IElementType ERL_CLAUSE_BODY = new ErlangCompositeElementType("ERL_CLAUSE_BODY");
+  IElementType ERL_CLAUSE_BODY = ErlangElementTypeFactory.factory("ERL_CLAUSE_BODY");
   IElementType ERL_CLAUSE_GUARD = new ErlangCompositeElementType("ERL_CLAUSE_GUARD");
   IElementType ERL_COLON_QUALIFIED_EXPRESSION = new ErlangCompositeElementType("ERL_COLON_QUALIFIED_EXPRESSION");
   IElementType ERL_COMP_OP_EXPRESSION = new ErlangCompositeElementType("ERL_COMP_OP_EXPRESSION");
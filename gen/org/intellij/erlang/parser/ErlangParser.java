@@ -1251,8 +1251,8 @@ public class ErlangParser implements PsiParser, LightPsiParser {
   //   | behaviour
   //   | on_load
   //   | ifdef_ifndef_undef_attribute
-  //   | else_atom_attribute <<enterMode "ELSE">>
-  //   | <<withOn "ATOM_ATTRIBUTE" atom_attribute>>
+  //   | else_atom_attribute <<enterMode ELSE_MODE>>
+  //   | <<withOn ATOM_ATTRIBUTE_MODE atom_attribute>>
   //   )
   public static boolean attribute(PsiBuilder b, int l) {
     if (!recursion_guard_(b, l, "attribute")) return false;
@@ -1276,8 +1276,8 @@ public class ErlangParser implements PsiParser, LightPsiParser {
   //   | behaviour
   //   | on_load
   //   | ifdef_ifndef_undef_attribute
-  //   | else_atom_attribute <<enterMode "ELSE">>
-  //   | <<withOn "ATOM_ATTRIBUTE" atom_attribute>>
+  //   | else_atom_attribute <<enterMode ELSE_MODE>>
+  //   | <<withOn ATOM_ATTRIBUTE_MODE atom_attribute>>
   private static boolean attribute_1(PsiBuilder b, int l) {
     if (!recursion_guard_(b, l, "attribute_1")) return false;
     boolean r;
@@ -1293,18 +1293,18 @@ public class ErlangParser implements PsiParser, LightPsiParser {
     if (!r) r = on_load(b, l + 1);
     if (!r) r = ifdef_ifndef_undef_attribute(b, l + 1);
     if (!r) r = attribute_1_10(b, l + 1);
-    if (!r) r = withOn(b, l + 1, "ATOM_ATTRIBUTE", atom_attribute_parser_);
+    if (!r) r = withOn(b, l + 1, ATOM_ATTRIBUTE_MODE, atom_attribute_parser_);
     exit_section_(b, m, null, r);
     return r;
   }
 
-  // else_atom_attribute <<enterMode "ELSE">>
+  // else_atom_attribute <<enterMode ELSE_MODE>>
   private static boolean attribute_1_10(PsiBuilder b, int l) {
     if (!recursion_guard_(b, l, "attribute_1_10")) return false;
     boolean r;
     Marker m = enter_section_(b);
     r = else_atom_attribute(b, l + 1);
-    r = r && enterMode(b, l + 1, "ELSE");
+    r = r && enterMode(b, l + 1, ELSE_MODE);
     exit_section_(b, m, null, r);
     return r;
   }
@@ -3292,18 +3292,18 @@ public class ErlangParser implements PsiParser, LightPsiParser {
   }
 
   /* ********************************************************** */
-  // <<enterMode "GUARD">> (<<p1>> <<exitMode "GUARD">>|<<exitMode "GUARD">> !())
+  // <<enterMode GUARD_MODE>> (<<p1>> <<exitMode GUARD_MODE>>|<<exitMode GUARD_MODE>> !())
   static boolean guarded(PsiBuilder b, int l, final Parser _p1) {
     if (!recursion_guard_(b, l, "guarded")) return false;
     boolean r;
     Marker m = enter_section_(b);
-    r = enterMode(b, l + 1, "GUARD");
+    r = enterMode(b, l + 1, GUARD_MODE);
     r = r && guarded_1(b, l + 1, _p1);
     exit_section_(b, m, null, r);
     return r;
   }
 
-  // <<p1>> <<exitMode "GUARD">>|<<exitMode "GUARD">> !()
+  // <<p1>> <<exitMode GUARD_MODE>>|<<exitMode GUARD_MODE>> !()
   private static boolean guarded_1(PsiBuilder b, int l, final Parser _p1) {
     if (!recursion_guard_(b, l, "guarded_1")) return false;
     boolean r;
@@ -3314,23 +3314,23 @@ public class ErlangParser implements PsiParser, LightPsiParser {
     return r;
   }
 
-  // <<p1>> <<exitMode "GUARD">>
+  // <<p1>> <<exitMode GUARD_MODE>>
   private static boolean guarded_1_0(PsiBuilder b, int l, final Parser _p1) {
     if (!recursion_guard_(b, l, "guarded_1_0")) return false;
     boolean r;
     Marker m = enter_section_(b);
     r = _p1.parse(b, l);
-    r = r && exitMode(b, l + 1, "GUARD");
+    r = r && exitMode(b, l + 1, GUARD_MODE);
     exit_section_(b, m, null, r);
     return r;
   }
 
-  // <<exitMode "GUARD">> !()
+  // <<exitMode GUARD_MODE>> !()
   private static boolean guarded_1_1(PsiBuilder b, int l) {
     if (!recursion_guard_(b, l, "guarded_1_1")) return false;
     boolean r;
     Marker m = enter_section_(b);
-    r = exitMode(b, l + 1, "GUARD");
+    r = exitMode(b, l + 1, GUARD_MODE);
     r = r && guarded_1_1_1(b, l + 1);
     exit_section_(b, m, null, r);
     return r;
@@ -4617,12 +4617,12 @@ public class ErlangParser implements PsiParser, LightPsiParser {
   }
 
   /* ********************************************************** */
-  // <<isModeOn "GUARD">> | !('->'|when)
+  // <<isModeOn GUARD_MODE>> | !('->'|when)
   static boolean not_function_definition(PsiBuilder b, int l) {
     if (!recursion_guard_(b, l, "not_function_definition")) return false;
     boolean r;
     Marker m = enter_section_(b);
-    r = isModeOn(b, l + 1, "GUARD");
+    r = isModeOn(b, l + 1, GUARD_MODE);
     if (!r) r = not_function_definition_1(b, l + 1);
     exit_section_(b, m, null, r);
     return r;
@@ -4725,7 +4725,7 @@ public class ErlangParser implements PsiParser, LightPsiParser {
   }
 
   /* ********************************************************** */
-  // '.' | <<isModeOn "ELSE">> <<exitMode "ELSE">>
+  // '.' | <<isModeOn ELSE_MODE>> <<exitMode ELSE_MODE>>
   static boolean period(PsiBuilder b, int l) {
     if (!recursion_guard_(b, l, "period")) return false;
     boolean r;
@@ -4736,13 +4736,13 @@ public class ErlangParser implements PsiParser, LightPsiParser {
     return r;
   }
 
-  // <<isModeOn "ELSE">> <<exitMode "ELSE">>
+  // <<isModeOn ELSE_MODE>> <<exitMode ELSE_MODE>>
   private static boolean period_1(PsiBuilder b, int l) {
     if (!recursion_guard_(b, l, "period_1")) return false;
     boolean r;
     Marker m = enter_section_(b);
-    r = isModeOn(b, l + 1, "ELSE");
-    r = r && exitMode(b, l + 1, "ELSE");
+    r = isModeOn(b, l + 1, ELSE_MODE);
+    r = r && exitMode(b, l + 1, ELSE_MODE);
     exit_section_(b, m, null, r);
     return r;
   }
@@ -6543,12 +6543,12 @@ public class ErlangParser implements PsiParser, LightPsiParser {
     return r;
   }
 
-  // <<isModeOn "ATOM_ATTRIBUTE">> q_atom '/' integer
+  // <<isModeOn ATOM_ATTRIBUTE_MODE>> q_atom '/' integer
   public static boolean atom_with_arity_expression(PsiBuilder b, int l) {
     if (!recursion_guard_(b, l, "atom_with_arity_expression")) return false;
     boolean r;
     Marker m = enter_section_(b, l, _NONE_, "<expression>");
-    r = isModeOn(b, l + 1, "ATOM_ATTRIBUTE");
+    r = isModeOn(b, l + 1, ATOM_ATTRIBUTE_MODE);
     r = r && q_atom(b, l + 1);
     r = r && consumeToken(b, ERL_OP_AR_DIV);
     r = r && consumeToken(b, ERL_INTEGER);
@@ -0,0 +1,142 @@
+-module(intellij_compile_server).
+
+-export([start/1]).
+
+%% the node stops once it has had no connections for this long
+-define(IDLE_TIMEOUT, 30 * 60 * 1000).
+%% a client has to send the secret from the port file right after connecting
+-define(AUTH_TIMEOUT, 5000).
+
+%% the port file names the SDK of the node, clients started with another SDK stop it and start their own
+start([PortFile, SdkHome]) ->
+  {ok, ListenSocket} = gen_tcp:listen(0, [binary, {packet, 4}, {active, false}, {ip, {127, 0, 0, 1}}]),
+  {ok, Port} = inet:port(ListenSocket),
+  Secret = list_to_binary([io_lib:format("~2.16.0b", [Byte]) || <<Byte>> <= crypto:strong_rand_bytes(16)]),
+  ok = write_port_file(PortFile, [integer_to_list(Port), $\n, Secret, $\n, unicode:characters_to_binary(SdkHome)]),
+  accept(ListenSocket, PortFile, Secret, []).
+
+%% the file is readable by its owner only and appears with its full contents
+write_port_file(PortFile, Contents) ->
+  TempFile = PortFile ++ ".tmp",
+  ok = file:write_file(TempFile, <<>>),
+  ok = file:change_mode(TempFile, 8#00600),
+  ok = file:write_file(TempFile, Contents),
+  file:rename(TempFile, PortFile).
+
+accept(ListenSocket, PortFile, Secret, Handlers) ->
+  case gen_tcp:accept(ListenSocket, ?IDLE_TIMEOUT) of
+    {ok, Socket} ->
+      Handler = spawn(fun() -> receive go -> authenticate(Socket, PortFile, Secret) end end),
+      ok = gen_tcp:controlling_process(Socket, Handler),
+      Handler ! go,
+      accept(ListenSocket, PortFile, Secret, [Handler | alive(Handlers)]);
+    {error, timeout} ->
+      case alive(Handlers) of
+        [] -> stop(PortFile, Secret);
+        AliveHandlers -> accept(ListenSocket, PortFile, Secret, AliveHandlers)
+      end;
+    {error, _} ->
+      stop(PortFile, Secret)
+  end.
+
+alive(Handlers) ->
+  [Handler || Handler <- Handlers, is_process_alive(Handler)].
+
+%% the port file may already belong to a node started after this one
+stop(PortFile, Secret) ->
+  case file:read_file(PortFile) of
+    {ok, Contents} ->
+      case binary:match(Contents, Secret) of
+        nomatch -> ok;
+        _ -> file:delete(PortFile)
+      end;
+    _ -> ok
+  end,
+  erlang:halt().
+
+authenticate(Socket, PortFile, Secret) ->
+  case gen_tcp:recv(Socket, 0, ?AUTH_TIMEOUT) of
+    {ok, Secret} -> serve(Socket, PortFile, Secret);
+    _ -> gen_tcp:close(Socket)
+  end.
+
+serve(Socket, PortFile, Secret) ->
+  case gen_tcp:recv(Socket, 0) of
+    {ok, Request} ->
+      case parse(Request) of
+        stop -> stop(PortFile, Secret);
+        Term ->
+          handle(Socket, Term),
+          serve(Socket, PortFile, Secret)
+      end;
+    {error, _} ->
+      gen_tcp:close(Socket)
+  end.
+
+parse(Request) ->
+  {ok, Tokens, _} = erl_scan:string(unicode:characters_to_list(Request)),
+  {ok, Term} = erl_parse:parse_term(Tokens),
+  Term.
+
+%% the code path is shared by the whole node, so requests are handled one at a time
+handle(Socket, {compile, CodePath, OutDir, Options, Files}) ->
+  global:trans({?MODULE, self()}, fun() -> compile(Socket, CodePath, OutDir, Options, Files) end, [node()], infinity).
+
+compile(Socket, CodePath, OutDir, Options, Files) ->
+  OldCodePath = code:get_path(),
+  code:add_pathsa(CodePath),
+  try
+    Results = [compile_file(Socket, File, OutDir, Options) || File <- Files],
+    Status = case lists:all(fun(Result) -> Result =:= ok end, Results) of
+               true -> <<"ok">>;
+               false -> <<"error">>
+             end,
+    send(Socket, $e, Status)
+  after
+    code:set_path(OldCodePath),
+    %% modules of the project loaded during the request must not be used by later requests
+    ProjectDirs = [filename:absname(Dir) || Dir <- CodePath],
+    [unload(Module) || {Module, Beam} <- code:all_loaded(), is_list(Beam),
+                       lists:member(filename:dirname(Beam), ProjectDirs)]
+  end.
+
+compile_file(Socket, File, OutDir, Options) ->
+  Result = case compile:file(File, [return_errors, return_warnings, {outdir, OutDir} | Options]) of
+             {ok, Module, Warnings} ->
+               unload(Module),
+               report(Socket, Warnings, "Warning: "),
+               ok;
+             {error, Errors, Warnings} ->
+               report(Socket, Errors, ""),
+               report(Socket, Warnings, "Warning: "),
+               error;
+             _ ->
+               send(Socket, $o, io_lib:format("~ts: compilation failed", [File])),
+               error
+           end,
+  send(Socket, $f, File),
+  Result.
+
+%% parse transforms and behaviours compiled earlier should be loaded from their new beam files
+unload(Module) ->
+  code:purge(Module),
+  code:delete(Module),
+  code:purge(Module).
+
+report(Socket, FileMessages, Prefix) ->
+  lists:foreach(
+    fun({File, Messages}) ->
+      [send(Socket, $o, format_message(File, Location, Module, Description, Prefix))
+       || {Location, Module, Description} <- Messages]
+    end, FileMessages).
+
+%% messages are formatted the way erlc prints them
+format_message(File, Location, Module, Description, Prefix) ->
+  io_lib:format("~ts:~ts ~ts~ts", [File, format_location(Location), Prefix, Module:format_error(Description)]).
+
+format_location({Line, _Column}) -> format_location(Line);
+format_location(Line) when is_integer(Line) -> integer_to_list(Line) ++ ":";
+format_location(_) -> "".
+
+send(Socket, Tag, Text) ->
+  ok = gen_tcp:send(Socket, [Tag, unicode:characters_to_binary(Text)]).
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.jps.builder;
+
+import com.intellij.openapi.util.io.FileUtil;
+import gnu.trove.TObjectIntHashMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Project build order in the binary form it is passed from the IDE to the build process in.
+ * <p/>
+ * Files are identified by their position in the build order, so a file's dependencies always have smaller ids.
+ * Both dependencies and dependents are stored as adjacency arrays: the neighbours of file {@code i} are
+ * {@code myXxx[myXxxOffsets[i]] .. myXxx[myXxxOffsets[i + 1] - 1]}. Dependencies outside of the build order are dropped.
+ */
+public final class ErlangBuildOrderGraph {
+  private static final int MAGIC = 0x45424f47;
+  private static final int VERSION = 1;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final String[] myPaths;
+  private final int[] myDependencyOffsets;
+  private final int[] myDependencies;
+  private final int[] myDependentOffsets;
+  private final int[] myDependents;
+  private final TObjectIntHashMap<String> myPathIds;
+
+  private ErlangBuildOrderGraph(@NotNull String[] paths,
+                                @NotNull int[] dependencyOffsets,
+                                @NotNull int[] dependencies,
+                                @NotNull int[] dependentOffsets,
+                                @NotNull int[] dependents) {
+    myPaths = paths;
+    myDependencyOffsets = dependencyOffsets;
+    myDependencies = dependencies;
+    myDependentOffsets = dependentOffsets;
+    myDependents = dependents;
+    myPathIds = new TObjectIntHashMap<String>(paths.length);
+    for (int i = 0; i < paths.length; i++) {
+      myPathIds.put(paths[i], i);
+    }
+  }
+
+  public int getFilesCount() {
+    return myPaths.length;
+  }
+
+  @NotNull
+  public String getPath(int id) {
+    return myPaths[id];
+  }
+
+  /**
+   * @return the file id or -1 if the file is not in the build order.
+   */
+  public int getId(@NotNull String path) {
+    return myPathIds.containsKey(path) ? myPathIds.get(path) : -1;
+  }
+
+  /**
+   * @return flags of the given files and all files which depend on them, directly or transitively.
+   */
+  @NotNull
+  public boolean[] collectDependents(@NotNull int[] ids) {
+    boolean[] reached = new boolean[myPaths.length];
+    int[] queue = new int[myPaths.length];
+    int tail = 0;
+    for (int id : ids) {
+      if (!reached[id]) {
+        reached[id] = true;
+        queue[tail++] = id;
+      }
+    }
+    for (int head = 0; head < tail; head++) {
+      int id = queue[head];
+      for (int i = myDependentOffsets[id]; i < myDependentOffsets[id + 1]; i++) {
+        int dependent = myDependents[i];
+        if (!reached[dependent]) {
+          reached[dependent] = true;
+          queue[tail++] = dependent;
+        }
+      }
+    }
+    return reached;
+  }
+
+  /**
+   * A file gets a level one higher than any compiled file it depends on, directly or through other files.
+   */
+  @NotNull
+  public int[] getCompilationLevels(@NotNull boolean[] compiled) {
+    int[] levels = new int[myPaths.length];
+    for (int id = 0; id < myPaths.length; id++) {
+      int level = 0;
+      for (int i = myDependencyOffsets[id]; i < myDependencyOffsets[id + 1]; i++) {
+        int dependency = myDependencies[i];
+        level = Math.max(level, compiled[dependency] ? levels[dependency] + 1 : levels[dependency]);
+      }
+      levels[id] = level;
+    }
+    return levels;
+  }
+
+  public static void write(@NotNull File file, @NotNull List<ErlangFileDescriptor> sortedFiles) throws IOException {
+    int filesCount = sortedFiles.size();
+    TObjectIntHashMap<String> pathIds = new TObjectIntHashMap<String>(filesCount);
+    for (int i = 0; i < filesCount; i++) {
+      pathIds.put(sortedFiles.get(i).myPath, i);
+    }
+
+    int[] dependencyOffsets = new int[filesCount + 1];
+    int[] dependencies = new int[countDependencies(sortedFiles)];
+    int[] dependentsCounts = new int[filesCount];
+    int dependenciesCount = 0;
+    for (int i = 0; i < filesCount; i++) {
+      dependencyOffsets[i] = dependenciesCount;
+      for (String dependency : sortedFiles.get(i).myDependencies) {
+        if (!pathIds.containsKey(dependency)) continue;
+        int dependencyId = pathIds.get(dependency);
+        dependencies[dependenciesCount++] = dependencyId;
+        dependentsCounts[dependencyId]++;
+      }
+    }
+    dependencyOffsets[filesCount] = dependenciesCount;
+
+    int[] dependentOffsets = new int[filesCount + 1];
+    for (int i = 0; i < filesCount; i++) {
+      dependentOffsets[i + 1] = dependentOffsets[i] + dependentsCounts[i];
+    }
+    int[] dependents = new int[dependenciesCount];
+    int[] positions = Arrays.copyOf(dependentOffsets, filesCount);
+    for (int i = 0; i < filesCount; i++) {
+      for (int j = dependencyOffsets[i]; j < dependencyOffsets[i + 1]; j++) {
+        dependents[positions[dependencies[j]]++] = i;
+      }
+    }
+
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(filesCount);
+      out.writeInt(dependenciesCount);
+      for (ErlangFileDescriptor descriptor : sortedFiles) {
+        byte[] bytes = descriptor.myPath.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      writeInts(out, dependencyOffsets, filesCount + 1);
+      writeInts(out, dependencies, dependenciesCount);
+      writeInts(out, dependentOffsets, filesCount + 1);
+      writeInts(out, dependents, dependenciesCount);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  @NotNull
+  public static ErlangBuildOrderGraph read(@NotNull File file) throws IOException {
+    // the file is read at once rather than mapped: a mapping would keep it locked on Windows until it is garbage collected
+    ByteBuffer buffer = ByteBuffer.wrap(FileUtil.loadFileBytes(file));
+    try {
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        throw new IOException("Unsupported build order format: " + file.getPath());
+      }
+      int filesCount = buffer.getInt();
+      int dependenciesCount = buffer.getInt();
+      String[] paths = new String[filesCount];
+      for (int i = 0; i < filesCount; i++) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        paths[i] = new String(bytes, UTF_8);
+      }
+      int[] dependencyOffsets = readInts(buffer, filesCount + 1);
+      int[] dependencies = readInts(buffer, dependenciesCount);
+      int[] dependentOffsets = readInts(buffer, filesCount + 1);
+      int[] dependents = readInts(buffer, dependenciesCount);
+      return new ErlangBuildOrderGraph(paths, dependencyOffsets, dependencies, dependentOffsets, dependents);
+    }
+    catch (RuntimeException e) {
+      throw new IOException("Corrupted build order file: " + file.getPath(), e);
+    }
+  }
+
+  private static int countDependencies(@NotNull List<ErlangFileDescriptor> files) {
+    int count = 0;
+    for (ErlangFileDescriptor file : files) {
+      count += file.myDependencies.size();
+    }
+    return count;
+  }
+
+  private static void writeInts(@NotNull DataOutputStream out, @NotNull int[] values, int count) throws IOException {
+    for (int i = 0; i < count; i++) {
+      out.writeInt(values[i]);
+    }
+  }
+
+  @NotNull
+  private static int[] readInts(@NotNull ByteBuffer buffer, int count) {
+    int[] values = new int[count];
+    buffer.asIntBuffer().get(values);
+    buffer.position(buffer.position() + count * 4);
+    return values;
+  }
+}
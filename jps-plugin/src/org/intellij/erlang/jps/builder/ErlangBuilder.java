@@ -20,6 +20,8 @@ import com.intellij.execution.ExecutionException;
 import com.intellij.execution.configurations.GeneralCommandLine;
 import com.intellij.execution.process.BaseOSProcessHandler;
 import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.CommonProcessors;
@@ -32,6 +34,7 @@ import org.jetbrains.jps.builders.BuildOutputConsumer;
 import org.jetbrains.jps.builders.DirtyFilesHolder;
 import org.jetbrains.jps.incremental.CompileContext;
 import org.jetbrains.jps.incremental.ProjectBuildException;
+import org.jetbrains.jps.incremental.StopBuildException;
 import org.jetbrains.jps.incremental.TargetBuilder;
 import org.jetbrains.jps.incremental.messages.BuildMessage;
 import org.jetbrains.jps.incremental.messages.CompilerMessage;
@@ -49,10 +52,7 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 import static org.intellij.erlang.jps.builder.ErlangBuilderUtil.LOG;
 import static org.intellij.erlang.jps.builder.ErlangBuilderUtil.isSource;
@@ -186,7 +186,136 @@ public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erl
                               BuildOutputConsumer outputConsumer,
                               File outputDirectory,
                               boolean isTest) throws ProjectBuildException, IOException {
-    GeneralCommandLine commandLine = getErlcCommandLine(target, context, compilerOptions, outputDirectory, erlangModulePathsToCompile, isTest);
+    List<String> erlcModulePaths = erlangModulePathsToCompile;
+    if (compilerOptions.myUseCompileServer && compilerOptions.myAdditionalErlcArguments.isEmpty()) {
+      erlcModulePaths = compileWithServer(target, context, compilerOptions, erlangModulePathsToCompile, outputDirectory, isTest);
+    }
+    ErlangModuleBuildOrder buildOrder = target.getBuildOrder();
+    // without a build order nothing is known about dependencies between the files, so they are compiled by one process
+    int processesCount = buildOrder != null ? getParallelErlcProcessesCount(compilerOptions) : 1;
+    for (List<String> level : getCompilationLevels(buildOrder, erlcModulePaths)) {
+      List<List<String>> batches = splitIntoBatches(level, processesCount);
+      if (batches.size() == 1) {
+        BaseOSProcessHandler handler = startErlc(target, context, compilerOptions, batches.get(0), outputDirectory, isTest,
+                                                 new ErlangCompilerProcessAdapter(context, NAME, ""));
+        handler.waitFor();
+        continue;
+      }
+      List<BaseOSProcessHandler> handlers = ContainerUtil.newArrayList();
+      List<BufferedCompilerProcessAdapter> adapters = ContainerUtil.newArrayList();
+      try {
+        for (List<String> batch : batches) {
+          BufferedCompilerProcessAdapter adapter = new BufferedCompilerProcessAdapter(context);
+          handlers.add(startErlc(target, context, compilerOptions, batch, outputDirectory, isTest, adapter));
+          adapters.add(adapter);
+        }
+      }
+      catch (ProjectBuildException e) {
+        for (BaseOSProcessHandler handler : handlers) {
+          handler.destroyProcess();
+        }
+        throw e;
+      }
+      // compiler messages are reported in the order the files were passed to the compiler
+      for (int i = 0; i < handlers.size(); i++) {
+        handlers.get(i).waitFor();
+        adapters.get(i).flushMessages();
+      }
+    }
+    registerBeams(outputConsumer, erlangModulePathsToCompile, outputDirectory);
+  }
+
+  /**
+   * @return the files which should be compiled with erlc: all of them if the compile server is not available,
+   * or the ones the server did not get to if the connection to it is lost.
+   */
+  @NotNull
+  private static List<String> compileWithServer(@NotNull ErlangTarget target,
+                                                @NotNull final CompileContext context,
+                                                @NotNull ErlangCompilerOptions compilerOptions,
+                                                @NotNull List<String> erlangModulePaths,
+                                                @NotNull File outputDirectory,
+                                                boolean isTest) throws ProjectBuildException {
+    JpsModule module = target.getModule();
+    JpsSdk<JpsDummyElement> sdk = ErlangTargetBuilderUtil.getSdk(context, module);
+    List<String> codePath = getCodePath(module, target, context);
+    List<String> options = getCompileServerOptions(module, compilerOptions, isTest);
+    final Set<String> processedFiles = ContainerUtil.newHashSet();
+    final Ref<Boolean> errorReported = Ref.create(false);
+    ErlangCompileServer server = null;
+    try {
+      server = ErlangCompileServer.connect(ErlangBuilderUtil.getBuilderDirectory(context), sdk.getHomePath());
+      boolean compiled = server.compile(codePath, outputDirectory, options, erlangModulePaths, context.getCancelStatus(),
+                                        new ErlangCompileServer.CompileCallback() {
+        @Override
+        public void message(@NotNull String text) {
+          CompilerMessage message = ErlangCompilerProcessAdapter.createCompilerMessage(NAME, "", text);
+          if (message.getKind() == BuildMessage.Kind.ERROR) {
+            errorReported.set(true);
+          }
+          context.processMessage(message);
+        }
+
+        @Override
+        public void fileProcessed(@NotNull String path) {
+          processedFiles.add(path);
+        }
+      });
+      if (!compiled && !errorReported.get()) {
+        context.processMessage(new CompilerMessage(NAME, BuildMessage.Kind.ERROR, "Erlang compile server failed to compile some files."));
+      }
+      return ContainerUtil.emptyList();
+    }
+    catch (ErlangCompileServer.CompilationCanceledException e) {
+      throw new StopBuildException();
+    }
+    catch (IOException e) {
+      String message = "Erlang compile server is not available, erlc will be used instead: " + e.getMessage();
+      LOG.warn(message, e);
+      context.processMessage(new CompilerMessage(NAME, BuildMessage.Kind.WARNING, message));
+      return ContainerUtil.filter(erlangModulePaths, new Condition<String>() {
+        @Override
+        public boolean value(String path) {
+          return !processedFiles.contains(path);
+        }
+      });
+    }
+    finally {
+      if (server != null) {
+        server.close();
+      }
+    }
+  }
+
+  @NotNull
+  private static List<String> getCompileServerOptions(@NotNull JpsModule module,
+                                                      @NotNull ErlangCompilerOptions compilerOptions,
+                                                      boolean isTest) {
+    List<String> options = ContainerUtil.newArrayList();
+    for (String ptModule : getParseTransforms(module)) {
+      options.add("{parse_transform, " + ErlangCompileServer.atom(ptModule) + "}");
+    }
+    if (compilerOptions.myAddDebugInfoEnabled) {
+      options.add("debug_info");
+    }
+    for (JpsTypedModuleSourceRoot<JpsDummyElement> includeDirectory : module.getSourceRoots(ErlangIncludeSourceRootType.INSTANCE)) {
+      options.add("{i, " + ErlangCompileServer.string(includeDirectory.getFile().getPath()) + "}");
+    }
+    if (isTest) {
+      options.add("{d, 'TEST'}");
+    }
+    return options;
+  }
+
+  @NotNull
+  private static BaseOSProcessHandler startErlc(ErlangTarget target,
+                                                CompileContext context,
+                                                ErlangCompilerOptions compilerOptions,
+                                                List<String> erlangModulePaths,
+                                                File outputDirectory,
+                                                boolean isTest,
+                                                ProcessAdapter adapter) throws ProjectBuildException {
+    GeneralCommandLine commandLine = getErlcCommandLine(target, context, compilerOptions, outputDirectory, erlangModulePaths, isTest);
     Process process;
     LOG.debug("Run erlc compiler with command " + commandLine.getCommandLineString());
     try {
@@ -196,11 +325,46 @@ public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erl
       throw new ProjectBuildException("Failed to launch erlang compiler", e);
     }
     BaseOSProcessHandler handler = new BaseOSProcessHandler(process, commandLine.getCommandLineString(), Charset.defaultCharset());
-    ProcessAdapter adapter = new ErlangCompilerProcessAdapter(context, NAME, "");
     handler.addProcessListener(adapter);
     handler.startNotify();
-    handler.waitFor();
-    registerBeams(outputConsumer, erlangModulePathsToCompile, outputDirectory);
+    return handler;
+  }
+
+  private static int getParallelErlcProcessesCount(@NotNull ErlangCompilerOptions compilerOptions) {
+    int processesCount = compilerOptions.myParallelErlcProcesses;
+    return processesCount > 0 ? processesCount : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Groups files by their compilation level keeping the build order within each group.
+   * Without a build order all the files are put into a single group.
+   */
+  @NotNull
+  private static Collection<List<String>> getCompilationLevels(@Nullable ErlangModuleBuildOrder buildOrder,
+                                                               @NotNull List<String> erlangModulePaths) {
+    if (buildOrder == null) return Collections.singletonList(erlangModulePaths);
+    SortedMap<Integer, List<String>> levels = new TreeMap<Integer, List<String>>();
+    for (String path : erlangModulePaths) {
+      Integer level = buildOrder.myCompilationLevels.get(path);
+      int key = level != null ? level : 0;
+      List<String> levelPaths = levels.get(key);
+      if (levelPaths == null) {
+        levelPaths = ContainerUtil.newArrayList();
+        levels.put(key, levelPaths);
+      }
+      levelPaths.add(path);
+    }
+    return levels.values();
+  }
+
+  @NotNull
+  private static List<List<String>> splitIntoBatches(@NotNull List<String> erlangModulePaths, int batchesCount) {
+    int batchSize = (erlangModulePaths.size() + batchesCount - 1) / batchesCount;
+    List<List<String>> batches = ContainerUtil.newArrayList();
+    for (int i = 0; i < erlangModulePaths.size(); i += batchSize) {
+      batches.add(erlangModulePaths.subList(i, Math.min(i + batchSize, erlangModulePaths.size())));
+    }
+    return batches;
   }
 
   private static GeneralCommandLine getErlcCommandLine(ErlangTarget target,
@@ -296,26 +460,40 @@ public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erl
 
   private static void addParseTransforms(@NotNull GeneralCommandLine commandLine,
                                          @Nullable JpsModule module) throws ProjectBuildException {
-    JpsErlangModuleExtension extension = JpsErlangModuleExtension.getExtension(module);
-    List<String> parseTransforms = extension != null ? extension.getParseTransforms() : Collections.<String>emptyList();
-    if (parseTransforms.isEmpty()) return;
-    for (String ptModule : parseTransforms) {
+    for (String ptModule : getParseTransforms(module)) {
       commandLine.addParameter("+{parse_transform, " + ptModule + "}");
     }
   }
 
+  @NotNull
+  private static List<String> getParseTransforms(@Nullable JpsModule module) {
+    JpsErlangModuleExtension extension = JpsErlangModuleExtension.getExtension(module);
+    return extension != null ? extension.getParseTransforms() : Collections.<String>emptyList();
+  }
+
   private static void addCodePath(@NotNull GeneralCommandLine commandLine,
                                   @NotNull JpsModule module,
                                   @NotNull ErlangTarget target,
                                   @NotNull CompileContext context) throws ProjectBuildException {
+    for (String path : getCodePath(module, target, context)) {
+      commandLine.addParameters("-pa", path);
+    }
+  }
+
+  @NotNull
+  private static List<String> getCodePath(@NotNull JpsModule module,
+                                          @NotNull ErlangTarget target,
+                                          @NotNull CompileContext context) throws ProjectBuildException {
     List<JpsModule> codePathModules = ContainerUtil.newArrayList();
     collectDependentModules(module, codePathModules, ContainerUtil.<String>newHashSet());
-    addModuleToCodePath(commandLine, module, target.isTests(), context);
+    List<String> codePath = ContainerUtil.newArrayList();
+    addModuleToCodePath(codePath, module, target.isTests(), context);
     for (JpsModule codePathModule : codePathModules) {
       if (codePathModule != module) {
-        addModuleToCodePath(commandLine, codePathModule, false, context);
+        addModuleToCodePath(codePath, codePathModule, false, context);
       }
     }
+    return codePath;
   }
 
   private static void collectDependentModules(@NotNull JpsModule module,
@@ -335,16 +513,16 @@ public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erl
     }
   }
 
-  private static void addModuleToCodePath(@NotNull GeneralCommandLine commandLine,
+  private static void addModuleToCodePath(@NotNull List<String> codePath,
                                           @NotNull JpsModule module,
                                           boolean forTests,
                                           @NotNull CompileContext context) throws ProjectBuildException {
     File outputDirectory = getBuildOutputDirectory(module, forTests, context);
-    commandLine.addParameters("-pa", outputDirectory.getPath());
+    codePath.add(outputDirectory.getPath());
     for (String rootUrl : module.getContentRootsList().getUrls()) {
       try {
         String path = new URL(rootUrl).getPath();
-        commandLine.addParameters("-pa", path);
+        codePath.add(path);
       }
       catch (MalformedURLException e) {
         context.processMessage(new CompilerMessage(NAME, BuildMessage.Kind.ERROR, "Failed to find content root for module: " + module.getName()));
@@ -368,4 +546,24 @@ public class ErlangBuilder extends TargetBuilder<ErlangSourceRootDescriptor, Erl
     String name = FileUtil.getNameWithoutExtension(new File(erlPath));
     return new File(outputDirectory, name + ".beam");
   }
-}
\ No newline at end of file
+
+  private static class BufferedCompilerProcessAdapter extends ErlangCompilerProcessAdapter {
+    private final List<CompilerMessage> myMessages = ContainerUtil.createLockFreeCopyOnWriteList();
+
+    BufferedCompilerProcessAdapter(@NotNull CompileContext context) {
+      super(context, NAME, "");
+    }
+
+    @Override
+    protected void showMessage(@NotNull CompilerMessage message) {
+      myMessages.add(message);
+    }
+
+    void flushMessages() {
+      for (CompilerMessage message : myMessages) {
+        super.showMessage(message);
+      }
+      myMessages.clear();
+    }
+  }
+}
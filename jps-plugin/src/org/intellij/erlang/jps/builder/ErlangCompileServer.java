@@ -0,0 +1,335 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.jps.builder;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.CapturingProcessHandler;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.Function;
+import com.intellij.util.ResourceUtil;
+import org.intellij.erlang.jps.model.JpsErlangSdkType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.api.CanceledStatus;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import static org.intellij.erlang.jps.builder.ErlangBuilderUtil.LOG;
+
+/**
+ * A long-running Erlang node which compiles files with compile:file/2, so that builds do not pay for VM startup.
+ * The node is shared by all builds of a project: it listens on a local port written to a file in the builder directory
+ * and stops by itself after being idle for a while. The file also holds a secret which only its owner can read,
+ * the node drops connections which do not start with it. A node started with another SDK is stopped and replaced,
+ * so that the beams it writes match the SDK of the project.
+ */
+public class ErlangCompileServer {
+  private static final String MODULE_NAME = "intellij_compile_server";
+  private static final String PORT_FILE_NAME = "compile-server.port";
+  private static final String SDK_FILE_NAME = MODULE_NAME + ".sdk";
+  private static final Charset CHARSET = Charset.forName("UTF-8");
+  private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+  private static final int START_TIMEOUT_MILLIS = 10000;
+  private static final int CANCEL_CHECK_INTERVAL_MILLIS = 500;
+
+  private final Socket mySocket;
+  private final DataInputStream myInput;
+  private final DataOutputStream myOutput;
+
+  private ErlangCompileServer(@NotNull Socket socket) throws IOException {
+    mySocket = socket;
+    myInput = new DataInputStream(socket.getInputStream());
+    myOutput = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+  }
+
+  /**
+   * Connects to the node of the project, starting it if it is not running.
+   */
+  @NotNull
+  public static ErlangCompileServer connect(@NotNull File builderDirectory, @NotNull String sdkHome) throws IOException {
+    File portFile = new File(builderDirectory, PORT_FILE_NAME);
+    ErlangCompileServer server = tryConnect(portFile, sdkHome);
+    if (server == null) {
+      FileUtil.delete(portFile);
+      startNode(builderDirectory, sdkHome, portFile);
+      server = waitForNode(portFile, sdkHome);
+    }
+    return server;
+  }
+
+  /**
+   * Compiles the files one by one in the given order, passing every compiler message to the callback
+   * in the format erlc uses.
+   *
+   * @return true if all the files were compiled successfully.
+   * @throws CompilationCanceledException if the build is canceled while the node is compiling, the connection is closed then.
+   */
+  public boolean compile(@NotNull List<String> codePath,
+                         @NotNull File outputDirectory,
+                         @NotNull List<String> options,
+                         @NotNull List<String> erlangModulePaths,
+                         @NotNull CanceledStatus canceledStatus,
+                         @NotNull CompileCallback callback) throws IOException {
+    String request = "{compile, " + stringList(codePath) + ", " + string(outputDirectory.getPath()) + ", " +
+                     "[" + StringUtil.join(options, ", ") + "], " + stringList(erlangModulePaths) + "}.";
+    writeFrame(request);
+    mySocket.setSoTimeout(CANCEL_CHECK_INTERVAL_MILLIS);
+    try {
+      while (true) {
+        String response = readFrame(canceledStatus);
+        if (response.isEmpty()) continue;
+        char tag = response.charAt(0);
+        String text = response.substring(1);
+        if (tag == 'e') return "ok".equals(text);
+        if (tag == 'f') {
+          callback.fileProcessed(text);
+        }
+        else {
+          callback.message(text);
+        }
+      }
+    }
+    finally {
+      mySocket.setSoTimeout(0);
+    }
+  }
+
+  public void close() {
+    try {
+      mySocket.close();
+    }
+    catch (IOException e) {
+      LOG.debug("Failed to close compile server connection", e);
+    }
+  }
+
+  private void stop() throws IOException {
+    try {
+      writeFrame("stop.");
+    }
+    finally {
+      close();
+    }
+  }
+
+  @NotNull
+  public static String atom(@NotNull String name) {
+    return "'" + escape(name, '\'') + "'";
+  }
+
+  @NotNull
+  public static String string(@NotNull String text) {
+    return "\"" + escape(text, '"') + "\"";
+  }
+
+  @NotNull
+  private static String stringList(@NotNull List<String> strings) {
+    return "[" + StringUtil.join(strings, new Function<String, String>() {
+      @Override
+      public String fun(String s) {
+        return string(s);
+      }
+    }, ", ") + "]";
+  }
+
+  @NotNull
+  private static String escape(@NotNull String text, char quote) {
+    return text.replace("\\", "\\\\").replace(String.valueOf(quote), "\\" + quote);
+  }
+
+  private void writeFrame(@NotNull String text) throws IOException {
+    byte[] bytes = text.getBytes(CHARSET);
+    myOutput.writeInt(bytes.length);
+    myOutput.write(bytes);
+    myOutput.flush();
+  }
+
+  @NotNull
+  private String readFrame(@NotNull CanceledStatus canceledStatus) throws IOException {
+    byte[] length = new byte[4];
+    readFully(length, canceledStatus);
+    byte[] bytes = new byte[new DataInputStream(new ByteArrayInputStream(length)).readInt()];
+    readFully(bytes, canceledStatus);
+    return new String(bytes, CHARSET);
+  }
+
+  /**
+   * Reads with a socket timeout, so that the build can be canceled while the node is busy.
+   * A timeout can happen in the middle of a frame, the bytes read so far are kept.
+   */
+  private void readFully(@NotNull byte[] bytes, @NotNull CanceledStatus canceledStatus) throws IOException {
+    int offset = 0;
+    while (offset < bytes.length) {
+      try {
+        int read = myInput.read(bytes, offset, bytes.length - offset);
+        if (read < 0) throw new EOFException("Compile server closed the connection");
+        offset += read;
+      }
+      catch (SocketTimeoutException e) {
+        if (canceledStatus.isCanceled()) {
+          close();
+          throw new CompilationCanceledException();
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns null if the node is not running or was started with another SDK, such a node is stopped.
+   */
+  @Nullable
+  private static ErlangCompileServer tryConnect(@NotNull File portFile, @NotNull String sdkHome) {
+    if (!portFile.isFile()) return null;
+    Socket socket = null;
+    try {
+      List<String> lines = StringUtil.split(FileUtil.loadFile(portFile, CHARSET), "\n");
+      if (lines.size() != 3) return null;
+      int port = Integer.parseInt(lines.get(0).trim());
+      socket = new Socket();
+      socket.connect(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port), CONNECT_TIMEOUT_MILLIS);
+      ErlangCompileServer server = new ErlangCompileServer(socket);
+      server.writeFrame(lines.get(1).trim());
+      if (!sdkHome.equals(lines.get(2))) {
+        LOG.debug("Stop compile server started with SDK " + lines.get(2));
+        server.stop();
+        return null;
+      }
+      return server;
+    }
+    catch (NumberFormatException e) {
+      return null;
+    }
+    catch (IOException e) {
+      closeQuietly(socket);
+      return null;
+    }
+  }
+
+  private static void closeQuietly(@Nullable Socket socket) {
+    if (socket == null) return;
+    try {
+      socket.close();
+    }
+    catch (IOException ignored) {
+    }
+  }
+
+  @NotNull
+  private static ErlangCompileServer waitForNode(@NotNull File portFile, @NotNull String sdkHome) throws IOException {
+    long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+    while (System.currentTimeMillis() < deadline) {
+      ErlangCompileServer server = tryConnect(portFile, sdkHome);
+      if (server != null) return server;
+      try {
+        //noinspection BusyWait
+        Thread.sleep(100);
+      }
+      catch (InterruptedException e) {
+        throw new IOException("Interrupted while waiting for compile server to start");
+      }
+    }
+    throw new IOException("Compile server did not start in " + START_TIMEOUT_MILLIS + " ms");
+  }
+
+  private static void startNode(@NotNull File builderDirectory, @NotNull String sdkHome, @NotNull File portFile) throws IOException {
+    compileServerModule(builderDirectory, sdkHome);
+    GeneralCommandLine commandLine = new GeneralCommandLine();
+    commandLine.setExePath(JpsErlangSdkType.getByteCodeInterpreterExecutable(sdkHome).getAbsolutePath());
+    commandLine.withWorkDirectory(builderDirectory);
+    commandLine.addParameters("-noshell", "-detached", "-pa", builderDirectory.getPath());
+    commandLine.addParameters("-run", MODULE_NAME, "start", portFile.getPath(), sdkHome);
+    LOG.debug("Start compile server with command " + commandLine.getCommandLineString());
+    run(commandLine);
+  }
+
+  /**
+   * The server module is shipped as a source and compiled with the project SDK, so that the beam matches the node version.
+   * The source and the SDK home are written next to the beam once it is compiled, they tell whether the beam is up to date.
+   */
+  private static void compileServerModule(@NotNull File builderDirectory, @NotNull String sdkHome) throws IOException {
+    URL sourceUrl = ResourceUtil.getResource(ErlangCompileServer.class, "/compile-server", MODULE_NAME + ".erl");
+    if (sourceUrl == null) {
+      throw new IOException("Failed to locate compile server module.");
+    }
+    String source = ResourceUtil.loadText(sourceUrl);
+    File sourceFile = new File(builderDirectory, MODULE_NAME + ".erl");
+    File sdkFile = new File(builderDirectory, SDK_FILE_NAME);
+    File beamFile = new File(builderDirectory, MODULE_NAME + ".beam");
+    if (beamFile.isFile() && isUpToDate(sourceFile, source) && isUpToDate(sdkFile, sdkHome)) return;
+
+    FileUtil.delete(sourceFile);
+    File tempDirectory = FileUtil.createTempDirectory(builderDirectory, MODULE_NAME, null);
+    try {
+      File tempSourceFile = new File(tempDirectory, sourceFile.getName());
+      File tempBeamFile = new File(tempDirectory, beamFile.getName());
+      FileUtil.writeToFile(tempSourceFile, source);
+      GeneralCommandLine commandLine = new GeneralCommandLine();
+      commandLine.setExePath(JpsErlangSdkType.getByteCodeCompilerExecutable(sdkHome).getAbsolutePath());
+      commandLine.withWorkDirectory(tempDirectory);
+      commandLine.addParameters("-o", tempDirectory.getPath(), tempSourceFile.getPath());
+      ProcessOutput output = run(commandLine);
+      if (output.getExitCode() != 0 || !tempBeamFile.isFile()) {
+        throw new IOException("Failed to compile compile server module: " + output.getStdout() + output.getStderr());
+      }
+      FileUtil.copy(tempBeamFile, beamFile);
+      FileUtil.writeToFile(sdkFile, sdkHome.getBytes(CHARSET));
+      FileUtil.writeToFile(sourceFile, source);
+    }
+    finally {
+      FileUtil.delete(tempDirectory);
+    }
+  }
+
+  private static boolean isUpToDate(@NotNull File file, @NotNull String expectedText) throws IOException {
+    return file.isFile() && expectedText.equals(FileUtil.loadFile(file, CHARSET));
+  }
+
+  @NotNull
+  private static ProcessOutput run(@NotNull GeneralCommandLine commandLine) throws IOException {
+    try {
+      return new CapturingProcessHandler(commandLine.createProcess(), Charset.defaultCharset(), commandLine.getCommandLineString()).runProcess();
+    }
+    catch (ExecutionException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  public interface CompileCallback {
+    void message(@NotNull String text);
+
+    /**
+     * Called once the node is done with a file, whether it was compiled or not.
+     */
+    void fileProcessed(@NotNull String path);
+  }
+
+  public static class CompilationCanceledException extends IOException {
+    public CompilationCanceledException() {
+      super("Compilation is canceled");
+    }
+  }
+}
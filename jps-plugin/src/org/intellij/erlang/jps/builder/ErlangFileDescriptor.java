@@ -17,25 +17,15 @@
 package org.intellij.erlang.jps.builder;
 
 import com.intellij.util.containers.ContainerUtil;
-import com.intellij.util.xmlb.annotations.AbstractCollection;
-import com.intellij.util.xmlb.annotations.Attribute;
-import com.intellij.util.xmlb.annotations.Tag;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 
 public class ErlangFileDescriptor {
-  @Attribute("path")
   public String myPath;
 
-  @Tag("dependencies")
-  @AbstractCollection(surroundWithTag = false, elementTag = "dependency")
   public List<String> myDependencies = ContainerUtil.newArrayList();
 
-  @SuppressWarnings("unused") // reflection
-  public ErlangFileDescriptor() {
-  }
-
   public ErlangFileDescriptor(@NotNull String path, @NotNull List<String> dependencies) {
     myPath = path;
     myDependencies = dependencies;
@@ -19,9 +19,16 @@ package org.intellij.erlang.jps.builder;
 import com.intellij.util.containers.ContainerUtil;
 
 import java.util.List;
+import java.util.Map;
 
 public class ErlangModuleBuildOrder {
   public List<String> myOrderedErlangFilePaths = ContainerUtil.newArrayList();
 
   public List<String> myOrderedErlangTestFilePaths = ContainerUtil.newArrayList();
+
+  /**
+   * Files of the same level do not depend on each other, so they can be compiled at the same time,
+   * provided all files of lower levels are compiled before.
+   */
+  public Map<String, Integer> myCompilationLevels = ContainerUtil.newHashMap();
 }
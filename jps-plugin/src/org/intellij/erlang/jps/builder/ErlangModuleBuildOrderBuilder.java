@@ -17,10 +17,7 @@
 package org.intellij.erlang.jps.builder;
 
 import com.intellij.openapi.util.Conditions;
-import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
-import com.intellij.util.graph.Graph;
-import com.intellij.util.graph.GraphGenerator;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.jps.builders.BuildOutputConsumer;
@@ -53,8 +50,8 @@ public class ErlangModuleBuildOrderBuilder extends TargetBuilder<ErlangSourceRoo
                     @NotNull CompileContext context) throws ProjectBuildException, IOException {
     LOG.info("Computing dirty files");
     LOG.debug("Load project build order.");
-    ErlangProjectBuildOrder projectBuildOrder = loadProjectBuildOrder(context);
-    if (projectBuildOrder == null) {
+    ErlangBuildOrderGraph buildOrderGraph = loadProjectBuildOrder(context);
+    if (buildOrderGraph == null) {
       addPrepareDependenciesFailedMessage(context);
       return;
     }
@@ -76,8 +73,9 @@ public class ErlangModuleBuildOrderBuilder extends TargetBuilder<ErlangSourceRoo
     }
     else {
       LOG.debug("Search dirty modules.");
-      List<String> sortedDirtyModules = getSortedDirtyModules(projectBuildOrder, dirtyErlangFilePaths);
-      addFilesToBuildTarget(context, sortedDirtyModules);
+      boolean[] dirtyModules = getDirtyModules(buildOrderGraph, dirtyErlangFilePaths);
+      int[] compilationLevels = buildOrderGraph.getCompilationLevels(dirtyModules);
+      addFilesToBuildTarget(context, buildOrderGraph, dirtyModules, compilationLevels);
     }
   }
 
@@ -96,66 +94,55 @@ public class ErlangModuleBuildOrderBuilder extends TargetBuilder<ErlangSourceRoo
   }
 
   @Nullable
-  private static ErlangProjectBuildOrder loadProjectBuildOrder(@NotNull CompileContext context) {
-    return readFromXML(context, BUILD_ORDER_FILE_NAME, ErlangProjectBuildOrder.class);
-  }
-
-  @NotNull
-  private static List<String> getSortedDirtyModules(@NotNull ErlangProjectBuildOrder projectBuildOrder,
-                                                    @NotNull List<String> dirtyErlangFilePaths) {
-    Set<String> allDirtyFiles = getAllDirtyFiles(projectBuildOrder, dirtyErlangFilePaths);
-    return getSortedDirtyModules(projectBuildOrder.myErlangFiles, allDirtyFiles);
+  private static ErlangBuildOrderGraph loadProjectBuildOrder(@NotNull CompileContext context) {
+    File buildOrderFile = new File(getBuilderDirectory(context), BUILD_ORDER_FILE_NAME);
+    if (!buildOrderFile.exists()) return null;
+    try {
+      return ErlangBuildOrderGraph.read(buildOrderFile);
+    }
+    catch (IOException e) {
+      LOG.warn("Can't read " + BUILD_ORDER_FILE_NAME, e);
+      return null;
+    }
   }
 
   private static void addPrepareDependenciesFailedMessage(@NotNull CompileContext context) {
     context.processMessage(new CompilerMessage(NAME, BuildMessage.Kind.WARNING, "The project will be fully rebuilt due to errors."));
   }
 
+  /**
+   * @return flags of Erlang modules which are either dirty or depend on dirty files.
+   */
   @NotNull
-  private static Set<String> getAllDirtyFiles(@NotNull ErlangProjectBuildOrder projectBuildOrder,
-                                              @NotNull List<String> dirtyFiles) {
-    Graph<String> dependencies = GraphGenerator.create(new SortedModuleDependencyGraph(projectBuildOrder));
-    Set<String> allDirtyFiles = ContainerUtil.newHashSet();
+  private static boolean[] getDirtyModules(@NotNull ErlangBuildOrderGraph buildOrderGraph, @NotNull List<String> dirtyFiles) {
+    int[] dirtyIds = new int[dirtyFiles.size()];
+    int dirtyCount = 0;
     for (String dirtyFile : dirtyFiles) {
-      collectDirtyFiles(dirtyFile, dependencies, allDirtyFiles);
-    }
-    return allDirtyFiles;
-  }
-
-  private static void collectDirtyFiles(@NotNull String filePath,
-                                        @NotNull Graph<String> dependenciesGraph,
-                                        @NotNull Set<String> dirtyFiles) {
-    if (dirtyFiles.contains(filePath)) return;
-    dirtyFiles.add(filePath);
-    if (!dependenciesGraph.getNodes().contains(filePath)) {
-      LOG.warn("Unexpected dirty file detected. " +
-               "Please, report to https://github.com/ignatov/intellij-erlang/issues/685. " +
-               "Path: " + filePath);
-      return;
+      int id = buildOrderGraph.getId(dirtyFile);
+      if (id < 0) {
+        LOG.warn("Unexpected dirty file detected. " +
+                 "Please, report to https://github.com/ignatov/intellij-erlang/issues/685. " +
+                 "Path: " + dirtyFile);
+        continue;
+      }
+      dirtyIds[dirtyCount++] = id;
     }
-    Iterator<String> dependentFilesIterator = dependenciesGraph.getOut(filePath);
-    while (dependentFilesIterator.hasNext()) {
-      collectDirtyFiles(dependentFilesIterator.next(), dependenciesGraph, dirtyFiles);
+    boolean[] dirtyModules = buildOrderGraph.collectDependents(Arrays.copyOf(dirtyIds, dirtyCount));
+    for (int id = 0; id < dirtyModules.length; id++) {
+      dirtyModules[id] &= isSource(buildOrderGraph.getPath(id));
     }
-  }
-
-  @NotNull
-  private static List<String> getSortedDirtyModules(@NotNull List<ErlangFileDescriptor> sortedFiles,
-                                                    @NotNull final Set<String> allDirtyFiles) {
-    return ContainerUtil.mapNotNull(sortedFiles, new Function<ErlangFileDescriptor, String>() {
-      @Nullable
-      @Override
-      public String fun(ErlangFileDescriptor node) {
-        return isSource(node.myPath) && allDirtyFiles.contains(node.myPath) ? node.myPath : null;
-      }
-    });
+    return dirtyModules;
   }
 
   private static void addFilesToBuildTarget(@NotNull CompileContext context,
-                                            @NotNull List<String> sortedDirtyErlangModules) {
+                                            @NotNull ErlangBuildOrderGraph buildOrderGraph,
+                                            @NotNull boolean[] dirtyModules,
+                                            @NotNull int[] compilationLevels) {
     List<ErlangTargetType> targetTypes = Collections.singletonList(ErlangTargetType.INSTANCE);
     BuildRootIndex buildRootIndex = context.getProjectDescriptor().getBuildRootIndex();
-    for (String filePath : sortedDirtyErlangModules) {
+    for (int id = 0; id < buildOrderGraph.getFilesCount(); id++) {
+      if (!dirtyModules[id]) continue;
+      String filePath = buildOrderGraph.getPath(id);
       ErlangSourceRootDescriptor root = buildRootIndex.findParentDescriptor(new File(filePath), targetTypes, context);
       if (root == null) {
         LOG.error("Source root not found.");
@@ -169,6 +156,7 @@ public class ErlangModuleBuildOrderBuilder extends TargetBuilder<ErlangSourceRoo
         return;
       }
 
+      buildOrder.myCompilationLevels.put(filePath, compilationLevels[id]);
       if (root.isTests()) {
         buildOrder.myOrderedErlangTestFilePaths.add(filePath);
       }
@@ -177,24 +165,4 @@ public class ErlangModuleBuildOrderBuilder extends TargetBuilder<ErlangSourceRoo
       }
     }
   }
-
-  private static class SortedModuleDependencyGraph implements GraphGenerator.SemiGraph<String> {
-    private final LinkedHashMap<String, List<String>> myPathsToDependenciesMap = ContainerUtil.newLinkedHashMap();
-
-    public SortedModuleDependencyGraph(@NotNull ErlangProjectBuildOrder projectBuildOrder) {
-      for (ErlangFileDescriptor node : projectBuildOrder.myErlangFiles) {
-        myPathsToDependenciesMap.put(node.myPath, node.myDependencies);
-      }
-    }
-
-    @Override
-    public Collection<String> getNodes() {
-      return myPathsToDependenciesMap.keySet();
-    }
-
-    @Override
-    public Iterator<String> getIn(String node) {
-      return myPathsToDependenciesMap.get(node).iterator();
-    }
-  }
 }
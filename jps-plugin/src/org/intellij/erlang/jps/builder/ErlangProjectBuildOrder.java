@@ -17,22 +17,16 @@
 package org.intellij.erlang.jps.builder;
 
 import com.intellij.util.containers.ContainerUtil;
-import com.intellij.util.xmlb.annotations.AbstractCollection;
-import com.intellij.util.xmlb.annotations.Tag;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 
-@Tag("dependenciesTree")
+/**
+ * Project files in build order, written for the build process with {@link ErlangBuildOrderGraph#write}.
+ */
 public class ErlangProjectBuildOrder {
-  @Tag("files")
-  @AbstractCollection(surroundWithTag = false, elementTag = "file")
   public List<ErlangFileDescriptor> myErlangFiles = ContainerUtil.newArrayList();
 
-  @SuppressWarnings("unused") // reflection
-  public ErlangProjectBuildOrder() {
-  }
-
   public ErlangProjectBuildOrder(@NotNull List<ErlangFileDescriptor> topologicallySortedErlangFilesDescriptors) {
     myErlangFiles = topologicallySortedErlangFilesDescriptors;
   }
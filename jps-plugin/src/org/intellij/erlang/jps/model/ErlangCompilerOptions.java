@@ -29,6 +29,8 @@ public class ErlangCompilerOptions {
   public ErlangCompilerOptions(ErlangCompilerOptions options) {
     myUseRebarCompiler = options.myUseRebarCompiler;
     myAddDebugInfoEnabled = options.myAddDebugInfoEnabled;
+    myParallelErlcProcesses = options.myParallelErlcProcesses;
+    myUseCompileServer = options.myUseCompileServer;
   }
 
   @Tag("useRebarCompiler")
@@ -37,6 +39,18 @@ public class ErlangCompilerOptions {
   @Tag("useDebugInfo")
   public boolean myAddDebugInfoEnabled = true;
 
+  /**
+   * Maximum number of erlc processes run at once, a non-positive value stands for the number of available processors.
+   */
+  @Tag("parallelErlcProcesses")
+  public int myParallelErlcProcesses = 0;
+
+  /**
+   * Compile with a long-running Erlang node instead of starting erlc for every build.
+   */
+  @Tag("useCompileServer")
+  public boolean myUseCompileServer = false;
+
   @Tag("additionalErlcArguments")
   @AbstractCollection(elementTag = "arg", elementTypes = String.class)
   public List<String> myAdditionalErlcArguments = ContainerUtil.newArrayList();
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.jps;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.containers.ContainerUtil;
+import junit.framework.TestCase;
+import org.intellij.erlang.jps.builder.ErlangBuildOrderGraph;
+import org.intellij.erlang.jps.builder.ErlangFileDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ErlangBuildOrderGraphTest extends TestCase {
+  private ErlangBuildOrderGraph myGraph;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myGraph = writeAndRead(
+      descriptor("/src/parse_transform.erl"),
+      descriptor("/include/header.hrl", "/src/parse_transform.erl"),
+      descriptor("/src/behaviour.erl", "/lib/gen_server.erl"),
+      descriptor("/src/module1.erl", "/include/header.hrl", "/src/behaviour.erl"),
+      descriptor("/src/module2.erl", "/src/behaviour.erl"));
+  }
+
+  public void testPaths() throws Exception {
+    assertEquals(5, myGraph.getFilesCount());
+    assertEquals("/include/header.hrl", myGraph.getPath(1));
+    assertEquals(3, myGraph.getId("/src/module1.erl"));
+    assertEquals(-1, myGraph.getId("/lib/gen_server.erl"));
+  }
+
+  public void testDependentsOfHeader() throws Exception {
+    assertTrue(Arrays.equals(new boolean[]{false, true, false, true, false}, myGraph.collectDependents(new int[]{1})));
+  }
+
+  public void testTransitiveDependents() throws Exception {
+    assertTrue(Arrays.equals(new boolean[]{true, true, false, true, false}, myGraph.collectDependents(new int[]{0})));
+  }
+
+  public void testCompilationLevels() throws Exception {
+    boolean[] compiled = {true, false, true, true, true};
+    assertTrue(Arrays.equals(new int[]{0, 1, 0, 1, 1}, myGraph.getCompilationLevels(compiled)));
+  }
+
+  public void testParseTransformChainLevels() throws Exception {
+    ErlangBuildOrderGraph graph = writeAndRead(
+      descriptor("/src/transform1.erl"),
+      descriptor("/src/transform2.erl", "/src/transform1.erl"),
+      descriptor("/src/module1.erl", "/src/transform2.erl"),
+      descriptor("/src/module2.erl"));
+    assertTrue(Arrays.equals(new int[]{0, 1, 2, 0}, graph.getCompilationLevels(new boolean[]{true, true, true, true})));
+  }
+
+  public void testUpToDateDependencyDoesNotRaiseLevel() throws Exception {
+    ErlangBuildOrderGraph graph = writeAndRead(
+      descriptor("/src/transform1.erl"),
+      descriptor("/src/transform2.erl", "/src/transform1.erl"),
+      descriptor("/src/module1.erl", "/src/transform2.erl"),
+      descriptor("/src/module2.erl"));
+    assertTrue(Arrays.equals(new int[]{0, 0, 1, 0}, graph.getCompilationLevels(new boolean[]{false, true, true, true})));
+  }
+
+  @NotNull
+  private static ErlangBuildOrderGraph writeAndRead(@NotNull ErlangFileDescriptor... descriptors) throws IOException {
+    File file = FileUtil.createTempFile("build-order", ".bin", true);
+    ErlangBuildOrderGraph.write(file, Arrays.asList(descriptors));
+    return ErlangBuildOrderGraph.read(file);
+  }
+
+  @NotNull
+  private static ErlangFileDescriptor descriptor(@NotNull String path, @NotNull String... dependencies) {
+    return new ErlangFileDescriptor(path, dependencies.length == 0 ? Collections.<String>emptyList() : ContainerUtil.newArrayList(dependencies));
+  }
+}
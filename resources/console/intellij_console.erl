@@ -0,0 +1,105 @@
+-module(intellij_console).
+
+-export([start/2, init/2]).
+
+%% results are printed with this depth and sent in chunks as soon as a statement is evaluated,
+%% output beyond the limit is dropped
+-define(PRINT_DEPTH, 30).
+-define(CHUNK_SIZE, 8192).
+-define(DEFAULT_OUTPUT_LIMIT, 1024 * 1024).
+
+%% Starts an evaluation session owned by a process of the IDE node; the session ends when the owner goes away.
+%% Requests:  {eval, Id, Text}
+%% Responses: {output, Id, Chunk} zero or more times, then {result, Id, ok | error, BoundVariableNames}
+start(Owner, OutputLimit) ->
+  {ok, spawn(?MODULE, init, [Owner, OutputLimit])}.
+
+init(Owner, OutputLimit) ->
+  erlang:monitor(process, Owner),
+  group_leader(whereis(user), self()),
+  loop(Owner, limit(OutputLimit), erl_eval:new_bindings()).
+
+limit(OutputLimit) when is_integer(OutputLimit), OutputLimit > 0 -> OutputLimit;
+limit(_) -> ?DEFAULT_OUTPUT_LIMIT.
+
+loop(Owner, OutputLimit, Bindings) ->
+  receive
+    {eval, Id, Text} ->
+      {Status, NewBindings} = eval(Text, Bindings, {Owner, Id, OutputLimit}),
+      Owner ! {result, Id, Status, [Name || {Name, _} <- erl_eval:bindings(NewBindings)]},
+      loop(Owner, OutputLimit, NewBindings);
+    {'DOWN', _, process, Owner, _} ->
+      ok
+  end.
+
+eval(Text, Bindings, Output) ->
+  case erl_scan:string(unicode:characters_to_list(Text)) of
+    {ok, Tokens, _} ->
+      eval_statements(split_statements(Tokens, [], []), Bindings, Output);
+    {error, {_, Module, Reason}, _} ->
+      output(Output, [Module:format_error(Reason), $\n]),
+      {error, Bindings}
+  end.
+
+%% statements are separated by dots, the last dot may be omitted
+split_statements([], [], Statements) ->
+  lists:reverse(Statements);
+split_statements([], Current, Statements) ->
+  split_statements([{dot, element(2, hd(Current))}], Current, Statements);
+split_statements([{dot, _} = Dot | Rest], Current, Statements) ->
+  split_statements(Rest, [], [lists:reverse([Dot | Current]) | Statements]);
+split_statements([Token | Rest], Current, Statements) ->
+  split_statements(Rest, [Token | Current], Statements).
+
+eval_statements([], Bindings, _Output) ->
+  {ok, Bindings};
+eval_statements([Tokens | Rest], Bindings, Output) ->
+  case erl_parse:parse_exprs(Tokens) of
+    {ok, Exprs} ->
+      try erl_eval:exprs(Exprs, Bindings, {eval, fun local_function/3}) of
+        {value, Value, NewBindings} ->
+          NewOutput = output(Output, io_lib:format("~P~n", [Value, ?PRINT_DEPTH])),
+          eval_statements(Rest, NewBindings, NewOutput)
+      catch
+        Class:Reason ->
+          output(Output, io_lib:format("** exception ~p: ~P~n", [Class, Reason, ?PRINT_DEPTH])),
+          {error, Bindings}
+      end;
+    {error, {_, Module, Reason}} ->
+      output(Output, [Module:format_error(Reason), $\n]),
+      {error, Bindings}
+  end.
+
+%% shell commands which change bindings are handled here, other local calls go to shell_default like in the shell
+local_function(f, [], _Bindings) ->
+  {value, ok, erl_eval:new_bindings()};
+local_function(f, [{var, _, Name}], Bindings) ->
+  {value, ok, erl_eval:del_binding(Name, Bindings)};
+local_function(Function, Args, Bindings) ->
+  {value, Values, NewBindings} = erl_eval:expr_list(Args, Bindings, {eval, fun local_function/3}),
+  {value, apply(shell_default, Function, Values), NewBindings}.
+
+%% sends the text of a single statement and returns the output state with the rest of the limit
+output({_Owner, _Id, truncated} = Output, _Text) ->
+  Output;
+output({Owner, Id, Left}, Text) ->
+  Binary = unicode:characters_to_binary(Text),
+  case byte_size(Binary) > Left of
+    true ->
+      <<Head:Left/binary, _/binary>> = Binary,
+      send_chunks(Owner, Id, Head),
+      Owner ! {output, Id, <<"\n... output truncated\n">>},
+      {Owner, Id, truncated};
+    false ->
+      send_chunks(Owner, Id, Binary),
+      {Owner, Id, Left - byte_size(Binary)}
+  end.
+
+send_chunks(_Owner, _Id, <<>>) ->
+  ok;
+send_chunks(Owner, Id, Binary) when byte_size(Binary) =< ?CHUNK_SIZE ->
+  Owner ! {output, Id, Binary};
+send_chunks(Owner, Id, Binary) ->
+  <<Chunk:?CHUNK_SIZE/binary, Rest/binary>> = Binary,
+  Owner ! {output, Id, Chunk},
+  send_chunks(Owner, Id, Rest).
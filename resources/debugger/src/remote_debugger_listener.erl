@@ -63,6 +63,13 @@ process_message({continue, Pid}) when is_pid(Pid) ->
 process_message({evaluate, Pid, Expression}) when is_pid(Pid),
                                                   is_list(Expression) ->
   evaluate(Pid, Expression);
+process_message({get_stack, RequestId, Pid}) when is_pid(Pid) ->
+  get_stack(RequestId, Pid);
+process_message({get_bindings, RequestId, Pid, SP}) when is_pid(Pid) ->
+  get_bindings(RequestId, Pid, SP);
+process_message({get_term_slice, RequestId, Pid, SP, Name, Path, From, Count}) when is_pid(Pid),
+                                                                                   is_list(Path) ->
+  get_term_slice(RequestId, Pid, SP, Name, Path, From, Count);
 % responses from interpreter
 process_message({_Meta, {eval_rsp, EvalResponse}}) ->
   evaluate_response(EvalResponse);
@@ -112,6 +119,45 @@ evaluate(Pid, Expression) ->
   {ok, Meta} = dbg_iserver:call({get_meta, Pid}),
   int:meta(Meta, eval, {undefined, Expression}). % Current module should be passed instead of 'undefined'
 
+get_stack(RequestId, Pid) ->
+  Stack = with_meta(Pid, fun(MetaPid) ->
+    [{SP, remote_debugger_terms:limit_call(Call)} || {SP, Call} <- int:meta(MetaPid, backtrace, all)]
+  end),
+  ?RDEBUG_NOTIFIER ! #stack_response{request_id = RequestId, stack = Stack}.
+
+get_bindings(RequestId, Pid, SP) ->
+  Bindings = with_meta(Pid, fun(MetaPid) ->
+    [{Name, remote_debugger_terms:limit(Value)} || {Name, Value} <- get_meta_bindings(MetaPid, SP)]
+  end),
+  ?RDEBUG_NOTIFIER ! #bindings_response{request_id = RequestId, bindings = Bindings}.
+
+get_term_slice(RequestId, Pid, SP, Name, Path, From, Count) ->
+  Slice = with_meta(Pid, fun(MetaPid) ->
+    case lists:keyfind(Name, 1, get_meta_bindings(MetaPid, SP)) of
+      {Name, Value} -> remote_debugger_terms:slice(Value, Path, From, Count);
+      false -> {error, {unbound, Name}}
+    end
+  end),
+  ?RDEBUG_NOTIFIER ! #term_slice_response{request_id = RequestId, slice = Slice}.
+
+get_meta_bindings(MetaPid, top) ->
+  case int:meta(MetaPid, backtrace, 1) of
+    [{SP, _} | _] -> int:meta(MetaPid, bindings, SP);
+    _ -> []
+  end;
+get_meta_bindings(MetaPid, SP) ->
+  int:meta(MetaPid, bindings, SP).
+
+with_meta(Pid, Fun) ->
+  case dbg_iserver:safe_call({get_meta, Pid}) of
+    {ok, MetaPid} ->
+      try Fun(MetaPid)
+      catch _:Reason -> {error, Reason}
+      end;
+    Error ->
+      {error, Error}
+  end.
+
 evaluate_response(Response) ->
   ?RDEBUG_NOTIFIER ! #evaluate_response{result = Response}.
 
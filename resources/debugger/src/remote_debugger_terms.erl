@@ -0,0 +1,131 @@
+-module(remote_debugger_terms).
+
+% Values are not sent to the IDE in full. Containers which are too large, or do not fit into the budget
+% left for a value, are replaced with {?SLICED, Kind, Size} markers. Children of a sliced container are
+% requested page by page with slice/4 when it is expanded. A path leads from a bound value to the container:
+% an integer is an index of a tuple or list element (a list tail is its last element), {key, Key} selects
+% a map value. Printable lists are strings, not containers: they cost a single term, and a long one is sent
+% as {?SLICED, string, Length, Prefix}. Its full text is requested with slice/4 as a single page.
+
+-export([limit/1, limit_call/1, slice/4]).
+
+-define(SLICED, '$intellij_sliced').
+-define(BUDGET, 1000). % the number of terms sent for a single value or a page of children
+-define(MAX_CHILDREN, 100). % larger containers are always sliced
+-define(MAX_BINARY_SIZE, 1024).
+-define(MAX_STRING_LENGTH, 1024).
+
+limit(Term) ->
+  {Limited, _} = limit(Term, ?BUDGET),
+  Limited.
+
+limit_call({Module, Function, Args}) when is_list(Args) ->
+  {Module, Function, [limit(Arg) || Arg <- Args]};
+limit_call(Call) ->
+  limit(Call).
+
+slice(Term, Path, From, Count) ->
+  case descend(Term, Path) of
+    {ok, Container} -> page(Container, From, Count);
+    Error -> Error
+  end.
+
+% the cost of Term itself has already been charged to the budget
+limit(Term, Budget) ->
+  case kind(Term) of
+    {binary, Size} when Size > ?MAX_BINARY_SIZE -> {{?SLICED, binary, Size}, Budget};
+    {binary, _} -> {Term, Budget};
+    {string, Length} when Length > ?MAX_STRING_LENGTH -> {{?SLICED, string, Length, lists:sublist(Term, ?MAX_STRING_LENGTH)}, Budget};
+    {string, _} -> {Term, Budget};
+    leaf -> {Term, Budget};
+    {Kind, Size} when Size > ?MAX_CHILDREN; Size > Budget -> {{?SLICED, Kind, Size}, Budget};
+    {tuple, Size} ->
+      {Elements, Left} = limit_list(tuple_to_list(Term), Budget - Size, []),
+      {list_to_tuple(Elements), Left};
+    {list, Size} -> limit_list(Term, Budget - Size, []);
+    {map, Size} ->
+      {Values, Left} = limit_list(maps:values(Term), Budget - Size, []),
+      {maps:from_list(lists:zip(maps:keys(Term), Values)), Left}
+  end.
+
+limit_list([Head | Tail], Budget, Acc) ->
+  {Limited, Left} = limit(Head, Budget),
+  limit_list(Tail, Left, [Limited | Acc]);
+limit_list([], Budget, Acc) ->
+  {lists:reverse(Acc), Budget};
+limit_list(Tail, Budget, Acc) ->
+  {Limited, Left} = limit(Tail, Budget),
+  {lists:reverse(Acc, Limited), Left}.
+
+kind(Term) when is_binary(Term) -> {binary, byte_size(Term)};
+kind(Term) when is_tuple(Term) -> {tuple, tuple_size(Term)};
+kind([]) -> leaf;
+kind(Term) when is_list(Term) ->
+  case io_lib:printable_unicode_list(Term) of
+    true -> {string, length(Term)};
+    false -> {list, list_size(Term, 0)}
+  end;
+kind(Term) ->
+  case is_map_term(Term) of
+    true -> {map, erlang:map_size(Term)};
+    false -> leaf
+  end.
+
+% maps are absent before OTP 17, so they are not used in guards
+is_map_term(Term) ->
+  try erlang:is_map(Term)
+  catch error:undef -> false
+  end.
+
+list_size([_ | Tail], Size) -> list_size(Tail, Size + 1);
+list_size([], Size) -> Size;
+list_size(_Tail, Size) -> Size + 1.
+
+descend(Term, []) ->
+  {ok, Term};
+descend(Term, [{key, Key} | Path]) ->
+  case is_map_term(Term) andalso maps:find(Key, Term) of
+    {ok, Value} -> descend(Value, Path);
+    _ -> {error, {no_key, Key}}
+  end;
+descend(Term, [Index | Path]) when is_tuple(Term), is_integer(Index), Index >= 0, Index < tuple_size(Term) ->
+  descend(element(Index + 1, Term), Path);
+descend(Term, [Index | Path]) when is_list(Term), is_integer(Index), Index >= 0 ->
+  case drop(Term, Index) of
+    [Element | _] -> descend(Element, Path);
+    [] -> {error, {no_element, Index}};
+    Tail -> descend(Tail, Path)
+  end;
+descend(_Term, [Step | _]) ->
+  {error, {no_element, Step}}.
+
+page(Term, From, Count) when is_binary(Term) ->
+  Size = byte_size(Term),
+  Start = min(From, Size),
+  binary:part(Term, Start, min(Count, Size - Start));
+page(Term, From, Count) when is_tuple(Term) ->
+  limit_page(lists:sublist(tuple_to_list(Term), From + 1, Count));
+page(Term, From, Count) when is_list(Term) ->
+  limit_page(take(drop(Term, From), Count, []));
+page(Term, From, Count) ->
+  case is_map_term(Term) of
+    true ->
+      Entries = lists:sublist(maps:to_list(Term), From + 1, Count),
+      {Values, _} = limit_list([V || {_, V} <- Entries], ?BUDGET - length(Entries), []),
+      lists:zip([K || {K, _} <- Entries], Values);
+    false ->
+      {error, not_a_container}
+  end.
+
+limit_page(Elements) ->
+  {Limited, _} = limit_list(Elements, ?BUDGET - length(Elements), []),
+  Limited.
+
+drop([_ | Tail], N) when N > 0 -> drop(Tail, N - 1);
+drop(List, _) -> List.
+
+% an improper tail is taken as the last element
+take(_List, 0, Acc) -> lists:reverse(Acc);
+take([Head | Tail], N, Acc) -> take(Tail, N - 1, [Head | Acc]);
+take([], _N, Acc) -> lists:reverse(Acc);
+take(Tail, _N, Acc) -> lists:reverse([Tail | Acc]).
@@ -0,0 +1,132 @@
+-module(intellij_dialyzer).
+
+%% Analyses files against a PLT which is loaded once and kept in memory, while dialyzer:run/1 reads
+%% the PLT file on every call. An analysis is started the way dialyzer_cl starts one, so the module is
+%% compiled on the node against the dialyzer.hrl of the node's own release.
+
+-include_lib("dialyzer/src/dialyzer.hrl").
+
+-export([loop/1]).
+
+%% Requests are read from stdin: {analyze, PltFile | none, Files}. Warnings are printed one per line,
+%% errors as "dialyzer: Reason" lines, and each response ends with the DoneMarker line.
+loop(DoneMarker) ->
+  process_flag(trap_exit, true),
+  loop(DoneMarker, none).
+
+loop(DoneMarker, LoadedPlt) ->
+  case io:read('') of
+    {ok, {analyze, PltFile, Files}} ->
+      NewLoadedPlt =
+        try analyze(PltFile, Files, LoadedPlt) of
+          {Warnings, Loaded} ->
+            [io:put_chars([dialyzer:format_warning(W, fullpath), $\n]) || W <- Warnings],
+            Loaded
+        catch
+          throw:{dialyzer_error, Msg} -> io:format("dialyzer: ~s~n", [Msg]), none;
+          _:Reason -> io:format("dialyzer: ~w~n", [Reason]), none
+        end,
+      io:format("~s~n", [DoneMarker]),
+      loop(DoneMarker, NewLoadedPlt);
+    _ ->
+      halt()
+  end.
+
+analyze(none, Files, LoadedPlt) ->
+  {dialyzer:run([{files, Files}, {analysis_type, succ_typings}]), LoadedPlt};
+analyze(PltFile, Files, LoadedPlt) ->
+  {_, Plt} = NewLoadedPlt = load_plt(PltFile, LoadedPlt),
+  {run(Files, Plt), NewLoadedPlt}.
+
+%% the PLT is checked and read again only when its file changes
+load_plt(PltFile, {{PltFile, Modified}, _Plt} = LoadedPlt) ->
+  case filelib:last_modified(PltFile) of
+    Modified -> LoadedPlt;
+    _ -> read_plt(PltFile)
+  end;
+load_plt(PltFile, _LoadedPlt) ->
+  read_plt(PltFile).
+
+read_plt(PltFile) ->
+  Modified = filelib:last_modified(PltFile),
+  dialyzer:run([{analysis_type, plt_check}, {init_plt, PltFile}]),
+  {{PltFile, Modified}, dialyzer_plt:from_file(PltFile)}.
+
+run(Files, Plt) ->
+  Options = case dialyzer_options:build([{analysis_type, succ_typings}]) of
+              {error, Msg} -> throw({dialyzer_error, Msg});
+              BuiltOptions -> BuiltOptions
+            end,
+  {PltCopy, CopiedTables} = copy_plt(Plt),
+  Analysis = analysis([{type, succ_typings},
+                       {files, Files},
+                       {start_from, src_code},
+                       {plt, PltCopy},
+                       {doc_plt, dialyzer_plt:new()},
+                       {use_contracts, true},
+                       {solvers, option(solvers, Options, [])}]),
+  Self = self(),
+  LegalWarnings = option(legal_warnings, Options, []),
+  Backend = spawn_link(fun() -> dialyzer_analysis_callgraph:start(Self, LegalWarnings, Analysis) end),
+  try
+    collect(Backend, [])
+  after
+    [catch ets:delete(Table) || Table <- CopiedTables]
+  end.
+
+collect(Backend, Warnings) ->
+  receive
+    {Backend, warnings, NewWarnings} ->
+      collect(Backend, Warnings ++ NewWarnings);
+    {'EXIT', Backend, normal} ->
+      Warnings;
+    {'EXIT', Backend, {error, Reason}} ->
+      throw({dialyzer_error, Reason});
+    {'EXIT', Backend, Reason} ->
+      throw({dialyzer_error, io_lib:format("Analysis failed: ~w", [Reason])});
+    Message when is_tuple(Message), element(1, Message) =:= Backend, element(2, Message) =:= done ->
+      Warnings;
+    _Other ->
+      collect(Backend, Warnings)
+  end.
+
+%% Newer releases keep the PLT in ETS tables and an analysis adds the analysed modules to them, so every
+%% analysis gets its own copies of the tables. Older releases keep it in dicts, which are never changed.
+copy_plt(Plt) ->
+  Copies = [copy_table(Element) || Element <- tuple_to_list(Plt)],
+  {list_to_tuple([Copy || {Copy, _} <- Copies]), [Copy || {Copy, true} <- Copies]}.
+
+copy_table(Element) when is_integer(Element); is_reference(Element) ->
+  case catch ets:info(Element, type) of
+    Type when Type =:= set; Type =:= ordered_set; Type =:= bag; Type =:= duplicate_bag ->
+      Copy = ets:new(intellij_dialyzer_plt, [Type, public, {keypos, ets:info(Element, keypos)}]),
+      true = ets:insert(Copy, ets:tab2list(Element)),
+      {Copy, true};
+    _ ->
+      {Element, false}
+  end;
+copy_table(Element) ->
+  {Element, false}.
+
+%% fields which are absent from the node's release are skipped
+analysis(Values) ->
+  set_fields(#analysis{}, record_info(fields, analysis), Values).
+
+option(Name, Options, Default) ->
+  case index(Name, record_info(fields, options), 2) of
+    0 -> Default;
+    Index -> element(Index, Options)
+  end.
+
+set_fields(Record, Fields, Values) ->
+  lists:foldl(
+    fun({Name, Value}, Acc) ->
+      case index(Name, Fields, 2) of
+        0 -> Acc;
+        Index -> setelement(Index, Acc, Value)
+      end
+    end, Record, Values).
+
+index(_Name, [], _Index) -> 0;
+index(Name, [Name | _], Index) -> Index;
+index(Name, [_ | Fields], Index) -> index(Name, Fields, Index + 1).
@@ -17,6 +17,7 @@
 package org.intellij.erlang;
 
 import com.intellij.psi.tree.IElementType;
+import org.intellij.erlang.parser.ErlangClauseBodyElementType;
 import org.intellij.erlang.stubs.types.*;
 import org.jetbrains.annotations.NotNull;
 
@@ -37,6 +38,7 @@ public class ErlangElementTypeFactory {
     else if (name.equals("ERL_CALLBACK_SPEC"))      return new ErlangCallbackStubElementType(name);
     else if (name.equals("ERL_CALLBACK_FUNCTION"))  return new ErlangCallbackFunctionStubElementType(name);
     else if (name.equals("ERL_SPECIFICATION"))      return new ErlangSpecificationElementType(name);
+    else if (name.equals("ERL_CLAUSE_BODY"))        return new ErlangClauseBodyElementType(name);
 
     throw new RuntimeException("Unknown element type: " + name);
   }
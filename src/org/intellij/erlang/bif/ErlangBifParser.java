@@ -19,6 +19,7 @@ package org.intellij.erlang.bif;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.projectRoots.SdkModificator;
 import com.intellij.openapi.roots.JavadocOrderRootType;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
@@ -37,9 +38,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -54,6 +53,20 @@ public class ErlangBifParser extends ErlangLightPlatformCodeInsightFixtureTestCa
   private static final String ERLANG_DOC_PATH = "/home/ignatov/Downloads/otp_doc_html_R16B";
   private static final Pattern BIF_DECLARATION = Pattern.compile("bif (\\w+)\\:(\\w+)/(\\d+)");
   private static final Pattern BIF_SEPARATOR = Pattern.compile("# New Bifs in (R.+)");
+  private static final String BIFS_ARRAY_START = "private static final ErlangBifDescriptor[] BIFS = {\n";
+  private static final String BIFS_ARRAY_END = "\n  };\n";
+  // bif.tab.txt lists the port functions under erts_internal, the table keeps them as they are called: through erlang,
+  // with erlang:port_command/2 which is implemented in Erlang on top of port_command/3, and without port_info/2
+  private static final Map<String, List<String>> BIF_REPLACEMENTS = new HashMap<String, List<String>>();
+
+  static {
+    BIF_REPLACEMENTS.put("erts_internal:port_info/2", Collections.<String>emptyList());
+    BIF_REPLACEMENTS.put("erts_internal:port_call/3", Collections.singletonList("erlang:port_call/3"));
+    BIF_REPLACEMENTS.put("erts_internal:port_command/3", Arrays.asList("erlang:port_command/2", "erlang:port_command/3"));
+    BIF_REPLACEMENTS.put("erts_internal:port_control/3", Collections.singletonList("erlang:port_control/3"));
+    BIF_REPLACEMENTS.put("erts_internal:port_close/1", Collections.singletonList("erlang:port_close/1"));
+    BIF_REPLACEMENTS.put("erts_internal:port_connect/2", Collections.singletonList("erlang:port_connect/2"));
+  }
 
   private ErlangDocumentationProvider myDocProvider;
 
@@ -67,83 +80,42 @@ public class ErlangBifParser extends ErlangLightPlatformCodeInsightFixtureTestCa
     File bifTableFile = new File(BIF_TABLE_PATH);
     String[] bifTableText = StringUtil.splitByLines(FileUtilRt.loadFile(bifTableFile));
 
-    PrintStream bifTableJavaBuilder = new PrintStream(new File(GENERATED_FILE));
-    try {
-      Set<String> autoimported = getAutoimportedFunctions();
-      bifTableJavaBuilder.append("package org.intellij.erlang.bif;\n" +
-        "\n" +
-        "import org.jetbrains.annotations.NotNull;\n" +
-        "import org.jetbrains.annotations.Nullable;\n" +
-        "import com.intellij.util.containers.MultiMap;\n" +
-        "\n" +
-        "import java.util.ArrayList;\n" +
-        "import java.util.Collection;\n" +
-        "import java.util.TreeSet;\n" +
-        "import java.util.List;\n" +
-        "\n" +
-        "public final class ErlangBifTable {\n" +
-        "  private static final MultiMap<String, ErlangBifDescriptor> bifMap = new MultiMap<String, ErlangBifDescriptor>() {\n" +
-        "    @Override\n" +
-        "    protected Collection<ErlangBifDescriptor> createCollection() {\n" +
-        "      return new TreeSet<ErlangBifDescriptor>();\n" +
-        "    }\n" +
-        "  };\n" +
-        "\n" +
-        "  static {\n");
-      for (String s : bifTableText) {
-        Matcher matcher;
-        if ((matcher = BIF_DECLARATION.matcher(s)).find()) {
-          String module = matcher.group(1);
-          String name = matcher.group(2);
-          String arity = matcher.group(3);
-          String isAuroimport = autoimported.contains(name + "/" + arity) ? ", true" : "";
-          bifTableJavaBuilder.append("    bifMap.putValue(\"").append(module)
-            .append("\", new ErlangBifDescriptor(\"")
-            .append(module).append("\", \"").append(name).append("\", ").append(arity)
-            .append(", \"").append(fetchSpec(module, name, Integer.valueOf(arity))).append("\"").append(isAuroimport).append("));\n");
-        }
-        else if ((matcher = BIF_SEPARATOR.matcher(s)).find()) {
-          String version = matcher.group(1).replaceAll("\\.", "");
-          bifTableJavaBuilder.append("    // Since ").append(version).append("\n");
+    // only the descriptors array of ErlangBifTable is generated, lookup tables are built from it when the class is loaded
+    File generatedFile = new File(GENERATED_FILE);
+    String generatedText = FileUtilRt.loadFile(generatedFile);
+    int bifsStart = generatedText.indexOf(BIFS_ARRAY_START) + BIFS_ARRAY_START.length();
+    int bifsEnd = generatedText.indexOf(BIFS_ARRAY_END, bifsStart);
+    assertTrue(bifsStart >= BIFS_ARRAY_START.length() && bifsEnd != -1);
+
+    Set<String> autoimported = getAutoimportedFunctions();
+    List<String> bifLines = new ArrayList<String>();
+    for (String s : bifTableText) {
+      Matcher matcher;
+      if ((matcher = BIF_DECLARATION.matcher(s)).find()) {
+        String declaration = matcher.group(1) + ":" + matcher.group(2) + "/" + matcher.group(3);
+        List<String> replacement = BIF_REPLACEMENTS.get(declaration);
+        for (String bif : replacement != null ? replacement : Collections.singletonList(declaration)) {
+          Matcher bifMatcher = BIF_DECLARATION.matcher("bif " + bif);
+          assertTrue(bifMatcher.find());
+          String module = bifMatcher.group(1);
+          String name = bifMatcher.group(2);
+          String arity = bifMatcher.group(3);
+          String isAutoimport = autoimported.contains(name + "/" + arity) ? ", true" : "";
+          bifLines.add("    new ErlangBifDescriptor(\"" + module + "\", \"" + name + "\", " + arity +
+                       ", \"" + fetchSpec(module, name, Integer.valueOf(arity)) + "\"" + isAutoimport + "),");
         }
       }
-      bifTableJavaBuilder.append("  }\n" +
-        "\n" +
-        "  private ErlangBifTable() {\n" +
-        "  }\n" +
-        "\n" +
-        "  @NotNull\n" +
-        "  public static Collection<ErlangBifDescriptor> getBifs(@NotNull String moduleName) {\n" +
-        "    return bifMap.get(moduleName);\n" +
-        "  }\n" +
-        "\n" +
-        "  @NotNull\n" +
-        "  public static Collection<ErlangBifDescriptor> getBifs(@NotNull String moduleName,\n" +
-        "                                                        @NotNull String functionName) {\n" +
-        "    final List<ErlangBifDescriptor> bifDescriptors = new ArrayList<ErlangBifDescriptor>();\n" +
-        "    for (ErlangBifDescriptor bifDescriptor : bifMap.get(moduleName)) {\n" +
-        "      if (functionName.equals(bifDescriptor.getName())) {\n" +
-        "        bifDescriptors.add(bifDescriptor);\n" +
-        "      }\n" +
-        "    }\n" +
-        "    return bifDescriptors;\n" +
-        "  }\n" +
-        "\n" +
-        "\n" +
-        "  public static boolean isBif(@NotNull String moduleName, @NotNull String functionName, int arity) {\n" +
-        "    final Collection<ErlangBifDescriptor> erlangBifDescriptors = bifMap.get(moduleName);\n" +
-        "    for (ErlangBifDescriptor bifDescriptor : erlangBifDescriptors) {\n" +
-        "      if (bifDescriptor.getModule().equals(moduleName) && bifDescriptor.getName().equals(functionName) &&\n" +
-        "        bifDescriptor.getArity() == arity) {\n" +
-        "        return true;\n" +
-        "      }\n" +
-        "    }\n" +
-        "    return false;\n" +
-        "  }\n" +
-        "}\n");
-    } finally {
-      bifTableJavaBuilder.close();
+      else if ((matcher = BIF_SEPARATOR.matcher(s)).find()) {
+        String version = matcher.group(1).replaceAll("\\.", "");
+        bifLines.add("    // Since " + version);
+      }
     }
+    int last = bifLines.size() - 1;
+    while (last >= 0 && !bifLines.get(last).endsWith(",")) last--;
+    if (last >= 0) bifLines.set(last, StringUtil.trimEnd(bifLines.get(last), ","));
+
+    String bifs = StringUtil.join(bifLines, "\n");
+    FileUtil.writeToFile(generatedFile, generatedText.substring(0, bifsStart) + bifs + generatedText.substring(bifsEnd));
   }
 
   @Override
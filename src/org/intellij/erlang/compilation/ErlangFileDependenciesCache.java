@@ -0,0 +1,225 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.compilation;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.util.io.StreamUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import gnu.trove.TObjectIntHashMap;
+import org.intellij.erlang.facet.ErlangFacet;
+import org.intellij.erlang.roots.ErlangIncludeDirectoryUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Resolved dependencies of every file seen by the previous build, stored in the builder directory.
+ * An entry is reused while its file keeps the same time stamp and length and nothing the dependencies are resolved
+ * against (the set of files, include directories and dependency roots) has changed.
+ */
+final class ErlangFileDependenciesCache {
+  private static final Logger LOG = Logger.getInstance(ErlangFileDependenciesCache.class);
+  private static final String CACHE_FILE_NAME = "erlang-dependencies.dat";
+  private static final int VERSION = 2;
+
+  private final Map<String, Entry> myLoadedEntries;
+  private final Map<String, Entry> myEntries = ContainerUtil.newHashMap();
+  private final byte[] myLoadedFingerprint;
+  private byte[] myFingerprint = ArrayUtil.EMPTY_BYTE_ARRAY;
+  private int myReusedCount;
+
+  private ErlangFileDependenciesCache(@NotNull byte[] fingerprint, @NotNull Map<String, Entry> entries) {
+    myLoadedFingerprint = fingerprint;
+    myLoadedEntries = entries;
+  }
+
+  @NotNull
+  static ErlangFileDependenciesCache load(@NotNull File builderDirectory) {
+    File file = new File(builderDirectory, CACHE_FILE_NAME);
+    if (file.isFile()) {
+      DataInputStream in = null;
+      try {
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        if (in.readInt() == VERSION) {
+          byte[] fingerprint = new byte[DataInputOutputUtil.readINT(in)];
+          in.readFully(fingerprint);
+          return new ErlangFileDependenciesCache(fingerprint, readEntries(in));
+        }
+      }
+      catch (IOException e) {
+        LOG.info("Failed to read dependencies cache, all dependencies will be resolved", e);
+      }
+      finally {
+        StreamUtil.closeStream(in);
+      }
+    }
+    return new ErlangFileDependenciesCache(ArrayUtil.EMPTY_BYTE_ARRAY, ContainerUtil.<String, Entry>newHashMap());
+  }
+
+  void save(@NotNull File builderDirectory) throws IOException {
+    //noinspection ResultOfMethodCallIgnored
+    builderDirectory.mkdirs();
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(builderDirectory, CACHE_FILE_NAME))));
+    try {
+      out.writeInt(VERSION);
+      DataInputOutputUtil.writeINT(out, myFingerprint.length);
+      out.write(myFingerprint);
+      writeEntries(out, myEntries);
+    }
+    finally {
+      out.close();
+    }
+    LOG.debug("Dependencies of " + myReusedCount + " of " + myEntries.size() + " files were reused");
+  }
+
+  /**
+   * Drops loaded entries if the files being compiled or their roots differ from the ones of the previous build.
+   * Should be called from a read action before any lookups.
+   */
+  void validate(@NotNull Module[] modules, @NotNull Collection<String> filePaths) {
+    myFingerprint = computeFingerprint(modules, filePaths);
+    if (myFingerprint.length == 0 || !Arrays.equals(myFingerprint, myLoadedFingerprint)) {
+      myLoadedEntries.clear();
+    }
+  }
+
+  @Nullable
+  List<String> getDependencies(@NotNull String path, @NotNull VirtualFile file) {
+    Entry entry = myLoadedEntries.get(path);
+    if (entry == null || entry.myTimeStamp != file.getTimeStamp() || entry.myLength != file.getLength()) return null;
+    myEntries.put(path, entry);
+    myReusedCount++;
+    return entry.myDependencies;
+  }
+
+  void putDependencies(@NotNull String path, @NotNull VirtualFile file, @NotNull List<String> dependencies) {
+    myEntries.put(path, new Entry(file.getTimeStamp(), file.getLength(), dependencies));
+  }
+
+  @TestOnly
+  int getReusedCount() {
+    return myReusedCount;
+  }
+
+  @NotNull
+  private static byte[] computeFingerprint(@NotNull Module[] modules, @NotNull Collection<String> filePaths) {
+    List<String> parts = ContainerUtil.newArrayList(filePaths);
+    for (Module module : modules) {
+      parts.add(module.getName());
+      for (VirtualFile includeDirectory : ErlangIncludeDirectoryUtil.getIncludeDirectories(module)) {
+        parts.add(includeDirectory.getPath());
+      }
+      ErlangFacet facet = ErlangFacet.getFacet(module);
+      if (facet != null) {
+        parts.addAll(facet.getConfiguration().getParseTransforms());
+      }
+      parts.addAll(OrderEnumerator.orderEntries(module).recursively().getSourcePathsList().getPathList());
+    }
+    Collections.sort(parts);
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      for (String part : parts) {
+        digest.update(part.getBytes(CharsetToolkit.UTF8_CHARSET));
+        digest.update((byte) 0);
+      }
+      return digest.digest();
+    }
+    catch (NoSuchAlgorithmException e) {
+      LOG.warn("Failed to compute dependencies cache fingerprint, the cache is not reused", e);
+      return ArrayUtil.EMPTY_BYTE_ARRAY;
+    }
+  }
+
+  private static void writeEntries(@NotNull DataOutput out, @NotNull Map<String, Entry> entries) throws IOException {
+    TObjectIntHashMap<String> pathIds = new TObjectIntHashMap<String>();
+    List<String> paths = ContainerUtil.newArrayList();
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      internPath(entry.getKey(), pathIds, paths);
+      for (String dependency : entry.getValue().myDependencies) {
+        internPath(dependency, pathIds, paths);
+      }
+    }
+    DataInputOutputUtil.writeINT(out, paths.size());
+    for (String path : paths) {
+      IOUtil.writeUTF(out, path);
+    }
+    DataInputOutputUtil.writeINT(out, entries.size());
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      Entry value = entry.getValue();
+      DataInputOutputUtil.writeINT(out, pathIds.get(entry.getKey()));
+      DataInputOutputUtil.writeTIME(out, value.myTimeStamp);
+      DataInputOutputUtil.writeLONG(out, value.myLength);
+      DataInputOutputUtil.writeINT(out, value.myDependencies.size());
+      for (String dependency : value.myDependencies) {
+        DataInputOutputUtil.writeINT(out, pathIds.get(dependency));
+      }
+    }
+  }
+
+  private static void internPath(@NotNull String path, @NotNull TObjectIntHashMap<String> pathIds, @NotNull List<String> paths) {
+    if (!pathIds.containsKey(path)) {
+      pathIds.put(path, paths.size());
+      paths.add(path);
+    }
+  }
+
+  @NotNull
+  private static Map<String, Entry> readEntries(@NotNull DataInput in) throws IOException {
+    String[] paths = new String[DataInputOutputUtil.readINT(in)];
+    for (int i = 0; i < paths.length; i++) {
+      paths[i] = IOUtil.readUTF(in);
+    }
+    int entriesCount = DataInputOutputUtil.readINT(in);
+    Map<String, Entry> entries = ContainerUtil.newHashMap();
+    for (int i = 0; i < entriesCount; i++) {
+      String path = paths[DataInputOutputUtil.readINT(in)];
+      long timeStamp = DataInputOutputUtil.readTIME(in);
+      long length = DataInputOutputUtil.readLONG(in);
+      int dependenciesCount = DataInputOutputUtil.readINT(in);
+      List<String> dependencies = ContainerUtil.newArrayListWithCapacity(dependenciesCount);
+      for (int j = 0; j < dependenciesCount; j++) {
+        dependencies.add(paths[DataInputOutputUtil.readINT(in)]);
+      }
+      entries.put(path, new Entry(timeStamp, length, dependencies));
+    }
+    return entries;
+  }
+
+  private static final class Entry {
+    private final long myTimeStamp;
+    private final long myLength;
+    private final List<String> myDependencies;
+
+    private Entry(long timeStamp, long length, @NotNull List<String> dependencies) {
+      myTimeStamp = timeStamp;
+      myLength = length;
+      myDependencies = dependencies;
+    }
+  }
+}
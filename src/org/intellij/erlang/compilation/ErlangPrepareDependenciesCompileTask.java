@@ -26,30 +26,23 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.Couple;
-import com.intellij.openapi.util.JDOMUtil;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.Function;
 import com.intellij.util.ObjectUtils;
-import com.intellij.util.SystemProperties;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.graph.DFSTBuilder;
 import com.intellij.util.graph.GraphGenerator;
-import com.intellij.util.xmlb.SkipDefaultValuesSerializationFilters;
-import com.intellij.util.xmlb.XmlSerializationException;
-import com.intellij.util.xmlb.XmlSerializer;
 import org.intellij.erlang.configuration.ErlangCompilerSettings;
 import org.intellij.erlang.facet.ErlangFacet;
+import org.intellij.erlang.index.ErlangFileDependenciesIndex;
 import org.intellij.erlang.index.ErlangModuleIndex;
+import org.intellij.erlang.jps.builder.ErlangBuildOrderGraph;
 import org.intellij.erlang.jps.builder.ErlangBuilderUtil;
 import org.intellij.erlang.jps.builder.ErlangFileDescriptor;
 import org.intellij.erlang.jps.builder.ErlangProjectBuildOrder;
-import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
-import org.jdom.Document;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
@@ -78,17 +71,25 @@ public class ErlangPrepareDependenciesCompileTask implements CompileTask {
       addPrepareDependenciesFailedMessage(context);
       return true;
     }
+    File builderDirectory = new File(projectSystemDirectory, ErlangBuilderUtil.BUILDER_DIRECTORY);
+    final ErlangFileDependenciesCache dependenciesCache = ErlangFileDependenciesCache.load(builderDirectory);
     ErlangProjectBuildOrder projectBuildOrder = ApplicationManager.getApplication().runReadAction(new Computable<ErlangProjectBuildOrder>() {
       @Nullable
       @Override
       public ErlangProjectBuildOrder compute() {
-        return getProjectBuildOrder(context);
+        return getProjectBuildOrder(context, dependenciesCache);
       }
     });
     if (projectBuildOrder == null) {
       return false; // errors are reported to context.
     }
     writeBuildOrder(context, projectSystemDirectory, projectBuildOrder);
+    try {
+      dependenciesCache.save(builderDirectory);
+    }
+    catch (IOException e) {
+      LOG.warn("Some I/O errors occurred while writing dependencies cache", e);
+    }
     return true;
   }
 
@@ -96,18 +97,12 @@ public class ErlangPrepareDependenciesCompileTask implements CompileTask {
                                      @NotNull File projectSystemDirectory,
                                      @NotNull ErlangProjectBuildOrder projectBuildOrder) {
     try {
-      LOG.debug("Serialize build order");
-      Document serializedDocument = new Document(XmlSerializer.serialize(projectBuildOrder, new SkipDefaultValuesSerializationFilters()));
       File parentDir = new File(projectSystemDirectory, ErlangBuilderUtil.BUILDER_DIRECTORY);
       //noinspection ResultOfMethodCallIgnored
       parentDir.mkdirs();
       File file = new File(parentDir, ErlangBuilderUtil.BUILD_ORDER_FILE_NAME);
       LOG.debug("Write build order to " + file.getAbsolutePath());
-      JDOMUtil.writeDocument(serializedDocument, file, SystemProperties.getLineSeparator());
-    }
-    catch (XmlSerializationException e) {
-      LOG.error("Can't serialize build order object.", e);
-      addPrepareDependenciesFailedMessage(context);
+      ErlangBuildOrderGraph.write(file, projectBuildOrder.myErlangFiles);
     }
     catch (IOException e) {
       LOG.warn("Some I/O errors occurred while writing build orders to file", e);
@@ -122,14 +117,20 @@ public class ErlangPrepareDependenciesCompileTask implements CompileTask {
   @TestOnly
   @NotNull
   static List<ErlangFileDescriptor> getBuildOrder(@NotNull Module module) throws CyclicDependencyFoundException {
-    return getTopologicallySortedFileDescriptors(module);
+    return getTopologicallySortedFileDescriptors(null, module);
+  }
+
+  @TestOnly
+  @NotNull
+  static List<ErlangFileDescriptor> getBuildOrder(@NotNull Module module, @NotNull ErlangFileDependenciesCache cache) throws CyclicDependencyFoundException {
+    return getTopologicallySortedFileDescriptors(cache, module);
   }
 
   @Nullable
-  private static ErlangProjectBuildOrder getProjectBuildOrder(@NotNull CompileContext context) {
+  private static ErlangProjectBuildOrder getProjectBuildOrder(@NotNull CompileContext context, @NotNull ErlangFileDependenciesCache cache) {
     try {
       Module[] modulesToCompile = context.getCompileScope().getAffectedModules();
-      return new ErlangProjectBuildOrder(getTopologicallySortedFileDescriptors(modulesToCompile));
+      return new ErlangProjectBuildOrder(getTopologicallySortedFileDescriptors(cache, modulesToCompile));
     }
     catch (CyclicDependencyFoundException e) {
       String message = "Cyclic erlang module dependency detected. Check files " +
@@ -148,8 +149,9 @@ public class ErlangPrepareDependenciesCompileTask implements CompileTask {
   }
 
   @NotNull
-  private static List<ErlangFileDescriptor> getTopologicallySortedFileDescriptors(@NotNull Module... modulesToCompile) throws CyclicDependencyFoundException {
-    final ErlangFilesDependencyGraph semiGraph = ErlangFilesDependencyGraph.createSemiGraph(modulesToCompile);
+  private static List<ErlangFileDescriptor> getTopologicallySortedFileDescriptors(@Nullable ErlangFileDependenciesCache cache,
+                                                                                 @NotNull Module... modulesToCompile) throws CyclicDependencyFoundException {
+    final ErlangFilesDependencyGraph semiGraph = ErlangFilesDependencyGraph.createSemiGraph(modulesToCompile, cache);
     DFSTBuilder<String> builder = new DFSTBuilder<String>(GraphGenerator.create(semiGraph));
     if (!builder.isAcyclic()) {
       throw new CyclicDependencyFoundException(builder.getCircularDependency());
@@ -170,38 +172,51 @@ public class ErlangPrepareDependenciesCompileTask implements CompileTask {
 
   private static class ErlangFilesDependencyGraph implements GraphGenerator.SemiGraph<String> {
     private final Project myProject;
-    private final PsiManager myPsiManager;
     private final Set<String> myHeaders;
+    private final ErlangFileDependenciesCache myCache;
     private final Map<String, List<String>> myPathsToDependenciesMap = ContainerUtil.newHashMap();
 
-    private ErlangFilesDependencyGraph(@NotNull Module[] modulesToCompile) {
+    private ErlangFilesDependencyGraph(@NotNull Module[] modulesToCompile, @Nullable ErlangFileDependenciesCache cache) {
       assert modulesToCompile.length > 0;
       myProject = modulesToCompile[0].getProject();
-      myPsiManager = PsiManager.getInstance(myProject);
       myHeaders = collectHeaderPaths(modulesToCompile);
+      myCache = cache;
+      if (myCache != null) {
+        myCache.validate(modulesToCompile, collectFilePaths(modulesToCompile));
+      }
       for (Module module : modulesToCompile) {
         buildDependenciesMap(module);
       }
     }
 
     @NotNull
-    public static ErlangFilesDependencyGraph createSemiGraph(@NotNull Module[] modulesToCompile) {
-      return new ErlangFilesDependencyGraph(modulesToCompile);
+    public static ErlangFilesDependencyGraph createSemiGraph(@NotNull Module[] modulesToCompile, @Nullable ErlangFileDependenciesCache cache) {
+      return new ErlangFilesDependencyGraph(modulesToCompile, cache);
     }
 
     @NotNull
     private static Set<String> collectHeaderPaths(@NotNull Module[] modulesToCompile) {
       Set<String> erlangHeaders = ContainerUtil.newHashSet();
       for (Module module : modulesToCompile) {
-        erlangHeaders.addAll(getHeaders(module, false));
-        erlangHeaders.addAll(getHeaders(module, true));
+        erlangHeaders.addAll(getPaths(getErlangHeaderFiles(module, false)));
+        erlangHeaders.addAll(getPaths(getErlangHeaderFiles(module, true)));
       }
       return erlangHeaders;
     }
 
     @NotNull
-    private static List<String> getHeaders(Module module, boolean onlyTestModules) {
-      return ContainerUtil.map(getErlangHeaderFiles(module, onlyTestModules), new Function<VirtualFile, String>() {
+    private Set<String> collectFilePaths(@NotNull Module[] modulesToCompile) {
+      Set<String> filePaths = ContainerUtil.newHashSet(myHeaders);
+      for (Module module : modulesToCompile) {
+        filePaths.addAll(getPaths(getErlangModuleFiles(module, false)));
+        filePaths.addAll(getPaths(getErlangModuleFiles(module, true)));
+      }
+      return filePaths;
+    }
+
+    @NotNull
+    private static List<String> getPaths(@NotNull Collection<VirtualFile> files) {
+      return ContainerUtil.map(files, new Function<VirtualFile, String>() {
         @Override
         public String fun(VirtualFile virtualFile) {
           return getPath(virtualFile);
@@ -236,40 +251,29 @@ public class ErlangPrepareDependenciesCompileTask implements CompileTask {
                                       @NotNull Collection<VirtualFile> erlangFiles,
                                       @NotNull List<String> globalParseTransforms) {
       for (VirtualFile file : erlangFiles) {
-        Set<String> dependencies = ContainerUtil.newHashSet();
-        ErlangFile psi = getErlangFile(file);
-        addDeclaredDependencies(module, psi, dependencies);
+        String path = getPath(file);
+        List<String> declaredDependencies = myCache != null ? myCache.getDependencies(path, file) : null;
+        if (declaredDependencies == null) {
+          declaredDependencies = getDeclaredDependencies(module, file);
+          if (myCache != null) {
+            myCache.putDependencies(path, file, declaredDependencies);
+          }
+        }
+        Set<String> dependencies = ContainerUtil.newHashSet(declaredDependencies);
         dependencies.addAll(globalParseTransforms);
-        myPathsToDependenciesMap.put(getPath(file), ContainerUtil.newArrayList(dependencies));
+        myPathsToDependenciesMap.put(path, ContainerUtil.newArrayList(dependencies));
       }
     }
 
     @NotNull
-    private ErlangFile getErlangFile(@NotNull VirtualFile virtualFile) {
-      PsiFile psiFile = myPsiManager.findFile(virtualFile);
-      return ObjectUtils.assertNotNull(ObjectUtils.tryCast(psiFile, ErlangFile.class));
-    }
-
-    private void addDeclaredDependencies(@NotNull Module module,
-                                         @NotNull ErlangFile erlangModule,
-                                         @NotNull Set<String> dependencies) {
-      dependencies.addAll(getDeclaredParseTransformPaths(module, erlangModule));
-      dependencies.addAll(getDeclaredBehaviourPaths(module, erlangModule));
-      dependencies.addAll(getDeclaredIncludePaths(erlangModule));
-    }
-
-    @NotNull
-    private List<String> getDeclaredParseTransformPaths(@NotNull Module module, @NotNull ErlangFile erlangModule) {
-      Set<String> pt = ContainerUtil.newHashSet();
-      erlangModule.addDeclaredParseTransforms(pt);
-      return resolvePathsFromNames(pt, module);
-    }
-
-    @NotNull
-    private List<String> getDeclaredBehaviourPaths(@NotNull Module module, @NotNull ErlangFile erlangModule) {
-      Set<String> behaviours = ContainerUtil.newHashSet();
-      ErlangPsiImplUtil.addDeclaredBehaviourModuleNames(erlangModule, behaviours);
-      return resolvePathsFromNames(behaviours, module);
+    private List<String> getDeclaredDependencies(@NotNull Module module, @NotNull VirtualFile file) {
+      ErlangFileDependenciesIndex.DeclaredDependencies declared = ErlangFileDependenciesIndex.getDeclaredDependencies(myProject, file);
+      if (declared == null) return ContainerUtil.emptyList();
+      Set<String> dependencies = ContainerUtil.newHashSet();
+      dependencies.addAll(resolvePathsFromNames(declared.getParseTransforms(), module));
+      dependencies.addAll(resolvePathsFromNames(declared.getBehaviours(), module));
+      dependencies.addAll(getDeclaredIncludePaths(file, declared));
+      return ContainerUtil.newArrayList(dependencies);
     }
 
     @NotNull
@@ -282,31 +286,30 @@ public class ErlangPrepareDependenciesCompileTask implements CompileTask {
     }
 
     @NotNull
-    private List<String> getDeclaredIncludePaths(@NotNull ErlangFile file) {
-      return ContainerUtil.mapNotNull(ErlangPsiImplUtil.getDirectlyIncludedFiles(file), new Function<ErlangFile, String>() {
-        @Nullable
-        @Override
-        public String fun(ErlangFile erlangFile) {
-          VirtualFile file = erlangFile.getVirtualFile();
-          String path = file != null ? getPath(file) : null;
-          return path != null && myHeaders.contains(path) ? path : null;
-        }
-      });
+    private List<String> getDeclaredIncludePaths(@NotNull VirtualFile file,
+                                                 @NotNull ErlangFileDependenciesIndex.DeclaredDependencies declared) {
+      List<String> paths = ContainerUtil.newArrayList();
+      for (String include : declared.getIncludes()) {
+        addHeaderPath(ErlangPsiImplUtil.findIncludeFile(myProject, file, include), paths);
+      }
+      for (String includeLib : declared.getIncludeLibs()) {
+        addHeaderPath(ErlangPsiImplUtil.findIncludeLibFile(myProject, file, includeLib), paths);
+      }
+      return paths;
+    }
+
+    private void addHeaderPath(@Nullable VirtualFile header, @NotNull List<String> paths) {
+      String path = header != null ? getPath(header) : null;
+      if (path != null && myHeaders.contains(path)) {
+        paths.add(path);
+      }
     }
 
     @NotNull
     private List<String> getPathsFromModuleName(@NotNull String erlangModuleName, @NotNull Module module) {
-      List<ErlangFile> filesByName = ErlangModuleIndex.getFilesByName(myProject,
-                                                                      erlangModuleName,
-                                                                      GlobalSearchScope.moduleWithDependenciesScope(module));
-      return ContainerUtil.mapNotNull(filesByName, new Function<ErlangFile, String>() {
-        @Nullable
-        @Override
-        public String fun(ErlangFile erlangFile) {
-          VirtualFile virtualFile = erlangFile.getVirtualFile();
-          return virtualFile != null ? getPath(virtualFile) : null;
-        }
-      });
+      return getPaths(ErlangModuleIndex.getVirtualFilesByName(myProject,
+                                                              erlangModuleName,
+                                                              GlobalSearchScope.moduleWithDependenciesScope(module)));
     }
   }
 
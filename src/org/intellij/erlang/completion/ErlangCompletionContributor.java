@@ -44,6 +44,7 @@ import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.Function;
 import com.intellij.util.ObjectUtils;
 import com.intellij.util.ProcessingContext;
+import com.intellij.util.Processor;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.JBIterable;
 import org.intellij.erlang.ErlangFileType;
@@ -166,8 +167,8 @@ public class ErlangCompletionContributor extends CompletionContributor {
             String prefix = originalColonQExpr != null ?
               StringUtil.first(originalColonQExpr.getText(), parameters.getOffset() - originalColonQExpr.getTextOffset(), false) :
               moduleName != null ? moduleName + ":" : null;
-            (StringUtil.isEmpty(prefix) ? result : result.withPrefixMatcher(result.getPrefixMatcher().cloneWithPrefix(prefix) ))
-              .addAllElements(getAllExportedFunctionsWithModuleLookupElements(file.getProject(), false, moduleName));
+            addAllExportedFunctionsWithModule(file.getProject(), moduleName,
+              StringUtil.isEmpty(prefix) ? result : result.withPrefixMatcher(result.getPrefixMatcher().cloneWithPrefix(prefix)));
           }
           else if (grandPa instanceof ErlangRecordField || grandPa instanceof ErlangRecordTuple) {
             Pair<List<ErlangTypedExpr>, List<ErlangQAtom>> recordFields = getRecordFields(grandPa);
@@ -209,7 +210,7 @@ public class ErlangCompletionContributor extends CompletionContributor {
             && grandPa instanceof ErlangExpression
             && (inFunction(position) || inConsole || PsiTreeUtil.getParentOfType(position, ErlangTypedRecordFields.class) != null)) {
             result.addAllElements(getFunctionLookupElements(file, false, null));
-            result.addAllElements(getAllExportedFunctionsWithModuleLookupElements(file.getProject(), false, null));
+            addAllExportedFunctionsWithModule(file.getProject(), null, result);
           }
 
           int invocationCount = parameters.getInvocationCount();
@@ -442,6 +443,20 @@ public class ErlangCompletionContributor extends CompletionContributor {
     }
   }
 
+  private static void addAllExportedFunctionsWithModule(@NotNull Project project,
+                                                        @Nullable String excludedModule,
+                                                        @NotNull final CompletionResultSet result) {
+    ErlangExportedFunctionsLookupCache.getInstance(project).processLookupElements(excludedModule, new Processor<LookupElement>() {
+      @Override
+      public boolean process(LookupElement element) {
+        if (result.getPrefixMatcher().prefixMatches(element)) {
+          result.addElement(element);
+        }
+        return !result.isStopped();
+      }
+    });
+  }
+
   private static void suggestBehaviours(@NotNull CompletionResultSet result, @NotNull PsiElement position) {
     Project project = position.getProject();
     Collection<ErlangModule> modules = ErlangBehaviourModuleIndex.getModules(project,
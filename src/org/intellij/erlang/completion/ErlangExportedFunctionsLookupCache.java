@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.completion;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Processor;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.index.ErlangModuleIndex;
+import org.intellij.erlang.psi.ErlangFile;
+import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lookup elements for exported functions in {@code module:function} form, kept per module between completion
+ * invocations. An entry is rebuilt when the set of files defining the module changes or when the declarations
+ * of one of them change.
+ * <p/>
+ * Entries hold neither PSI nor files: elements refer to functions through smart pointers and files are tracked through
+ * weak references. Entries are softly reachable and the ones of modules which are gone are dropped after a full pass.
+ */
+public class ErlangExportedFunctionsLookupCache {
+  private final Project myProject;
+  private final ConcurrentMap<String, ModuleLookupElements> myCache = ContainerUtil.createConcurrentSoftValueMap();
+
+  public ErlangExportedFunctionsLookupCache(@NotNull Project project) {
+    myProject = project;
+  }
+
+  @NotNull
+  public static ErlangExportedFunctionsLookupCache getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, ErlangExportedFunctionsLookupCache.class);
+  }
+
+  /**
+   * Feeds the processor with lookup elements module by module, so that consumers can show results before
+   * all modules are processed.
+   */
+  public boolean processLookupElements(@Nullable String excludedModule, @NotNull Processor<LookupElement> processor) {
+    GlobalSearchScope scope = GlobalSearchScope.allScope(myProject);
+    Collection<String> moduleNames = ErlangModuleIndex.getNames(myProject);
+    for (String moduleName : moduleNames) {
+      if (moduleName.equals(excludedModule)) continue;
+      ProgressManager.checkCanceled();
+      for (LookupElement element : getLookupElements(moduleName, scope)) {
+        if (!processor.process(element)) return false;
+      }
+    }
+    Set<String> moduleNameSet = ContainerUtil.newHashSet(moduleNames);
+    for (String cachedModuleName : myCache.keySet()) {
+      if (!moduleNameSet.contains(cachedModuleName)) {
+        myCache.remove(cachedModuleName);
+      }
+    }
+    return true;
+  }
+
+  @NotNull
+  private List<LookupElement> getLookupElements(@NotNull String moduleName, @NotNull GlobalSearchScope scope) {
+    List<ErlangFile> files = getModuleFiles(moduleName, scope);
+    if (files.isEmpty()) {
+      myCache.remove(moduleName);
+      return ContainerUtil.emptyList();
+    }
+    ModuleLookupElements cached = myCache.get(moduleName);
+    if (cached != null && cached.isUpToDate(files)) return cached.myLookupElements;
+
+    ModuleLookupElements computed = new ModuleLookupElements(
+      files, ErlangPsiImplUtil.createExportedFunctionsWithModuleLookupElements(myProject, moduleName));
+    myCache.put(moduleName, computed);
+    return computed.myLookupElements;
+  }
+
+  @NotNull
+  private List<ErlangFile> getModuleFiles(@NotNull String moduleName, @NotNull GlobalSearchScope scope) {
+    PsiManager psiManager = PsiManager.getInstance(myProject);
+    List<ErlangFile> result = ContainerUtil.newArrayList();
+    for (VirtualFile virtualFile : ErlangModuleIndex.getVirtualFilesByName(myProject, moduleName, scope)) {
+      PsiFile file = psiManager.findFile(virtualFile);
+      if (file instanceof ErlangFile) {
+        result.add((ErlangFile) file);
+      }
+    }
+    return result;
+  }
+
+  private static class ModuleLookupElements {
+    private final List<WeakReference<ModificationTracker>> myTrackers;
+    private final long[] myModificationCounts;
+    private final List<LookupElement> myLookupElements;
+
+    public ModuleLookupElements(@NotNull List<ErlangFile> files, @NotNull List<LookupElement> lookupElements) {
+      myTrackers = ContainerUtil.newArrayListWithCapacity(files.size());
+      myModificationCounts = new long[files.size()];
+      for (int i = 0; i < files.size(); i++) {
+        ModificationTracker tracker = files.get(i).getDeclarationsModificationTracker();
+        myTrackers.add(new WeakReference<ModificationTracker>(tracker));
+        myModificationCounts[i] = tracker.getModificationCount();
+      }
+      myLookupElements = ContainerUtil.immutableList(lookupElements);
+    }
+
+    // a recreated PSI file comes with a new tracker, so trackers are compared by identity;
+    // a tracker is collected together with its file, which makes the entry stale as well
+    public boolean isUpToDate(@NotNull List<ErlangFile> files) {
+      if (files.size() != myTrackers.size()) return false;
+      for (int i = 0; i < files.size(); i++) {
+        ErlangFile file = files.get(i);
+        ModificationTracker tracker = myTrackers.get(i).get();
+        if (!file.isValid() || file.getDeclarationsModificationTracker() != tracker ||
+            tracker.getModificationCount() != myModificationCounts[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -48,6 +48,9 @@ public class ErlangCompilerOptionsConfigurable extends CompilerConfigurable {
   private JCheckBox myAddDebugInfoCheckBox;
   private RawCommandLineEditor myAdditionalErlcArgumentsEditor;
   private JLabel myAdditionalErlcArgumentsLabel;
+  private JSpinner myParallelErlcProcessesSpinner;
+  private JLabel myParallelErlcProcessesLabel;
+  private JCheckBox myUseCompileServerCheckBox;
   private final ErlangCompilerSettings mySettings;
   private final Project myProject;
 
@@ -55,6 +58,7 @@ public class ErlangCompilerOptionsConfigurable extends CompilerConfigurable {
     super(project);
     myProject = project;
     mySettings = ErlangCompilerSettings.getInstance(project);
+    myParallelErlcProcessesSpinner.setModel(new SpinnerNumberModel(0, 0, 256, 1));
     setupUiListeners();
   }
 
@@ -108,6 +112,8 @@ public class ErlangCompilerOptionsConfigurable extends CompilerConfigurable {
     setUseRebarCompiler(rebarPathIsSet && mySettings.isUseRebarCompilerEnabled());
     myAddDebugInfoCheckBox.setSelected(mySettings.isAddDebugInfoEnabled());
     myAdditionalErlcArgumentsEditor.setText(argumentsString(mySettings.getAdditionalErlcArguments()));
+    myParallelErlcProcessesSpinner.setValue(Math.max(0, mySettings.getParallelErlcProcesses()));
+    myUseCompileServerCheckBox.setSelected(mySettings.isUseCompileServerEnabled());
   }
 
   @Override
@@ -115,6 +121,8 @@ public class ErlangCompilerOptionsConfigurable extends CompilerConfigurable {
     mySettings.setUseRebarCompilerEnabled(myUseRebarCompilerCheckBox.isSelected());
     mySettings.setAddDebugInfoEnabled(myAddDebugInfoCheckBox.isSelected());
     mySettings.setAdditionalErlcArguments(arguments(myAdditionalErlcArgumentsEditor.getText()));
+    mySettings.setParallelErlcProcesses(getParallelErlcProcesses());
+    mySettings.setUseCompileServerEnabled(myUseCompileServerCheckBox.isSelected());
   }
 
   @Override
@@ -122,7 +130,13 @@ public class ErlangCompilerOptionsConfigurable extends CompilerConfigurable {
     return myUseRebarCompilerCheckBox.isSelected() != mySettings.isUseRebarCompilerEnabled() ||
            myAddDebugInfoCheckBox.isSelected() != mySettings.isAddDebugInfoEnabled() ||
            !StringUtil.equals(myAdditionalErlcArgumentsEditor.getText(),
-                              argumentsString(mySettings.getAdditionalErlcArguments()));
+                              argumentsString(mySettings.getAdditionalErlcArguments())) ||
+           getParallelErlcProcesses() != Math.max(0, mySettings.getParallelErlcProcesses()) ||
+           myUseCompileServerCheckBox.isSelected() != mySettings.isUseCompileServerEnabled();
+  }
+
+  private int getParallelErlcProcesses() {
+    return ((Number) myParallelErlcProcessesSpinner.getValue()).intValue();
   }
 
   private void setUseRebarCompiler(boolean useRebarCompiler) {
@@ -130,6 +144,9 @@ public class ErlangCompilerOptionsConfigurable extends CompilerConfigurable {
 
     myAdditionalErlcArgumentsLabel.setVisible(!useRebarCompiler);
     myAdditionalErlcArgumentsEditor.setVisible(!useRebarCompiler);
+    myParallelErlcProcessesLabel.setVisible(!useRebarCompiler);
+    myParallelErlcProcessesSpinner.setVisible(!useRebarCompiler);
+    myUseCompileServerCheckBox.setVisible(!useRebarCompiler);
   }
 
   @NotNull
@@ -63,6 +63,22 @@ public class ErlangCompilerSettings implements PersistentStateComponent<ErlangCo
     myCompilerOptions.myAddDebugInfoEnabled = useDebugInfo;
   }
 
+  public int getParallelErlcProcesses() {
+    return myCompilerOptions.myParallelErlcProcesses;
+  }
+
+  public void setParallelErlcProcesses(int processesCount) {
+    myCompilerOptions.myParallelErlcProcesses = processesCount;
+  }
+
+  public boolean isUseCompileServerEnabled() {
+    return myCompilerOptions.myUseCompileServer;
+  }
+
+  public void setUseCompileServerEnabled(boolean useCompileServer) {
+    myCompilerOptions.myUseCompileServer = useCompileServer;
+  }
+
   @NotNull
   public List<String> getAdditionalErlcArguments() {
     return ContainerUtil.immutableList(ContainerUtil.notNullize(myCompilerOptions.myAdditionalErlcArguments));
@@ -60,7 +60,9 @@ public class ErlangConsoleCommandLineState extends CommandLineState {
     commandLine.addParameters(StringUtil.split(consoleArgs, " "));
     commandLine.addParameters(ErlangConsoleUtil.getCodePath(project, module, false));
     commandLine.setWorkDirectory(ErlangConsoleUtil.getWorkingDirPath(project, myConfig.getWorkingDirPath()));
+    ErlangConsoleSession session = myConfig.isDistributedMode() ? ErlangConsoleSession.create(commandLine) : null;
     OSProcessHandler handler = new OSProcessHandler(commandLine.createProcess(), commandLine.getCommandLineString());
+    handler.putUserData(ErlangConsoleSession.SESSION_KEY, session);
     ProcessTerminatedListener.attach(handler);
     return handler;
   }
@@ -41,6 +41,7 @@ import java.util.Collection;
 public final class ErlangConsoleRunConfiguration extends ModuleBasedConfiguration<RunConfigurationModule> {
   @NotNull private String myWorkingDirPath;
   private String myConsoleArgs;
+  private boolean myDistributedMode;
 
   public ErlangConsoleRunConfiguration(@NotNull String name, @NotNull Project project) {
     super(name, new RunConfigurationModule(project), ErlangConsoleRunConfigurationFactory.getInstance());
@@ -116,4 +117,15 @@ public final class ErlangConsoleRunConfiguration extends ModuleBasedConfiguratio
   public String getConsoleArgs() {
     return myConsoleArgs;
   }
+
+  public void setDistributedMode(boolean distributedMode) {
+    myDistributedMode = distributedMode;
+  }
+
+  /**
+   * Whether console input is evaluated through a distribution connection to the node instead of its standard input.
+   */
+  public boolean isDistributedMode() {
+    return myDistributedMode;
+  }
 }
@@ -36,6 +36,7 @@ public final class ErlangConsoleRunConfigurationForm extends SettingsEditor<Erla
   private RawCommandLineEditor myConsoleArgsEditor;
   private TextFieldWithBrowseButton myWorkingDirPathField;
   private JComboBox myModuleComboBox;
+  private JCheckBox myDistributedModeCheckBox;
 
   @Nullable private final Module myInitialModule;
 
@@ -62,6 +63,7 @@ public final class ErlangConsoleRunConfigurationForm extends SettingsEditor<Erla
     myWorkingDirPathField.setText(config.getWorkingDirPath());
     myModuleComboBox.setSelectedItem(config.getConfigurationModule().getModule());
     myConsoleArgsEditor.setText(config.getConsoleArgs());
+    myDistributedModeCheckBox.setSelected(config.isDistributedMode());
   }
 
   @Override
@@ -69,6 +71,7 @@ public final class ErlangConsoleRunConfigurationForm extends SettingsEditor<Erla
     config.setModule((Module) myModuleComboBox.getSelectedItem());
     config.setWorkingDirPath(myWorkingDirPathField.getText());
     config.setConsoleArgs(myConsoleArgsEditor.getText());
+    config.setDistributedMode(myDistributedModeCheckBox.isSelected());
   }
 
   @NotNull
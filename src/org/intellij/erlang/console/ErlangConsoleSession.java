@@ -0,0 +1,360 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.console;
+
+import com.ericsson.otp.erlang.*;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.configurations.ParametersList;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.ResourceUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.URLUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates console input on the shell node instead of writing it to the node's standard input.
+ * <p/>
+ * The IDE connects to the node as a hidden jinterface node, loads intellij_console.erl there over RPC and talks
+ * to a session process which keeps the bindings between commands. Results are printed on the node, capped and
+ * sent back in chunks, so a huge term neither travels in full nor floods the console.
+ */
+public final class ErlangConsoleSession {
+  public static final Key<ErlangConsoleSession> SESSION_KEY = Key.create("ERLANG_CONSOLE_SESSION");
+
+  private static final Logger LOG = Logger.getInstance(ErlangConsoleSession.class);
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String MODULE_NAME = "intellij_console";
+  private static final String MODULE_SOURCE = MODULE_NAME + ".erl";
+  private static final int CONNECT_TIMEOUT = 30 * 1000;
+  private static final int CONNECT_RETRY_INTERVAL = 500;
+  private static final int RPC_TIMEOUT = 30 * 1000;
+  private static final int OUTPUT_LIMIT = 1024 * 1024;
+
+  private final String myNodeName;
+  private final String mySelfName;
+  private final String myCookie;
+  private final AtomicInteger myLastRequestId = new AtomicInteger();
+  private final ConcurrentMap<Integer, EvaluationCallback> myCallbacks = ContainerUtil.newConcurrentMap();
+  private volatile boolean myStopped;
+  private volatile OtpNode mySelf;
+  private volatile OtpMbox myMbox;
+  private volatile OtpErlangPid mySessionPid;
+
+  private ErlangConsoleSession(@NotNull String nodeName, @NotNull String selfName, @NotNull String cookie) {
+    myNodeName = nodeName;
+    mySelfName = selfName;
+    myCookie = cookie;
+  }
+
+  /**
+   * Makes the shell started by the command line a distributed node, unless the shell arguments already do so.
+   */
+  @NotNull
+  public static ErlangConsoleSession create(@NotNull GeneralCommandLine commandLine) {
+    ParametersList parameters = commandLine.getParametersList();
+    List<String> args = parameters.getList();
+    SecureRandom random = new SecureRandom();
+
+    boolean longNames = args.contains("-name");
+    String nodeName = getArgumentValue(args, longNames ? "-name" : "-sname");
+    if (nodeName == null) {
+      nodeName = "intellij_console_" + Long.toHexString(random.nextLong() >>> 1);
+      parameters.addAll("-sname", nodeName);
+    }
+    String cookie = getArgumentValue(args, "-setcookie");
+    if (cookie == null) {
+      cookie = Long.toHexString(random.nextLong() >>> 1);
+      parameters.addAll("-setcookie", cookie);
+    }
+
+    String host = getHostName(longNames);
+    String selfName = "intellij_console_ide_" + Long.toHexString(random.nextLong() >>> 1) + "@" + host;
+    return new ErlangConsoleSession(nodeName.contains("@") ? nodeName : nodeName + "@" + host, selfName, cookie);
+  }
+
+  /**
+   * Connects to the node in background. Until this succeeds {@link #evaluate} returns false and input goes to stdin.
+   */
+  public void start() {
+    ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          connect();
+          receiverLoop();
+        }
+        catch (Exception e) {
+          if (!myStopped) {
+            LOG.info("Erlang console session to " + myNodeName + " is closed", e);
+          }
+        }
+        finally {
+          stop();
+        }
+      }
+    });
+  }
+
+  public void stop() {
+    myStopped = true;
+    mySessionPid = null;
+    OtpMbox mbox = myMbox;
+    if (mbox != null) {
+      // wakes up the receiver loop
+      mbox.send(mbox.self(), new OtpErlangAtom("stop"));
+    }
+    OtpNode self = mySelf;
+    if (self != null) {
+      self.close();
+    }
+    for (Integer requestId : myCallbacks.keySet()) {
+      EvaluationCallback callback = myCallbacks.remove(requestId);
+      if (callback != null) callback.failed();
+    }
+  }
+
+  public boolean isConnected() {
+    return mySessionPid != null && !myStopped;
+  }
+
+  /**
+   * Sends the text for evaluation, the callback is invoked on a background thread.
+   *
+   * @return false if the session is not connected, in which case the callback is not invoked.
+   */
+  public boolean evaluate(@NotNull String text, @NotNull EvaluationCallback callback) {
+    OtpMbox mbox = myMbox;
+    OtpErlangPid sessionPid = mySessionPid;
+    if (mbox == null || sessionPid == null || myStopped) return false;
+
+    mbox.send(sessionPid, createEvalRequest(addCallback(callback), text));
+    return true;
+  }
+
+  /**
+   * @return the id of the request the callback waits for
+   */
+  int addCallback(@NotNull EvaluationCallback callback) {
+    int requestId = myLastRequestId.incrementAndGet();
+    myCallbacks.put(requestId, callback);
+    return requestId;
+  }
+
+  @NotNull
+  static OtpErlangTuple createEvalRequest(int requestId, @NotNull String text) {
+    return tuple(new OtpErlangAtom("eval"), new OtpErlangInt(requestId), new OtpErlangBinary(text.getBytes(UTF_8)));
+  }
+
+  private void connect() throws IOException, InterruptedException, OtpErlangException {
+    long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+    while (true) {
+      OtpNode self = null;
+      try {
+        // the node registers in epmd which is only started along with the shell node, so creation may fail too
+        self = new OtpNode(mySelfName, myCookie);
+        if (self.ping(myNodeName, CONNECT_RETRY_INTERVAL)) {
+          mySelf = self;
+          break;
+        }
+        self.close();
+      }
+      catch (IOException e) {
+        if (self != null) self.close();
+        if (System.currentTimeMillis() > deadline) throw e;
+      }
+      if (myStopped) throw new InterruptedException("Erlang console session is stopped");
+      if (System.currentTimeMillis() > deadline) throw new IOException("Failed to connect to " + myNodeName);
+      Thread.sleep(CONNECT_RETRY_INTERVAL);
+    }
+
+    OtpMbox rpcMbox = mySelf.createMbox();
+    try {
+      loadModule(rpcMbox);
+      OtpMbox mbox = mySelf.createMbox();
+      OtpErlangTuple started = getTuple(rpc(rpcMbox, MODULE_NAME, "start", mbox.self(), new OtpErlangInt(OUTPUT_LIMIT)));
+      if (started == null || !(started.elementAt(1) instanceof OtpErlangPid)) {
+        throw new IOException("Failed to start a console session: " + started);
+      }
+      OtpErlangPid sessionPid = (OtpErlangPid) started.elementAt(1);
+      // a broken connection or a crashed session interrupts the receiver loop with an exit
+      mbox.link(sessionPid);
+      myMbox = mbox;
+      mySessionPid = sessionPid;
+    }
+    finally {
+      rpcMbox.close();
+    }
+    LOG.debug("Erlang console session to " + myNodeName + " is started");
+  }
+
+  private void loadModule(@NotNull OtpMbox mbox) throws IOException, OtpErlangException {
+    File directory = FileUtil.createTempDirectory("intellij_erlang_console_", null);
+    try {
+      File source = new File(directory, MODULE_SOURCE);
+      copyModuleSourceTo(source);
+      OtpErlangString sourcePath = new OtpErlangString(source.getPath());
+      OtpErlangList options = new OtpErlangList(new OtpErlangObject[]{new OtpErlangAtom("binary"), new OtpErlangAtom("return_errors")});
+      OtpErlangTuple compiled = getTuple(rpc(mbox, "compile", "file", sourcePath, options));
+      if (compiled == null || compiled.arity() < 3 || !(compiled.elementAt(2) instanceof OtpErlangBinary)) {
+        throw new IOException("Failed to compile " + MODULE_SOURCE + ": " + compiled);
+      }
+      OtpErlangTuple loaded = getTuple(rpc(mbox, "code", "load_binary", new OtpErlangAtom(MODULE_NAME), sourcePath, compiled.elementAt(2)));
+      if (loaded == null || !"module".equals(getAtomText(loaded.elementAt(0)))) {
+        throw new IOException("Failed to load " + MODULE_NAME + ": " + loaded);
+      }
+    }
+    finally {
+      FileUtil.delete(directory);
+    }
+  }
+
+  private void receiverLoop() throws OtpErlangException {
+    OtpMbox mbox = myMbox;
+    while (!myStopped) {
+      processReply(mbox.receive());
+    }
+  }
+
+  /**
+   * Dispatches {output, Id, Chunk} and {result, Id, ok | error, BoundVariableNames} messages of the session process.
+   */
+  void processReply(@Nullable OtpErlangObject reply) throws OtpErlangRangeException {
+    OtpErlangTuple message = getTuple(reply);
+    String tag = message != null ? getAtomText(message.elementAt(0)) : null;
+    Integer requestId = message != null && message.elementAt(1) instanceof OtpErlangLong ? ((OtpErlangLong) message.elementAt(1)).intValue() : null;
+    EvaluationCallback callback = requestId != null ? myCallbacks.get(requestId) : null;
+    if (callback == null) {
+      LOG.debug("Unexpected message from Erlang console session: " + reply);
+    }
+    else if ("output".equals(tag) && message.elementAt(2) instanceof OtpErlangBinary) {
+      callback.output(new String(((OtpErlangBinary) message.elementAt(2)).binaryValue(), UTF_8));
+    }
+    else if ("result".equals(tag) && message.arity() == 4) {
+      myCallbacks.remove(requestId);
+      callback.evaluated("ok".equals(getAtomText(message.elementAt(2))), getAtomTexts(message.elementAt(3)));
+    }
+  }
+
+  @Nullable
+  private OtpErlangObject rpc(@NotNull OtpMbox mbox, @NotNull String module, @NotNull String function,
+                              @NotNull OtpErlangObject... args) throws IOException, OtpErlangException {
+    OtpErlangTuple call = tuple(new OtpErlangAtom("call"), new OtpErlangAtom(module), new OtpErlangAtom(function),
+                                new OtpErlangList(args), new OtpErlangAtom("user"));
+    mbox.send("rex", myNodeName, tuple(mbox.self(), call));
+    OtpErlangTuple reply = getTuple(mbox.receive(RPC_TIMEOUT));
+    if (reply == null || reply.arity() != 2 || !"rex".equals(getAtomText(reply.elementAt(0)))) {
+      throw new IOException("No reply to " + module + ":" + function + " from " + myNodeName);
+    }
+    return reply.elementAt(1);
+  }
+
+  private static void copyModuleSourceTo(@NotNull File file) throws IOException {
+    URL sourceUrl = ResourceUtil.getResource(ErlangConsoleSession.class, "/console", MODULE_SOURCE);
+    if (sourceUrl == null) {
+      throw new IOException("Failed to locate console module: " + MODULE_SOURCE);
+    }
+    BufferedInputStream inputStream = new BufferedInputStream(URLUtil.openStream(sourceUrl));
+    try {
+      BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file));
+      try {
+        FileUtil.copy(inputStream, outputStream);
+      }
+      finally {
+        outputStream.close();
+      }
+    }
+    finally {
+      inputStream.close();
+    }
+  }
+
+  @Nullable
+  private static String getArgumentValue(@NotNull List<String> args, @NotNull String name) {
+    int index = args.indexOf(name);
+    return index != -1 && index + 1 < args.size() ? StringUtil.nullize(args.get(index + 1)) : null;
+  }
+
+  /**
+   * Mirrors how erl picks the host part of node names: the short host name for -sname and the full one for -name.
+   */
+  @NotNull
+  private static String getHostName(boolean longNames) {
+    try {
+      InetAddress localHost = InetAddress.getLocalHost();
+      if (longNames) return localHost.getCanonicalHostName();
+      String hostName = localHost.getHostName();
+      int dot = hostName.indexOf('.');
+      return dot != -1 ? hostName.substring(0, dot) : hostName;
+    }
+    catch (UnknownHostException e) {
+      return "localhost";
+    }
+  }
+
+  @NotNull
+  private static OtpErlangTuple tuple(@NotNull OtpErlangObject... elements) {
+    return new OtpErlangTuple(elements);
+  }
+
+  @Nullable
+  private static OtpErlangTuple getTuple(@Nullable OtpErlangObject object) {
+    return object instanceof OtpErlangTuple ? (OtpErlangTuple) object : null;
+  }
+
+  @Nullable
+  private static String getAtomText(@Nullable OtpErlangObject object) {
+    return object instanceof OtpErlangAtom ? ((OtpErlangAtom) object).atomValue() : null;
+  }
+
+  @NotNull
+  private static Set<String> getAtomTexts(@Nullable OtpErlangObject object) {
+    if (!(object instanceof OtpErlangList)) return Collections.emptySet();
+    Set<String> texts = ContainerUtil.newHashSet();
+    for (OtpErlangObject element : (OtpErlangList) object) {
+      ContainerUtil.addIfNotNull(texts, getAtomText(element));
+    }
+    return texts;
+  }
+
+  public interface EvaluationCallback {
+    void output(@NotNull String text);
+
+    void evaluated(boolean success, @NotNull Set<String> boundVariables);
+
+    /**
+     * The session was closed before the result arrived.
+     */
+    void failed();
+  }
+}
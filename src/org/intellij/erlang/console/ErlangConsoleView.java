@@ -18,7 +18,11 @@ package org.intellij.erlang.console;
 
 import com.intellij.execution.console.ConsoleHistoryController;
 import com.intellij.execution.console.LanguageConsoleImpl;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
 import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.ex.EditorEx;
@@ -39,10 +43,12 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 public final class ErlangConsoleView extends LanguageConsoleImpl {
   @Nullable private ConsoleHistoryController myHistoryController;
   @Nullable private OutputStreamWriter myProcessInputWriter;
+  @Nullable private ErlangConsoleSession mySession;
 
   public ErlangConsoleView(@NotNull Project project) {
     super(project, "Erlang Console", ErlangLanguage.INSTANCE);
@@ -67,12 +73,27 @@ public final class ErlangConsoleView extends LanguageConsoleImpl {
     myHistoryController = new ConsoleHistoryController("Erlang", null, this);
     myHistoryController.install();
     ErlangConsoleViewDirectory.getInstance().addConsole(this);
+
+    final ErlangConsoleSession session = processHandler.getUserData(ErlangConsoleSession.SESSION_KEY);
+    if (session != null) {
+      mySession = session;
+      processHandler.addProcessListener(new ProcessAdapter() {
+        @Override
+        public void processTerminated(ProcessEvent event) {
+          session.stop();
+        }
+      });
+      session.start();
+    }
   }
 
   @Override
   public void dispose() {
     super.dispose();
     ErlangConsoleViewDirectory.getInstance().delConsole(this);
+    if (mySession != null) {
+      mySession.stop();
+    }
   }
 
   public void append(@NotNull final String text) {
@@ -93,26 +114,22 @@ public final class ErlangConsoleView extends LanguageConsoleImpl {
     Document editorDocument = consoleEditor.getDocument();
     String text = editorDocument.getText();
 
-    final Map<String, ErlangQVar> context = getFile().getOriginalFile().getUserData(ErlangVarProcessor.ERLANG_VARIABLE_CONTEXT);
-    if (context != null) { // todo: process only successful statements
-      getFile().accept(new ErlangRecursiveVisitor() {
-        @Override
-        public void visitQVar(@NotNull ErlangQVar o) {
-          String name = o.getName();
-          if (!context.containsKey(name)) context.put(name, o);
-        }
-
-        @Override
-        public void visitFunctionCallExpression(@NotNull ErlangFunctionCallExpression o) {
-          String name = o.getNameIdentifier().getText();
-          int size = o.getArgumentList().getExpressionList().size();
-          if (name.equals("f") && size == 0) context.clear();
-        }
-      });
+    Map<String, ErlangQVar> context = getFile().getOriginalFile().getUserData(ErlangVarProcessor.ERLANG_VARIABLE_CONTEXT);
+    boolean onNode = mySession != null && mySession.isConnected();
+    Map<String, ErlangQVar> inputVariables = new HashMap<String, ErlangQVar>();
+    if (onNode) {
+      collectVariables(inputVariables);
+    }
+    else if (context != null) { // todo: process only successful statements
+      collectVariables(context);
     }
 
     addToHistoryInner(new TextRange(0, text.length()), consoleEditor, true, true);
     myHistoryController.addToHistory(text);
+
+    if (onNode && evaluateOnNode(text, context, inputVariables)) {
+      return;
+    }
     for (String line : text.split("\n")) {
       try {
         myProcessInputWriter.write(line + "\n");
@@ -121,4 +138,56 @@ public final class ErlangConsoleView extends LanguageConsoleImpl {
       }
     }
   }
+
+  /**
+   * The node reports which variables are bound after evaluation, so variables of failed statements do not get into the context.
+   */
+  private boolean evaluateOnNode(@NotNull String text,
+                                 @Nullable final Map<String, ErlangQVar> context,
+                                 @NotNull final Map<String, ErlangQVar> inputVariables) {
+    return mySession != null && mySession.evaluate(text, new ErlangConsoleSession.EvaluationCallback() {
+      @Override
+      public void output(@NotNull String output) {
+        print(output, ConsoleViewContentType.NORMAL_OUTPUT);
+      }
+
+      @Override
+      public void evaluated(boolean success, @NotNull final Set<String> boundVariables) {
+        if (context == null) return;
+        ApplicationManager.getApplication().invokeLater(new Runnable() {
+          @Override
+          public void run() {
+            context.keySet().retainAll(boundVariables);
+            for (Map.Entry<String, ErlangQVar> variable : inputVariables.entrySet()) {
+              if (boundVariables.contains(variable.getKey()) && !context.containsKey(variable.getKey())) {
+                context.put(variable.getKey(), variable.getValue());
+              }
+            }
+          }
+        });
+      }
+
+      @Override
+      public void failed() {
+        print("Connection to the node is closed\n", ConsoleViewContentType.ERROR_OUTPUT);
+      }
+    });
+  }
+
+  private void collectVariables(@NotNull final Map<String, ErlangQVar> variables) {
+    getFile().accept(new ErlangRecursiveVisitor() {
+      @Override
+      public void visitQVar(@NotNull ErlangQVar o) {
+        String name = o.getName();
+        if (!variables.containsKey(name)) variables.put(name, o);
+      }
+
+      @Override
+      public void visitFunctionCallExpression(@NotNull ErlangFunctionCallExpression o) {
+        String name = o.getNameIdentifier().getText();
+        int size = o.getArgumentList().getExpressionList().size();
+        if (name.equals("f") && size == 0) variables.clear();
+      }
+    });
+  }
 }
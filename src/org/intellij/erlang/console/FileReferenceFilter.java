@@ -20,18 +20,27 @@ import com.intellij.execution.filters.HyperlinkInfo;
 import com.intellij.execution.filters.InvalidExpressionException;
 import com.intellij.execution.filters.OpenFileHyperlinkInfo;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.ProjectScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.Function;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
 
 import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -45,15 +54,37 @@ public final class FileReferenceFilter implements Filter {
   private static final String NUMBER_REGEXP = "([0-9]+)";
 
   private static final Pattern PATTERN_FILENAME = Pattern.compile("[/\\\\]?([^/\\\\]*?\\.erl)$");
+  private static final int RESOLVE_CACHE_SIZE = 1000;
 
   private final Pattern myPattern;
   private final Project myProject;
   private final int myFileMatchGroup;
   private final int myLineMatchGroup;
   private final int myColumnMatchGroup;
+  // paths repeat a lot in logs, a miss is cached too and everything is dropped on any root or VFS change
+  private final CachedValue<Map<String, VirtualFile>> myResolveCache;
+  private Function<String, VirtualFile> myResolver = new Function<String, VirtualFile>() {
+    @Override
+    public VirtualFile fun(String path) {
+      return resolveAbsolutePath(path);
+    }
+  };
 
-  public FileReferenceFilter(@NotNull Project project, @NonNls @NotNull String expression) {
+  public FileReferenceFilter(@NotNull final Project project, @NonNls @NotNull String expression) {
     myProject = project;
+    myResolveCache = CachedValuesManager.getManager(project).createCachedValue(new CachedValueProvider<Map<String, VirtualFile>>() {
+      @Nullable
+      @Override
+      public Result<Map<String, VirtualFile>> compute() {
+        Map<String, VirtualFile> cache = new LinkedHashMap<String, VirtualFile>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, VirtualFile> eldest) {
+            return size() > RESOLVE_CACHE_SIZE;
+          }
+        };
+        return Result.create(cache, ProjectRootManager.getInstance(project), VirtualFileManager.getInstance());
+      }
+    }, false);
     if (StringUtil.isEmpty(expression)) {
       throw new InvalidExpressionException("expression is empty");
     }
@@ -111,7 +142,7 @@ public final class FileReferenceFilter implements Filter {
     int fileCol = matchGroupToNumber(matcher, myColumnMatchGroup);
     int highlightStartOffset = entireLength - line.length() + matcher.start(0);
     int highlightEndOffset = highlightStartOffset + matcher.end(0) - matcher.start(0);
-    VirtualFile absolutePath = resolveAbsolutePath(filePath);
+    VirtualFile absolutePath = resolveCached(filePath);
     HyperlinkInfo hyperLink = absolutePath != null
       ? new OpenFileHyperlinkInfo(myProject, absolutePath, fileLine, fileCol) : null;
     return new Result(highlightStartOffset, highlightEndOffset, hyperLink);
@@ -128,6 +159,27 @@ public final class FileReferenceFilter implements Filter {
     return number > 0 ? number - 1 : 0;
   }
 
+  @Nullable
+  private VirtualFile resolveCached(@NotNull String path) {
+    Map<String, VirtualFile> cache = myResolveCache.getValue();
+    synchronized (cache) {
+      if (cache.containsKey(path)) {
+        VirtualFile file = cache.get(path);
+        if (file == null || file.isValid()) return file;
+      }
+    }
+    VirtualFile file = myResolver.fun(path);
+    synchronized (cache) {
+      cache.put(path, file);
+    }
+    return file;
+  }
+
+  @TestOnly
+  void setResolver(@NotNull Function<String, VirtualFile> resolver) {
+    myResolver = resolver;
+  }
+
   @Nullable
   private VirtualFile resolveAbsolutePath(@NotNull String path) {
     VirtualFile asIsFile = pathToVirtualFile(path);
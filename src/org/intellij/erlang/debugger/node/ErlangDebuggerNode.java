@@ -20,34 +20,46 @@ import com.ericsson.otp.erlang.*;
 import com.intellij.concurrency.AsyncFutureFactory;
 import com.intellij.concurrency.AsyncFutureResult;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.util.containers.ContainerUtil;
 import org.intellij.erlang.debugger.node.commands.ErlangDebuggerCommandsProducer;
 import org.intellij.erlang.debugger.node.events.ErlangDebuggerEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
 import java.net.SocketException;
-import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
-import java.util.LinkedList;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import static org.intellij.erlang.debugger.ErlangDebuggerLog.LOG;
 
 public class ErlangDebuggerNode {
-  private static final int RECEIVE_TIMEOUT = 50;
-  private static final int RETRIES_ON_TIMEOUT = 10;
+  private static final int INITIAL_RECEIVE_BUFFER_SIZE = 8 * 1024;
+
+  private static final String PROCESS_RESUMED = "Process is resumed";
 
   private OtpErlangPid myLastSuspendedPid;
 
-  private final Queue<ErlangDebuggerCommandsProducer.ErlangDebuggerCommand> myCommandsQueue = new LinkedList<ErlangDebuggerCommandsProducer.ErlangDebuggerCommand>();
+  private final Queue<ErlangDebuggerCommandsProducer.ErlangDebuggerCommand> myCommandsQueue = new ConcurrentLinkedQueue<ErlangDebuggerCommandsProducer.ErlangDebuggerCommand>();
+  private final AtomicInteger myLastRequestId = new AtomicInteger();
+  private final ConcurrentMap<Integer, RequestCallback<List<ErlangTraceElement>>> myStackRequests = ContainerUtil.newConcurrentMap();
+  private final ConcurrentMap<Integer, RequestCallback<Collection<ErlangVariableBinding>>> myBindingsRequests = ContainerUtil.newConcurrentMap();
+  private final ConcurrentMap<Integer, RequestCallback<OtpErlangObject>> mySliceRequests = ContainerUtil.newConcurrentMap();
+  private volatile Thread mySenderThread;
+  private volatile SocketChannel myDebuggerChannel;
   private int myLocalDebuggerPort = -1;
   @NotNull
   private final ErlangDebuggerEventListener myEventListener;
@@ -71,6 +83,17 @@ public class ErlangDebuggerNode {
 
   public void stop() {
     myStopped.set(true);
+    LockSupport.unpark(mySenderThread);
+    failPendingRequests("Debugger is stopped");
+    SocketChannel channel = myDebuggerChannel;
+    if (channel != null) {
+      try {
+        channel.close();
+      }
+      catch (IOException e) {
+        LOG.debug(e);
+      }
+    }
   }
 
   public boolean isStopped() {
@@ -102,27 +125,124 @@ public class ErlangDebuggerNode {
   }
 
   public void stepInto() {
+    failPendingRequests(PROCESS_RESUMED);
     addCommand(ErlangDebuggerCommandsProducer.getStepIntoCommand(myLastSuspendedPid));
   }
 
   public void stepOver() {
+    failPendingRequests(PROCESS_RESUMED);
     addCommand(ErlangDebuggerCommandsProducer.getStepOverCommand(myLastSuspendedPid));
   }
 
   public void stepOut() {
+    failPendingRequests(PROCESS_RESUMED);
     addCommand(ErlangDebuggerCommandsProducer.getStepOutCommand(myLastSuspendedPid));
   }
 
   public void resume() {
+    failPendingRequests(PROCESS_RESUMED);
     addCommand(ErlangDebuggerCommandsProducer.getContinueCommand(myLastSuspendedPid));
   }
 
-  private void addCommand(ErlangDebuggerCommandsProducer.ErlangDebuggerCommand command) {
-    synchronized (myCommandsQueue) {
-      myCommandsQueue.add(command);
+  /**
+   * Requests the stack of a suspended process. The callback is invoked on the debugger node thread,
+   * or on the thread which resumes or stops the debugger if the request is still pending then.
+   */
+  public void requestStack(@NotNull OtpErlangPid pid, @NotNull RequestCallback<List<ErlangTraceElement>> callback) {
+    int requestId = myLastRequestId.incrementAndGet();
+    myStackRequests.put(requestId, callback);
+    addCommand(ErlangDebuggerCommandsProducer.getGetStackCommand(requestId, pid));
+    if (isStopped()) failPendingRequests("Debugger is stopped");
+  }
+
+  /**
+   * Requests bindings of a suspended process frame. The callback is invoked the same way as for {@link #requestStack}.
+   *
+   * @param stackPointer a stack pointer of the frame or null for the top frame.
+   */
+  public void requestBindings(@NotNull OtpErlangPid pid,
+                              @Nullable Integer stackPointer,
+                              @NotNull RequestCallback<Collection<ErlangVariableBinding>> callback) {
+    int requestId = myLastRequestId.incrementAndGet();
+    myBindingsRequests.put(requestId, callback);
+    addCommand(ErlangDebuggerCommandsProducer.getGetBindingsCommand(requestId, pid, stackPointer));
+    if (isStopped()) failPendingRequests("Debugger is stopped");
+  }
+
+  /**
+   * Requests a page of children of a value which the debugger node sent sliced. The callback receives a list of
+   * elements, a list of {Key, Value} tuples for maps or a binary, and is invoked the same way as for {@link #requestStack}.
+   *
+   * @param stackPointer a stack pointer of the frame the variable is bound in or null for the top frame.
+   * @param path         a path from the bound value to the sliced one: element indexes and {key, Key} tuples.
+   */
+  public void requestTermSlice(@NotNull OtpErlangPid pid,
+                               @Nullable Integer stackPointer,
+                               @NotNull String variableName,
+                               @NotNull OtpErlangList path,
+                               int from,
+                               int count,
+                               @NotNull RequestCallback<OtpErlangObject> callback) {
+    int requestId = myLastRequestId.incrementAndGet();
+    mySliceRequests.put(requestId, callback);
+    addCommand(ErlangDebuggerCommandsProducer.getGetTermSliceCommand(requestId, pid, stackPointer, variableName, path, from, count));
+    if (isStopped()) failPendingRequests("Debugger is stopped");
+  }
+
+  public void stackReceived(int requestId, @NotNull List<ErlangTraceElement> stack) {
+    RequestCallback<List<ErlangTraceElement>> callback = myStackRequests.remove(requestId);
+    if (callback != null) {
+      callback.received(stack);
+    }
+  }
+
+  public void bindingsReceived(int requestId, @NotNull Collection<ErlangVariableBinding> bindings) {
+    RequestCallback<Collection<ErlangVariableBinding>> callback = myBindingsRequests.remove(requestId);
+    if (callback != null) {
+      callback.received(bindings);
+    }
+  }
+
+  public void termSliceReceived(int requestId, @NotNull OtpErlangObject slice) {
+    RequestCallback<OtpErlangObject> callback = mySliceRequests.remove(requestId);
+    if (callback != null) {
+      callback.received(slice);
+    }
+  }
+
+  public void requestFailed(int requestId, @NotNull String error) {
+    RequestCallback<?> callback = myStackRequests.remove(requestId);
+    if (callback == null) {
+      callback = myBindingsRequests.remove(requestId);
+    }
+    if (callback == null) {
+      callback = mySliceRequests.remove(requestId);
+    }
+    if (callback != null) {
+      callback.failed(error);
+    }
+  }
+
+  private void failPendingRequests(@NotNull String error) {
+    failAll(myStackRequests, error);
+    failAll(myBindingsRequests, error);
+    failAll(mySliceRequests, error);
+  }
+
+  private static void failAll(@NotNull ConcurrentMap<Integer, ? extends RequestCallback<?>> requests, @NotNull String error) {
+    for (Integer requestId : ContainerUtil.newArrayList(requests.keySet())) {
+      RequestCallback<?> callback = requests.remove(requestId);
+      if (callback != null) {
+        callback.failed(error);
+      }
     }
   }
 
+  private void addCommand(ErlangDebuggerCommandsProducer.ErlangDebuggerCommand command) {
+    myCommandsQueue.add(command);
+    LockSupport.unpark(mySenderThread);
+  }
+
   @NotNull
   private Future<Integer> runDebuggerServer() {
     final AsyncFutureResult<Integer> portFuture = AsyncFutureFactory.getInstance().createAsyncFutureResult();
@@ -139,19 +259,20 @@ public class ErlangDebuggerNode {
     try {
       Exception cachedException = null;
       LOG.debug("Opening a server socket.");
-      ServerSocket serverSocket = new ServerSocket(0);
+      ServerSocketChannel serverChannel = ServerSocketChannel.open();
       try {
-        portFuture.set(serverSocket.getLocalPort());
+        serverChannel.socket().bind(new InetSocketAddress(0));
+        portFuture.set(serverChannel.socket().getLocalPort());
 
-        LOG.debug("Listening on port " + serverSocket.getLocalPort() + ".");
+        LOG.debug("Listening on port " + serverChannel.socket().getLocalPort() + ".");
 
-        Socket debuggerSocket = serverSocket.accept();
+        SocketChannel debuggerChannel = serverChannel.accept();
         try {
           LOG.debug("Debugger connected, closing the server socket.");
-          serverSocket.close();
+          serverChannel.close();
           myEventListener.debuggerStarted();
-          LOG.debug("Starting send/receive loop.");
-          serverLoop(debuggerSocket);
+          LOG.debug("Starting send/receive loops.");
+          serverLoop(debuggerChannel);
         }
         catch (Exception e) {
           cachedException = e;
@@ -159,8 +280,10 @@ public class ErlangDebuggerNode {
         }
         finally {
           myStopped.set(true);
+          LockSupport.unpark(mySenderThread);
+          failPendingRequests("Connection to the debugger node is closed");
           myEventListener.debuggerStopped();
-          debuggerSocket.close();
+          debuggerChannel.close();
         }
       }
       catch (Exception e) {
@@ -175,7 +298,7 @@ public class ErlangDebuggerNode {
         throw e;
       }
       finally {
-        serverSocket.close();
+        serverChannel.close();
       }
     }
     catch (Exception th) {
@@ -188,23 +311,85 @@ public class ErlangDebuggerNode {
     }
   }
 
-  private void serverLoop(@NotNull Socket debuggerSocket) throws IOException {
-    debuggerSocket.setSoTimeout(RECEIVE_TIMEOUT);
+  private void serverLoop(@NotNull SocketChannel debuggerChannel) throws IOException {
+    myDebuggerChannel = debuggerChannel;
+    if (isStopped()) return;
+    runSenderLoop(debuggerChannel);
+    try {
+      receiverLoop(debuggerChannel);
+    }
+    catch (IOException e) {
+      if (!isStopped()) throw e;
+    }
+  }
 
-    while (!isStopped()) {
-      if (!isStopped()) {
-        receiveMessage(debuggerSocket);
+  private void runSenderLoop(@NotNull final SocketChannel channel) {
+    ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+      @Override
+      public void run() {
+        mySenderThread = Thread.currentThread();
+        try {
+          senderLoop(channel);
+        }
+        catch (IOException e) {
+          if (!isStopped()) {
+            LOG.debug(e);
+            stop();
+          }
+        }
+        finally {
+          mySenderThread = null;
+        }
       }
-      if (!isStopped()) {
-        sendMessages(debuggerSocket);
+    });
+  }
+
+  /**
+   * Sends queued commands as soon as they are added, parking while the queue is empty.
+   */
+  private void senderLoop(@NotNull SocketChannel channel) throws IOException {
+    OutputStream out = Channels.newOutputStream(channel);
+    OtpOutputStream buffer = new OtpOutputStream();
+    while (!isStopped()) {
+      ErlangDebuggerCommandsProducer.ErlangDebuggerCommand command = myCommandsQueue.poll();
+      if (command == null) {
+        LockSupport.park(this);
+        continue;
       }
+      OtpErlangTuple message = command.toMessage();
+      LOG.debug("Sending message: " + message);
+      send(out, buffer, message);
     }
   }
 
-  private void receiveMessage(@NotNull Socket socket) throws SocketException {
-    OtpErlangObject receivedMessage = receive(socket);
-    if (receivedMessage == null) return;
+  /**
+   * Blocks on the socket until a whole frame is received, so no polling is needed while the debugger is idle.
+   */
+  private void receiverLoop(@NotNull SocketChannel channel) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(4);
+    ByteBuffer body = ByteBuffer.allocate(INITIAL_RECEIVE_BUFFER_SIZE);
+    while (!isStopped()) {
+      header.clear();
+      readFully(channel, header);
+      int objectSize = header.getInt(0);
+
+      LOG.debug("Incoming packet size: " + objectSize + " bytes");
 
+      if (body.capacity() < objectSize) {
+        body = ByteBuffer.allocate(Math.max(objectSize, 2 * body.capacity()));
+      }
+      body.clear();
+      body.limit(objectSize);
+      readFully(channel, body);
+
+      OtpErlangObject receivedMessage = decode(body.array(), objectSize);
+      if (receivedMessage != null && !isStopped()) {
+        processMessage(receivedMessage);
+      }
+    }
+  }
+
+  private void processMessage(@NotNull OtpErlangObject receivedMessage) {
     LOG.debug("Message received: " + String.valueOf(receivedMessage));
 
     ErlangDebuggerEvent event = ErlangDebuggerEvent.create(receivedMessage);
@@ -216,118 +401,42 @@ public class ErlangDebuggerNode {
     LOG.debug("Message processed: " + messageRecognized);
   }
 
-  private void sendMessages(@NotNull Socket socket) throws SocketException {
-    synchronized (myCommandsQueue) {
-      while (!myCommandsQueue.isEmpty()) {
-        OtpErlangTuple message = myCommandsQueue.remove().toMessage();
-        LOG.debug("Sending message: " + message);
-        send(socket, message);
-      }
-    }
+  private static void send(@NotNull OutputStream out,
+                           @NotNull OtpOutputStream buffer,
+                           @NotNull OtpErlangObject message) throws IOException {
+    buffer.reset();
+    buffer.write4BE(0);
+    buffer.write1(OtpExternal.versionTag);
+    buffer.write_any(message);
+    buffer.poke4BE(0, buffer.size() - 4);
+    buffer.writeTo(out);
   }
 
-  private static void send(@NotNull Socket socket, @NotNull OtpErlangObject message) throws SocketException {
-    try {
-      OutputStream out = socket.getOutputStream();
-
-      byte[] bytes = new OtpOutputStream(message).toByteArray();
-      byte[] sizeBytes = ByteBuffer.allocate(4).putInt(1 + bytes.length).array();
-
-      out.write(sizeBytes);
-      out.write(OtpExternal.versionTag);
-      out.write(bytes);
-    }
-    catch (SocketException e) {
-      throw e;
-    }
-    catch (IOException e) {
-      LOG.debug(e);
+  private static void readFully(@NotNull SocketChannel channel, @NotNull ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new SocketException("A socket was closed.");
+      }
     }
   }
 
   @Nullable
-  private static OtpErlangObject receive(@NotNull Socket socket) throws SocketException {
+  private static OtpErlangObject decode(@NotNull byte[] bytes, int length) {
     try {
-      InputStream in = socket.getInputStream();
-
-      int objectSize = readObjectSize(in);
-      if (objectSize == -1) return null;
-
-      LOG.debug("Incoming packet size: " + objectSize + " bytes");
-
-      byte[] objectBytes = readBytes(in, objectSize, true);
-      return objectBytes == null ? null : decode(objectBytes);
-    }
-    catch (SocketException e) {
-      throw e;
+      return new OtpInputStream(bytes, 0, length, 0).read_any();
     }
-    catch (IOException e) {
-      LOG.debug(e);
+    catch (OtpErlangDecodeException e) {
+      LOG.warn("Failed to decode an erlang term.", e);
+      return null;
     }
-    return null;
-  }
-
-  private static int readObjectSize(@NotNull InputStream in) throws SocketException {
-    byte[] bytes = readBytes(in, 4, false);
-    return bytes != null ? ByteBuffer.wrap(bytes).getInt() : -1;
   }
 
   /**
-   * Reads size bytes from passed socket input stream.
-   * <p/>
-   * Makes #RETRIES_ON_TIMEOUT attempts to read input unless the read request is not forced and no bytes were read.
-   *
-   * @param in
-   * @param size
-   * @param force
-   * @return bytes read or null if the request was not forced and it timed out, or if an I/O exception occurred.
-   * @throws SocketException when a socket exception is thrown from passed input stream or if a number of
-   *                         retry attempts was exceeded.
+   * Receives the reply to a stack, bindings or term slice request. Exactly one of the methods is called for each request.
    */
-  @Nullable
-  private static byte[] readBytes(@NotNull InputStream in, int size, boolean force) throws SocketException {
-    try {
-      int bytesReadTotal = 0;
-      byte[] buffer = new byte[size];
+  public interface RequestCallback<T> {
+    void received(@NotNull T result);
 
-      int attemptsMade = 0;
-      while (size != bytesReadTotal) {
-        try {
-          int bytesRead = in.read(buffer, bytesReadTotal, size - bytesReadTotal);
-          if (bytesRead < 0) {
-            throw new SocketException("A socket was closed.");
-          }
-          bytesReadTotal += bytesRead;
-        }
-        catch (SocketTimeoutException e) {
-          // if we're not forced to read, but we touched the stream, we're forced
-          if (bytesReadTotal == 0 && !force) {
-            return null;
-          }
-          if (++attemptsMade >= RETRIES_ON_TIMEOUT) {
-            throw e;
-          }
-        }
-      }
-      return buffer;
-    }
-    catch (SocketException e) {
-      throw e;
-    }
-    catch (IOException e) {
-      LOG.debug(e);
-      return null;
-    }
-  }
-
-  @Nullable
-  private static OtpErlangObject decode(@NotNull byte[] bytes) {
-    try {
-      return new OtpInputStream(bytes).read_any();
-    }
-    catch (OtpErlangDecodeException e) {
-      LOG.warn("Failed to decode an erlang term.", e);
-      return null;
-    }
+    void failed(@NotNull String error);
   }
 }
@@ -33,7 +33,7 @@ public class ErlangProcessSnapshot {
 
   public ErlangProcessSnapshot(@NotNull OtpErlangPid pid, @NotNull ErlangTraceElement init, @NotNull String status,
                                @Nullable String breakModule, int breakLine,
-                               @Nullable String exitReason, @NotNull List<ErlangTraceElement> stack) {
+                               @Nullable String exitReason, @Nullable List<ErlangTraceElement> stack) {
     myPid = pid;
     myInit = init;
     myStatus = status;
@@ -77,7 +77,15 @@ public class ErlangProcessSnapshot {
     return myExitReason;
   }
 
-  @NotNull
+  public boolean isSuspended() {
+    return "break".equals(myStatus);
+  }
+
+  /**
+   * @return the process stack or null if it was not sent along with the snapshot
+   * and should be requested with {@link ErlangDebuggerNode#requestStack}.
+   */
+  @Nullable
   public List<ErlangTraceElement> getStack() {
     return myStack;
   }
@@ -18,10 +18,14 @@ package org.intellij.erlang.debugger.node;
 
 import com.ericsson.otp.erlang.OtpErlangList;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 
 public class ErlangTraceElement {
+  public static final int UNKNOWN_STACK_POINTER = -1;
+
+  private final int myStackPointer;
   private final String myModule;
   private final String myFunction;
   private final OtpErlangList myFunctionArgs;
@@ -29,12 +33,22 @@ public class ErlangTraceElement {
 
   public ErlangTraceElement(@NotNull String module, @NotNull String function, @NotNull OtpErlangList functionArgs,
                             @NotNull Collection<ErlangVariableBinding> bindings) {
+    this(UNKNOWN_STACK_POINTER, module, function, functionArgs, bindings);
+  }
+
+  public ErlangTraceElement(int stackPointer, @NotNull String module, @NotNull String function,
+                            @NotNull OtpErlangList functionArgs, @Nullable Collection<ErlangVariableBinding> bindings) {
+    myStackPointer = stackPointer;
     myModule = module;
     myFunction = function;
     myFunctionArgs = functionArgs;
     myBindings = bindings;
   }
 
+  public int getStackPointer() {
+    return myStackPointer;
+  }
+
   @NotNull
   public String getModule() {
     return myModule;
@@ -50,7 +64,11 @@ public class ErlangTraceElement {
     return myFunctionArgs;
   }
 
-  @NotNull
+  /**
+   * @return bindings of this frame or null if they were not sent along with the stack
+   * and should be requested with {@link ErlangDebuggerNode#requestBindings}.
+   */
+  @Nullable
   public Collection<ErlangVariableBinding> getBindings() {
     return myBindings;
   }
@@ -72,6 +72,30 @@ public final class ErlangDebuggerCommandsProducer {
     return new ContinueCommand(pid);
   }
 
+  @NotNull
+  public static ErlangDebuggerCommand getGetStackCommand(int requestId, @NotNull OtpErlangPid pid) {
+    return new GetStackCommand(requestId, pid);
+  }
+
+  /**
+   * @param stackPointer a stack pointer of the frame or null for the top frame.
+   */
+  @NotNull
+  public static ErlangDebuggerCommand getGetBindingsCommand(int requestId, @NotNull OtpErlangPid pid, @Nullable Integer stackPointer) {
+    return new GetBindingsCommand(requestId, pid, stackPointer);
+  }
+  @NotNull
+  public static ErlangDebuggerCommand getGetTermSliceCommand(int requestId,
+                                                             @NotNull OtpErlangPid pid,
+                                                             @Nullable Integer stackPointer,
+                                                             @NotNull String variableName,
+                                                             @NotNull OtpErlangList path,
+                                                             int from,
+                                                             int count) {
+    return new GetTermSliceCommand(requestId, pid, stackPointer, variableName, path, from, count);
+  }
+
+
   private static class StepOverCommand extends AbstractPidCommand {
     public StepOverCommand(@NotNull OtpErlangPid pid) {
       super("step_over", pid);
@@ -216,6 +240,90 @@ public final class ErlangDebuggerCommandsProducer {
     }
   }
 
+  private static class GetStackCommand implements ErlangDebuggerCommand {
+    private final int myRequestId;
+    private final OtpErlangPid myPid;
+
+    public GetStackCommand(int requestId, @NotNull OtpErlangPid pid) {
+      myRequestId = requestId;
+      myPid = pid;
+    }
+
+    @NotNull
+    @Override
+    public OtpErlangTuple toMessage() {
+      return new OtpErlangTuple(new OtpErlangObject[] {
+        new OtpErlangAtom("get_stack"),
+        new OtpErlangInt(myRequestId),
+        myPid
+      });
+    }
+  }
+
+  private static class GetBindingsCommand implements ErlangDebuggerCommand {
+    private final int myRequestId;
+    private final OtpErlangPid myPid;
+    private final Integer myStackPointer;
+
+    public GetBindingsCommand(int requestId, @NotNull OtpErlangPid pid, @Nullable Integer stackPointer) {
+      myRequestId = requestId;
+      myPid = pid;
+      myStackPointer = stackPointer;
+    }
+
+    @NotNull
+    @Override
+    public OtpErlangTuple toMessage() {
+      return new OtpErlangTuple(new OtpErlangObject[] {
+        new OtpErlangAtom("get_bindings"),
+        new OtpErlangInt(myRequestId),
+        myPid,
+        myStackPointer != null ? new OtpErlangInt(myStackPointer) : new OtpErlangAtom("top")
+      });
+    }
+  }
+
+  private static class GetTermSliceCommand implements ErlangDebuggerCommand {
+    private final int myRequestId;
+    private final OtpErlangPid myPid;
+    private final Integer myStackPointer;
+    private final String myVariableName;
+    private final OtpErlangList myPath;
+    private final int myFrom;
+    private final int myCount;
+
+    public GetTermSliceCommand(int requestId,
+                               @NotNull OtpErlangPid pid,
+                               @Nullable Integer stackPointer,
+                               @NotNull String variableName,
+                               @NotNull OtpErlangList path,
+                               int from,
+                               int count) {
+      myRequestId = requestId;
+      myPid = pid;
+      myStackPointer = stackPointer;
+      myVariableName = variableName;
+      myPath = path;
+      myFrom = from;
+      myCount = count;
+    }
+
+    @NotNull
+    @Override
+    public OtpErlangTuple toMessage() {
+      return new OtpErlangTuple(new OtpErlangObject[] {
+        new OtpErlangAtom("get_term_slice"),
+        new OtpErlangInt(myRequestId),
+        myPid,
+        myStackPointer != null ? new OtpErlangInt(myStackPointer) : new OtpErlangAtom("top"),
+        new OtpErlangAtom(myVariableName),
+        myPath,
+        new OtpErlangInt(myFrom),
+        new OtpErlangInt(myCount)
+      });
+    }
+  }
+
   public interface ErlangDebuggerCommand {
     @NotNull
     OtpErlangTuple toMessage();
@@ -45,15 +45,17 @@ class BreakpointReachedEvent extends ErlangDebuggerEvent {
     myActivePid = activePid;
     mySnapshots = new ArrayList<ErlangProcessSnapshot>(snapshots.arity());
     for (OtpErlangObject snapshot : snapshots) {
-      OtpErlangTuple snapshotTuple = getTupleValue(snapshot); // {Pid, Function, Status, Info, Stack}
+      OtpErlangTuple snapshotTuple = getTupleValue(snapshot); // {Pid, Function, Status, Info} or {Pid, Function, Status, Info, Stack}
 
       OtpErlangPid pid = getPidValue(elementAt(snapshotTuple, 0));
       ErlangTraceElement init = getTraceElement(getTupleValue(elementAt(snapshotTuple, 1)), null);
       String status = getAtomText(elementAt(snapshotTuple, 2));
       OtpErlangObject info = elementAt(snapshotTuple, 3);
-      List<ErlangTraceElement> stack = getStack(getListValue(elementAt(snapshotTuple, 4)));
+      // older debugger modules send stacks with all bindings eagerly, newer ones only on request
+      boolean hasStack = snapshotTuple != null && snapshotTuple.arity() > 4;
+      List<ErlangTraceElement> stack = hasStack ? getStack(getListValue(elementAt(snapshotTuple, 4))) : null;
 
-      if (pid == null || init == null || status == null || info == null || stack == null) {
+      if (pid == null || init == null || status == null || info == null || hasStack && stack == null) {
         throw new DebuggerEventFormatException();
       }
 
@@ -80,16 +82,21 @@ class BreakpointReachedEvent extends ErlangDebuggerEvent {
     eventListener.breakpointReached(myActivePid, mySnapshots);
   }
 
+  /**
+   * Parses a list of {SP, {Module, Function, Args}} or {SP, {Module, Function, Args}, Bindings} tuples.
+   * Trace elements without bindings have null bindings, so that they are requested on demand.
+   */
   @Nullable
-  private static List<ErlangTraceElement> getStack(@Nullable OtpErlangList traceElementsList) {
+  static List<ErlangTraceElement> getStack(@Nullable OtpErlangList traceElementsList) {
     if (traceElementsList == null) return null;
     List<ErlangTraceElement> stack = new ArrayList<ErlangTraceElement>(traceElementsList.arity());
     for (OtpErlangObject traceElementObject : traceElementsList) {
       OtpErlangTuple traceElementTuple = getTupleValue(traceElementObject);
-      // ignoring SP at 0
+      Integer stackPointer = getIntegerValue(elementAt(traceElementTuple, 0));
       OtpErlangTuple moduleFunctionArgsTuple = getTupleValue(elementAt(traceElementTuple, 1));
-      OtpErlangList bindingsList = getListValue(elementAt(traceElementTuple, 2));
-      ErlangTraceElement traceElement = getTraceElement(moduleFunctionArgsTuple, bindingsList);
+      boolean hasBindings = traceElementTuple != null && traceElementTuple.arity() > 2;
+      Collection<ErlangVariableBinding> bindings = hasBindings ? getBindings(getListValue(elementAt(traceElementTuple, 2))) : null;
+      ErlangTraceElement traceElement = getTraceElement(stackPointer, moduleFunctionArgsTuple, bindings);
       if (traceElement == null) return null;
       stack.add(traceElement);
     }
@@ -99,16 +106,22 @@ class BreakpointReachedEvent extends ErlangDebuggerEvent {
   @Nullable
   private static ErlangTraceElement getTraceElement(@Nullable OtpErlangTuple moduleFunctionArgsTuple,
                                                     @Nullable OtpErlangList bindingsList) {
+    return getTraceElement(ErlangTraceElement.UNKNOWN_STACK_POINTER, moduleFunctionArgsTuple, getBindings(bindingsList));
+  }
+
+  @Nullable
+  private static ErlangTraceElement getTraceElement(@Nullable Integer stackPointer,
+                                                    @Nullable OtpErlangTuple moduleFunctionArgsTuple,
+                                                    @Nullable Collection<ErlangVariableBinding> bindings) {
     String moduleName = getAtomText(elementAt(moduleFunctionArgsTuple, 0));
     String functionName = getAtomText(elementAt(moduleFunctionArgsTuple, 1));
     OtpErlangList args = getListValue(elementAt(moduleFunctionArgsTuple, 2));
-    Collection<ErlangVariableBinding> bindings = getBindings(bindingsList);
-    if (moduleName == null || functionName == null || args == null) return null; // bindings are not necessarily present
-    return new ErlangTraceElement(moduleName, functionName, args, bindings);
+    if (stackPointer == null || moduleName == null || functionName == null || args == null) return null; // bindings are not necessarily present
+    return new ErlangTraceElement(stackPointer, moduleName, functionName, args, bindings);
   }
 
   @NotNull
-  private static Collection<ErlangVariableBinding> getBindings(@Nullable OtpErlangList bindingsList) {
+  static Collection<ErlangVariableBinding> getBindings(@Nullable OtpErlangList bindingsList) {
     if (bindingsList == null) return ContainerUtil.emptyList();
     Collection<ErlangVariableBinding> bindings = new ArrayList<ErlangVariableBinding>(bindingsList.arity());
     for (OtpErlangObject bindingObject : bindingsList) {
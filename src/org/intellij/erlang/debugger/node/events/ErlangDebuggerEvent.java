@@ -38,6 +38,9 @@ public abstract class ErlangDebuggerEvent {
       if (SetBreakpointResponseEvent.NAME.equals(messageName)) return new SetBreakpointResponseEvent(messageTuple);
       if (BreakpointReachedEvent.NAME.equals(messageName)) return new BreakpointReachedEvent(messageTuple);
       if (DebugRemoteNodeResponseEvent.NAME.equals(messageName)) return new DebugRemoteNodeResponseEvent(messageTuple);
+      if (StackResponseEvent.NAME.equals(messageName)) return new StackResponseEvent(messageTuple);
+      if (BindingsResponseEvent.NAME.equals(messageName)) return new BindingsResponseEvent(messageTuple);
+      if (TermSliceResponseEvent.NAME.equals(messageName)) return new TermSliceResponseEvent(messageTuple);
     } catch (DebuggerEventFormatException e) {
       return new UnknownMessageEvent(messageTuple);
     }
@@ -90,6 +90,15 @@ final class OtpErlangTermUtil {
     return isAtom("error", errorObject);
   }
 
+  /**
+   * Returns the text of Reason if the object is an {error, Reason} tuple, null otherwise.
+   */
+  @Nullable
+  public static String getErrorReason(@Nullable OtpErlangObject object) {
+    OtpErlangTuple tuple = getTupleValue(object);
+    return tuple != null && tuple.arity() == 2 && isErrorAtom(tuple.elementAt(0)) ? toString(tuple.elementAt(1)) : null;
+  }
+
   public static boolean isAtom(@NotNull String expectedAtom, @Nullable OtpErlangObject atomObject) {
     return StringUtil.equals(expectedAtom, getAtomText(atomObject));
   }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.debugger.node.events;
+
+import com.ericsson.otp.erlang.OtpErlangObject;
+import com.ericsson.otp.erlang.OtpErlangTuple;
+import com.intellij.openapi.util.text.StringUtil;
+import org.intellij.erlang.debugger.node.ErlangDebuggerEventListener;
+import org.intellij.erlang.debugger.node.ErlangDebuggerNode;
+import org.intellij.erlang.debugger.node.ErlangTraceElement;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+import static org.intellij.erlang.debugger.node.events.OtpErlangTermUtil.*;
+
+class StackResponseEvent extends ErlangDebuggerEvent {
+  public static final String NAME = "stack_response";
+
+  private final int myRequestId;
+  private final List<ErlangTraceElement> myStack;
+  private final String myError;
+
+  public StackResponseEvent(@NotNull OtpErlangTuple message) throws DebuggerEventFormatException {
+    Integer requestId = getIntegerValue(elementAt(message, 1));
+    if (requestId == null) throw new DebuggerEventFormatException();
+
+    OtpErlangObject stackObject = elementAt(message, 2);
+    myRequestId = requestId;
+    myStack = BreakpointReachedEvent.getStack(getListValue(stackObject));
+    myError = myStack != null ? null : StringUtil.notNullize(getErrorReason(stackObject), "Unexpected stack: " + stackObject);
+  }
+
+  @Override
+  public void process(@NotNull ErlangDebuggerNode debuggerNode, @NotNull ErlangDebuggerEventListener eventListener) {
+    if (myStack != null) {
+      debuggerNode.stackReceived(myRequestId, myStack);
+    }
+    else {
+      debuggerNode.requestFailed(myRequestId, myError);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.debugger.node.events;
+
+import com.ericsson.otp.erlang.OtpErlangBinary;
+import com.ericsson.otp.erlang.OtpErlangObject;
+import com.ericsson.otp.erlang.OtpErlangTuple;
+import com.intellij.openapi.util.text.StringUtil;
+import org.intellij.erlang.debugger.node.ErlangDebuggerEventListener;
+import org.intellij.erlang.debugger.node.ErlangDebuggerNode;
+import org.jetbrains.annotations.NotNull;
+
+import static org.intellij.erlang.debugger.node.events.OtpErlangTermUtil.*;
+
+class TermSliceResponseEvent extends ErlangDebuggerEvent {
+  public static final String NAME = "term_slice_response";
+
+  private final int myRequestId;
+  private final OtpErlangObject mySlice;
+  private final String myError;
+
+  public TermSliceResponseEvent(@NotNull OtpErlangTuple message) throws DebuggerEventFormatException {
+    Integer requestId = getIntegerValue(elementAt(message, 1));
+    if (requestId == null) throw new DebuggerEventFormatException();
+
+    OtpErlangObject sliceObject = elementAt(message, 2);
+    myRequestId = requestId;
+    // a page of small integers comes as a string, so it is turned back into a list
+    mySlice = sliceObject instanceof OtpErlangBinary ? sliceObject : getListValue(sliceObject);
+    myError = mySlice != null ? null : StringUtil.notNullize(getErrorReason(sliceObject), "Unexpected term slice: " + sliceObject);
+  }
+
+  @Override
+  public void process(@NotNull ErlangDebuggerNode debuggerNode, @NotNull ErlangDebuggerEventListener eventListener) {
+    if (mySlice != null) {
+      debuggerNode.termSliceReceived(myRequestId, mySlice);
+    }
+    else {
+      debuggerNode.requestFailed(myRequestId, myError);
+    }
+  }
+}
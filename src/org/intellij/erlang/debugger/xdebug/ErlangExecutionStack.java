@@ -19,8 +19,10 @@ package org.intellij.erlang.debugger.xdebug;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.xdebugger.frame.XExecutionStack;
 import com.intellij.xdebugger.frame.XStackFrame;
+import org.intellij.erlang.debugger.node.ErlangDebuggerNode;
 import org.intellij.erlang.debugger.node.ErlangProcessSnapshot;
 import org.intellij.erlang.debugger.node.ErlangTraceElement;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
@@ -28,34 +30,81 @@ import java.util.List;
 
 public class ErlangExecutionStack extends XExecutionStack {
   private final ErlangDebugLocationResolver myResolver;
+  private final ErlangDebuggerNode myDebuggerNode;
   private final ErlangProcessSnapshot myProcessSnapshot;
-  private final List<ErlangStackFrame> myStack;
+  private final ErlangStackFrame myTopFrame;
+  private volatile List<ErlangStackFrame> myStack;
 
-  public ErlangExecutionStack(ErlangDebugLocationResolver resolver, ErlangProcessSnapshot snapshot) {
+  public ErlangExecutionStack(ErlangDebugLocationResolver resolver, ErlangDebuggerNode debuggerNode, ErlangProcessSnapshot snapshot) {
     super(snapshot.getPidString());
     myResolver = resolver;
+    myDebuggerNode = debuggerNode;
     myProcessSnapshot = snapshot;
-    myStack = new ArrayList<ErlangStackFrame>(snapshot.getStack().size());
+    List<ErlangTraceElement> traceElements = snapshot.getStack();
+    if (traceElements != null) {
+      myTopFrame = null;
+      myStack = createFrames(traceElements);
+    }
+    else if (snapshot.isSuspended()) {
+      // the stack is requested when frames are shown, but the current position is known right away
+      myTopFrame = createFrame(null, ErlangSourcePosition.create(resolver, snapshot));
+      myStack = null;
+    }
+    else {
+      myTopFrame = null;
+      myStack = ContainerUtil.emptyList();
+    }
   }
 
   @Nullable
   @Override
   public XStackFrame getTopFrame() {
-    return ContainerUtil.getFirstItem(myStack);
+    List<ErlangStackFrame> stack = myStack;
+    return stack != null ? ContainerUtil.getFirstItem(stack) : myTopFrame;
   }
 
   @Override
-  public void computeStackFrames(int firstFrameIndex, XStackFrameContainer container) {
-    if (myStack.isEmpty()) {
-      List<ErlangTraceElement> traceElements = myProcessSnapshot.getStack();
-      for (ErlangTraceElement traceElement : traceElements) {
-        boolean isTopStackFrame = myStack.isEmpty(); // if it's a top stack frame we can set a line that's being executed.
-        ErlangStackFrame stackFrame = isTopStackFrame ?
-          new ErlangStackFrame(myResolver, traceElement, ErlangSourcePosition.create(myResolver, myProcessSnapshot)) :
-          new ErlangStackFrame(myResolver, traceElement);
-        myStack.add(stackFrame);
+  public void computeStackFrames(final int firstFrameIndex, final XStackFrameContainer container) {
+    List<ErlangStackFrame> stack = myStack;
+    if (stack != null) {
+      addStackFrames(stack, firstFrameIndex, container);
+      return;
+    }
+    myDebuggerNode.requestStack(myProcessSnapshot.getPid(), new ErlangDebuggerNode.RequestCallback<List<ErlangTraceElement>>() {
+      @Override
+      public void received(@NotNull List<ErlangTraceElement> traceElements) {
+        List<ErlangStackFrame> frames = createFrames(traceElements);
+        myStack = frames;
+        addStackFrames(frames, firstFrameIndex, container);
+      }
+
+      @Override
+      public void failed(@NotNull String error) {
+        container.errorOccurred(error);
       }
-      container.addStackFrames(myStack, true);
+    });
+  }
+
+  @NotNull
+  private List<ErlangStackFrame> createFrames(@NotNull List<ErlangTraceElement> traceElements) {
+    List<ErlangStackFrame> stack = new ArrayList<ErlangStackFrame>(traceElements.size());
+    for (ErlangTraceElement traceElement : traceElements) {
+      boolean isTopStackFrame = stack.isEmpty(); // if it's a top stack frame we can set a line that's being executed.
+      ErlangStackFrame stackFrame = !isTopStackFrame ? createFrame(traceElement, ErlangSourcePosition.create(myResolver, traceElement)) :
+                                    myTopFrame != null ? myTopFrame :
+                                    createFrame(traceElement, ErlangSourcePosition.create(myResolver, myProcessSnapshot));
+      stack.add(stackFrame);
     }
+    return stack;
+  }
+
+  @NotNull
+  private ErlangStackFrame createFrame(@Nullable ErlangTraceElement traceElement, @Nullable ErlangSourcePosition sourcePosition) {
+    return new ErlangStackFrame(myResolver, myDebuggerNode, myProcessSnapshot.getPid(), traceElement, sourcePosition);
+  }
+
+  private static void addStackFrames(@NotNull List<ErlangStackFrame> stack, int firstFrameIndex, @NotNull XStackFrameContainer container) {
+    int fromIndex = Math.min(firstFrameIndex, stack.size());
+    container.addStackFrames(stack.subList(fromIndex, stack.size()), true);
   }
-}
\ No newline at end of file
+}
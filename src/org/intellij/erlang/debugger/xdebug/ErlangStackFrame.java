@@ -16,7 +16,7 @@
 
 package org.intellij.erlang.debugger.xdebug;
 
-import com.ericsson.otp.erlang.OtpErlangObject;
+import com.ericsson.otp.erlang.OtpErlangPid;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.ui.ColoredTextContainer;
@@ -26,8 +26,10 @@ import com.intellij.xdebugger.frame.XCompositeNode;
 import com.intellij.xdebugger.frame.XStackFrame;
 import com.intellij.xdebugger.frame.XValue;
 import com.intellij.xdebugger.frame.XValueChildrenList;
+import org.intellij.erlang.debugger.node.ErlangDebuggerNode;
 import org.intellij.erlang.debugger.node.ErlangTraceElement;
 import org.intellij.erlang.debugger.node.ErlangVariableBinding;
+import org.intellij.erlang.debugger.xdebug.xvalue.ErlangTermLocation;
 import org.intellij.erlang.debugger.xdebug.xvalue.ErlangXValueFactory;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunExpression;
@@ -36,22 +38,31 @@ import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+
 public class ErlangStackFrame extends XStackFrame {
   private final ErlangDebugLocationResolver myResolver;
+  private final ErlangDebuggerNode myDebuggerNode;
+  private final OtpErlangPid myPid;
   private final ErlangTraceElement myTraceElement;
   private final ErlangSourcePosition mySourcePosition;
+  private volatile Collection<ErlangVariableBinding> myBindings;
 
+  /**
+   * @param traceElement a trace element of this frame or null if it's a top frame of a process whose stack
+   *                     has not been requested yet.
+   */
   public ErlangStackFrame(@NotNull ErlangDebugLocationResolver resolver,
-                          @NotNull ErlangTraceElement traceElement) {
-    this(resolver, traceElement, ErlangSourcePosition.create(resolver, traceElement));
-  }
-
-  public ErlangStackFrame(@NotNull ErlangDebugLocationResolver resolver,
-                          @NotNull ErlangTraceElement traceElement,
+                          @NotNull ErlangDebuggerNode debuggerNode,
+                          @NotNull OtpErlangPid pid,
+                          @Nullable ErlangTraceElement traceElement,
                           @Nullable ErlangSourcePosition sourcePosition) {
     myResolver = resolver;
+    myDebuggerNode = debuggerNode;
+    myPid = pid;
     myTraceElement = traceElement;
     mySourcePosition = sourcePosition;
+    myBindings = traceElement != null ? traceElement.getBindings() : null;
   }
 
   @Nullable
@@ -83,15 +94,49 @@ public class ErlangStackFrame extends XStackFrame {
   }
 
   @Override
-  public void computeChildren(@NotNull XCompositeNode node) {
-    XValueChildrenList myVariables = new XValueChildrenList(myTraceElement.getBindings().size());
-    for (ErlangVariableBinding binding : myTraceElement.getBindings()) {
-      myVariables.add(binding.getName(), getVariableValue(binding.getValue()));
+  public void computeChildren(@NotNull final XCompositeNode node) {
+    Collection<ErlangVariableBinding> bindings = myBindings;
+    if (bindings != null) {
+      addBindings(node, bindings);
+      return;
+    }
+    myDebuggerNode.requestBindings(myPid, getStackPointer(), new ErlangDebuggerNode.RequestCallback<Collection<ErlangVariableBinding>>() {
+      @Override
+      public void received(@NotNull Collection<ErlangVariableBinding> bindings) {
+        myBindings = bindings;
+        if (!node.isObsolete()) {
+          addBindings(node, bindings);
+        }
+      }
+
+      @Override
+      public void failed(@NotNull String error) {
+        if (!node.isObsolete()) {
+          node.setErrorMessage(error);
+        }
+      }
+    });
+  }
+
+  /**
+   * @return the stack pointer of this frame or null if it's the top frame of a process whose stack is not known yet.
+   */
+  @Nullable
+  private Integer getStackPointer() {
+    boolean knownStackPointer = myTraceElement != null && myTraceElement.getStackPointer() != ErlangTraceElement.UNKNOWN_STACK_POINTER;
+    return knownStackPointer ? myTraceElement.getStackPointer() : null;
+  }
+
+  private void addBindings(@NotNull XCompositeNode node, @NotNull Collection<ErlangVariableBinding> bindings) {
+    XValueChildrenList myVariables = new XValueChildrenList(bindings.size());
+    for (ErlangVariableBinding binding : bindings) {
+      myVariables.add(binding.getName(), getVariableValue(binding));
     }
     node.addChildren(myVariables, true);
   }
 
-  private static XValue getVariableValue(OtpErlangObject value) {
-    return ErlangXValueFactory.create(value);
+  private XValue getVariableValue(@NotNull ErlangVariableBinding binding) {
+    ErlangTermLocation location = new ErlangTermLocation(myDebuggerNode, myPid, getStackPointer(), binding.getName());
+    return ErlangXValueFactory.create(binding.getValue(), location);
   }
 }
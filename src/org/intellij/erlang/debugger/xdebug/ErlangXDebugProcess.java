@@ -19,12 +19,15 @@ package org.intellij.erlang.debugger.xdebug;
 import com.ericsson.otp.erlang.OtpErlangPid;
 import com.intellij.execution.ExecutionException;
 import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.CapturingProcessHandler;
 import com.intellij.execution.process.OSProcessHandler;
 import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessOutput;
 import com.intellij.execution.runners.ExecutionEnvironment;
 import com.intellij.execution.ui.ConsoleView;
 import com.intellij.execution.ui.ExecutionConsole;
 import com.intellij.icons.AllIcons;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.fileTypes.FileType;
@@ -39,7 +42,6 @@ import com.intellij.testFramework.LightVirtualFile;
 import com.intellij.util.PathUtil;
 import com.intellij.util.ResourceUtil;
 import com.intellij.util.containers.ContainerUtil;
-import com.intellij.util.io.URLUtil;
 import com.intellij.xdebugger.XDebugProcess;
 import com.intellij.xdebugger.XDebugSession;
 import com.intellij.xdebugger.XSourcePosition;
@@ -54,6 +56,7 @@ import org.intellij.erlang.debugger.node.ErlangDebuggerNodeException;
 import org.intellij.erlang.debugger.node.ErlangProcessSnapshot;
 import org.intellij.erlang.debugger.remote.ErlangRemoteDebugRunConfiguration;
 import org.intellij.erlang.debugger.remote.ErlangRemoteDebugRunningState;
+import org.intellij.erlang.jps.model.JpsErlangSdkType;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.runconfig.ErlangRunConfigurationBase;
 import org.intellij.erlang.runconfig.ErlangRunningState;
@@ -63,6 +66,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -72,6 +76,11 @@ import java.util.concurrent.ConcurrentHashMap;
 import static org.intellij.erlang.debugger.ErlangDebuggerLog.LOG;
 
 public class ErlangXDebugProcess extends XDebugProcess implements ErlangDebuggerEventListener {
+  private static final String[] DEBUGGER_SOURCES = {"debugnode.erl", "remote_debugger.erl", "remote_debugger_listener.erl",
+    "remote_debugger_notifier.erl", "remote_debugger_terms.erl", "process_names.hrl", "remote_debugger_messages.hrl",
+    "trace_utils.hrl"};
+  private static final int COMPILE_TIMEOUT_MILLIS = 60000;
+
   private final ExecutionEnvironment myExecutionEnvironment;
   private final ErlangRunningState myRunningState;
   private final ErlangDebuggerNode myDebuggerNode;
@@ -162,7 +171,7 @@ public class ErlangXDebugProcess extends XDebugProcess implements ErlangDebugger
     assert processInBreakpoint != null;
     ErlangSourcePosition breakPosition = ErlangSourcePosition.create(myLocationResolver, processInBreakpoint);
     XLineBreakpoint<ErlangLineBreakpointProperties> breakpoint = getLineBreakpoint(breakPosition);
-    ErlangSuspendContext suspendContext = new ErlangSuspendContext(myLocationResolver, pid, snapshots);
+    ErlangSuspendContext suspendContext = new ErlangSuspendContext(myLocationResolver, myDebuggerNode, pid, snapshots);
     if (breakpoint == null) {
       getSession().positionReached(suspendContext);
     }
@@ -361,37 +370,73 @@ public class ErlangXDebugProcess extends XDebugProcess implements ErlangDebugger
   private static void setUpErlangDebuggerCodePath(GeneralCommandLine commandLine) throws ExecutionException {
     LOG.debug("Setting up debugger environment.");
     try {
-      String[] beams = {"debugnode.beam", "remote_debugger.beam", "remote_debugger_listener.beam", "remote_debugger_notifier.beam"};
-      File tempDirectory = FileUtil.createTempDirectory("intellij_erlang_debugger_", null);
-      LOG.debug("Debugger beams will be put to: " + tempDirectory.getPath());
-      for (String beam : beams) {
-        copyBeamTo(beam, tempDirectory);
-      }
-      LOG.debug("Debugger beams were copied successfully.");
-      commandLine.addParameters("-pa", tempDirectory.getPath());
+      File erlc = new File(new File(commandLine.getExePath()).getParentFile(),
+                           JpsErlangSdkType.getExecutableFileName(JpsErlangSdkType.BYTECODE_COMPILER));
+      File debuggerDirectory = compileDebuggerModules(erlc);
+      LOG.debug("Debugger beams are in: " + debuggerDirectory.getPath());
+      commandLine.addParameters("-pa", debuggerDirectory.getPath());
     }
     catch (IOException e) {
       throw new ExecutionException("Failed to setup debugger environment", e);
     }
   }
 
-  private static void copyBeamTo(String beamName, File directory) throws IOException {
-    URL beamUrl = ResourceUtil.getResource(ErlangXDebugProcess.class, "/debugger/beams", beamName);
-    if (beamUrl == null) {
-      throw new IOException("Failed to locate debugger module: " + beamName);
-    }
-    BufferedInputStream inputStream = new BufferedInputStream(URLUtil.openStream(beamUrl));
-    try {
-      BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(new File(directory, beamName)));
+  /**
+   * Debugger modules are shipped as sources and compiled with the SDK the debug target runs on, so their beams
+   * always match both the sources and the node version. Compiled modules are reused until the sources change.
+   * Sources are written before erlc runs, so the old beams are deleted first: a failed compilation leaves a module
+   * without a beam, and it is compiled again next time.
+   */
+  @NotNull
+  private static File compileDebuggerModules(@NotNull File erlc) throws IOException {
+    synchronized (DEBUGGER_SOURCES) {
+      File directory = new File(PathManager.getSystemPath(), "erlang-debugger/" + Integer.toHexString(erlc.getPath().hashCode()));
+      boolean upToDate = true;
+      List<String> modulePaths = ContainerUtil.newArrayList();
+      List<File> beamFiles = ContainerUtil.newArrayList();
+      for (String sourceName : DEBUGGER_SOURCES) {
+        URL sourceUrl = ResourceUtil.getResource(ErlangXDebugProcess.class, "/debugger/src", sourceName);
+        if (sourceUrl == null) {
+          throw new IOException("Failed to locate debugger module: " + sourceName);
+        }
+        String source = ResourceUtil.loadText(sourceUrl);
+        File sourceFile = new File(directory, sourceName);
+        if (!sourceFile.isFile() || !source.equals(FileUtil.loadFile(sourceFile))) {
+          FileUtil.writeToFile(sourceFile, source);
+          upToDate = false;
+        }
+        if (sourceName.endsWith(".erl")) {
+          File beamFile = new File(directory, FileUtil.getNameWithoutExtension(sourceName) + ".beam");
+          modulePaths.add(sourceFile.getPath());
+          beamFiles.add(beamFile);
+          upToDate &= beamFile.isFile();
+        }
+      }
+      if (upToDate) return directory;
+
+      for (File beamFile : beamFiles) {
+        if (beamFile.exists() && !FileUtil.delete(beamFile)) {
+          throw new IOException("Failed to delete stale debugger module: " + beamFile.getPath());
+        }
+      }
+
+      LOG.debug("Compiling debugger modules with " + erlc.getPath());
+      GeneralCommandLine commandLine = new GeneralCommandLine();
+      commandLine.setExePath(erlc.getPath());
+      commandLine.withWorkDirectory(directory);
+      commandLine.addParameters("-o", directory.getPath(), "-I", directory.getPath());
+      commandLine.addParameters(modulePaths);
       try {
-        FileUtil.copy(inputStream, outputStream);
+        ProcessOutput output = new CapturingProcessHandler(commandLine.createProcess(), Charset.defaultCharset(), commandLine.getCommandLineString())
+          .runProcess(COMPILE_TIMEOUT_MILLIS);
+        if (output.getExitCode() != 0 || output.isTimeout()) {
+          throw new IOException("Failed to compile debugger modules: " + output.getStdout() + output.getStderr());
+        }
       }
-      finally {
-        outputStream.close();
+      catch (ExecutionException e) {
+        throw new IOException(e.getMessage(), e);
       }
-    }
-    finally {
-      inputStream.close();
+      return directory;
     }
   }
 }
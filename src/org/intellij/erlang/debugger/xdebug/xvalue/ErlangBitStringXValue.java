@@ -17,7 +17,7 @@
 package org.intellij.erlang.debugger.xdebug.xvalue;
 
 import com.ericsson.otp.erlang.OtpErlangBitstr;
-import com.intellij.xdebugger.frame.ImmediateFullValueEvaluator;
+import com.intellij.xdebugger.frame.XFullValueEvaluator;
 import com.intellij.xdebugger.frame.XValueChildrenList;
 import com.intellij.xdebugger.frame.XValueNode;
 import com.intellij.xdebugger.frame.XValuePlace;
@@ -39,9 +39,16 @@ class ErlangBitStringXValue extends ErlangArrayXValueBase<OtpErlangBitstr> {
   @Override
   protected XValuePresentation getPresentation(@NotNull XValueNode node, @NotNull XValuePlace place) {
     //TODO apply string detection heuristics (see http://www.erlang.org/doc/apps/stdlib/unicode_usage.html)
-    final String textValue = new String(getValue().binaryValue());
-    if (textValue.length() > XValueNode.MAX_VALUE_LENGTH) {
-      node.setFullValueEvaluator(new ImmediateFullValueEvaluator(textValue));
+    final byte[] bytes = getValue().binaryValue();
+    // only the displayed prefix is decoded, the whole value is decoded if it's requested explicitly
+    final String textValue = new String(bytes, 0, Math.min(bytes.length, XValueNode.MAX_VALUE_LENGTH + 1));
+    if (bytes.length > XValueNode.MAX_VALUE_LENGTH) {
+      node.setFullValueEvaluator(new XFullValueEvaluator() {
+        @Override
+        public void startEvaluation(@NotNull XFullValueEvaluationCallback callback) {
+          callback.evaluated(new String(bytes));
+        }
+      });
     }
     return new XValuePresentation() {
       @Override
@@ -18,14 +18,15 @@ package org.intellij.erlang.debugger.xdebug.xvalue;
 
 import com.ericsson.otp.erlang.OtpErlangList;
 import com.intellij.xdebugger.frame.XValueChildrenList;
+import org.jetbrains.annotations.Nullable;
 
 class ErlangListXValue extends ErlangArrayXValueBase<OtpErlangList> {
-  public ErlangListXValue(OtpErlangList value) {
-    super(value, value.arity());
+  public ErlangListXValue(OtpErlangList value, @Nullable ErlangTermLocation location) {
+    super(value, value.arity(), location);
   }
 
   @Override
   protected void computeChild(XValueChildrenList children, int childIdx) {
-    addIndexedChild(children, getValue().elementAt(childIdx), childIdx);
+    addElementChild(children, getValue().elementAt(childIdx), childIdx);
   }
 }
@@ -19,16 +19,26 @@ package org.intellij.erlang.debugger.xdebug.xvalue;
 import com.ericsson.otp.erlang.OtpErlangMap;
 import com.ericsson.otp.erlang.OtpErlangObject;
 import com.intellij.xdebugger.frame.XValueChildrenList;
+import org.jetbrains.annotations.Nullable;
 
 public class ErlangMapXValue extends ErlangArrayXValueBase<OtpErlangMap> {
-  public ErlangMapXValue(OtpErlangMap value) {
-    super(value, value.arity());
+  private OtpErlangObject[] myKeys;
+  private OtpErlangObject[] myValues;
+
+  public ErlangMapXValue(OtpErlangMap value, @Nullable ErlangTermLocation location) {
+    super(value, value.arity(), location);
   }
 
   @Override
   protected void computeChild(XValueChildrenList children, int childIdx) {
-    OtpErlangObject key = getValue().keys()[childIdx];
-    OtpErlangObject value = getValue().get(key);
-    addIndexedChild(children, new ErlangMappingXValue(key, value), childIdx);
+    if (myKeys == null) {
+      // both arrays are copied on each call, so they're only requested once for all pages of children
+      myKeys = getValue().keys();
+      myValues = getValue().values();
+    }
+    OtpErlangObject key = myKeys[childIdx];
+    OtpErlangObject value = myValues[childIdx];
+    ErlangTermLocation location = getLocation();
+    addIndexedChild(children, new ErlangMappingXValue(key, value, location != null ? location.mapValue(key) : null), childIdx);
   }
 }
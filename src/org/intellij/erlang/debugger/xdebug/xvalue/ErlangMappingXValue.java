@@ -24,15 +24,18 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 class ErlangMappingXValue extends ErlangXValueBase<OtpErlangTuple> {
-  public ErlangMappingXValue(OtpErlangObject key, OtpErlangObject value) {
-    super(new OtpErlangTuple(new OtpErlangObject[]{key, value}), 2);
+  /**
+   * @param valueLocation the location of the value, sliced children of the key can't be requested.
+   */
+  public ErlangMappingXValue(OtpErlangObject key, OtpErlangObject value, @Nullable ErlangTermLocation valueLocation) {
+    super(new OtpErlangTuple(new OtpErlangObject[]{key, value}), 2, valueLocation);
   }
 
   @Override
   public void computeChildren(@NotNull XCompositeNode node) {
     XValueChildrenList children = new XValueChildrenList(2);
     addNamedChild(children, getMappingKey(), "key");
-    addNamedChild(children, getMappingValue(), "value");
+    addNamedChild(children, ErlangXValueFactory.create(getMappingValue(), getLocation()), "value");
     node.addChildren(children, true);
   }
 
@@ -44,8 +47,10 @@ class ErlangMappingXValue extends ErlangXValueBase<OtpErlangTuple> {
 
   @NotNull
   @Override
-  protected String getStringRepr() {
-    return getMappingKey() + " => " + getMappingValue();
+  protected String getStringRepr(int maxLength) {
+    String key = ErlangTermPrinter.print(getMappingKey(), maxLength);
+    if (key.length() > maxLength) return key;
+    return key + " => " + ErlangTermPrinter.print(getMappingValue(), maxLength);
   }
 
   private OtpErlangObject getMappingKey() {
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.debugger.xdebug.xvalue;
+
+import com.ericsson.otp.erlang.*;
+import com.intellij.xdebugger.frame.*;
+import com.intellij.xdebugger.frame.presentation.XStringValuePresentation;
+import com.intellij.xdebugger.frame.presentation.XValuePresentation;
+import org.intellij.erlang.debugger.node.ErlangDebuggerNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A container the debugger node did not send in full, see remote_debugger_terms.erl. It comes as
+ * {'$intellij_sliced', Kind, Size} and its children are requested from the node a page at a time.
+ * A long string comes as {'$intellij_sliced', string, Length, Prefix}, its full text is requested on demand.
+ */
+class ErlangSlicedXValue extends ErlangArrayXValueBase<OtpErlangTuple> {
+  private static final String SLICED_MARKER = "$intellij_sliced";
+  private static final String STRING_KIND = "string";
+
+  private final String myKind;
+  private final int mySize;
+  private volatile int myNextChildIdx;
+
+  private ErlangSlicedXValue(@NotNull OtpErlangTuple marker, @NotNull String kind, int size, @Nullable ErlangTermLocation location) {
+    super(marker, location != null && !STRING_KIND.equals(kind) ? size : 0, location);
+    myKind = kind;
+    mySize = size;
+  }
+
+  @Nullable
+  static ErlangSlicedXValue create(@NotNull OtpErlangObject object, @Nullable ErlangTermLocation location) {
+    String kind = getKind(object);
+    if (kind == null) return null;
+    try {
+      int size = ((OtpErlangLong) ((OtpErlangTuple) object).elementAt(2)).intValue();
+      return new ErlangSlicedXValue((OtpErlangTuple) object, kind, size, location);
+    }
+    catch (OtpErlangRangeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the kind of a sliced value (list, tuple, map, binary or string) or null if the term is not a sliced value.
+   */
+  @Nullable
+  static String getKind(@NotNull OtpErlangObject term) {
+    if (!(term instanceof OtpErlangTuple)) return null;
+    OtpErlangTuple tuple = (OtpErlangTuple) term;
+    if (tuple.arity() < 3 || tuple.arity() > 4 || !(tuple.elementAt(2) instanceof OtpErlangLong)) return null;
+    OtpErlangObject marker = tuple.elementAt(0);
+    OtpErlangObject kind = tuple.elementAt(1);
+    boolean isSliced = marker instanceof OtpErlangAtom && SLICED_MARKER.equals(((OtpErlangAtom) marker).atomValue());
+    if (!isSliced || !(kind instanceof OtpErlangAtom)) return null;
+    String kindName = ((OtpErlangAtom) kind).atomValue();
+    boolean isString = STRING_KIND.equals(kindName);
+    if (isString != (tuple.arity() == 4) || isString && decodeString(tuple.elementAt(3)) == null) return null;
+    return kindName;
+  }
+
+  /**
+   * @return the text sent for a sliced value: a prefix of a sliced string or a placeholder for a sliced container.
+   */
+  @NotNull
+  static String getText(@NotNull OtpErlangTuple sliced, @NotNull String kind) {
+    if (!STRING_KIND.equals(kind)) return getPlaceholder(kind);
+    return "\"" + decodeString(sliced.elementAt(3)) + "...\"";
+  }
+
+  @NotNull
+  private static String getPlaceholder(@NotNull String kind) {
+    if ("list".equals(kind)) return "[...]";
+    if ("tuple".equals(kind)) return "{...}";
+    if ("map".equals(kind)) return "#{...}";
+    return "<<...>>";
+  }
+
+  @Nullable
+  @Override
+  protected XValuePresentation getPresentation(@NotNull XValueNode node, @NotNull XValuePlace place) {
+    if (!STRING_KIND.equals(myKind)) return null;
+    final ErlangTermLocation location = getLocation();
+    if (location != null) {
+      node.setFullValueEvaluator(new XFullValueEvaluator() {
+        @Override
+        public void startEvaluation(@NotNull final XFullValueEvaluationCallback callback) {
+          location.requestSlice(0, mySize, new ErlangDebuggerNode.RequestCallback<OtpErlangObject>() {
+            @Override
+            public void received(@NotNull OtpErlangObject slice) {
+              String text = decodeString(slice);
+              if (text != null) {
+                callback.evaluated(text);
+              }
+              else {
+                callback.errorOccurred("Unexpected value: " + slice);
+              }
+            }
+
+            @Override
+            public void failed(@NotNull String error) {
+              callback.errorOccurred(error);
+            }
+          });
+        }
+      });
+    }
+    return new XStringValuePresentation(decodeString(getValue().elementAt(3)) + "...") {
+      @Nullable
+      @Override
+      public String getType() {
+        return mySize + " characters";
+      }
+    };
+  }
+
+  @Override
+  public void computeChildren(@NotNull final XCompositeNode node) {
+    final ErlangTermLocation location = getLocation();
+    if (location == null) return; // no children are shown then
+    final int from = myNextChildIdx;
+    int count = Math.min(XCompositeNode.MAX_CHILDREN_TO_SHOW, mySize - from);
+    location.requestSlice(from, count, new ErlangDebuggerNode.RequestCallback<OtpErlangObject>() {
+      @Override
+      public void received(@NotNull OtpErlangObject slice) {
+        if (node.isObsolete()) return;
+        XValueChildrenList children = createChildren(location, slice, from);
+        myNextChildIdx = from + children.size();
+        boolean computedAllChildren = children.size() == 0 || myNextChildIdx >= mySize;
+        if (!computedAllChildren) {
+          node.tooManyChildren(mySize - myNextChildIdx);
+        }
+        node.addChildren(children, computedAllChildren);
+      }
+
+      @Override
+      public void failed(@NotNull String error) {
+        if (!node.isObsolete()) {
+          node.setErrorMessage(error);
+        }
+      }
+    });
+  }
+
+  @NotNull
+  private XValueChildrenList createChildren(@NotNull ErlangTermLocation location, @NotNull OtpErlangObject slice, int from) {
+    if (slice instanceof OtpErlangBinary) {
+      byte[] bytes = ((OtpErlangBinary) slice).binaryValue();
+      XValueChildrenList children = new XValueChildrenList(bytes.length);
+      for (int i = 0; i < bytes.length; i++) {
+        addIndexedChild(children, bytes[i], from + i);
+      }
+      return children;
+    }
+    OtpErlangObject[] elements = slice instanceof OtpErlangList ? ((OtpErlangList) slice).elements() : new OtpErlangObject[0];
+    XValueChildrenList children = new XValueChildrenList(elements.length);
+    for (int i = 0; i < elements.length; i++) {
+      OtpErlangObject element = elements[i];
+      if ("map".equals(myKind) && element instanceof OtpErlangTuple && ((OtpErlangTuple) element).arity() == 2) {
+        OtpErlangObject key = ((OtpErlangTuple) element).elementAt(0);
+        OtpErlangObject value = ((OtpErlangTuple) element).elementAt(1);
+        addIndexedChild(children, new ErlangMappingXValue(key, value, location.mapValue(key)), from + i);
+      }
+      else {
+        addIndexedChild(children, ErlangXValueFactory.create(element, location.element(from + i)), from + i);
+      }
+    }
+    return children;
+  }
+
+  /**
+   * A string is sent as a list of characters, it's decoded as a string if all of them fit into a byte.
+   */
+  @Nullable
+  private static String decodeString(@Nullable OtpErlangObject string) {
+    if (string instanceof OtpErlangString) return ((OtpErlangString) string).stringValue();
+    if (string instanceof OtpErlangList) {
+      try {
+        return ((OtpErlangList) string).stringValue();
+      }
+      catch (OtpErlangException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  @Override
+  protected String getType() {
+    return mySize + ("binary".equals(myKind) ? " bytes" : "map".equals(myKind) ? " entries" : " elements");
+  }
+
+  @NotNull
+  @Override
+  protected String getStringRepr(int maxLength) {
+    return getText(getValue(), myKind);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.debugger.xdebug.xvalue;
+
+import com.ericsson.otp.erlang.*;
+import org.intellij.erlang.debugger.node.ErlangDebuggerNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Where a value shown in the debugger lives on the debugger node: a variable bound in a frame of a suspended process
+ * and a path from the variable's value to the shown one. Values the node sent sliced request their children through it.
+ */
+public final class ErlangTermLocation {
+  private final ErlangDebuggerNode myDebuggerNode;
+  private final OtpErlangPid myPid;
+  private final Integer myStackPointer;
+  private final String myVariableName;
+  private final OtpErlangObject[] myPath;
+
+  /**
+   * @param stackPointer a stack pointer of the frame or null for the top frame.
+   */
+  public ErlangTermLocation(@NotNull ErlangDebuggerNode debuggerNode,
+                            @NotNull OtpErlangPid pid,
+                            @Nullable Integer stackPointer,
+                            @NotNull String variableName) {
+    this(debuggerNode, pid, stackPointer, variableName, new OtpErlangObject[0]);
+  }
+
+  private ErlangTermLocation(@NotNull ErlangDebuggerNode debuggerNode,
+                             @NotNull OtpErlangPid pid,
+                             @Nullable Integer stackPointer,
+                             @NotNull String variableName,
+                             @NotNull OtpErlangObject[] path) {
+    myDebuggerNode = debuggerNode;
+    myPid = pid;
+    myStackPointer = stackPointer;
+    myVariableName = variableName;
+    myPath = path;
+  }
+
+  /**
+   * @return the location of a tuple or list element, the tail of an improper list is its last element.
+   */
+  @NotNull
+  public ErlangTermLocation element(int index) {
+    return child(new OtpErlangInt(index));
+  }
+
+  @NotNull
+  public ErlangTermLocation mapValue(@NotNull OtpErlangObject key) {
+    return child(new OtpErlangTuple(new OtpErlangObject[]{new OtpErlangAtom("key"), key}));
+  }
+
+  public void requestSlice(int from, int count, @NotNull ErlangDebuggerNode.RequestCallback<OtpErlangObject> callback) {
+    myDebuggerNode.requestTermSlice(myPid, myStackPointer, myVariableName, new OtpErlangList(myPath), from, count, callback);
+  }
+
+  @NotNull
+  private ErlangTermLocation child(@NotNull OtpErlangObject step) {
+    OtpErlangObject[] path = new OtpErlangObject[myPath.length + 1];
+    System.arraycopy(myPath, 0, path, 0, myPath.length);
+    path[myPath.length] = step;
+    return new ErlangTermLocation(myDebuggerNode, myPid, myStackPointer, myVariableName, path);
+  }
+}
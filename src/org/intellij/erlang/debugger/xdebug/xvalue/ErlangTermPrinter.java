@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.debugger.xdebug.xvalue;
+
+import com.ericsson.otp.erlang.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Prints terms the same way {@link OtpErlangObject#toString()} does, but stops as soon as the output exceeds
+ * the given length, so that huge terms are never stringified in full just to be truncated afterwards.
+ */
+final class ErlangTermPrinter {
+  private final StringBuilder myBuilder = new StringBuilder();
+  private final int myMaxLength;
+
+  private ErlangTermPrinter(int maxLength) {
+    myMaxLength = maxLength;
+  }
+
+  /**
+   * @return the textual representation of a term or, if it's longer than maxLength, a prefix of it
+   * which is longer than maxLength.
+   */
+  @NotNull
+  public static String print(@NotNull OtpErlangObject term, int maxLength) {
+    ErlangTermPrinter printer = new ErlangTermPrinter(maxLength);
+    printer.appendTerm(term);
+    return printer.myBuilder.toString();
+  }
+
+  private boolean appendTerm(@NotNull OtpErlangObject term) {
+    String slicedKind = ErlangSlicedXValue.getKind(term);
+    if (slicedKind != null) {
+      return append(ErlangSlicedXValue.getText((OtpErlangTuple) term, slicedKind));
+    }
+    if (term instanceof OtpErlangTuple) {
+      OtpErlangTuple tuple = (OtpErlangTuple) term;
+      if (!append("{")) return false;
+      for (int i = 0; i < tuple.arity(); i++) {
+        if (i != 0 && !append(",")) return false;
+        if (!appendTerm(tuple.elementAt(i))) return false;
+      }
+      return append("}");
+    }
+    if (term instanceof OtpErlangList) {
+      OtpErlangList list = (OtpErlangList) term;
+      if (!append("[")) return false;
+      for (int i = 0; i < list.arity(); i++) {
+        if (i != 0 && !append(",")) return false;
+        if (!appendTerm(list.elementAt(i))) return false;
+      }
+      OtpErlangObject tail = list.getLastTail();
+      if (tail != null && (!append("|") || !appendTerm(tail))) return false;
+      return append("]");
+    }
+    if (term instanceof OtpErlangMap) {
+      if (!append("#{")) return false;
+      boolean first = true;
+      for (Map.Entry<OtpErlangObject, OtpErlangObject> entry : ((OtpErlangMap) term).entrySet()) {
+        if (!first && !append(",")) return false;
+        first = false;
+        if (!appendTerm(entry.getKey()) || !append(" => ") || !appendTerm(entry.getValue())) return false;
+      }
+      return append("}");
+    }
+    if (term instanceof OtpErlangString) {
+      return append("\"") && append(((OtpErlangString) term).stringValue()) && append("\"");
+    }
+    return append(term.toString());
+  }
+
+  private boolean append(@NotNull String s) {
+    int available = myMaxLength + 1 - myBuilder.length();
+    if (s.length() < available) {
+      myBuilder.append(s);
+      return true;
+    }
+    myBuilder.append(s, 0, available);
+    return false;
+  }
+}
@@ -18,14 +18,15 @@ package org.intellij.erlang.debugger.xdebug.xvalue;
 
 import com.ericsson.otp.erlang.OtpErlangTuple;
 import com.intellij.xdebugger.frame.XValueChildrenList;
+import org.jetbrains.annotations.Nullable;
 
 class ErlangTupleXValue extends ErlangArrayXValueBase<OtpErlangTuple> {
-  public ErlangTupleXValue(OtpErlangTuple value) {
-    super(value, value.arity());
+  public ErlangTupleXValue(OtpErlangTuple value, @Nullable ErlangTermLocation location) {
+    super(value, value.arity(), location);
   }
 
   @Override
   protected void computeChild(XValueChildrenList children, int childIdx) {
-    addIndexedChild(children, getValue().elementAt(childIdx), childIdx);
+    addElementChild(children, getValue().elementAt(childIdx), childIdx);
   }
 }
@@ -30,6 +30,7 @@ import javax.swing.*;
 class ErlangXValueBase<T extends OtpErlangObject> extends XValue {
   private final T myValue;
   private final int myChildrenCount;
+  private final ErlangTermLocation myLocation;
   private int myNextChildIdxToCompute;
 
   public ErlangXValueBase(T value) {
@@ -37,14 +38,27 @@ class ErlangXValueBase<T extends OtpErlangObject> extends XValue {
   }
 
   public ErlangXValueBase(T value, int childrenCount) {
+    this(value, childrenCount, null);
+  }
+
+  public ErlangXValueBase(T value, int childrenCount, @Nullable ErlangTermLocation location) {
     myValue = value;
     myChildrenCount = childrenCount;
+    myLocation = location;
   }
 
   protected T getValue() {
     return myValue;
   }
 
+  /**
+   * @return the location of the value on the debugger node or null if its sliced children can't be requested.
+   */
+  @Nullable
+  protected ErlangTermLocation getLocation() {
+    return myLocation;
+  }
+
   @Override
   public void computeChildren(@NotNull XCompositeNode node) {
     int nextToLastChildIdx = Math.min(myNextChildIdxToCompute + XCompositeNode.MAX_CHILDREN_TO_SHOW, myChildrenCount);
@@ -67,9 +81,14 @@ class ErlangXValueBase<T extends OtpErlangObject> extends XValue {
       node.setPresentation(getIcon(), presentation, hasChildren());
     }
     else {
-      String repr = getStringRepr();
+      String repr = getStringRepr(XValueNode.MAX_VALUE_LENGTH);
       if (repr.length() > XValueNode.MAX_VALUE_LENGTH) {
-        node.setFullValueEvaluator(new ImmediateFullValueEvaluator(repr));
+        node.setFullValueEvaluator(new XFullValueEvaluator() {
+          @Override
+          public void startEvaluation(@NotNull XFullValueEvaluationCallback callback) {
+            callback.evaluated(getStringRepr(Integer.MAX_VALUE - 1));
+          }
+        });
         repr = repr.substring(0, XValueNode.MAX_VALUE_LENGTH - 3) + "...";
       }
       node.setPresentation(getIcon(), getType(), repr, hasChildren());
@@ -94,9 +113,13 @@ class ErlangXValueBase<T extends OtpErlangObject> extends XValue {
     return null;
   }
 
+  /**
+   * @return the textual representation of the value or, if it's longer than maxLength, any prefix of it
+   * which is longer than maxLength.
+   */
   @NotNull
-  protected String getStringRepr() {
-    return myValue.toString();
+  protected String getStringRepr(int maxLength) {
+    return ErlangTermPrinter.print(myValue, maxLength);
   }
 
   protected Icon getIcon() {
@@ -107,6 +130,11 @@ class ErlangXValueBase<T extends OtpErlangObject> extends XValue {
     return myChildrenCount != 0;
   }
 
+  protected void addElementChild(XValueChildrenList childrenList, OtpErlangObject child, int childIdx) {
+    ErlangTermLocation childLocation = myLocation != null ? myLocation.element(childIdx) : null;
+    addIndexedChild(childrenList, ErlangXValueFactory.create(child, childLocation), childIdx);
+  }
+
   protected static void addIndexedChild(XValueChildrenList childrenList, long numericChild, int childIdx) {
     addIndexedChild(childrenList, new OtpErlangLong(numericChild), childIdx);
   }
@@ -152,6 +180,10 @@ class ErlangArrayXValueBase<T extends OtpErlangObject> extends ErlangXValueBase<
     super(value, childrenCount);
   }
 
+  public ErlangArrayXValueBase(T value, int childrenCount, @Nullable ErlangTermLocation location) {
+    super(value, childrenCount, location);
+  }
+
   @Override
   protected Icon getIcon() {
     return ErlangIcons.DEBUGGER_ARRAY;
@@ -18,12 +18,20 @@ package org.intellij.erlang.debugger.xdebug.xvalue;
 
 import com.ericsson.otp.erlang.*;
 import com.intellij.xdebugger.frame.XValue;
+import org.jetbrains.annotations.Nullable;
 
 public final class ErlangXValueFactory {
   private ErlangXValueFactory() {
   }
 
   public static XValue create(OtpErlangObject object) {
+    return create(object, null);
+  }
+
+  /**
+   * @param location the location of the value on the debugger node, it's used to request children of sliced values.
+   */
+  public static XValue create(OtpErlangObject object, @Nullable ErlangTermLocation location) {
     if (object instanceof OtpErlangLong || object instanceof OtpErlangDouble) {
       return new ErlangNumericXValue(object);
     }
@@ -40,19 +48,20 @@ public final class ErlangXValueFactory {
       return new ErlangRefXValue((OtpErlangRef) object);
     }
     if (object instanceof OtpErlangTuple) {
-      return new ErlangTupleXValue((OtpErlangTuple) object);
+      ErlangSlicedXValue sliced = ErlangSlicedXValue.create(object, location);
+      return sliced != null ? sliced : new ErlangTupleXValue((OtpErlangTuple) object, location);
     }
     if (object instanceof OtpErlangString) {
       return new ErlangStringXValue((OtpErlangString) object);
     }
     if (object instanceof OtpErlangList) {
-      return new ErlangListXValue((OtpErlangList) object);
+      return new ErlangListXValue((OtpErlangList) object, location);
     }
     if (object instanceof OtpErlangBitstr) {
       return new ErlangBitStringXValue((OtpErlangBitstr) object);
     }
     if (object instanceof OtpErlangMap) {
-      return new ErlangMapXValue((OtpErlangMap) object);
+      return new ErlangMapXValue((OtpErlangMap) object, location);
     }
     return new ErlangPrimitiveXValueBase<OtpErlangObject>(object);
   }
@@ -29,6 +29,7 @@ import com.intellij.notification.NotificationType;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.util.SystemInfo;
@@ -81,7 +82,7 @@ public class ErlangDialyzerExternalAnnotator extends ExternalAnnotator<ErlangDia
 
     String currentPltPath = DialyzerSettings.getInstance(file.getProject()).getCurrentPltPath();
 
-    return new State(dialyzerPath, currentPltPath, canonicalPath, workingDir);
+    return new State(file.getProject(), dialyzerPath, currentPltPath, canonicalPath, workingDir);
   }
 
   @Nullable
@@ -89,28 +90,34 @@ public class ErlangDialyzerExternalAnnotator extends ExternalAnnotator<ErlangDia
   public State doAnnotate(State state) {
     if (state == null) return null;
 
-    ProcessOutput output = null;
+    List<String> lines = ErlangDialyzerServer.getInstance(state.myProject)
+      .analyze(state.myWorkingDir, state.myDialyzerPath, state.myCurrentPltPath, state.myFilePath);
+    if (lines == null) {
+      lines = runDialyzer(state);
+    }
+    for (String line : lines) {
+      LOG.debug(line);
+      if (line.startsWith("dialyzer: ")) {
+        NOTIFICATION_GROUP.createNotification(line, NotificationType.WARNING).notify(state.myProject);
+        return state;
+      }
+      Problem problem = parseProblem(line);
+      LOG.debug(problem != null ? problem.toString() : null);
+      ContainerUtil.addAllNotNull(state.problems, problem);
+    }
+    return state;
+  }
+
+  @NotNull
+  private static List<String> runDialyzer(@NotNull State state) {
     try {
       String[] params = StringUtil.isEmptyOrSpaces(state.myCurrentPltPath) ? new String[]{state.myFilePath} : new String[]{"--plt", state.myCurrentPltPath, state.myFilePath};
-      output = ErlangSystemUtil.getProcessOutput(state.myWorkingDir, state.myDialyzerPath, params);
+      ProcessOutput output = ErlangSystemUtil.getProcessOutput(state.myWorkingDir, state.myDialyzerPath, params);
+      if (output.getStderrLines().isEmpty()) return output.getStdoutLines();
     } catch (ExecutionException e) {
       LOG.debug(e);
     }
-    if (output != null) {
-      if (output.getStderrLines().isEmpty()) {
-        for (String line : output.getStdoutLines()) {
-          LOG.debug(line);
-          if (line.startsWith("dialyzer: ")) {
-            NOTIFICATION_GROUP.createNotification(line, NotificationType.WARNING).notify(null); // todo: get a project
-            return state;
-          }
-          Problem problem = parseProblem(line);
-          LOG.debug(problem != null ? problem.toString() : null);
-          ContainerUtil.addAllNotNull(state.problems, problem);
-        }
-      }
-    }
-    return state;
+    return ContainerUtil.emptyList();
   }
 
   @Override
@@ -159,12 +166,14 @@ public class ErlangDialyzerExternalAnnotator extends ExternalAnnotator<ErlangDia
 
   public static class State {
     public final List<Problem> problems = new ArrayList<Problem>();
+    private final Project myProject;
     private final String myDialyzerPath;
     private final String myCurrentPltPath;
     private final String myFilePath;
     private final String myWorkingDir;
 
-    public State(String dialyzerPath, String currentPltPath, String filePath, String workingDir) {
+    public State(Project project, String dialyzerPath, String currentPltPath, String filePath, String workingDir) {
+      myProject = project;
       myDialyzerPath = dialyzerPath;
       myCurrentPltPath = currentPltPath;
       myFilePath = filePath;
@@ -0,0 +1,381 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.dialyzer;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.SystemInfo;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.ResourceUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Keeps a single Erlang node per project which runs dialyzer analyses on request, so that the VM start-up,
+ * dialyzer code loading and PLT loading are paid once instead of on every highlighting pass.
+ * Results are cached per file content and PLT, and concurrent requests for the same file are coalesced.
+ * <p/>
+ * The node runs intellij_dialyzer.erl, which keeps the loaded PLT in memory. The module is compiled on the node
+ * against the dialyzer headers of its release; if they are not installed, the node falls back to dialyzer:run/1,
+ * which reads the PLT file for every analysis.
+ */
+public final class ErlangDialyzerServer implements Disposable {
+  private static final Logger LOG = Logger.getInstance(ErlangDialyzerServer.class);
+  private static final int TIMEOUT_SECONDS = 60;
+  private static final int POLL_INTERVAL_MILLIS = 100;
+  private static final String DONE_MARKER = "%%dialyzer-done%%";
+  private static final String MODULE_NAME = "intellij_dialyzer";
+  private static final String MODULE_SOURCE = MODULE_NAME + ".erl";
+  // used when intellij_dialyzer.erl can't be compiled on the node: the PLT check (which digests every module
+  // the PLT covers) runs for the first request and whenever the PLT file changes, but dialyzer:run/1 has no way
+  // to take an already loaded PLT, so it reads the file for every analysis
+  private static final String FALLBACK_LOOP_SCRIPT =
+    "fun(Loop, CheckedPlt) -> " +
+    "  case io:read('') of " +
+    "    {ok, {analyze, Plt, Files}} -> " +
+    "      PltStamp = case Plt of none -> none; _ -> {Plt, filelib:last_modified(Plt)} end, " +
+    "      Opts = [{files, Files}, {analysis_type, succ_typings}, {check_plt, PltStamp =/= CheckedPlt}] ++ " +
+    "             [{init_plt, Plt} || Plt =/= none], " +
+    "      NewCheckedPlt = " +
+    "        try dialyzer:run(Opts) of " +
+    "          Warnings -> [io:put_chars([dialyzer:format_warning(W, fullpath), $\\n]) || W <- Warnings], PltStamp " +
+    "        catch " +
+    "          throw:{dialyzer_error, Msg} -> io:format(\"dialyzer: ~s~n\", [Msg]), unchecked; " +
+    "          _:Reason -> io:format(\"dialyzer: ~w~n\", [Reason]), unchecked " +
+    "        end, " +
+    "      io:format(\"" + DONE_MARKER + "~n\"), " +
+    "      Loop(Loop, NewCheckedPlt); " +
+    "    _ -> halt() " +
+    "  end " +
+    "end";
+
+  private final Map<String, CachedResult> myResults = ContainerUtil.newConcurrentMap();
+  private final ConcurrentMap<String, AnalysisRequest> myPendingRequests = ContainerUtil.newConcurrentMap();
+  private final Object myNodeLock = new Object();
+  private volatile Process myNode;
+  private volatile String myErlPath;
+  private volatile BufferedWriter myNodeInput;
+  private volatile BufferedReader myNodeOutput;
+
+  @NotNull
+  public static ErlangDialyzerServer getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, ErlangDialyzerServer.class);
+  }
+
+  /**
+   * Returns dialyzer output lines for the given file, or {@code null} if the dialyzer node could not be used.
+   */
+  @Nullable
+  public List<String> analyze(@NotNull String workingDir,
+                              @NotNull String dialyzerPath,
+                              @Nullable String pltPath,
+                              @NotNull String filePath) {
+    String erlPath = getErlPath(dialyzerPath);
+    if (erlPath == null || !new File(workingDir).isDirectory()) return null;
+
+    String contentHash = computeHash(filePath, pltPath);
+    if (contentHash == null) return null;
+
+    CachedResult cached = myResults.get(filePath);
+    if (cached != null && cached.myHash.equals(contentHash)) return cached.myLines;
+
+    // a request outlives cancelled callers, so the next highlighting pass picks up its result
+    AnalysisRequest request = new AnalysisRequest(workingDir, erlPath, pltPath, filePath, contentHash);
+    AnalysisRequest pending = myPendingRequests.putIfAbsent(request.myKey, request);
+    if (pending == null) {
+      pending = request;
+      ApplicationManager.getApplication().executeOnPooledThread(request.myTask);
+    }
+    try {
+      return pending.getResult();
+    }
+    catch (InterruptedException e) {
+      return null;
+    }
+    catch (CancellationException e) {
+      return null;
+    }
+    catch (java.util.concurrent.ExecutionException e) {
+      LOG.debug(e);
+      return null;
+    }
+  }
+
+  @Override
+  public void dispose() {
+    // a running analysis holds the lock while it reads the node's output, killing the node lets it finish
+    destroy(myNode);
+    synchronized (myNodeLock) {
+      stopNode();
+    }
+    myResults.clear();
+  }
+
+  private void ensureNodeStarted(@NotNull String workingDir, @NotNull String erlPath) throws ExecutionException {
+    if (myNode != null && erlPath.equals(myErlPath)) {
+      try {
+        myNode.exitValue();
+      }
+      catch (IllegalThreadStateException e) {
+        return; // still running
+      }
+    }
+    stopNode();
+
+    GeneralCommandLine cmd = new GeneralCommandLine();
+    cmd.setWorkDirectory(workingDir);
+    cmd.setExePath(erlPath);
+    cmd.addParameters("-noshell", "-eval", getNodeScript(getModuleSource()));
+    cmd.setRedirectErrorStream(true);
+    Process node = cmd.createProcess();
+
+    try {
+      myNodeInput = new BufferedWriter(new OutputStreamWriter(node.getOutputStream(), "UTF-8"));
+      myNodeOutput = new BufferedReader(new InputStreamReader(node.getInputStream(), "UTF-8"));
+    }
+    catch (UnsupportedEncodingException e) {
+      node.destroy();
+      throw new ExecutionException(e);
+    }
+    myNode = node;
+    myErlPath = erlPath;
+  }
+
+  /**
+   * Should be called under {@link #myNodeLock}.
+   */
+  private void stopNode() {
+    Process node = myNode;
+    myNode = null;
+    myErlPath = null;
+    myNodeInput = null;
+    myNodeOutput = null;
+    destroy(node);
+  }
+
+  private static void destroy(@Nullable Process node) {
+    if (node != null) {
+      node.destroy();
+    }
+  }
+
+  @NotNull
+  private static String getNodeScript(@NotNull File moduleSource) {
+    String sourcePath = toErlangString(moduleSource.getPath());
+    return "Loop = " + FALLBACK_LOOP_SCRIPT + ", " +
+           "case compile:file(" + sourcePath + ", [binary, return_errors]) of " +
+           "  {ok, Module, Binary} -> " +
+           "    {module, Module} = code:load_binary(Module, " + sourcePath + ", Binary), " +
+           "    Module:loop(" + toErlangString(DONE_MARKER) + "); " +
+           "  _ -> Loop(Loop, unchecked) " +
+           "end.";
+  }
+
+  /**
+   * The module is compiled on the node in memory, only its source is kept on disk.
+   */
+  @NotNull
+  private static File getModuleSource() throws ExecutionException {
+    try {
+      URL sourceUrl = ResourceUtil.getResource(ErlangDialyzerServer.class, "/dialyzer", MODULE_SOURCE);
+      if (sourceUrl == null) {
+        throw new ExecutionException("Failed to locate dialyzer module: " + MODULE_SOURCE);
+      }
+      String source = ResourceUtil.loadText(sourceUrl);
+      File sourceFile = new File(PathManager.getSystemPath(), "erlang-dialyzer/" + MODULE_SOURCE);
+      if (!sourceFile.isFile() || !source.equals(FileUtil.loadFile(sourceFile))) {
+        FileUtil.writeToFile(sourceFile, source);
+      }
+      return sourceFile;
+    }
+    catch (IOException e) {
+      throw new ExecutionException(e);
+    }
+  }
+
+  @Nullable
+  private static String getErlPath(@NotNull String dialyzerPath) {
+    File binDir = new File(dialyzerPath).getParentFile();
+    File erl = binDir != null ? new File(binDir, "erl" + (SystemInfo.isWindows ? ".exe" : "")) : null;
+    return erl != null && erl.canExecute() ? erl.getPath() : null;
+  }
+
+  @Nullable
+  private static String computeHash(@NotNull String filePath, @Nullable String pltPath) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("MD5");
+      digest.update(FileUtil.loadFileBytes(new File(filePath)));
+      if (!StringUtil.isEmptyOrSpaces(pltPath)) {
+        File plt = new File(pltPath);
+        digest.update((pltPath + ":" + plt.lastModified()).getBytes("UTF-8"));
+      }
+      return StringUtil.toHexString(digest.digest());
+    }
+    catch (IOException e) {
+      LOG.debug(e);
+      return null;
+    }
+    catch (NoSuchAlgorithmException e) {
+      LOG.debug(e);
+      return null;
+    }
+  }
+
+  @NotNull
+  private static String toErlangString(@NotNull String s) {
+    StringBuilder sb = new StringBuilder("\"");
+    for (int i = 0; i < s.length(); i = s.offsetByCodePoints(i, 1)) {
+      int c = s.codePointAt(i);
+      if (c == '"' || c == '\\') sb.append('\\').append((char)c);
+      else if (c < 0x20 || c > 0x7e) sb.append("\\x{").append(Integer.toHexString(c)).append('}');
+      else sb.append((char)c);
+    }
+    return sb.append('"').toString();
+  }
+
+  private final class AnalysisRequest implements Callable<List<String>> {
+    private final String myWorkingDir;
+    private final String myErlPath;
+    private final String myPltPath;
+    private final String myFilePath;
+    private final String myContentHash;
+    private final String myKey;
+    private final FutureTask<List<String>> myTask = new FutureTask<List<String>>(this);
+    private final CountDownLatch myStarted = new CountDownLatch(1);
+    private volatile Process myAnalysisNode;
+
+    public AnalysisRequest(@NotNull String workingDir,
+                           @NotNull String erlPath,
+                           @Nullable String pltPath,
+                           @NotNull String filePath,
+                           @NotNull String contentHash) {
+      myWorkingDir = workingDir;
+      myErlPath = erlPath;
+      myPltPath = pltPath;
+      myFilePath = filePath;
+      myContentHash = contentHash;
+      myKey = filePath + "#" + contentHash;
+    }
+
+    @Nullable
+    @Override
+    public List<String> call() {
+      try {
+        List<String> lines = analyze();
+        if (lines != null) {
+          myResults.put(myFilePath, new CachedResult(myContentHash, lines));
+        }
+        return lines;
+      }
+      finally {
+        myPendingRequests.remove(myKey, this);
+      }
+    }
+
+    @Nullable
+    private List<String> analyze() {
+      synchronized (myNodeLock) {
+        try {
+          ensureNodeStarted(myWorkingDir, myErlPath);
+          myAnalysisNode = myNode;
+        }
+        catch (ExecutionException e) {
+          LOG.debug(e);
+          return null;
+        }
+        finally {
+          myStarted.countDown();
+        }
+
+        try {
+          String plt = StringUtil.isEmptyOrSpaces(myPltPath) ? "none" : toErlangString(myPltPath);
+          myNodeInput.write("{analyze, " + plt + ", [" + toErlangString(myFilePath) + "]}.\n");
+          myNodeInput.flush();
+
+          String prefix = myFilePath + ":";
+          List<String> lines = new ArrayList<String>();
+          String line;
+          while ((line = myNodeOutput.readLine()) != null) {
+            if (DONE_MARKER.equals(line)) return lines;
+            if (line.startsWith(prefix) || line.startsWith("dialyzer: ")) {
+              lines.add(line);
+            }
+          }
+        }
+        catch (IOException e) {
+          LOG.debug(e);
+        }
+        stopNode();
+        return null;
+      }
+    }
+
+    /**
+     * Waits in short slices, so that a highlighting pass which is cancelled stops waiting; the analysis goes on.
+     */
+    @Nullable
+    public List<String> getResult() throws InterruptedException, java.util.concurrent.ExecutionException {
+      // the timeout covers this analysis only, not the analyses queued for the node before it
+      while (!myTask.isDone() && !myStarted.await(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+        ProgressManager.checkCanceled();
+      }
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+      while (true) {
+        ProgressManager.checkCanceled();
+        try {
+          return myTask.get(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException e) {
+          if (System.currentTimeMillis() < deadline) continue;
+          LOG.warn("Dialyzer node did not respond in " + TIMEOUT_SECONDS + " seconds, restarting it");
+          myTask.cancel(true);
+          // unblocks the analysis thread, which drops the node under the lock; the next request starts a new one
+          destroy(myAnalysisNode);
+          return null;
+        }
+      }
+    }
+  }
+
+  private static class CachedResult {
+    private final String myHash;
+    private final List<String> myLines;
+
+    public CachedResult(@NotNull String hash, @NotNull List<String> lines) {
+      myHash = hash;
+      myLines = lines;
+    }
+  }
+}
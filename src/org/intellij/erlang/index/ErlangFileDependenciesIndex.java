@@ -0,0 +1,234 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.intellij.erlang.ErlangFileType;
+import org.intellij.erlang.psi.ErlangFile;
+import org.intellij.erlang.psi.ErlangInclude;
+import org.intellij.erlang.psi.ErlangIncludeLib;
+import org.intellij.erlang.psi.ErlangIncludeString;
+import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Names a file depends on at compile time: parse transforms, behaviours and include strings, as written in the source.
+ * Values are keyed by file name, so a lookup is always made within the scope of a single file.
+ */
+public class ErlangFileDependenciesIndex extends FileBasedIndexExtension<String, ErlangFileDependenciesIndex.DeclaredDependencies> {
+  private static final ID<String, DeclaredDependencies> ERLANG_FILE_DEPENDENCIES_INDEX = ID.create("ErlangFileDependenciesIndex");
+  private static final int INDEX_VERSION = 1;
+  private static final KeyDescriptor<String> KEY_DESCRIPTOR = new EnumeratorStringDescriptor();
+  private static final DataExternalizer<DeclaredDependencies> VALUE_EXTERNALIZER = new DeclaredDependenciesExternalizer();
+  private static final FileBasedIndex.InputFilter INPUT_FILTER = new FileBasedIndex.InputFilter() {
+    @Override
+    public boolean acceptInput(@NotNull VirtualFile file) {
+      return file.getFileType() == ErlangFileType.MODULE || file.getFileType() == ErlangFileType.HEADER;
+    }
+  };
+
+  @NotNull
+  @Override
+  public ID<String, DeclaredDependencies> getName() {
+    return ERLANG_FILE_DEPENDENCIES_INDEX;
+  }
+
+  @Override
+  public int getVersion() {
+    return INDEX_VERSION;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, DeclaredDependencies, FileContent> getIndexer() {
+    return new DataIndexer<String, DeclaredDependencies, FileContent>() {
+      @NotNull
+      @Override
+      public Map<String, DeclaredDependencies> map(@NotNull FileContent inputData) {
+        PsiFile file = inputData.getPsiFile();
+        if (!(file instanceof ErlangFile)) return Collections.emptyMap();
+        return Collections.singletonMap(inputData.getFileName(), DeclaredDependencies.create((ErlangFile) file));
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return KEY_DESCRIPTOR;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<DeclaredDependencies> getValueExternalizer() {
+    return VALUE_EXTERNALIZER;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return INPUT_FILTER;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Nullable
+  public static DeclaredDependencies getDeclaredDependencies(@NotNull Project project, @NotNull VirtualFile file) {
+    List<DeclaredDependencies> values = FileBasedIndex.getInstance().getValues(ERLANG_FILE_DEPENDENCIES_INDEX,
+                                                                              file.getName(),
+                                                                              GlobalSearchScope.fileScope(project, file));
+    return ContainerUtil.getFirstItem(values);
+  }
+
+  public static final class DeclaredDependencies {
+    private final List<String> myParseTransforms;
+    private final List<String> myBehaviours;
+    private final List<String> myIncludes;
+    private final List<String> myIncludeLibs;
+
+    private DeclaredDependencies(@NotNull List<String> parseTransforms,
+                                 @NotNull List<String> behaviours,
+                                 @NotNull List<String> includes,
+                                 @NotNull List<String> includeLibs) {
+      myParseTransforms = parseTransforms;
+      myBehaviours = behaviours;
+      myIncludes = includes;
+      myIncludeLibs = includeLibs;
+    }
+
+    @NotNull
+    private static DeclaredDependencies create(@NotNull ErlangFile file) {
+      Set<String> parseTransforms = ContainerUtil.newLinkedHashSet();
+      file.addDeclaredParseTransforms(parseTransforms);
+      Set<String> behaviours = ContainerUtil.newLinkedHashSet();
+      ErlangPsiImplUtil.addDeclaredBehaviourModuleNames(file, behaviours);
+      List<String> includes = ContainerUtil.newArrayList();
+      for (ErlangInclude include : file.getIncludes()) {
+        ContainerUtil.addIfNotNull(getIncludePath(include.getIncludeStringSafe()), includes);
+      }
+      List<String> includeLibs = ContainerUtil.newArrayList();
+      for (ErlangIncludeLib includeLib : file.getIncludeLibs()) {
+        ContainerUtil.addIfNotNull(getIncludePath(includeLib.getIncludeStringSafe()), includeLibs);
+      }
+      return new DeclaredDependencies(ContainerUtil.newArrayList(parseTransforms), ContainerUtil.newArrayList(behaviours),
+                                      includes, includeLibs);
+    }
+
+    @Nullable
+    private static String getIncludePath(@Nullable ErlangIncludeString includeString) {
+      return includeString != null ? StringUtil.unquoteString(includeString.getText()) : null;
+    }
+
+    @NotNull
+    public List<String> getParseTransforms() {
+      return myParseTransforms;
+    }
+
+    @NotNull
+    public List<String> getBehaviours() {
+      return myBehaviours;
+    }
+
+    @NotNull
+    public List<String> getIncludes() {
+      return myIncludes;
+    }
+
+    @NotNull
+    public List<String> getIncludeLibs() {
+      return myIncludeLibs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      DeclaredDependencies that = (DeclaredDependencies) o;
+      return myParseTransforms.equals(that.myParseTransforms) &&
+             myBehaviours.equals(that.myBehaviours) &&
+             myIncludes.equals(that.myIncludes) &&
+             myIncludeLibs.equals(that.myIncludeLibs);
+    }
+
+    @Override
+    public int hashCode() {
+      int result = myParseTransforms.hashCode();
+      result = 31 * result + myBehaviours.hashCode();
+      result = 31 * result + myIncludes.hashCode();
+      result = 31 * result + myIncludeLibs.hashCode();
+      return result;
+    }
+  }
+
+  private static class DeclaredDependenciesExternalizer implements DataExternalizer<DeclaredDependencies> {
+    @Override
+    public void save(@NotNull DataOutput out, DeclaredDependencies value) throws IOException {
+      writeNames(out, value.myParseTransforms);
+      writeNames(out, value.myBehaviours);
+      writeNames(out, value.myIncludes);
+      writeNames(out, value.myIncludeLibs);
+    }
+
+    @Override
+    public DeclaredDependencies read(@NotNull DataInput in) throws IOException {
+      return new DeclaredDependencies(readNames(in), readNames(in), readNames(in), readNames(in));
+    }
+
+    private static void writeNames(@NotNull DataOutput out, @NotNull Collection<String> names) throws IOException {
+      DataInputOutputUtil.writeINT(out, names.size());
+      for (String name : names) {
+        IOUtil.writeUTF(out, name);
+      }
+    }
+
+    @NotNull
+    private static List<String> readNames(@NotNull DataInput in) throws IOException {
+      int size = DataInputOutputUtil.readINT(in);
+      if (size == 0) return ContainerUtil.emptyList();
+      List<String> names = ContainerUtil.newArrayListWithCapacity(size);
+      for (int i = 0; i < size; i++) {
+        names.add(IOUtil.readUTF(in));
+      }
+      return names;
+    }
+  }
+}
@@ -19,11 +19,17 @@ package org.intellij.erlang.index;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.indexing.*;
@@ -34,8 +40,8 @@ import org.intellij.erlang.psi.ErlangModule;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentMap;
 
 public class ErlangModuleIndex extends ScalarIndexExtension<String> {
   private static final ID<String, Void> ERLANG_MODULE_INDEX = ID.create("ErlangModuleIndex");
@@ -120,68 +126,116 @@ public class ErlangModuleIndex extends ScalarIndexExtension<String> {
   }
 
   @NotNull
-  public static List<VirtualFile> getVirtualFilesByName(@NotNull Project project, @NotNull String name, @NotNull GlobalSearchScope searchScope) {
-    ProjectFileIndex projectFileIndex = ProjectRootManager.getInstance(project).getFileIndex();
-    Collection<VirtualFile> files = FileBasedIndex.getInstance().getContainingFiles(ERLANG_MODULE_INDEX, name, searchScope);
-    List<VirtualFile> filesList = ContainerUtil.newArrayList(files);
-    Collections.sort(filesList, new MyProjectFilesComparator(projectFileIndex, searchScope));
-    return filesList;
+  public static List<VirtualFile> getVirtualFilesByName(@NotNull Project project, @NotNull String name, @NotNull final GlobalSearchScope searchScope) {
+    List<VirtualFile> rankedFiles = RankedModuleFiles.getInstance(project).getRankedFiles(name);
+    return ContainerUtil.filter(rankedFiles, new Condition<VirtualFile>() {
+      @Override
+      public boolean value(VirtualFile file) {
+        return searchScope.contains(file);
+      }
+    });
   }
 
-  private static final class MyProjectFilesComparator implements Comparator<VirtualFile> {
-    private final ProjectFileIndex myProjectFileIndex;
-    private final GlobalSearchScope mySearchScope;
+  /**
+   * Module name to module files map, each list ordered the way the code server would pick a module.
+   * It is dropped on any root or VFS change.
+   */
+  private static final class RankedModuleFiles {
+    private static final Key<CachedValue<RankedModuleFiles>> RANKED_MODULE_FILES_KEY = Key.create("ERLANG_RANKED_MODULE_FILES");
 
-    MyProjectFilesComparator(ProjectFileIndex pfi, GlobalSearchScope searchScope) {
-      myProjectFileIndex = pfi;
-      mySearchScope = searchScope;
+    private final Project myProject;
+    private final ProjectFileIndex myProjectFileIndex;
+    private final List<VirtualFile> myKernelAndStdlibDirs;
+    private final ConcurrentMap<String, List<VirtualFile>> myRankedFiles = ContainerUtil.newConcurrentMap();
+    private final ConcurrentMap<VirtualFile, Boolean> myHiddenDirectories = ContainerUtil.newConcurrentMap();
+
+    private RankedModuleFiles(@NotNull Project project) {
+      GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+      myProject = project;
+      myProjectFileIndex = ProjectRootManager.getInstance(project).getFileIndex();
+      myKernelAndStdlibDirs = ContainerUtil.packNullables(ErlangApplicationIndex.getApplicationDirectoryByName("kernel", scope),
+                                                          ErlangApplicationIndex.getApplicationDirectoryByName("stdlib", scope));
     }
 
-    @Override
-    public int compare(@NotNull VirtualFile f1, @NotNull VirtualFile f2) {
-      // according to http://www.erlang.org/doc/man/code.html, modules that belong to
-      // 'kernel' and 'stdlib' applications always appear before any user-defined modules
-      if (isKernelOrStdlibModule(f1)) return -1;
-      if (isKernelOrStdlibModule(f2)) return 1;
+    @NotNull
+    static RankedModuleFiles getInstance(@NotNull final Project project) {
+      return CachedValuesManager.getManager(project).getCachedValue(project, RANKED_MODULE_FILES_KEY, new CachedValueProvider<RankedModuleFiles>() {
+        @Nullable
+        @Override
+        public Result<RankedModuleFiles> compute() {
+          return Result.create(new RankedModuleFiles(project), ProjectRootManager.getInstance(project), VirtualFileManager.getInstance());
+        }
+      }, false);
+    }
 
-      boolean f1IsInSource = isInSource(f1);
-      boolean f2IsInSource = isInSource(f2);
-      if (f1IsInSource != f2IsInSource) return f1IsInSource ? -1 : 1;
+    @NotNull
+    List<VirtualFile> getRankedFiles(@NotNull String name) {
+      List<VirtualFile> rankedFiles = myRankedFiles.get(name);
+      if (rankedFiles == null) {
+        rankedFiles = rank(FileBasedIndex.getInstance().getContainingFiles(ERLANG_MODULE_INDEX, name, GlobalSearchScope.allScope(myProject)));
+        myRankedFiles.putIfAbsent(name, rankedFiles);
+      }
+      return rankedFiles;
+    }
 
-      boolean f1IsHidden = isUnderHiddenDirectory(f1);
-      boolean f2IsHidden = isUnderHiddenDirectory(f2);
-      if (f1IsHidden != f2IsHidden) return f1IsHidden ? 1 : -1;
+    @NotNull
+    private List<VirtualFile> rank(@NotNull Collection<VirtualFile> files) {
+      if (files.size() < 2) return ContainerUtil.newArrayList(files);
 
-      boolean f1IsInLibrary = isInLibrary(f1);
-      boolean f2IsInLibrary = isInLibrary(f2);
-      if (f1IsInLibrary != f2IsInLibrary) return f1IsInLibrary ? -1 : 1;
+      final Map<VirtualFile, Integer> ranks = ContainerUtil.newHashMap();
+      for (VirtualFile file : files) {
+        ranks.put(file, getRank(file));
+      }
+      List<VirtualFile> filesList = ContainerUtil.newArrayList(files);
+      Collections.sort(filesList, new Comparator<VirtualFile>() {
+        @Override
+        public int compare(@NotNull VirtualFile f1, @NotNull VirtualFile f2) {
+          int byRank = ranks.get(f1) - ranks.get(f2);
+          if (byRank != 0) return byRank;
+          int byPathLength = f1.getPath().length() - f2.getPath().length();
+          return byPathLength != 0 ? byPathLength : f1.getPath().compareTo(f2.getPath());
+        }
+      });
+      return Collections.unmodifiableList(filesList);
+    }
 
-      return f1.getPath().length() - f2.getPath().length();
+    private int getRank(@NotNull VirtualFile file) {
+      // according to http://www.erlang.org/doc/man/code.html, modules that belong to
+      // 'kernel' and 'stdlib' applications always appear before any user-defined modules
+      if (isKernelOrStdlibModule(file)) return 0;
+      int rank = 1;
+      if (!myProjectFileIndex.isInSource(file)) rank += 4;
+      if (isUnderHiddenDirectory(file)) rank += 2;
+      if (!isInLibrary(file)) rank += 1;
+      return rank;
     }
 
     private boolean isKernelOrStdlibModule(@NotNull VirtualFile file) {
-      VirtualFile kernelAppDir = ErlangApplicationIndex.getApplicationDirectoryByName("kernel", mySearchScope);
-      if (kernelAppDir != null && VfsUtilCore.isAncestor(kernelAppDir, file, true)) return true;
-      VirtualFile stdlibAppDir = ErlangApplicationIndex.getApplicationDirectoryByName("stdlib", mySearchScope);
-      return stdlibAppDir != null && VfsUtilCore.isAncestor(stdlibAppDir, file, true);
+      for (VirtualFile appDir : myKernelAndStdlibDirs) {
+        if (VfsUtilCore.isAncestor(appDir, file, true)) return true;
+      }
+      return false;
     }
 
-    private boolean isUnderHiddenDirectory(VirtualFile f) {
-      VirtualFile contentRoot = myProjectFileIndex.getContentRootForFile(f);
-      while (f != null && (contentRoot == null || VfsUtilCore.isAncestor(contentRoot, f, true))) {
-        File ioFile = VfsUtilCore.virtualToIoFile(f);
-        if (ioFile.isHidden()) return true;
-        f = f.getParent();
+    private boolean isUnderHiddenDirectory(@NotNull VirtualFile file) {
+      VirtualFile contentRoot = myProjectFileIndex.getContentRootForFile(file);
+      for (VirtualFile f = file; f != null && (contentRoot == null || VfsUtilCore.isAncestor(contentRoot, f, true)); f = f.getParent()) {
+        if (isHidden(f)) return true;
       }
       return false;
     }
 
-    private boolean isInLibrary(@NotNull VirtualFile file) {
-      return myProjectFileIndex.isInLibraryClasses(file) || myProjectFileIndex.isInLibrarySource(file);
+    private boolean isHidden(@NotNull VirtualFile file) {
+      Boolean hidden = myHiddenDirectories.get(file);
+      if (hidden == null) {
+        hidden = VfsUtilCore.virtualToIoFile(file).isHidden();
+        myHiddenDirectories.put(file, hidden);
+      }
+      return hidden;
     }
 
-    private boolean isInSource(@NotNull VirtualFile file) {
-      return myProjectFileIndex.isInSource(file);
+    private boolean isInLibrary(@NotNull VirtualFile file) {
+      return myProjectFileIndex.isInLibraryClasses(file) || myProjectFileIndex.isInLibrarySource(file);
     }
   }
 
@@ -19,7 +19,6 @@ package org.intellij.erlang.inspection;
 import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.util.TextRange;
-import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiReference;
 import com.intellij.util.ObjectUtils;
 import com.intellij.util.containers.ContainerUtil;
@@ -28,22 +27,9 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 //TODO make this inspection work when using -import attribute for io, io_lib
 public class ErlangIoFormatInspection extends ErlangInspectionBase {
-  private static final Pattern CONTROL_SEQUENCE_PATTERN;
-  static {
-    String fieldWidth =                 "(?:(\\*)|(?:-?\\d+))?";
-    String precision =                  "(?:\\.(?:(\\*)|(?:\\d+))?)";
-    String oneOfErlangEscapeSequences = "(?:\\\\(?:[bdefnrstv'\"\\\\]|(?:[0-7]{1,3})|(?:x[0-9a-fA-F]{2})|(?:x\\{[0-9a-fA-F]+\\})|(?:\\^[a-zA-Z])))";
-    String paddingCharacter =           "(?:\\.(?:(\\*)|" + oneOfErlangEscapeSequences + "|.))?";
-    String controlSequenceModifier =    "[tl]?";
-    String controlSequenceType =        "(?:([cfegswpWPBX#bx\\+i])|([~n]))";
-    CONTROL_SEQUENCE_PATTERN = Pattern.compile("~" + fieldWidth + "(?:" + precision + paddingCharacter + ")?" + controlSequenceModifier + controlSequenceType);
-  }
-
   private static final Set<String> MODULE_NAMES = ContainerUtil.set("io", "io_lib");
   private static final Set<String> FUNCTION_NAMES = ContainerUtil.set("format", "fwrite");
 
@@ -75,8 +61,8 @@ public class ErlangIoFormatInspection extends ErlangInspectionBase {
 
         int expectedArgumentsCount;
         try {
-          expectedArgumentsCount = getExpectedFormatArgsCount(formatString);
-        } catch (InvalidControlSequenceException e) {
+          expectedArgumentsCount = ErlangIoFormatUtil.getExpectedFormatArgsCount(formatString);
+        } catch (ErlangIoFormatUtil.InvalidControlSequenceException e) {
           registerProblem(holder, formatLiteral, "Invalid control sequence",
             TextRange.create(e.getInvalidSequenceStartIdx(), formatString.length() - 1), null);
           return;
@@ -90,43 +76,4 @@ public class ErlangIoFormatInspection extends ErlangInspectionBase {
       }
     };
   }
-
-  private static int getExpectedFormatArgsCount(String formatString) throws InvalidControlSequenceException {
-    int expectedArgumentsCount = 0;
-    int previousMatchEnd = 0;
-    Matcher matcher = CONTROL_SEQUENCE_PATTERN.matcher(formatString);
-    while (matcher.find()) {
-      checkNoControlSequencePresent(formatString, previousMatchEnd, matcher.start());
-      for (int i = 1; i < 5; i++) {
-        if (matcher.group(i) != null) expectedArgumentsCount++;
-      }
-      String controlSequenceType = matcher.group(4);
-      if ("P".equals(controlSequenceType)) expectedArgumentsCount++;
-      if (controlSequenceType == null && matcher.group(5) == null) {
-        throw new InvalidControlSequenceException(matcher.start());
-      }
-      previousMatchEnd = matcher.end();
-    }
-    checkNoControlSequencePresent(formatString, previousMatchEnd, formatString.length());
-    return expectedArgumentsCount;
-  }
-
-  private static void checkNoControlSequencePresent(String formatString, int begin, int end) throws InvalidControlSequenceException {
-    int controlSequenceStart = StringUtil.indexOf(formatString, '~', begin, end);
-    if (controlSequenceStart != -1) {
-      throw new InvalidControlSequenceException(controlSequenceStart);
-    }
-  }
-
-  private static class InvalidControlSequenceException extends Exception {
-    private int myInvalidSequenceStartIdx;
-
-    InvalidControlSequenceException(int invalidSequenceStartIdx) {
-      myInvalidSequenceStartIdx = invalidSequenceStartIdx;
-    }
-
-    private int getInvalidSequenceStartIdx() {
-      return myInvalidSequenceStartIdx;
-    }
-  }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.inspection;
+
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Control sequences of io:format/2 and io_lib:format/2 format strings.
+ */
+final class ErlangIoFormatUtil {
+  private static final Pattern CONTROL_SEQUENCE_PATTERN;
+  static {
+    String fieldWidth =                 "(?:(\\*)|(?:-?\\d+))?";
+    String precision =                  "(?:\\.(?:(\\*)|(?:\\d+))?)";
+    String oneOfErlangEscapeSequences = "(?:\\\\(?:[bdefnrstv'\"\\\\]|(?:[0-7]{1,3})|(?:x[0-9a-fA-F]{2})|(?:x\\{[0-9a-fA-F]+\\})|(?:\\^[a-zA-Z])))";
+    String paddingCharacter =           "(?:\\.(?:(\\*)|" + oneOfErlangEscapeSequences + "|.))?";
+    String controlSequenceModifier =    "[tl]?";
+    String controlSequenceType =        "(?:([cfegswpWPBX#bx\\+i])|([~n]))";
+    CONTROL_SEQUENCE_PATTERN = Pattern.compile("~" + fieldWidth + "(?:" + precision + paddingCharacter + ")?" + controlSequenceModifier + controlSequenceType);
+  }
+
+  private ErlangIoFormatUtil() {
+  }
+
+  public static int getExpectedFormatArgsCount(@NotNull String formatString) throws InvalidControlSequenceException {
+    int expectedArgumentsCount = 0;
+    int previousMatchEnd = 0;
+    Matcher matcher = CONTROL_SEQUENCE_PATTERN.matcher(formatString);
+    while (matcher.find()) {
+      checkNoControlSequencePresent(formatString, previousMatchEnd, matcher.start());
+      for (int i = 1; i < 5; i++) {
+        if (matcher.group(i) != null) expectedArgumentsCount++;
+      }
+      String controlSequenceType = matcher.group(4);
+      if ("P".equals(controlSequenceType)) expectedArgumentsCount++;
+      if (controlSequenceType == null && matcher.group(5) == null) {
+        throw new InvalidControlSequenceException(matcher.start());
+      }
+      previousMatchEnd = matcher.end();
+    }
+    checkNoControlSequencePresent(formatString, previousMatchEnd, formatString.length());
+    return expectedArgumentsCount;
+  }
+
+  private static void checkNoControlSequencePresent(String formatString, int begin, int end) throws InvalidControlSequenceException {
+    int controlSequenceStart = StringUtil.indexOf(formatString, '~', begin, end);
+    if (controlSequenceStart != -1) {
+      throw new InvalidControlSequenceException(controlSequenceStart);
+    }
+  }
+
+  static class InvalidControlSequenceException extends Exception {
+    private int myInvalidSequenceStartIdx;
+
+    InvalidControlSequenceException(int invalidSequenceStartIdx) {
+      myInvalidSequenceStartIdx = invalidSequenceStartIdx;
+    }
+
+    int getInvalidSequenceStartIdx() {
+      return myInvalidSequenceStartIdx;
+    }
+  }
+}
@@ -27,6 +27,7 @@ import com.intellij.util.Function;
 import com.intellij.util.ObjectUtils;
 import com.intellij.util.containers.ContainerUtil;
 import org.intellij.erlang.psi.*;
+import org.intellij.erlang.psi.impl.ErlangCallbackCoverage;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
 import org.intellij.erlang.quickfixes.ErlangCreateFunctionQuickFix;
 import org.intellij.erlang.quickfixes.ErlangExportFunctionFix;
@@ -35,7 +36,6 @@ import org.intellij.erlang.sdk.ErlangSdkType;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
-import java.util.Map;
 
 public class ErlangUndefinedCallbackFunctionInspection extends ErlangInspectionBase {
   public static final String FIX_MESSAGE = "Implement and export all callbacks";
@@ -45,22 +45,16 @@ public class ErlangUndefinedCallbackFunctionInspection extends ErlangInspectionB
     ErlangSdkRelease release = ErlangSdkType.getRelease(file);
     boolean supportOptionalCallbacks = release == null || !ErlangSdkRelease.V_18_0.isNewerThan(release);
 
+    ErlangCallbackCoverage coverage = ErlangCallbackCoverage.getInstance(file);
     for (ErlangBehaviour behaviour : file.getBehaviours()) {
       ErlangModuleRef behaviourRef = behaviour.getModuleRef();
-      ErlangFile behaviourModule = ErlangPsiImplUtil.resolveToFile(behaviourRef);
-      if (behaviourModule == null) continue;
+      List<ErlangCallbackSpec> missingCallbacks = coverage.getMissingCallbacks(behaviour);
+      if (missingCallbacks == null) continue;
 
       List<ErlangCallbackSpec> undefinedCallbacks = ContainerUtil.newArrayList();
-      Map<String, ErlangCallbackSpec> callbackMap = behaviourModule.getCallbackMap();
-      for (ErlangCallbackSpec spec : callbackMap.values()) {
+      for (ErlangCallbackSpec spec : missingCallbacks) {
         if (supportOptionalCallbacks && spec.isOptional()) continue;
-
-        String name = ErlangPsiImplUtil.getCallbackSpecName(spec);
-        int arity = ErlangPsiImplUtil.getCallbackSpecArity(spec);
-        ErlangFunction function = name != null ? file.getFunction(name, arity) : null;
-        if (function == null || !function.isExported()) {
-          undefinedCallbacks.add(spec);
-        }
+        undefinedCallbacks.add(spec);
       }
       if (undefinedCallbacks.isEmpty()) continue;
 
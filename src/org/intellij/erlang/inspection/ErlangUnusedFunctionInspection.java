@@ -19,24 +19,16 @@ package org.intellij.erlang.inspection;
 import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
-import com.intellij.openapi.util.Condition;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.search.LocalSearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
-import com.intellij.psi.util.PsiTreeUtil;
-import com.intellij.util.containers.ContainerUtil;
 import org.intellij.erlang.ErlangFileType;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunction;
-import org.intellij.erlang.psi.ErlangSpecification;
+import org.intellij.erlang.psi.impl.ErlangFileUsages;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
 import org.intellij.erlang.quickfixes.ErlangExportFunctionFix;
 import org.intellij.erlang.quickfixes.ErlangRemoveFunctionFix;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-
 public class ErlangUnusedFunctionInspection extends ErlangInspectionBase {
   @Override
   protected boolean canRunOn(@NotNull ErlangFile file) {
@@ -56,16 +48,9 @@ public class ErlangUnusedFunctionInspection extends ErlangInspectionBase {
     }
   }
 
-  public static boolean isUnusedFunction(@NotNull ErlangFile file, @NotNull final ErlangFunction function) {
-    if (ErlangPsiImplUtil.isEunitImported(file) && ErlangPsiImplUtil.isEunitTestFunction(function)) return false;
-    LocalSearchScope scope = new LocalSearchScope(file);
-    List<PsiReference> refs = ContainerUtil.filter(ReferencesSearch.search(function, scope).findAll(), new Condition<PsiReference>() { // filtered specs out
-      @Override
-      public boolean value(PsiReference psiReference) {
-        PsiElement element = psiReference.getElement();
-        return PsiTreeUtil.getParentOfType(element, ErlangSpecification.class) == null && !ErlangPsiImplUtil.isRecursiveCall(element, function);
-      }
-    });
-    return ContainerUtil.getFirstItem(refs) == null;
+  public static boolean isUnusedFunction(@NotNull ErlangFile file, @NotNull ErlangFunction function) {
+    // usages are computed once per file, the includes are only looked at for the functions nothing calls
+    if (ErlangFileUsages.getInstance(file).isUsed(function)) return false;
+    return !(ErlangPsiImplUtil.isEunitTestFunction(function) && ErlangPsiImplUtil.isEunitImported(file));
   }
 }
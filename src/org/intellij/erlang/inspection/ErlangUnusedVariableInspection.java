@@ -20,10 +20,8 @@ import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.search.LocalSearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
-import com.intellij.util.Query;
 import org.intellij.erlang.psi.*;
+import org.intellij.erlang.psi.impl.ErlangFunctionClauseVariables;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
 import org.intellij.erlang.quickfixes.ErlangRenameVariableFix;
 import org.jetbrains.annotations.NotNull;
@@ -44,13 +42,10 @@ public class ErlangUnusedVariableInspection extends ErlangInspectionBase {
             PsiElement resolve = reference != null ? reference.resolve() : null;
             if (resolve != null) return;
 
-            Query<PsiReference> search = ReferencesSearch.search(o, new LocalSearchScope(functionClause));
-            for (PsiReference ref : search) {
-              PsiElement element = ref.getElement();
-              if (ErlangPsiImplUtil.fromTheSameCaseExpression(o, element)) {
-                PsiReference reference1 = element.getReference();
-                if (reference1 == null || reference1.resolve() == null) continue;
-              }
+            for (ErlangQVar element : ErlangFunctionClauseVariables.getInstance(functionClause).getOccurrences(o.getText())) {
+              PsiReference ref = element.getReference();
+              if (ref == null || !ref.isReferenceTo(o)) continue;
+              if (ErlangPsiImplUtil.fromTheSameCaseExpression(o, element) && ref.resolve() == null) continue;
               return;
             }
 
@@ -24,14 +24,14 @@ import com.intellij.openapi.editor.markup.GutterIconRenderer;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiReference;
+import com.intellij.psi.PsiFile;
 import com.intellij.util.FunctionUtil;
 import com.intellij.util.containers.HashSet;
 import org.intellij.erlang.icons.ErlangIcons;
-import org.intellij.erlang.psi.ErlangFunction;
+import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangFunctionCallExpression;
 import org.intellij.erlang.psi.ErlangFunctionWithArity;
-import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
+import org.intellij.erlang.psi.impl.ErlangFileUsages;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
@@ -47,22 +47,22 @@ public class ErlangRecursiveCallLineMarkerProvider implements LineMarkerProvider
   @Override
   public void collectSlowLineMarkers(@NotNull List<PsiElement> elements, @NotNull Collection<LineMarkerInfo> result) {
     Set<Integer> lines = new HashSet<Integer>();
+    ErlangFileUsages usages = null;
     for (PsiElement element : elements) {
       if (element instanceof ErlangFunctionCallExpression || element instanceof ErlangFunctionWithArity) {
-        PsiReference reference = element.getReference();
-        PsiElement resolve = reference != null ? reference.resolve() : null;
-        if (resolve instanceof ErlangFunction) {
-          if (ErlangPsiImplUtil.isRecursiveCall(element, (ErlangFunction) resolve)) {
-            PsiDocumentManager instance = PsiDocumentManager.getInstance(element.getProject());
-            Document document = instance.getDocument(element.getContainingFile());
-            int textOffset = element.getTextOffset();
-            if (document == null) continue;
-            int lineNumber = document.getLineNumber(textOffset);
-            if (!lines.contains(lineNumber)) {
-              result.add(new RecursiveMethodCallMarkerInfo(element));
-            }
-            lines.add(lineNumber);
+        PsiFile file = element.getContainingFile();
+        if (!(file instanceof ErlangFile)) continue;
+        if (usages == null) usages = ErlangFileUsages.getInstance((ErlangFile) file);
+        if (usages.isRecursiveCall(element)) {
+          PsiDocumentManager instance = PsiDocumentManager.getInstance(element.getProject());
+          Document document = instance.getDocument(file);
+          int textOffset = element.getTextOffset();
+          if (document == null) continue;
+          int lineNumber = document.getLineNumber(textOffset);
+          if (!lines.contains(lineNumber)) {
+            result.add(new RecursiveMethodCallMarkerInfo(element));
           }
+          lines.add(lineNumber);
         }
       }
     }
@@ -19,11 +19,12 @@ package org.intellij.erlang.navigation;
 import com.intellij.navigation.ItemPresentation;
 import com.intellij.psi.NavigatablePsiElement;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.util.PsiTreeUtil;
-import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
 import org.intellij.erlang.icons.ErlangIcons;
 import org.intellij.erlang.psi.*;
+import org.intellij.erlang.psi.impl.ErlangCallbackCoverage;
 import org.intellij.erlang.psi.impl.ErlangCompositeElementImpl;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
 import org.jetbrains.annotations.NotNull;
@@ -39,15 +40,10 @@ public class ErlangNavigationUtil {
 
   @NotNull
   public static List<ErlangCallbackSpec> getCallbackSpecs(@NotNull ErlangFunction function) {
-    final String functionPresentation = ErlangPsiImplUtil.createFunctionPresentation(function);
-    return ContainerUtil.mapNotNull(((ErlangFile)function.getContainingFile()).getBehaviours(), new Function<ErlangBehaviour, ErlangCallbackSpec>() {
-      @Override
-      public ErlangCallbackSpec fun(ErlangBehaviour behaviour) {
-        ErlangFile behaviourModule = ErlangPsiImplUtil.resolveToFile(behaviour.getModuleRef());
-        //noinspection ConstantConditions
-        return behaviourModule != null ? behaviourModule.getCallbackByName(functionPresentation) : null;
-      }
-    });
+    PsiFile file = function.getContainingFile();
+    if (!(file instanceof ErlangFile)) return ContainerUtil.emptyList();
+    String functionPresentation = ErlangPsiImplUtil.createFunctionPresentation(function);
+    return ContainerUtil.newArrayList(ErlangCallbackCoverage.getInstance((ErlangFile) file).getCallbackSpecs(functionPresentation));
   }
 
   @Nullable
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.parser;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementType;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.ErlangLanguage;
+import org.intellij.erlang.ErlangParserDefinition;
+import org.intellij.erlang.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+import static org.intellij.erlang.ErlangTypes.*;
+
+/**
+ * Clause bodies are reparsed on their own when an edit does not move their boundaries: the new text has to start
+ * with an arrow, keep its brackets and blocks balanced and contain no clause or form terminators at top level.
+ */
+public class ErlangClauseBodyElementType extends IReparseableElementType {
+  // instances are created while ErlangTypes is being initialized, so no token sets in static fields here
+  public ErlangClauseBodyElementType(@NotNull String debugName) {
+    super(debugName, ErlangLanguage.INSTANCE);
+  }
+
+  @Override
+  public ASTNode createNode(CharSequence text) {
+    return new LazyParseableElement(this, text);
+  }
+
+  @Override
+  protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+    Project project = psi.getProject();
+    Language language = getLanguage();
+    PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(project, chameleon, null, language, chameleon.getChars());
+    // parsing modes which are active around the body in a full file parse
+    if (PsiTreeUtil.getContextOfType(psi, ErlangAtomAttribute.class, true) != null) {
+      ErlangParserUtil.enterMode(builder, 0, ErlangParserUtil.ATOM_ATTRIBUTE_MODE);
+    }
+    if (isGuarded(psi)) {
+      ErlangParserUtil.enterMode(builder, 0, ErlangParserUtil.GUARD_MODE);
+    }
+    return new ErlangParser().parse(this, builder).getFirstChildNode();
+  }
+
+  /**
+   * Mirrors the places where the grammar enters the GUARD mode with the <code>guarded</code> rule: guards, macro bodies,
+   * patterns of case, receive and try clauses and timeouts of after clauses. Nothing leaves the mode inside them.
+   */
+  private static boolean isGuarded(@NotNull PsiElement psi) {
+    for (PsiElement element = psi.getContext(); element != null && !(element instanceof PsiFile); element = element.getContext()) {
+      PsiElement parent = element.getContext();
+      if (element instanceof ErlangGuard || element instanceof ErlangMacrosBody) return true;
+      if (element instanceof ErlangArgumentDefinition && (parent instanceof ErlangCrClause || parent instanceof ErlangTryClause)) return true;
+      if (element instanceof ErlangExpression && parent instanceof ErlangAfterClauseBody) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public boolean isParsable(CharSequence buffer, Language fileLanguage, Project project) {
+    ErlangLexer lexer = new ErlangLexer();
+    lexer.start(buffer);
+    if (nextMeaningfulToken(lexer) != ERL_ARROW) return false;
+    lexer.advance();
+
+    List<IElementType> expectedClosers = ContainerUtil.newArrayList();
+    IElementType previous = ERL_ARROW;
+    IElementType beforePrevious = null;
+    boolean funHead = false;
+    int recordFieldStart = -1;
+    IElementType token;
+    while ((token = nextMeaningfulToken(lexer)) != null) {
+      boolean topLevel = expectedClosers.isEmpty();
+      if (topLevel && (token == ERL_SEMI || token == ERL_ARROW || token == ERL_WHEN)) return false;
+      // X#record.field is the only place a dot may appear inside a clause body
+      if (recordFieldStart != -1 && (token != ERL_ATOM_NAME || lexer.getTokenStart() != recordFieldStart)) return false;
+      recordFieldStart = -1;
+      if (token == ERL_DOT) {
+        if (previous != ERL_ATOM_NAME || beforePrevious != ERL_RADIX) return false;
+        recordFieldStart = lexer.getTokenEnd();
+      }
+
+      if (funHead && token == ERL_PAR_LEFT) {
+        expectedClosers.add(ERL_END);
+      }
+      funHead = token == ERL_FUN || funHead && previous == ERL_FUN && token == ERL_VAR;
+
+      IElementType closer = getCloser(token);
+      if (closer != null) {
+        expectedClosers.add(closer);
+      }
+      else if (token == ERL_END || token == ERL_PAR_RIGHT || token == ERL_BRACKET_RIGHT ||
+               token == ERL_CURLY_RIGHT || token == ERL_BIN_END) {
+        if (topLevel || expectedClosers.remove(expectedClosers.size() - 1) != token) return false;
+      }
+
+      beforePrevious = previous;
+      previous = token;
+      lexer.advance();
+    }
+    return expectedClosers.isEmpty() && recordFieldStart == -1;
+  }
+
+  @Nullable
+  private static IElementType getCloser(@NotNull IElementType token) {
+    if (token == ERL_BEGIN || token == ERL_CASE || token == ERL_IF || token == ERL_RECEIVE || token == ERL_TRY) return ERL_END;
+    if (token == ERL_PAR_LEFT) return ERL_PAR_RIGHT;
+    if (token == ERL_BRACKET_LEFT) return ERL_BRACKET_RIGHT;
+    if (token == ERL_CURLY_LEFT) return ERL_CURLY_RIGHT;
+    if (token == ERL_BIN_START) return ERL_BIN_END;
+    return null;
+  }
+
+  @Nullable
+  private static IElementType nextMeaningfulToken(@NotNull ErlangLexer lexer) {
+    IElementType token = lexer.getTokenType();
+    while (token == TokenType.WHITE_SPACE || ErlangParserDefinition.COMMENTS.contains(token)) {
+      lexer.advance();
+      token = lexer.getTokenType();
+    }
+    return token;
+  }
+}
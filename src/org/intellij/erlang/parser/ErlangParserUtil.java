@@ -27,7 +27,6 @@ import com.intellij.psi.TokenType;
 import com.intellij.psi.impl.source.resolve.FileContextUtil;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.tree.TokenSet;
-import gnu.trove.TObjectLongHashMap;
 import org.intellij.erlang.ErlangFileType;
 import org.intellij.erlang.ErlangTypes;
 import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
@@ -61,52 +60,55 @@ public class ErlangParserUtil extends GeneratedParserUtilBase {
     return fileType == ErlangFileType.APP || fileType == ErlangFileType.TERMS;
   }
 
-  private static final Key<TObjectLongHashMap<String>> MODES_KEY = Key.create("MODES_KEY");
+  // parsing modes, erlang.bnf passes these constants to the mode rules below and each one is a slot of the modes array
+  public static final int ELSE_MODE = 0;
+  public static final int ATOM_ATTRIBUTE_MODE = 1;
+  public static final int GUARD_MODE = 2;
+  private static final String[] MODE_NAMES = {"ELSE", "ATOM_ATTRIBUTE", "GUARD"};
 
-  private static TObjectLongHashMap<String> getParsingModes(PsiBuilder builder_) {
-    TObjectLongHashMap<String> flags = builder_.getUserDataUnprotected(MODES_KEY);
-    if (flags == null) builder_.putUserDataUnprotected(MODES_KEY, flags = new TObjectLongHashMap<String>());
+  private static final Key<long[]> MODES_KEY = Key.create("MODES_KEY");
+
+  private static long[] getParsingModes(PsiBuilder builder_) {
+    long[] flags = builder_.getUserDataUnprotected(MODES_KEY);
+    if (flags == null) builder_.putUserDataUnprotected(MODES_KEY, flags = new long[MODE_NAMES.length]);
     return flags;
   }
 
-  public static boolean isModeOn(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, String mode) {
-    return getParsingModes(builder_).get(mode) > 0;
+  public static boolean isModeOn(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, int mode) {
+    return getParsingModes(builder_)[mode] > 0;
   }
 
-  public static boolean isModeOff(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, String mode) {
-    return getParsingModes(builder_).get(mode) == 0;
+  public static boolean isModeOff(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, int mode) {
+    return getParsingModes(builder_)[mode] == 0;
   }
 
-  public static boolean withOn(PsiBuilder builder_, int level_, String mode, Parser parser) {
+  public static boolean withOn(PsiBuilder builder_, int level_, int mode, Parser parser) {
     return withImpl(builder_, level_, mode, true, parser, parser);
   }
 
-  public static boolean withCleared(PsiBuilder builder_, int level_, String mode, Parser whenOn, Parser whenOff) {
+  public static boolean withCleared(PsiBuilder builder_, int level_, int mode, Parser whenOn, Parser whenOff) {
     return withImpl(builder_, level_, mode, false, whenOn, whenOff);
   }
 
-  private static boolean withImpl(PsiBuilder builder_, int level_, String mode, boolean onOff, Parser whenOn, Parser whenOff) {
-    TObjectLongHashMap<String> map = getParsingModes(builder_);
-    long prev = map.get(mode);
+  private static boolean withImpl(PsiBuilder builder_, int level_, int mode, boolean onOff, Parser whenOn, Parser whenOff) {
+    long[] flags = getParsingModes(builder_);
+    long prev = flags[mode];
     boolean change = ((prev & 1) == 0) == onOff;
-    if (change) map.put(mode, prev << 1 | (onOff? 1 : 0));
+    if (change) flags[mode] = prev << 1 | (onOff ? 1 : 0);
     boolean result = (change ? whenOn : whenOff).parse(builder_, level_);
-    if (change) map.put(mode, prev);
+    if (change) flags[mode] = prev;
     return result;
   }
 
-  public static boolean enterMode(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, String mode) {
-    TObjectLongHashMap<String> flags = getParsingModes(builder_);
-    if (!flags.increment(mode)) flags.put(mode, 1);
+  public static boolean enterMode(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, int mode) {
+    getParsingModes(builder_)[mode]++;
     return true;
   }
 
-  public static boolean exitMode(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, String mode) {
-    TObjectLongHashMap<String> flags = getParsingModes(builder_);
-    long count = flags.get(mode);
-    if (count == 1) flags.remove(mode);
-    else if (count > 1) flags.put(mode, count -1);
-    else builder_.error("Could not exit inactive '" + mode + "' mode at offset " + builder_.getCurrentOffset());
+  public static boolean exitMode(PsiBuilder builder_, @SuppressWarnings("UnusedParameters") int level, int mode) {
+    long[] flags = getParsingModes(builder_);
+    if (flags[mode] > 0) flags[mode]--;
+    else builder_.error("Could not exit inactive '" + MODE_NAMES[mode] + "' mode at offset " + builder_.getCurrentOffset());
     return true;
   }
 
@@ -16,6 +16,7 @@
 
 package org.intellij.erlang.psi;
 
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -82,6 +83,12 @@ public interface ErlangFile extends PsiFile {
 
   boolean isExported(@NotNull String signature);
 
+  @NotNull
+  Set<String> getExportedSignatures();
+
+  @NotNull
+  Set<String> getImportedSignatures();
+
   boolean isNoAutoImport(@NotNull String name, int arity);
 
   boolean isExportedAll();
@@ -100,4 +107,10 @@ public interface ErlangFile extends PsiFile {
   Map<String, ErlangCallbackSpec> getCallbackMap();
 
   void addDeclaredParseTransforms(@NotNull Set<String> parseTransforms);
+
+  /**
+   * Changes whenever module attributes or function heads of this file change, edits inside function bodies keep it intact.
+   */
+  @NotNull
+  ModificationTracker getDeclarationsModificationTracker();
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.psi.impl;
+
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.ArrayUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
+import org.intellij.erlang.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Callbacks of the behaviours a file implements: callback specs by function signature and, for every resolved
+ * behaviour, the callbacks which are not defined or not exported by the file.
+ */
+public final class ErlangCallbackCoverage {
+  private static final Key<CachedValue<ErlangCallbackCoverage>> COVERAGE_KEY = Key.create("ERLANG_CALLBACK_COVERAGE");
+
+  private final MultiMap<String, ErlangCallbackSpec> myCallbacks = MultiMap.createLinked();
+  private final Map<ErlangBehaviour, List<ErlangCallbackSpec>> myMissingCallbacks = ContainerUtil.newHashMap();
+  private final List<ErlangFile> myBehaviourModules = ContainerUtil.newArrayList();
+
+  private ErlangCallbackCoverage(@NotNull ErlangFile file) {
+    for (ErlangBehaviour behaviour : file.getBehaviours()) {
+      ErlangFile behaviourModule = ErlangPsiImplUtil.resolveToFile(behaviour.getModuleRef());
+      if (behaviourModule == null) continue;
+      myBehaviourModules.add(behaviourModule);
+
+      List<ErlangCallbackSpec> missing = ContainerUtil.newArrayList();
+      for (Map.Entry<String, ErlangCallbackSpec> entry : behaviourModule.getCallbackMap().entrySet()) {
+        ErlangCallbackSpec spec = entry.getValue();
+        myCallbacks.putValue(entry.getKey(), spec);
+
+        String name = ErlangPsiImplUtil.getCallbackSpecName(spec);
+        int arity = ErlangPsiImplUtil.getCallbackSpecArity(spec);
+        ErlangFunction function = name != null ? file.getFunction(name, arity) : null;
+        if (function == null || !function.isExported()) {
+          missing.add(spec);
+        }
+      }
+      myMissingCallbacks.put(behaviour, missing);
+    }
+  }
+
+  @NotNull
+  public static ErlangCallbackCoverage getInstance(@NotNull final ErlangFile file) {
+    return CachedValuesManager.getCachedValue(file, COVERAGE_KEY, new CachedValueProvider<ErlangCallbackCoverage>() {
+      @Override
+      public Result<ErlangCallbackCoverage> compute() {
+        ErlangCallbackCoverage coverage = new ErlangCallbackCoverage(file);
+        List<Object> dependencies = ContainerUtil.<Object>newArrayList(file.getDeclarationsModificationTracker());
+        for (ErlangFile behaviourModule : coverage.myBehaviourModules) {
+          dependencies.add(behaviourModule.getDeclarationsModificationTracker());
+        }
+        // behaviour modules may appear or move
+        dependencies.add(ProjectRootManager.getInstance(file.getProject()));
+        dependencies.add(VirtualFileManager.getInstance());
+        return Result.create(coverage, ArrayUtil.toObjectArray(dependencies));
+      }
+    });
+  }
+
+  /**
+   * @param signature function signature in name/arity form
+   */
+  @NotNull
+  public Collection<ErlangCallbackSpec> getCallbackSpecs(@NotNull String signature) {
+    return myCallbacks.get(signature);
+  }
+
+  /**
+   * @return callbacks of the behaviour which are not defined or not exported, or null if the behaviour is not resolved
+   */
+  @Nullable
+  public List<ErlangCallbackSpec> getMissingCallbacks(@NotNull ErlangBehaviour behaviour) {
+    return myMissingCallbacks.get(behaviour);
+  }
+}
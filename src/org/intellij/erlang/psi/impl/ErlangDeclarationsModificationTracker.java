@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.psi.impl;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.PsiTreeChangeEventImpl;
+import com.intellij.psi.impl.PsiTreeChangePreprocessor;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.intellij.erlang.psi.ErlangClauseBody;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Bumps {@link ErlangFileImpl#getDeclarationsModificationTracker()} on every change except the ones made
+ * inside clause bodies, so that caches built from attributes and function heads survive editing of function bodies.
+ */
+public class ErlangDeclarationsModificationTracker implements PsiTreeChangePreprocessor {
+  @Override
+  public void treeChanged(@NotNull PsiTreeChangeEventImpl event) {
+    switch (event.getCode()) {
+      case CHILD_ADDED:
+      case CHILD_REMOVED:
+      case CHILD_REPLACED:
+        declarationsChanged(event.getFile(), event.getParent());
+        break;
+      case CHILDREN_CHANGED:
+        // a generic event is sent for the whole file after each change, the actual change is reported separately
+        if (!event.isGenericChange()) {
+          declarationsChanged(event.getFile(), event.getParent());
+        }
+        break;
+      case CHILD_MOVED:
+      case PROPERTY_CHANGED:
+        PsiElement element = event.getElement();
+        declarationsChanged(event.getFile() != null ? event.getFile() : element instanceof PsiFile ? (PsiFile) element : null, null);
+        break;
+      default:
+        break;
+    }
+  }
+
+  private static void declarationsChanged(@Nullable PsiFile file, @Nullable PsiElement changedParent) {
+    if (!(file instanceof ErlangFileImpl)) return;
+    if (changedParent != null && PsiTreeUtil.getParentOfType(changedParent, ErlangClauseBody.class, false) != null) return;
+    ((ErlangFileImpl) file).incDeclarationsModificationCount();
+  }
+}
@@ -20,9 +20,12 @@ import com.intellij.extapi.psi.PsiFileBase;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.ReferencesSearch;
@@ -52,6 +55,13 @@ import static java.util.Collections.*;
 import static org.intellij.erlang.psi.impl.ErlangPsiImplUtil.*;
 
 public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameIdentifierOwner {
+  private volatile long myDeclarationsModificationCount;
+  private final ModificationTracker myDeclarationsModificationTracker = new ModificationTracker() {
+    @Override
+    public long getModificationCount() {
+      return myDeclarationsModificationCount;
+    }
+  };
   private final CachedValue<ErlangModule> myModuleValue =
     createCachedValue(new ValueProvider<ErlangModule>() {
       @Nullable
@@ -265,6 +275,14 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
         return unmodifiableSet(calcExportedSignatures());
       }
     });
+  private final CachedValue<Set<String>> myImportedFunctionsSignatures =
+    createCachedValue(new ValueProvider<Set<String>>() {
+      @NotNull
+      @Override
+      public Set<String> computeValue() {
+        return unmodifiableSet(calcImportedSignatures());
+      }
+    });
   private final CachedValue<Set<String>> myNoAutoImportFunctionsSignatures =
     createCachedValue(new ValueProvider<Set<String>>() {
       @NotNull
@@ -273,6 +291,20 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
         return unmodifiableSet(calcNoAutoImportSignatures());
       }
     });
+  private final CachedValue<ErlangIncludeClosure> myIncludeClosure =
+    CachedValuesManager.getManager(getProject()).createCachedValue(new CachedValueProvider<ErlangIncludeClosure>() {
+      @Override
+      public Result<ErlangIncludeClosure> compute() {
+        ErlangIncludeClosure closure = ErlangIncludeClosure.create(ErlangFileImpl.this);
+        List<Object> dependencies = ContainerUtil.<Object>newArrayList(myDeclarationsModificationTracker);
+        for (ErlangFile file : closure.getFiles()) {
+          dependencies.add(file.getDeclarationsModificationTracker());
+        }
+        dependencies.add(ProjectRootManager.getInstance(getProject()));
+        dependencies.add(VirtualFileManager.getInstance());
+        return Result.create(closure, ArrayUtil.toObjectArray(dependencies));
+      }
+    }, false);
 
   public ErlangFileImpl(@NotNull FileViewProvider viewProvider) {
     super(viewProvider, ErlangLanguage.INSTANCE);
@@ -327,6 +359,31 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
     return ErlangFileType.MODULE;
   }
 
+  @NotNull
+  @Override
+  public ModificationTracker getDeclarationsModificationTracker() {
+    return myDeclarationsModificationTracker;
+  }
+
+  void incDeclarationsModificationCount() {
+    myDeclarationsModificationCount++;
+  }
+
+  @Override
+  public void subtreeChanged() {
+    super.subtreeChanged();
+    // tree change preprocessors are not notified about changes of non-physical files
+    if (!isPhysical()) {
+      incDeclarationsModificationCount();
+    }
+  }
+
+  @Override
+  public void onContentReload() {
+    super.onContentReload();
+    incDeclarationsModificationCount();
+  }
+
   @Nullable
   @Override
   public ErlangFileStub getStub() {
@@ -359,7 +416,19 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
   @Override
   public boolean isExported(@NotNull String signature) {
     if (isExportedAll()) return true;
-    return myExportedFunctionsSignatures.getValue().contains(signature);
+    return getExportedSignatures().contains(signature);
+  }
+
+  @NotNull
+  @Override
+  public Set<String> getExportedSignatures() {
+    return myExportedFunctionsSignatures.getValue();
+  }
+
+  @NotNull
+  @Override
+  public Set<String> getImportedSignatures() {
+    return myImportedFunctionsSignatures.getValue();
   }
 
   @Override
@@ -370,6 +439,10 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
 
   @NotNull
   private Set<String> calcExportedSignatures() {
+    ErlangFileStub stub = getStub();
+    if (stub != null) {
+      return ContainerUtil.newHashSet(ErlangFileStub.splitSignatures(stub.getExportedSignatures()));
+    }
     Set<String> result = ContainerUtil.newHashSet();
     for (ErlangAttribute attribute : getAttributes()) {
       ErlangExport export = attribute.getExport();
@@ -517,10 +590,14 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
   @NotNull
   @Override
   public Map<String, ErlangCallbackSpec> getCallbackMap() {
-    //TODO do we use stubs?
+    return myCallbackMap.getValue();
+  }
+
+  @NotNull
+  private Map<String, ErlangCallbackSpec> calcCallbacks() {
+    Map<String, ErlangCallbackSpec> callbacksMap = new LinkedHashMap<String, ErlangCallbackSpec>();
     ErlangFileStub stub = getStub();
     if (stub != null) {
-      Map<String, ErlangCallbackSpec> callbacksMap = new LinkedHashMap<String, ErlangCallbackSpec>();
       for (StubElement child : stub.getChildrenStubs()) {
         if (child instanceof ErlangCallbackSpecStub) {
           String name = ((ErlangCallbackSpecStub) child).getName();
@@ -531,13 +608,6 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
       return callbacksMap;
     }
 
-    return myCallbackMap.getValue();
-  }
-
-  @NotNull
-  private Map<String, ErlangCallbackSpec> calcCallbacks() {
-    Map<String, ErlangCallbackSpec> callbacksMap = new LinkedHashMap<String, ErlangCallbackSpec>();
-
     for (ErlangAttribute a : getAttributes()) {
       ErlangCallbackSpec spec = a.getCallbackSpec();
       if (spec != null) {
@@ -738,6 +808,7 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
 
   @Nullable
   public ErlangImportFunction getImportedFunction(String name, final int arity) {
+    if (!getImportedSignatures().contains(name + "/" + arity)) return null;
     MultiMap<String, ErlangImportFunction> importsMap = myImportsMap.getValue();
     Collection<ErlangImportFunction> importFunctions = importsMap.get(name);
     return ContainerUtil.find(importFunctions, new Condition<ErlangImportFunction>() {
@@ -765,6 +836,19 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
     return result;
   }
 
+  @NotNull
+  private Set<String> calcImportedSignatures() {
+    ErlangFileStub stub = getStub();
+    if (stub != null) {
+      return ContainerUtil.newHashSet(ErlangFileStub.splitSignatures(stub.getImportedSignatures()));
+    }
+    Set<String> result = ContainerUtil.newHashSet();
+    for (ErlangImportFunction importFunction : getImportedFunctions()) {
+      result.add(ErlangPsiImplUtil.getName(importFunction) + "/" + ErlangPsiImplUtil.getArity(importFunction));
+    }
+    return result;
+  }
+
   private List<ErlangFunction> calcFunctions() {
     return calcChildren(ErlangFunction.class,
                         ErlangTypes.ERL_FUNCTION,
@@ -806,6 +890,15 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
     }
   }
 
+  /**
+   * Transitive include closure of this file. It is recomputed when this file, any of the included files,
+   * project roots or the virtual file system change.
+   */
+  @NotNull
+  public ErlangIncludeClosure getIncludeClosure() {
+    return myIncludeClosure.getValue();
+  }
+
   @Nullable
   @Override
   public PsiElement getNameIdentifier() {
@@ -866,7 +959,7 @@ public class ErlangFileImpl extends PsiFileBase implements ErlangFile, PsiNameId
     @NotNull
     @Override
     public final Result<T> compute() {
-      return Result.create(computeValue(), ErlangFileImpl.this);
+      return Result.create(computeValue(), myDeclarationsModificationTracker);
     }
 
     @Nullable
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.psi.impl;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.reference.impl.PsiMultiReference;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.psi.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+
+/**
+ * Call graph summary of an Erlang file computed in a single traversal: local functions which are used
+ * (references from specs and from the function's own body are not counted), local types which are used
+ * and self-recursive call sites.
+ */
+public final class ErlangFileUsages {
+  private static final Key<CachedValue<ErlangFileUsages>> USAGES_KEY = Key.create("ERLANG_FILE_USAGES");
+
+  private final Set<ErlangFunction> myUsedFunctions = ContainerUtil.newHashSet();
+  private final Set<ErlangTypeDefinition> myUsedTypes = ContainerUtil.newHashSet();
+  private final Set<PsiElement> myRecursiveCalls = ContainerUtil.newHashSet();
+
+  private ErlangFileUsages(@NotNull final ErlangFile file) {
+    file.accept(new PsiRecursiveElementVisitor() {
+      @Override
+      public void visitElement(PsiElement element) {
+        if (element instanceof ErlangCompositeElement && !(element instanceof ErlangQVar)) {
+          for (PsiReference reference : element.getReferences()) {
+            processReference(file, element, reference);
+          }
+        }
+        super.visitElement(element);
+      }
+    });
+  }
+
+  @NotNull
+  public static ErlangFileUsages getInstance(@NotNull final ErlangFile file) {
+    return CachedValuesManager.getCachedValue(file, USAGES_KEY, new CachedValueProvider<ErlangFileUsages>() {
+      @Override
+      public Result<ErlangFileUsages> compute() {
+        // local calls may resolve to imports and includes, so any PSI change can affect the result
+        return Result.create(new ErlangFileUsages(file), PsiModificationTracker.MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  public boolean isUsed(@NotNull ErlangFunction function) {
+    return myUsedFunctions.contains(function);
+  }
+
+  public boolean isUsed(@NotNull ErlangTypeDefinition type) {
+    return myUsedTypes.contains(type);
+  }
+
+  /**
+   * @param callSite a function call expression or a function with arity
+   */
+  public boolean isRecursiveCall(@NotNull PsiElement callSite) {
+    return myRecursiveCalls.contains(callSite);
+  }
+
+  private void processReference(@NotNull ErlangFile file, @NotNull PsiElement element, @NotNull PsiReference reference) {
+    if (reference instanceof PsiMultiReference) {
+      for (PsiReference r : ((PsiMultiReference) reference).getReferences()) {
+        processReference(file, element, r);
+      }
+      return;
+    }
+    if (!(reference instanceof ErlangFunctionReference) && !(reference instanceof ErlangTypeReferenceImpl)) return;
+
+    PsiElement target = reference.resolve();
+    if (target == null || target.getContainingFile() != file) return;
+
+    if (target instanceof ErlangTypeDefinition) {
+      myUsedTypes.add((ErlangTypeDefinition) target);
+    }
+    else if (target instanceof ErlangFunction) {
+      ErlangFunction function = (ErlangFunction) target;
+      PsiElement referenceElement = reference.getElement();
+      if (ErlangPsiImplUtil.isRecursiveCall(referenceElement, function)) {
+        if (element instanceof ErlangFunctionCallExpression || element instanceof ErlangFunctionWithArity) {
+          myRecursiveCalls.add(element);
+        }
+      }
+      else if (PsiTreeUtil.getParentOfType(referenceElement, ErlangSpecification.class) == null) {
+        myUsedFunctions.add(function);
+      }
+    }
+  }
+}
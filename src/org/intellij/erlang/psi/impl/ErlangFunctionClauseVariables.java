@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.psi.impl;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.containers.MultiMap;
+import org.intellij.erlang.psi.ErlangFunctionClause;
+import org.intellij.erlang.psi.ErlangQVar;
+import org.intellij.erlang.psi.ErlangRecursiveVisitor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Variable table of a function clause: every variable occurrence by name, in document order,
+ * and the subset of occurrences which bind a variable (argument definitions and left parts of assignments).
+ * A variable inside a function clause can only resolve to a binding from the same clause.
+ */
+public final class ErlangFunctionClauseVariables {
+  private static final Key<CachedValue<ErlangFunctionClauseVariables>> VARIABLES_KEY = Key.create("ERLANG_FUNCTION_CLAUSE_VARIABLES");
+
+  private final MultiMap<String, ErlangQVar> myOccurrences = MultiMap.createLinked();
+  private final MultiMap<String, ErlangQVar> myBindings = MultiMap.createLinked();
+
+  private ErlangFunctionClauseVariables(@NotNull ErlangFunctionClause clause) {
+    clause.accept(new ErlangRecursiveVisitor() {
+      @Override
+      public void visitQVar(@NotNull ErlangQVar o) {
+        String name = o.getText();
+        myOccurrences.putValue(name, o);
+        if (ErlangPsiImplUtil.inArgumentDefinition(o) || ErlangPsiImplUtil.inLeftPartOfAssignment(o)) {
+          myBindings.putValue(name, o);
+        }
+      }
+    });
+  }
+
+  @NotNull
+  public static ErlangFunctionClauseVariables getInstance(@NotNull final ErlangFunctionClause clause) {
+    return CachedValuesManager.getCachedValue(clause, VARIABLES_KEY, new CachedValueProvider<ErlangFunctionClauseVariables>() {
+      @Override
+      public Result<ErlangFunctionClauseVariables> compute() {
+        return Result.create(new ErlangFunctionClauseVariables(clause), clause);
+      }
+    });
+  }
+
+  @NotNull
+  public Collection<ErlangQVar> getOccurrences(@NotNull String name) {
+    return myOccurrences.get(name);
+  }
+
+  @NotNull
+  public Collection<ErlangQVar> getBindings(@NotNull String name) {
+    return myBindings.get(name);
+  }
+
+  public boolean hasBindingsOtherThan(@NotNull ErlangQVar var) {
+    for (ErlangQVar binding : getBindings(var.getText())) {
+      if (binding != var) return true;
+    }
+    return false;
+  }
+}
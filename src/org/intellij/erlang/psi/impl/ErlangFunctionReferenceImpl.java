@@ -17,6 +17,7 @@
 package org.intellij.erlang.psi.impl;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Comparing;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -30,6 +31,7 @@ import org.intellij.erlang.index.ErlangModuleIndex;
 import org.intellij.erlang.psi.*;
 import org.intellij.erlang.sdk.ErlangSdkRelease;
 import org.intellij.erlang.sdk.ErlangSdkType;
+import org.intellij.erlang.stubs.index.ErlangModuleFunctionIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -38,6 +40,23 @@ import java.util.Collection;
 import java.util.List;
 
 public class ErlangFunctionReferenceImpl<T extends ErlangQAtom> extends PsiPolyVariantReferenceBase<T> implements ErlangFunctionReference {
+  private static final ResolveUtil.Resolver<ErlangFunctionReferenceImpl> RESOLVER =
+    new ResolveUtil.Resolver<ErlangFunctionReferenceImpl>() {
+      @Nullable
+      @Override
+      protected PsiElement doResolve(@NotNull ErlangFunctionReferenceImpl reference) {
+        return reference.resolveInner();
+      }
+    };
+  private static final ResolveUtil.PolyVariantResolver<ErlangFunctionReferenceImpl> POLY_VARIANT_RESOLVER =
+    new ResolveUtil.PolyVariantResolver<ErlangFunctionReferenceImpl>() {
+      @NotNull
+      @Override
+      protected ResolveResult[] doResolve(@NotNull ErlangFunctionReferenceImpl reference, boolean incompleteCode) {
+        return reference.multiResolveInner(incompleteCode);
+      }
+    };
+
   @Nullable
   private final ErlangQAtom myModuleAtom;
   protected final String myReferenceName;
@@ -53,7 +72,11 @@ public class ErlangFunctionReferenceImpl<T extends ErlangQAtom> extends PsiPolyV
   @Override
   public PsiElement resolve() {
     if (suppressResolve()) return null; // for #132
+    return ResolveUtil.resolveWithCaching(this, RESOLVER);
+  }
 
+  @Nullable
+  private PsiElement resolveInner() {
     if (myModuleAtom != null) {
       String moduleName = ErlangPsiImplUtil.getName(myModuleAtom);
       ErlangFunction explicitFunction = getExternalFunction(moduleName);
@@ -104,7 +127,11 @@ public class ErlangFunctionReferenceImpl<T extends ErlangQAtom> extends PsiPolyV
   @Override
   public ResolveResult[] multiResolve(boolean incompleteCode) {
     if (suppressResolve()) return ResolveResult.EMPTY_ARRAY; // for #132
+    return ResolveUtil.multiResolveWithCaching(this, incompleteCode, POLY_VARIANT_RESOLVER);
+  }
 
+  @NotNull
+  private ResolveResult[] multiResolveInner(boolean incompleteCode) {
     // todo: use incompleteCode
     if (resolve() != null && !incompleteCode) return ResolveResult.EMPTY_ARRAY;
 
@@ -147,6 +174,20 @@ public class ErlangFunctionReferenceImpl<T extends ErlangQAtom> extends PsiPolyV
     return PsiTreeUtil.getParentOfType(myElement, ErlangCallbackSpec.class) != null;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    ErlangFunctionReferenceImpl that = (ErlangFunctionReferenceImpl) o;
+    return myArity == that.myArity && myElement.equals(that.myElement) && Comparing.equal(myModuleAtom, that.myModuleAtom);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * myElement.hashCode() + myArity;
+  }
+
   @Override
   public boolean isReferenceTo(PsiElement element) {
     return getElement().getManager().areElementsEquivalent(resolve(), element);
@@ -155,8 +196,13 @@ public class ErlangFunctionReferenceImpl<T extends ErlangQAtom> extends PsiPolyV
   @Nullable
   private ErlangFunction getExternalFunction(@NotNull String moduleFileName) {
     Project project = getElement().getProject();
+    GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+    ErlangFunction function = ErlangModuleFunctionIndex.getFunction(project, moduleFileName, myReferenceName, myArity, scope);
+    if (function != null) return function;
+
     List<ErlangFunction> result = new ArrayList<ErlangFunction>();
-    for (ErlangFile file : ErlangModuleIndex.getFilesByName(project, moduleFileName, GlobalSearchScope.allScope(project))) {
+    // the function comes from an include
+    for (ErlangFile file : ErlangModuleIndex.getFilesByName(project, moduleFileName, scope)) {
       ContainerUtil.addAllNotNull(result, file.getFunction(myReferenceName, myArity));
       ContainerUtil.addAllNotNull(result, ErlangPsiImplUtil.getErlangFunctionsFromIncludes(file, false, myReferenceName, myArity));
     }
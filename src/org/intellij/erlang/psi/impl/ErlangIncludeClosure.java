@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.psi.impl;
+
+import com.intellij.util.containers.ContainerUtil;
+import gnu.trove.THashMap;
+import org.intellij.erlang.psi.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transitive set of files included by an Erlang file together with merged name to definition maps
+ * of everything declared in them. The first definition found in include order wins.
+ */
+public final class ErlangIncludeClosure {
+  private final Set<ErlangFile> myFiles;
+  private final Map<String, ErlangMacrosDefinition> myMacroses = new THashMap<String, ErlangMacrosDefinition>();
+  private final Map<String, ErlangRecordDefinition> myRecords = new THashMap<String, ErlangRecordDefinition>();
+  private final Map<String, ErlangTypeDefinition> myTypes = new THashMap<String, ErlangTypeDefinition>();
+  private final Map<String, ErlangFunction> myFunctions = new THashMap<String, ErlangFunction>();
+
+  private ErlangIncludeClosure(@NotNull Set<ErlangFile> files) {
+    myFiles = Collections.unmodifiableSet(files);
+    for (ErlangFile file : files) {
+      for (ErlangMacrosDefinition macros : file.getMacroses()) {
+        putIfAbsent(myMacroses, ErlangPsiImplUtil.getName(macros), macros);
+      }
+      for (ErlangRecordDefinition record : file.getRecords()) {
+        putIfAbsent(myRecords, record.getName(), record);
+      }
+      for (ErlangTypeDefinition type : file.getTypes()) {
+        putIfAbsent(myTypes, type.getName(), type);
+      }
+      for (ErlangFunction function : file.getFunctions()) {
+        putIfAbsent(myFunctions, function.getName() + "/" + function.getArity(), function);
+      }
+    }
+  }
+
+  @NotNull
+  public static ErlangIncludeClosure create(@NotNull ErlangFile file) {
+    Set<ErlangFile> files = ContainerUtil.newLinkedHashSet();
+    addIncludedFiles(file, files);
+    return new ErlangIncludeClosure(files);
+  }
+
+  private static void addIncludedFiles(@NotNull ErlangFile erlangFile, @NotNull Set<ErlangFile> alreadyAdded) {
+    for (ErlangFile f : ErlangPsiImplUtil.getDirectlyIncludedFiles(erlangFile)) {
+      if (alreadyAdded.add(f)) {
+        addIncludedFiles(f, alreadyAdded);
+      }
+    }
+  }
+
+  @NotNull
+  public Collection<ErlangFile> getFiles() {
+    return myFiles;
+  }
+
+  @Nullable
+  public ErlangMacrosDefinition getMacros(@NotNull String name) {
+    return myMacroses.get(name);
+  }
+
+  @Nullable
+  public ErlangRecordDefinition getRecord(@NotNull String name) {
+    return myRecords.get(name);
+  }
+
+  @Nullable
+  public ErlangTypeDefinition getType(@NotNull String name) {
+    return myTypes.get(name);
+  }
+
+  @Nullable
+  public ErlangFunction getFunction(@NotNull String name, int arity) {
+    return myFunctions.get(name + "/" + arity);
+  }
+
+  private static <T> void putIfAbsent(@NotNull Map<String, T> map, @Nullable String key, @NotNull T value) {
+    if (key != null && !map.containsKey(key)) {
+      map.put(key, value);
+    }
+  }
+}
@@ -28,8 +28,18 @@ import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangMacrosDefinition;
 import org.intellij.erlang.psi.ErlangMacrosName;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class ErlangMacrosReferenceImpl<T extends ErlangMacrosName> extends PsiReferenceBase<T> {
+  private static final ResolveUtil.Resolver<ErlangMacrosReferenceImpl> RESOLVER =
+    new ResolveUtil.Resolver<ErlangMacrosReferenceImpl>() {
+      @Nullable
+      @Override
+      protected PsiElement doResolve(@NotNull ErlangMacrosReferenceImpl reference) {
+        return reference.resolveInner();
+      }
+    };
+
   protected final String myReferenceName;
 
   public ErlangMacrosReferenceImpl(T element) {
@@ -45,6 +55,11 @@ public class ErlangMacrosReferenceImpl<T extends ErlangMacrosName> extends PsiRe
 
   @Override
   public PsiElement resolve() {
+    return ResolveUtil.resolveWithCaching(this, RESOLVER);
+  }
+
+  @Nullable
+  private PsiElement resolveInner() {
     ErlangMacrosDefinition definition = PsiTreeUtil.getParentOfType(myElement, ErlangMacrosDefinition.class);
     if (definition != null && definition.getMacrosName() == myElement) return null;
 
@@ -71,4 +86,16 @@ public class ErlangMacrosReferenceImpl<T extends ErlangMacrosName> extends PsiRe
     String macroName = definition != null ? definition.getName() : null;
     return macroName != null && macroName.equals(myReferenceName) && definition.getMacrosName() != myElement;
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    return myElement.equals(((ErlangMacrosReferenceImpl) o).myElement);
+  }
+
+  @Override
+  public int hashCode() {
+    return myElement.hashCode();
+  }
 }
@@ -42,6 +42,14 @@ import java.util.List;
 
 public class ErlangModuleReferenceImpl<T extends ErlangQAtom> extends ErlangQAtomBasedReferenceImpl<T> {
   private static final int COMPARE_NO_RESULT = Integer.MIN_VALUE;
+  private static final ResolveUtil.Resolver<ErlangModuleReferenceImpl> RESOLVER =
+    new ResolveUtil.Resolver<ErlangModuleReferenceImpl>() {
+      @Nullable
+      @Override
+      protected PsiElement doResolve(@NotNull ErlangModuleReferenceImpl reference) {
+        return reference.resolveInner();
+      }
+    };
 
   public ErlangModuleReferenceImpl(@NotNull T element) {
     super(element, ErlangPsiImplUtil.getTextRangeForReference(element), ErlangPsiImplUtil.getNameIdentifier(element).getText());
@@ -49,6 +57,11 @@ public class ErlangModuleReferenceImpl<T extends ErlangQAtom> extends ErlangQAto
 
   @Override
   public PsiElement resolve() {
+    return ResolveUtil.resolveWithCaching(this, RESOLVER);
+  }
+
+  @Nullable
+  private PsiElement resolveInner() {
     GlobalSearchScope scope = getSearchScope();
     List<ErlangModule> modules = ErlangModuleIndex.getModulesByName(myElement.getProject(), myReferenceName, scope);
     if (modules.size() > 1) {
@@ -52,6 +52,7 @@ import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.*;
 import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.ErlangFileType;
 import org.intellij.erlang.ErlangParserDefinition;
 import org.intellij.erlang.ErlangStringLiteralEscaper;
 import org.intellij.erlang.ErlangTypes;
@@ -61,7 +62,6 @@ import org.intellij.erlang.completion.ErlangCompletionContributor;
 import org.intellij.erlang.completion.QuoteInsertHandler;
 import org.intellij.erlang.icons.ErlangIcons;
 import org.intellij.erlang.index.ErlangApplicationIndex;
-import org.intellij.erlang.index.ErlangModuleIndex;
 import org.intellij.erlang.parser.ErlangParserUtil;
 import org.intellij.erlang.psi.*;
 import org.intellij.erlang.rebar.util.RebarConfigUtil;
@@ -70,6 +70,7 @@ import org.intellij.erlang.sdk.ErlangSdkRelease;
 import org.intellij.erlang.sdk.ErlangSdkType;
 import org.intellij.erlang.sdk.ErlangSystemUtil;
 import org.intellij.erlang.stubs.*;
+import org.intellij.erlang.stubs.index.ErlangModuleFunctionIndex;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -576,24 +577,25 @@ public class ErlangPsiImplUtil {
     }
   }
 
+  /**
+   * The elements refer to functions through smart pointers, so they can be kept between completion invocations
+   * without holding the PSI.
+   */
   @NotNull
-  public static Collection<LookupElement> getAllExportedFunctionsWithModuleLookupElements(@NotNull Project project,
-                                                                                          boolean withArity,
-                                                                                          @Nullable String exclude) {
+  public static List<LookupElement> createExportedFunctionsWithModuleLookupElements(@NotNull Project project,
+                                                                                    @NotNull String moduleName) {
+    SmartPointerManager pointerManager = SmartPointerManager.getInstance(project);
     List<LookupElement> lookupElements = ContainerUtil.newArrayList();
-    for (String moduleName : ErlangModuleIndex.getNames(project)) {
-      if (exclude != null && moduleName.equals(exclude)) continue;
-      for (ErlangFunction function : getExternalFunctionForCompletion(project, moduleName)) {
-        String functionName = function.getName();
-        String fullName = moduleName + ":" + functionName;
-        int arity = function.getArity();
-        lookupElements.add(
-          PrioritizedLookupElement.withPriority(
-            LookupElementBuilder.create(function, fullName)
-              .withIcon(ErlangIcons.FUNCTION).withTailText("/" + arity)
-              .withInsertHandler(getInsertHandler(functionName, moduleName, arity, withArity)),
-            ErlangCompletionContributor.EXTERNAL_FUNCTIONS_PRIORITY));
-      }
+    for (ErlangFunction function : getExternalFunctionForCompletion(project, moduleName)) {
+      String functionName = function.getName();
+      String fullName = moduleName + ":" + functionName;
+      int arity = function.getArity();
+      lookupElements.add(
+        PrioritizedLookupElement.withPriority(
+          LookupElementBuilder.create(pointerManager.createSmartPsiElementPointer(function), fullName)
+            .withIcon(ErlangIcons.FUNCTION).withTailText("/" + arity)
+            .withInsertHandler(getInsertHandler(functionName, moduleName, arity, false)),
+          ErlangCompletionContributor.EXTERNAL_FUNCTIONS_PRIORITY));
     }
     return lookupElements;
   }
@@ -693,7 +695,9 @@ public class ErlangPsiImplUtil {
           @NotNull
           @Override
           public LookupElement fun(@NotNull ErlangMacrosDefinition md) {
-            return LookupElementBuilder.create(md).withIcon(ErlangIcons.MACROS);
+            int arity = getMacrosArity(md);
+            LookupElementBuilder builder = LookupElementBuilder.create(md).withIcon(ErlangIcons.MACROS);
+            return arity < 0 ? builder : builder.withTailText("/" + arity, true);
           }
         });
       List<LookupElement> stdMacros = ContainerUtil.newArrayList();
@@ -715,7 +719,9 @@ public class ErlangPsiImplUtil {
           @NotNull
           @Override
           public LookupElement fun(@NotNull ErlangRecordDefinition rd) {
-            return LookupElementBuilder.create(rd).withIcon(ErlangIcons.RECORD);
+            String fields = StringUtil.join(getRecordFieldNames(rd), ", ");
+            return LookupElementBuilder.create(rd).withIcon(ErlangIcons.RECORD)
+              .withTailText("{" + StringUtil.first(fields, 50, true) + "}", true);
           }
         });
     }
@@ -815,6 +821,26 @@ public class ErlangPsiImplUtil {
     return getNameImpl(o);
   }
 
+  @NotNull
+  public static List<String> getRecordFieldNames(@NotNull ErlangRecordDefinition o) {
+    ErlangRecordDefinitionStub stub = o.getStub();
+    if (stub != null) return stub.getFieldNames();
+    ErlangTypedRecordFields typedRecordFields = o.getTypedRecordFields();
+    if (typedRecordFields == null) return ContainerUtil.emptyList();
+    List<String> result = ContainerUtil.newArrayList();
+    for (ErlangTypedExpr e : typedRecordFields.getTypedExprList()) {
+      if (e.getQAtom().getMacros() == null) result.add(e.getName());
+    }
+    return result;
+  }
+
+  public static int getMacrosArity(@NotNull ErlangMacrosDefinition o) {
+    ErlangMacrosDefinitionStub stub = o.getStub();
+    if (stub != null) return stub.getArity();
+    ErlangArgumentDefinitionList argumentDefinitionList = o.getArgumentDefinitionList();
+    return argumentDefinitionList != null ? argumentDefinitionList.getArgumentDefinitionList().size() : -1;
+  }
+
   @NotNull
   public static PsiElement getNameIdentifier(@NotNull ErlangRecordDefinition o) {
     ErlangQAtom atom = o.getQAtom();
@@ -1051,22 +1077,12 @@ public class ErlangPsiImplUtil {
 
   @NotNull
   private static Collection<ErlangFile> getIncludedFiles(@NotNull ErlangFile file) {
-    HashSet<ErlangFile> includedFiles = new HashSet<ErlangFile>();
-    addIncludedFiles(file, includedFiles);
-    return includedFiles;
+    return getIncludeClosure(file).getFiles();
   }
 
-  private static void addIncludedFiles(@NotNull ErlangFile erlangFile, @NotNull Set<ErlangFile> alreadyAdded) {
-    List<ErlangFile> directlyIncludedFiles = getDirectlyIncludedFiles(erlangFile);
-    boolean added = false;
-    for (ErlangFile f : directlyIncludedFiles) {
-      added |= alreadyAdded.add(f);
-    }
-    if (added) {
-      for (ErlangFile f : directlyIncludedFiles) {
-        addIncludedFiles(f, alreadyAdded);
-      }
-    }
+  @NotNull
+  private static ErlangIncludeClosure getIncludeClosure(@NotNull ErlangFile file) {
+    return file instanceof ErlangFileImpl ? ((ErlangFileImpl) file).getIncludeClosure() : ErlangIncludeClosure.create(file);
   }
 
   @NotNull
@@ -1084,71 +1100,85 @@ public class ErlangPsiImplUtil {
   @NotNull
   public static List<ErlangFile> getDirectlyIncludedFiles(@NotNull ErlangIncludeLib includeLib, @NotNull ErlangFile erlangFile) {
     ErlangIncludeString includeString = includeLib.getIncludeStringSafe();
-    String[] split = includeString != null ? StringUtil.unquoteString(includeString.getText()).split("/") : null;
-
-    if (split != null && split.length >= 2) {
-      String libName = split[0];
-      String relativePath = StringUtil.join(split, 1, split.length, "/");
-      Project project = includeLib.getProject();
-      VirtualFile appDir = ErlangApplicationIndex.getApplicationDirectoryByName(libName, GlobalSearchScope.allScope(project));
-      ErlangFile includedFile = getRelativeErlangFile(project, relativePath, appDir);
-      if (includedFile != null) {
-        return ContainerUtil.newSmartList(includedFile);
-      }
-    }
-    //either include_lib does not specify a library, or it was not found, falling back to 'include' behaviour.
-    return getDirectlyIncludedFiles(includeString, erlangFile);
+    if (includeString == null) return ContainerUtil.emptyList();
+    Project project = erlangFile.getProject();
+    String includeLibPath = StringUtil.unquoteString(includeString.getText());
+    return getErlangFiles(project, findIncludeLibFile(project, erlangFile.getOriginalFile().getVirtualFile(), includeLibPath));
   }
 
   @NotNull
   public static List<ErlangFile> getDirectlyIncludedFiles(@NotNull ErlangInclude include, @NotNull ErlangFile erlangFile) {
     ErlangIncludeString includeString = include.getIncludeStringSafe();
-    return getDirectlyIncludedFiles(includeString, erlangFile);
+    if (includeString == null) return ContainerUtil.emptyList();
+    Project project = erlangFile.getProject();
+    String includePath = StringUtil.unquoteString(includeString.getText());
+    return getErlangFiles(project, findIncludeFile(project, erlangFile.getOriginalFile().getVirtualFile(), includePath));
   }
 
   @NotNull
-  private static List<ErlangFile> getDirectlyIncludedFiles(@Nullable ErlangIncludeString includeString,
-                                                           @NotNull ErlangFile erlangFile) {
-    if (includeString == null) return ContainerUtil.emptyList();
-    VirtualFile containingVirtualFile = erlangFile.getOriginalFile().getVirtualFile();
-    VirtualFile parent = containingVirtualFile != null ? containingVirtualFile.getParent() : null;
-    String relativePath = StringUtil.unquoteString(includeString.getText());
-    Project project = erlangFile.getProject();
-    ErlangFile relativeToDirectParent = getRelativeErlangFile(project, relativePath, parent);
-    if (relativeToDirectParent != null) return ContainerUtil.newSmartList(relativeToDirectParent);
+  private static List<ErlangFile> getErlangFiles(@NotNull Project project, @Nullable VirtualFile file) {
+    PsiFile psiFile = file != null ? PsiManager.getInstance(project).findFile(file) : null;
+    return psiFile instanceof ErlangFile ? ContainerUtil.newSmartList((ErlangFile) psiFile) : ContainerUtil.<ErlangFile>emptyList();
+  }
+
+  /**
+   * Resolves a path of an -include_lib attribute of the given file.
+   */
+  @Nullable
+  public static VirtualFile findIncludeLibFile(@NotNull Project project, @Nullable VirtualFile containingFile, @NotNull String includeLibPath) {
+    String[] split = includeLibPath.split("/");
+    if (split.length >= 2) {
+      String libName = split[0];
+      String relativePath = StringUtil.join(split, 1, split.length, "/");
+      VirtualFile appDir = ErlangApplicationIndex.getApplicationDirectoryByName(libName, GlobalSearchScope.allScope(project));
+      VirtualFile includedFile = getRelativeErlangFile(relativePath, appDir);
+      if (includedFile != null) return includedFile;
+    }
+    //either include_lib does not specify a library, or it was not found, falling back to 'include' behaviour.
+    return findIncludeFile(project, containingFile, includeLibPath);
+  }
+
+  /**
+   * Resolves a path of an -include attribute of the given file.
+   */
+  @Nullable
+  public static VirtualFile findIncludeFile(@NotNull Project project, @Nullable VirtualFile containingFile, @NotNull String includePath) {
+    VirtualFile parent = containingFile != null ? containingFile.getParent() : null;
+    VirtualFile relativeToDirectParent = getRelativeErlangFile(includePath, parent);
+    if (relativeToDirectParent != null) return relativeToDirectParent;
     //relative to direct parent include file was not found
     //let's search in include directories
-    if (containingVirtualFile != null) {
-      Module module = ModuleUtilCore.findModuleForFile(containingVirtualFile, project);
+    if (containingFile != null) {
+      Module module = ModuleUtilCore.findModuleForFile(containingFile, project);
       for (VirtualFile includeDir : ErlangIncludeDirectoryUtil.getIncludeDirectories(module)) {
-        ErlangFile includedFile = getRelativeErlangFile(project, relativePath, includeDir);
-        if (includedFile != null) return ContainerUtil.newSmartList(includedFile);
+        VirtualFile includedFile = getRelativeErlangFile(includePath, includeDir);
+        if (includedFile != null) return includedFile;
       }
     }
     //TODO consider providing source roots functionality to small IDEs
     if (ErlangSystemUtil.isSmallIde()) {
       VirtualFile appRoot = getContainingOtpAppRoot(project, parent);
-      return getDirectlyIncludedFilesForSmallIde(project, relativePath, appRoot);
+      return findIncludeFileForSmallIde(project, includePath, appRoot);
     }
-    return ContainerUtil.emptyList();
+    return null;
   }
 
-  @NotNull
-  private static List<ErlangFile> getDirectlyIncludedFilesForSmallIde(@NotNull Project project, @NotNull String includeStringPath, @Nullable VirtualFile otpAppRoot) {
-    if (otpAppRoot == null) return ContainerUtil.emptyList();
+  @Nullable
+  private static VirtualFile findIncludeFileForSmallIde(@NotNull Project project, @NotNull String includeStringPath, @Nullable VirtualFile otpAppRoot) {
+    if (otpAppRoot == null) return null;
     VirtualFile otpIncludeDirectory = otpAppRoot.findChild("include");
-    ErlangFile relativeToOtpIncludeDirectory = getRelativeErlangFile(project, includeStringPath, otpIncludeDirectory);
-    if (relativeToOtpIncludeDirectory != null) return ContainerUtil.newSmartList(relativeToOtpIncludeDirectory);
+    VirtualFile relativeToOtpIncludeDirectory = getRelativeErlangFile(includeStringPath, otpIncludeDirectory);
+    if (relativeToOtpIncludeDirectory != null) return relativeToOtpIncludeDirectory;
     //we haven't found it in 'include' directory, let's try include paths listed in rebar.config
     ErlangFile rebarConfigPsi = RebarConfigUtil.getRebarConfig(project, otpAppRoot);
     if (rebarConfigPsi != null) {
       for(String includePath : ContainerUtil.reverse(RebarConfigUtil.getIncludePaths(rebarConfigPsi))) {
         VirtualFile includePathVirtualFile = VfsUtilCore.findRelativeFile(includePath, otpAppRoot);
-        ErlangFile includedFile = getRelativeErlangFile(project, includeStringPath, includePathVirtualFile);
-        if (includedFile != null) return ContainerUtil.newSmartList(includedFile);
+        VirtualFile includedFile = getRelativeErlangFile(includeStringPath, includePathVirtualFile);
+        if (includedFile != null) return includedFile;
       }
     }
-    return ContainerUtil.emptyList();
+    return null;
   }
 
   @Nullable
@@ -1207,37 +1237,31 @@ public class ErlangPsiImplUtil {
   }
 
   @Nullable
-  private static ErlangFile getRelativeErlangFile(@NotNull Project project, @NotNull String relativePath, @Nullable VirtualFile parent) {
+  private static VirtualFile getRelativeErlangFile(@NotNull String relativePath, @Nullable VirtualFile parent) {
     VirtualFile relativeFile = VfsUtilCore.findRelativeFile(relativePath, parent);
-    if (relativeFile == null) return null;
-    PsiFile file = PsiManager.getInstance(project).findFile(relativeFile);
-    return file instanceof ErlangFile ? (ErlangFile) file : null;
+    return relativeFile != null && relativeFile.getFileType() instanceof ErlangFileType ? relativeFile : null;
   }
 
   @NotNull
   static List<ErlangRecordDefinition> getErlangRecordFromIncludes(@NotNull ErlangFile containingFile, boolean forCompletion, String name) {
+    if (!forCompletion) {
+      return ContainerUtil.createMaybeSingletonList(getIncludeClosure(containingFile).getRecord(name));
+    }
     List<ErlangRecordDefinition> fromIncludes = ContainerUtil.newArrayList();
     for (ErlangFile file : getIncludedFiles(containingFile)) {
-      if (!forCompletion) {
-        ContainerUtil.addIfNotNull(fromIncludes, file.getRecord(name));
-      }
-      else {
-        fromIncludes.addAll(file.getRecords());
-      }
+      fromIncludes.addAll(file.getRecords());
     }
     return fromIncludes;
   }
 
   @NotNull
   static List<ErlangFunction> getErlangFunctionsFromIncludes(@NotNull ErlangFile containingFile, boolean forCompletion, @NotNull String name, int arity) {
+    if (!forCompletion) {
+      return ContainerUtil.createMaybeSingletonList(getIncludeClosure(containingFile).getFunction(name, arity));
+    }
     List<ErlangFunction> fromIncludes = ContainerUtil.newArrayList();
     for (ErlangFile file : getIncludedFiles(containingFile)) {
-      if (!forCompletion) {
-        ContainerUtil.addIfNotNull(fromIncludes, file.getFunction(name, arity));
-      }
-      else {
-        fromIncludes.addAll(file.getFunctions());
-      }
+      fromIncludes.addAll(file.getFunctions());
     }
     return fromIncludes;
   }
@@ -1260,28 +1284,24 @@ public class ErlangPsiImplUtil {
   static List<ErlangMacrosDefinition> getErlangMacrosFromIncludes(@NotNull ErlangFile containingFile,
                                                                   boolean forCompletion,
                                                                   @NotNull String name) {
+    if (!forCompletion) {
+      return ContainerUtil.createMaybeSingletonList(getIncludeClosure(containingFile).getMacros(name));
+    }
     List<ErlangMacrosDefinition> fromIncludes = ContainerUtil.newArrayList();
     for (ErlangFile file : getIncludedFiles(containingFile)) {
-      if (!forCompletion) {
-        ContainerUtil.addIfNotNull(fromIncludes, file.getMacros(name));
-      }
-      else {
-        fromIncludes.addAll(file.getMacroses());
-      }
+      fromIncludes.addAll(file.getMacroses());
     }
     return fromIncludes;
   }
 
   @NotNull
   static List<ErlangTypeDefinition> getErlangTypeFromIncludes(@NotNull ErlangFile containingFile, boolean forCompletion, @NotNull String name) {
+    if (!forCompletion) {
+      return ContainerUtil.createMaybeSingletonList(getIncludeClosure(containingFile).getType(name));
+    }
     List<ErlangTypeDefinition> fromIncludes = ContainerUtil.newArrayList();
     for (ErlangFile file : getIncludedFiles(containingFile)) {
-      if (!forCompletion) {
-        ContainerUtil.addIfNotNull(fromIncludes, file.getType(name));
-      }
-      else {
-        fromIncludes.addAll(file.getTypes());
-      }
+      fromIncludes.addAll(file.getTypes());
     }
     return fromIncludes;
   }
@@ -1427,12 +1447,7 @@ public class ErlangPsiImplUtil {
   @NotNull
   private static List<ErlangFunction> getExternalFunctionForCompletion(@NotNull Project project,
                                                                        @NotNull String moduleName) {
-    List<ErlangFunction> result = ContainerUtil.newArrayList();
-    List<ErlangFile> erlangModules = ErlangModuleIndex.getFilesByName(project, moduleName, GlobalSearchScope.allScope(project));
-    for (ErlangFile file : erlangModules) {
-      result.addAll(file.getExportedFunctions());
-    }
-    return result;
+    return ContainerUtil.newArrayList(ErlangModuleFunctionIndex.getExportedFunctions(project, moduleName, GlobalSearchScope.allScope(project)));
   }
 
   public static boolean inFunction(@Nullable PsiElement position) {
@@ -35,4 +35,16 @@ public abstract class ErlangQAtomBasedReferenceImpl<T extends ErlangQAtom> exten
     ErlangPsiImplUtil.renameQAtom(myElement, newElementName);
     return myElement;
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    return myElement.equals(((ErlangQAtomBasedReferenceImpl) o).myElement);
+  }
+
+  @Override
+  public int hashCode() {
+    return myElement.hashCode();
+  }
 }
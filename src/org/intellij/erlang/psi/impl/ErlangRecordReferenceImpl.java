@@ -25,14 +25,29 @@ import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.psi.ErlangQAtom;
 import org.intellij.erlang.psi.ErlangRecordDefinition;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class ErlangRecordReferenceImpl<T extends ErlangQAtom> extends ErlangQAtomBasedReferenceImpl<T> {
+  private static final ResolveUtil.Resolver<ErlangRecordReferenceImpl> RESOLVER =
+    new ResolveUtil.Resolver<ErlangRecordReferenceImpl>() {
+      @Nullable
+      @Override
+      protected PsiElement doResolve(@NotNull ErlangRecordReferenceImpl reference) {
+        return reference.resolveInner();
+      }
+    };
+
   public ErlangRecordReferenceImpl(@NotNull T element) {
     super(element, getTextRangeForRecordReference(element), ErlangPsiImplUtil.getNameIdentifier(element).getText());
   }
 
   @Override
   public PsiElement resolve() {
+    return ResolveUtil.resolveWithCaching(this, RESOLVER);
+  }
+
+  @Nullable
+  private PsiElement resolveInner() {
     PsiFile containingFile = myElement.getContainingFile();
     if (containingFile instanceof ErlangFile) {
       ErlangRecordDefinition record = ((ErlangFile) containingFile).getRecord(myReferenceName);
@@ -26,6 +26,15 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class ErlangTypeReferenceImpl<T extends ErlangQAtom> extends ErlangQAtomBasedReferenceImpl<T> {
+  private static final ResolveUtil.Resolver<ErlangTypeReferenceImpl> RESOLVER =
+    new ResolveUtil.Resolver<ErlangTypeReferenceImpl>() {
+      @Nullable
+      @Override
+      protected PsiElement doResolve(@NotNull ErlangTypeReferenceImpl reference) {
+        return reference.resolveInner();
+      }
+    };
+
   @Nullable
   private final ErlangModuleRef myModuleRef;
 
@@ -36,6 +45,11 @@ public class ErlangTypeReferenceImpl<T extends ErlangQAtom> extends ErlangQAtomB
 
   @Override
   public PsiElement resolve() {
+    return ResolveUtil.resolveWithCaching(this, RESOLVER);
+  }
+
+  @Nullable
+  private PsiElement resolveInner() {
     PsiFile containingFile = getPsiFile();
     if (containingFile instanceof ErlangFile) {
       ErlangTypeDefinition type = ((ErlangFile) containingFile).getType(myReferenceName);
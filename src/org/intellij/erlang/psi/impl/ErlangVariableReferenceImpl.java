@@ -31,6 +31,15 @@ import java.util.List;
 import static org.intellij.erlang.psi.impl.ErlangPsiImplUtil.fromTheSameCaseExpression;
 
 public class ErlangVariableReferenceImpl extends PsiPolyVariantReferenceBase<ErlangQVar> {
+  private static final ResolveUtil.PolyVariantResolver<ErlangVariableReferenceImpl> RESOLVER =
+    new ResolveUtil.PolyVariantResolver<ErlangVariableReferenceImpl>() {
+      @NotNull
+      @Override
+      protected ResolveResult[] doResolve(@NotNull ErlangVariableReferenceImpl reference, boolean incompleteCode) {
+        return reference.multiResolveInner();
+      }
+    };
+
   public ErlangVariableReferenceImpl(@NotNull ErlangQVar element, TextRange range) {
     super(element, range);
   }
@@ -38,10 +47,22 @@ public class ErlangVariableReferenceImpl extends PsiPolyVariantReferenceBase<Erl
   @NotNull
   @Override
   public ResolveResult[] multiResolve(boolean b) {
+    return ResolveUtil.multiResolveWithCaching(this, b, RESOLVER);
+  }
+
+  @NotNull
+  private ResolveResult[] multiResolveInner() {
     ErlangVarProcessor processor = new ErlangVarProcessor(myElement.getText(), myElement);
     ErlangLcExpression lc = PsiTreeUtil.getParentOfType(myElement, ErlangLcExpression.class);
     ErlangCompositeElement place = ObjectUtils.chooseNotNull(lc, myElement);
-    ResolveUtil.treeWalkUp(place, processor);
+    ErlangFunctionClause clause = PsiTreeUtil.getParentOfType(myElement, ErlangFunctionClause.class);
+    if (clause == null || hasVariableContext()) {
+      ResolveUtil.treeWalkUp(place, processor);
+    }
+    else if (ErlangFunctionClauseVariables.getInstance(clause).hasBindingsOtherThan(myElement)) {
+      // only bindings from the same clause are accepted, so there is no need to visit other clauses
+      ResolveUtil.treeWalkUp(place, clause, processor);
+    }
     List<ErlangQVar> result = processor.getAllResults();
     if (!result.isEmpty()) return PsiElementResolveResult.createResults(result);
 
@@ -71,6 +92,10 @@ public class ErlangVariableReferenceImpl extends PsiPolyVariantReferenceBase<Erl
     return false;
   }
 
+  private boolean hasVariableContext() {
+    return myElement.getContainingFile().getOriginalFile().getUserData(ErlangVarProcessor.ERLANG_VARIABLE_CONTEXT) != null;
+  }
+
   @Nullable
   private ErlangModule getErlangModule() {
     PsiFile file = myElement.getContainingFile();
@@ -78,6 +103,18 @@ public class ErlangVariableReferenceImpl extends PsiPolyVariantReferenceBase<Erl
     return erlangFile != null ? erlangFile.getModule() : null;
   }
 
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    return myElement.equals(((ErlangVariableReferenceImpl) o).myElement);
+  }
+
+  @Override
+  public int hashCode() {
+    return myElement.hashCode();
+  }
+
   @NotNull
   @Override
   public Object[] getVariants() {
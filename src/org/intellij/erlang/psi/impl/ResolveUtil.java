@@ -16,22 +16,67 @@
 
 package org.intellij.erlang.psi.impl;
 
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.ResolveState;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.scope.PsiScopeProcessor;
 import org.intellij.erlang.psi.ErlangCompositeElement;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class ResolveUtil {
+  private static final AtomicLong ourCacheRequests = new AtomicLong();
+  private static final AtomicLong ourCacheMisses = new AtomicLong();
+
   private ResolveUtil() {
   }
 
+  @Nullable
+  public static <R extends PsiReference> PsiElement resolveWithCaching(@NotNull R reference, @NotNull Resolver<R> resolver) {
+    ourCacheRequests.incrementAndGet();
+    Project project = reference.getElement().getProject();
+    return ResolveCache.getInstance(project).resolveWithCaching(reference, resolver, false, false);
+  }
+
+  @NotNull
+  public static <R extends PsiPolyVariantReference> ResolveResult[] multiResolveWithCaching(@NotNull R reference,
+                                                                                           boolean incompleteCode,
+                                                                                           @NotNull PolyVariantResolver<R> resolver) {
+    ourCacheRequests.incrementAndGet();
+    Project project = reference.getElement().getProject();
+    return ResolveCache.getInstance(project).resolveWithCaching(reference, resolver, false, incompleteCode);
+  }
+
+  public static long getCacheHitCount() {
+    return ourCacheRequests.get() - ourCacheMisses.get();
+  }
+
+  public static long getCacheMissCount() {
+    return ourCacheMisses.get();
+  }
+
+  @TestOnly
+  public static void resetCacheStatistics() {
+    ourCacheRequests.set(0);
+    ourCacheMisses.set(0);
+  }
+
   public static boolean treeWalkUp(@Nullable PsiElement place, @NotNull PsiScopeProcessor processor) {
+    return treeWalkUp(place, null, processor);
+  }
+
+  /**
+   * Same as {@link #treeWalkUp(PsiElement, PsiScopeProcessor)}, but stops after processing {@code scope}.
+   */
+  public static boolean treeWalkUp(@Nullable PsiElement place, @Nullable PsiElement scope, @NotNull PsiScopeProcessor processor) {
     PsiElement lastParent = null;
     PsiElement run = place;
     while (run != null) {
       if (place != run && !run.processDeclarations(processor, ResolveState.initial(), lastParent, place)) return false;
+      if (run == scope) break;
       lastParent = run;
       run = run.getParent();
     }
@@ -50,4 +95,32 @@ public abstract class ResolveUtil {
     }
     return true;
   }
+
+  /**
+   * Resolves a reference when {@link ResolveCache} has no result for it yet.
+   * Results are dropped by the cache on any PSI modification.
+   */
+  public abstract static class Resolver<R extends PsiReference> implements ResolveCache.AbstractResolver<R, PsiElement> {
+    @Nullable
+    @Override
+    public final PsiElement resolve(@NotNull R reference, boolean incompleteCode) {
+      ourCacheMisses.incrementAndGet();
+      return doResolve(reference);
+    }
+
+    @Nullable
+    protected abstract PsiElement doResolve(@NotNull R reference);
+  }
+
+  public abstract static class PolyVariantResolver<R extends PsiPolyVariantReference> implements ResolveCache.PolyVariantResolver<R> {
+    @NotNull
+    @Override
+    public final ResolveResult[] resolve(@NotNull R reference, boolean incompleteCode) {
+      ourCacheMisses.incrementAndGet();
+      return doResolve(reference, incompleteCode);
+    }
+
+    @NotNull
+    protected abstract ResolveResult[] doResolve(@NotNull R reference, boolean incompleteCode);
+  }
 }
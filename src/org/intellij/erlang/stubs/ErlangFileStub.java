@@ -16,21 +16,28 @@
 
 package org.intellij.erlang.stubs;
 
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.stubs.PsiFileStubImpl;
 import com.intellij.psi.tree.IStubFileElementType;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.io.StringRef;
+import org.intellij.erlang.ErlangFileType;
 import org.intellij.erlang.psi.ErlangFile;
 import org.intellij.erlang.stubs.types.ErlangFileElementType;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.Set;
 
 public class ErlangFileStub extends PsiFileStubImpl<ErlangFile> {
   private final boolean myExportAll;
   private final StringRef myParseTransformsRef;
   private final boolean myIsBehaviour;
+  private final StringRef myExportedSignaturesRef;
+  private final StringRef myImportedSignaturesRef;
+  private final StringRef myModuleNameRef;
 
   public ErlangFileStub(ErlangFile file) {
     super(file);
@@ -40,13 +47,22 @@ public class ErlangFileStub extends PsiFileStubImpl<ErlangFile> {
     String join = StringUtil.join(transforms, ",");
     myParseTransformsRef = StringRef.fromString(join);
     myIsBehaviour = file.isBehaviour();
+    myExportedSignaturesRef = StringRef.fromString(StringUtil.join(file.getExportedSignatures(), ","));
+    myImportedSignaturesRef = StringRef.fromString(StringUtil.join(file.getImportedSignatures(), ","));
+    // the code server and ErlangModuleIndex know a module by its file name, not by its -module attribute
+    myModuleNameRef = file.getFileType() == ErlangFileType.MODULE ?
+                      StringRef.fromString(FileUtil.getNameWithoutExtension(file.getName())) : null;
   }
 
-  public ErlangFileStub(ErlangFile file, boolean exportAll, StringRef parseTransformsRef, boolean isBehaviour) {
+  public ErlangFileStub(ErlangFile file, boolean exportAll, StringRef parseTransformsRef, boolean isBehaviour,
+                        StringRef exportedSignaturesRef, StringRef importedSignaturesRef, StringRef moduleNameRef) {
     super(file);
     myExportAll = exportAll;
     myParseTransformsRef = parseTransformsRef;
     myIsBehaviour = isBehaviour;
+    myExportedSignaturesRef = exportedSignaturesRef;
+    myImportedSignaturesRef = importedSignaturesRef;
+    myModuleNameRef = moduleNameRef;
   }
 
   public boolean isExportAll() {
@@ -62,6 +78,26 @@ public class ErlangFileStub extends PsiFileStubImpl<ErlangFile> {
     return myIsBehaviour;
   }
 
+  @Nullable
+  public String getExportedSignatures() {
+    return StringRef.toString(myExportedSignaturesRef);
+  }
+
+  @Nullable
+  public String getImportedSignatures() {
+    return StringRef.toString(myImportedSignaturesRef);
+  }
+
+  @NotNull
+  public static List<String> splitSignatures(@Nullable String signatures) {
+    return signatures != null ? StringUtil.split(signatures, ",") : ContainerUtil.<String>emptyList();
+  }
+
+  @Nullable
+  public String getModuleName() {
+    return StringRef.toString(myModuleNameRef);
+  }
+
   @Override
   public IStubFileElementType getType() {
     return ErlangFileElementType.INSTANCE;
@@ -23,11 +23,22 @@ import com.intellij.util.io.StringRef;
 import org.intellij.erlang.psi.ErlangMacrosDefinition;
 
 public class ErlangMacrosDefinitionStub extends NamedStubBase<ErlangMacrosDefinition> {
-  public ErlangMacrosDefinitionStub(StubElement parent, IStubElementType elementType, StringRef name) {
+  private final int myArity;
+
+  public ErlangMacrosDefinitionStub(StubElement parent, IStubElementType elementType, StringRef name, int arity) {
     super(parent, elementType, name);
+    myArity = arity;
   }
 
-  public ErlangMacrosDefinitionStub(StubElement parent, IStubElementType elementType, String name) {
+  public ErlangMacrosDefinitionStub(StubElement parent, IStubElementType elementType, String name, int arity) {
     super(parent, elementType, name);
+    myArity = arity;
+  }
+
+  /**
+   * @return number of macro arguments, or -1 for a macro defined without parentheses
+   */
+  public int getArity() {
+    return myArity;
   }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.stubs.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.IndexSink;
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.index.ErlangModuleIndex;
+import org.intellij.erlang.psi.ErlangFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Functions keyed by {@code module:function/arity}. Exported functions are additionally keyed by module name,
+ * so cross-module resolve and qualified completion can be answered without loading target files.
+ * A module name here is the module file name, the same key {@link ErlangModuleIndex} uses.
+ */
+public class ErlangModuleFunctionIndex extends StringStubIndexExtension<ErlangFunction> {
+  public static final StubIndexKey<String, ErlangFunction> KEY = StubIndexKey.createIndexKey("erlang.module.function");
+  public static final int VERSION = 1;
+
+  @Override
+  public int getVersion() {
+    return super.getVersion() + VERSION;
+  }
+
+  @NotNull
+  public StubIndexKey<String, ErlangFunction> getKey() {
+    return KEY;
+  }
+
+  @Nullable
+  public static ErlangFunction getFunction(@NotNull Project project,
+                                           @NotNull String moduleName,
+                                           @NotNull String functionName,
+                                           int arity,
+                                           @NotNull GlobalSearchScope scope) {
+    Collection<ErlangFunction> functions =
+      StubIndex.getElements(KEY, getFunctionKey(moduleName, functionName, arity), project, scope, ErlangFunction.class);
+    if (functions.size() < 2) return ContainerUtil.getFirstItem(functions);
+
+    // several files with the same name: pick the one the code server would load
+    List<VirtualFile> rankedFiles = ErlangModuleIndex.getVirtualFilesByName(project, moduleName, scope);
+    ErlangFunction result = null;
+    int resultRank = Integer.MAX_VALUE;
+    for (ErlangFunction function : functions) {
+      PsiFile file = function.getContainingFile();
+      int rank = file != null ? rankedFiles.indexOf(file.getVirtualFile()) : -1;
+      if (rank != -1 && rank < resultRank) {
+        result = function;
+        resultRank = rank;
+      }
+    }
+    return result != null ? result : ContainerUtil.getFirstItem(functions);
+  }
+
+  @NotNull
+  public static Collection<ErlangFunction> getExportedFunctions(@NotNull Project project,
+                                                                @NotNull String moduleName,
+                                                                @NotNull GlobalSearchScope scope) {
+    return StubIndex.getElements(KEY, moduleName, project, scope, ErlangFunction.class);
+  }
+
+  public static void indexFunction(@NotNull IndexSink sink, @NotNull String moduleName, @NotNull String functionName, int arity, boolean exported) {
+    sink.occurrence(KEY, getFunctionKey(moduleName, functionName, arity));
+    if (exported) {
+      sink.occurrence(KEY, moduleName);
+    }
+  }
+
+  @NotNull
+  private static String getFunctionKey(@NotNull String moduleName, @NotNull String functionName, int arity) {
+    return moduleName + ":" + functionName + "/" + arity;
+  }
+}
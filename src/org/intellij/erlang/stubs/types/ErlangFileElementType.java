@@ -28,7 +28,7 @@ import org.jetbrains.annotations.NotNull;
 import java.io.IOException;
 
 public class ErlangFileElementType extends IStubFileElementType<ErlangFileStub> {
-  public static final int VERSION = 4;
+  public static final int VERSION = 6;
   public static final IStubFileElementType INSTANCE = new ErlangFileElementType();
 
   public ErlangFileElementType() {
@@ -59,12 +59,16 @@ public class ErlangFileElementType extends IStubFileElementType<ErlangFileStub>
     dataStream.writeBoolean(stub.isExportAll());
     dataStream.writeName(stub.getParseTransforms());
     dataStream.writeBoolean(stub.isBehaviour());
+    dataStream.writeName(stub.getExportedSignatures());
+    dataStream.writeName(stub.getImportedSignatures());
+    dataStream.writeName(stub.getModuleName());
   }
 
   @NotNull
   @Override
   public ErlangFileStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new ErlangFileStub(null, dataStream.readBoolean(), dataStream.readName(), dataStream.readBoolean());
+    return new ErlangFileStub(null, dataStream.readBoolean(), dataStream.readName(), dataStream.readBoolean(),
+                              dataStream.readName(), dataStream.readName(), dataStream.readName());
   }
 
   @NotNull
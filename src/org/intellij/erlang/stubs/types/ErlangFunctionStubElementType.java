@@ -16,13 +16,16 @@
 
 package org.intellij.erlang.stubs.types;
 
+import com.intellij.psi.stubs.IndexSink;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.util.ArrayFactory;
 import org.intellij.erlang.psi.ErlangFunction;
 import org.intellij.erlang.psi.impl.ErlangFunctionImpl;
+import org.intellij.erlang.stubs.ErlangFileStub;
 import org.intellij.erlang.stubs.ErlangFunctionStub;
+import org.intellij.erlang.stubs.index.ErlangModuleFunctionIndex;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -64,4 +67,15 @@ public class ErlangFunctionStubElementType extends ErlangNamedStubElementType<Er
   public ErlangFunctionStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
     return new ErlangFunctionStub(parentStub, this, dataStream.readName(), dataStream.readInt(), dataStream.readBoolean());
   }
+
+  @Override
+  public void indexStub(@NotNull ErlangFunctionStub stub, @NotNull IndexSink sink) {
+    super.indexStub(stub, sink);
+    StubElement parentStub = stub.getParentStub();
+    String moduleName = parentStub instanceof ErlangFileStub ? ((ErlangFileStub) parentStub).getModuleName() : null;
+    String name = stub.getName();
+    if (moduleName != null && name != null) {
+      ErlangModuleFunctionIndex.indexFunction(sink, moduleName, name, stub.getArity(), stub.isExported());
+    }
+  }
 }
@@ -22,6 +22,7 @@ import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.util.ArrayFactory;
 import org.intellij.erlang.psi.ErlangMacrosDefinition;
 import org.intellij.erlang.psi.impl.ErlangMacrosDefinitionImpl;
+import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
 import org.intellij.erlang.stubs.ErlangMacrosDefinitionStub;
 import org.jetbrains.annotations.NotNull;
 
@@ -49,17 +50,18 @@ public class ErlangMacrosDefinitionElementType extends ErlangNamedStubElementTyp
 
   @Override
   public ErlangMacrosDefinitionStub createStub(@NotNull ErlangMacrosDefinition psi, StubElement parentStub) {
-    return new ErlangMacrosDefinitionStub(parentStub, this, psi.getName());
+    return new ErlangMacrosDefinitionStub(parentStub, this, psi.getName(), ErlangPsiImplUtil.getMacrosArity(psi));
   }
 
   @Override
   public void serialize(@NotNull ErlangMacrosDefinitionStub stub, @NotNull StubOutputStream dataStream) throws IOException {
     dataStream.writeName(stub.getName());
+    dataStream.writeInt(stub.getArity());
   }
 
   @NotNull
   @Override
   public ErlangMacrosDefinitionStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new ErlangMacrosDefinitionStub(parentStub, this, dataStream.readName());
+    return new ErlangMacrosDefinitionStub(parentStub, this, dataStream.readName(), dataStream.readInt());
   }
 }
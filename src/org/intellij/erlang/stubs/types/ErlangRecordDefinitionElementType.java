@@ -20,12 +20,16 @@ import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.util.ArrayFactory;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.StringRef;
 import org.intellij.erlang.psi.ErlangRecordDefinition;
+import org.intellij.erlang.psi.impl.ErlangPsiImplUtil;
 import org.intellij.erlang.psi.impl.ErlangRecordDefinitionImpl;
 import org.intellij.erlang.stubs.ErlangRecordDefinitionStub;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.util.List;
 
 public class ErlangRecordDefinitionElementType extends ErlangNamedStubElementType<ErlangRecordDefinitionStub, ErlangRecordDefinition> {
   public static final ErlangRecordDefinition[] EMPTY_ARRAY = new ErlangRecordDefinition[0];
@@ -49,17 +53,28 @@ public class ErlangRecordDefinitionElementType extends ErlangNamedStubElementTyp
 
   @Override
   public ErlangRecordDefinitionStub createStub(@NotNull ErlangRecordDefinition psi, StubElement parentStub) {
-    return new ErlangRecordDefinitionStub(parentStub, this, psi.getName());
+    return new ErlangRecordDefinitionStub(parentStub, this, psi.getName(), ErlangPsiImplUtil.getRecordFieldNames(psi));
   }
 
   @Override
   public void serialize(@NotNull ErlangRecordDefinitionStub stub, @NotNull StubOutputStream dataStream) throws IOException {
     dataStream.writeName(stub.getName());
+    List<String> fieldNames = stub.getFieldNames();
+    dataStream.writeVarInt(fieldNames.size());
+    for (String fieldName : fieldNames) {
+      dataStream.writeName(fieldName);
+    }
   }
 
   @NotNull
   @Override
   public ErlangRecordDefinitionStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new ErlangRecordDefinitionStub(parentStub, this, dataStream.readName());
+    StringRef name = dataStream.readName();
+    int fieldsCount = dataStream.readVarInt();
+    List<String> fieldNames = ContainerUtil.newArrayListWithCapacity(fieldsCount);
+    for (int i = 0; i < fieldsCount; i++) {
+      fieldNames.add(StringRef.toString(dataStream.readName()));
+    }
+    return new ErlangRecordDefinitionStub(parentStub, this, name, fieldNames);
   }
 }
@@ -0,0 +1,3 @@
+-module(behaviour1).
+
+-include("header1.hrl").
\ No newline at end of file
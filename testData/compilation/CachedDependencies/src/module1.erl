@@ -0,0 +1,2 @@
+-module(module1).
+-include("header2.hrl").
\ No newline at end of file
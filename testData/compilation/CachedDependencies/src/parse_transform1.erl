@@ -0,0 +1 @@
+-module(parse_transform1).
\ No newline at end of file
@@ -0,0 +1,6 @@
+-module(test).
+-export([foo/0]).
+
+bar(A) -> A.
+
+foo() -> ba<caret>r(1).
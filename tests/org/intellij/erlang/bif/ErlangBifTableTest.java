@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.bif;
+
+import junit.framework.TestCase;
+
+import java.util.Collection;
+import java.util.List;
+
+public class ErlangBifTableTest extends TestCase {
+  @SuppressWarnings("RedundantStringConstructorCall")
+  public void testIsBif() {
+    assertTrue(ErlangBifTable.isBif("erlang", "element", 2));
+    assertTrue(ErlangBifTable.isBif("lager", "info", 3));
+    assertTrue(ErlangBifTable.isBif("", ErlangBifTable.MODULE_INFO, 1));
+    assertTrue(ErlangBifTable.isBif(new String("erlang"), new String("abs"), 1));
+  }
+
+  public void testIsNotBif() {
+    assertFalse(ErlangBifTable.isBif("erlang", "element", 3));
+    assertFalse(ErlangBifTable.isBif("erlang", "element", -1));
+    assertFalse(ErlangBifTable.isBif("erlang", "no_such_function", 0));
+    assertFalse(ErlangBifTable.isBif("no_such_module", "element", 2));
+  }
+
+  public void testGetBif() {
+    ErlangBifDescriptor bif = ErlangBifTable.getBif("erlang", "binary_to_list", 3);
+    assertNotNull(bif);
+    assertEquals("Binary, Start, Stop", bif.getParams());
+    assertNull(ErlangBifTable.getBif("erlang", "binary_to_list", 2));
+  }
+
+  public void testGetBifsByName() {
+    List<ErlangBifDescriptor> bifs = ErlangBifTable.getBifs("erlang", "binary_to_list");
+    assertEquals(2, bifs.size());
+    assertEquals(1, bifs.get(0).getArity());
+    assertEquals(3, bifs.get(1).getArity());
+    assertEmpty(ErlangBifTable.getBifs("erlang", "no_such_function"));
+  }
+
+  public void testAutoimportedBifs() {
+    Collection<ErlangBifDescriptor> bifs = ErlangBifTable.getAutoimportedBifs("erlang");
+    assertTrue(bifs.contains(ErlangBifTable.getBif("erlang", "abs", 1)));
+    assertFalse(bifs.contains(ErlangBifTable.getBif("erlang", "adler32", 1)));
+    for (ErlangBifDescriptor bif : bifs) {
+      assertTrue(bif.isAutoImported());
+    }
+  }
+
+  public void testViewsAreImmutable() {
+    Collection<ErlangBifDescriptor> bifs = ErlangBifTable.getBifs("erlang");
+    try {
+      bifs.clear();
+      fail();
+    }
+    catch (UnsupportedOperationException ignored) {
+    }
+    assertFalse(bifs.isEmpty());
+  }
+
+  private static void assertEmpty(Collection<?> collection) {
+    assertTrue(collection.isEmpty());
+  }
+}
@@ -119,6 +119,62 @@ public class ErlangDependenciesResolutionTest extends ModuleTestCase {
     assertSameErlangFiles(moduleBuildOrder, "src_parse_transform", "test_parse_transform", "test");
   }
 
+  public void testCachedDependencies() throws Exception {
+    File cacheDirectory = createTempDirectory();
+    ErlangFileDependenciesCache cache = ErlangFileDependenciesCache.load(cacheDirectory);
+    List<ErlangFileDescriptor> moduleBuildOrder = ErlangPrepareDependenciesCompileTask.getBuildOrder(myModule, cache);
+    assertEquals(0, cache.getReusedCount());
+    cache.save(cacheDirectory);
+
+    ErlangFileDependenciesCache loadedCache = ErlangFileDependenciesCache.load(cacheDirectory);
+    List<ErlangFileDescriptor> cachedModuleBuildOrder = ErlangPrepareDependenciesCompileTask.getBuildOrder(myModule, loadedCache);
+    assertEquals(5, loadedCache.getReusedCount());
+    assertSameErlangFiles(moduleBuildOrder, "parse_transform1", "header1", "behaviour1", "header2", "module1");
+    assertSameErlangFiles(cachedModuleBuildOrder, "parse_transform1", "header1", "behaviour1", "header2", "module1");
+    for (int i = 0; i < moduleBuildOrder.size(); i++) {
+      assertSameElements(cachedModuleBuildOrder.get(i).myDependencies, moduleBuildOrder.get(i).myDependencies);
+    }
+    loadedCache.save(cacheDirectory);
+
+    final VirtualFile module1 = getSourceFile("module1.erl");
+    ApplicationManager.getApplication().runWriteAction(new ThrowableComputable<Void, IOException>() {
+      @Override
+      public Void compute() throws IOException {
+        VfsUtil.saveText(module1, "-module(module1).\n-behaviour(behaviour1).");
+        return null;
+      }
+    });
+    ErlangFileDependenciesCache changedCache = ErlangFileDependenciesCache.load(cacheDirectory);
+    List<ErlangFileDescriptor> changedModuleBuildOrder = ErlangPrepareDependenciesCompileTask.getBuildOrder(myModule, changedCache);
+    assertEquals(4, changedCache.getReusedCount());
+    assertSameElements(getDependencyNames(changedModuleBuildOrder, "module1"), "behaviour1");
+  }
+
+  @NotNull
+  private VirtualFile getSourceFile(@NotNull String name) {
+    VirtualFile moduleFile = myModule.getModuleFile();
+    assertNotNull(moduleFile);
+    VirtualFile file = moduleFile.getParent().findFileByRelativePath("src/" + name);
+    assertNotNull(file);
+    return file;
+  }
+
+  @NotNull
+  private static List<String> getDependencyNames(@NotNull List<ErlangFileDescriptor> buildOrder, @NotNull String name) {
+    for (ErlangFileDescriptor descriptor : buildOrder) {
+      if (name.equals(FileUtil.getNameWithoutExtension(new File(descriptor.myPath)))) {
+        return ContainerUtil.map(descriptor.myDependencies, new Function<String, String>() {
+          @Override
+          public String fun(String path) {
+            return FileUtil.getNameWithoutExtension(new File(path));
+          }
+        });
+      }
+    }
+    fail("No " + name + " in the build order");
+    return null;
+  }
+
   private static void assertSameErlangFiles(List<ErlangFileDescriptor> moduleBuildOrder,
                                             String... expectedModules) {
     List<String> actualModules = ContainerUtil.map(getModulePaths(moduleBuildOrder), new Function<String, String>() {
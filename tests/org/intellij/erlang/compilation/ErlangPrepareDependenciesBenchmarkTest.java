@@ -0,0 +1,39 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.compilation;
+
+import com.intellij.util.ThrowableRunnable;
+import org.intellij.erlang.jps.builder.ErlangFileDescriptor;
+import org.intellij.erlang.performance.benchmark.ErlangBenchmarkTestCase;
+
+import java.util.List;
+
+/**
+ * Lives next to the compile task to time its build order computation without widening its API.
+ */
+public class ErlangPrepareDependenciesBenchmarkTest extends ErlangBenchmarkTestCase {
+  public void testPrepareDependencies() throws Throwable {
+    addSourcesToProject();
+    benchmark("prepare-dependencies", mySourcesSize, new ThrowableRunnable() {
+      @Override
+      public void run() throws Exception {
+        List<ErlangFileDescriptor> buildOrder = ErlangPrepareDependenciesCompileTask.getBuildOrder(myModule);
+        assertEquals(mySources.size(), buildOrder.size());
+      }
+    });
+  }
+}
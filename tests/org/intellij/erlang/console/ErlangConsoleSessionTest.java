@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.console;
+
+import com.ericsson.otp.erlang.*;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.containers.ContainerUtil;
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class ErlangConsoleSessionTest extends TestCase {
+  public void testNodeArgumentsAreAdded() {
+    GeneralCommandLine commandLine = new GeneralCommandLine("erl");
+    ErlangConsoleSession.create(commandLine);
+    List<String> args = commandLine.getParametersList().getList();
+    assertTrue(args.contains("-sname"));
+    assertTrue(args.contains("-setcookie"));
+  }
+
+  public void testNodeArgumentsAreKept() {
+    GeneralCommandLine commandLine = new GeneralCommandLine("erl");
+    commandLine.addParameters("-name", "shell@localhost", "-setcookie", "secret");
+    ErlangConsoleSession.create(commandLine);
+    assertEquals(ContainerUtil.newArrayList("-name", "shell@localhost", "-setcookie", "secret"), commandLine.getParametersList().getList());
+  }
+
+  public void testEvalRequest() throws Exception {
+    OtpErlangTuple request = (OtpErlangTuple) transfer(ErlangConsoleSession.createEvalRequest(42, "X = \"\u00e9t\u00e9\"."));
+    assertEquals(3, request.arity());
+    assertEquals(new OtpErlangAtom("eval"), request.elementAt(0));
+    assertEquals(42, ((OtpErlangLong) request.elementAt(1)).intValue());
+    assertEquals("X = \"\u00e9t\u00e9\".", new String(((OtpErlangBinary) request.elementAt(2)).binaryValue(), "UTF-8"));
+  }
+
+  public void testOutputAndResult() throws Exception {
+    ErlangConsoleSession session = createSession();
+    RecordingCallback callback = new RecordingCallback();
+    int requestId = session.addCallback(callback);
+
+    session.processReply(transfer(output(requestId, "[1,2,")));
+    session.processReply(transfer(output(requestId, "3]\n")));
+    session.processReply(transfer(result(requestId, "ok", "X", "Y")));
+
+    assertEquals("output [1,2,|output 3]\n|evaluated true [X, Y]", callback.getEvents());
+  }
+
+  public void testFailedEvaluation() throws Exception {
+    ErlangConsoleSession session = createSession();
+    RecordingCallback callback = new RecordingCallback();
+    int requestId = session.addCallback(callback);
+
+    session.processReply(transfer(output(requestId, "** exception error: badarith\n")));
+    session.processReply(transfer(result(requestId, "error")));
+
+    assertEquals("output ** exception error: badarith\n|evaluated false []", callback.getEvents());
+  }
+
+  public void testRepliesAreDispatchedByRequestId() throws Exception {
+    ErlangConsoleSession session = createSession();
+    RecordingCallback first = new RecordingCallback();
+    RecordingCallback second = new RecordingCallback();
+    int firstId = session.addCallback(first);
+    int secondId = session.addCallback(second);
+
+    session.processReply(transfer(output(secondId, "2\n")));
+    session.processReply(transfer(result(firstId, "ok")));
+    session.processReply(transfer(output(firstId, "late\n")));
+    session.processReply(transfer(output(secondId + 1, "unknown\n")));
+    session.processReply(transfer(new OtpErlangAtom("stop")));
+
+    assertEquals("evaluated true []", first.getEvents());
+    assertEquals("output 2\n", second.getEvents());
+  }
+
+  public void testPendingCallbacksFailOnStop() throws Exception {
+    ErlangConsoleSession session = createSession();
+    RecordingCallback pending = new RecordingCallback();
+    RecordingCallback finished = new RecordingCallback();
+    session.addCallback(pending);
+    session.processReply(transfer(result(session.addCallback(finished), "ok")));
+
+    session.stop();
+
+    assertEquals("failed", pending.getEvents());
+    assertEquals("evaluated true []", finished.getEvents());
+    assertFalse(session.isConnected());
+  }
+
+  @NotNull
+  private static ErlangConsoleSession createSession() {
+    return ErlangConsoleSession.create(new GeneralCommandLine("erl"));
+  }
+
+  @NotNull
+  private static OtpErlangTuple output(int requestId, @NotNull String text) throws Exception {
+    return new OtpErlangTuple(new OtpErlangObject[]{
+      new OtpErlangAtom("output"), new OtpErlangInt(requestId), new OtpErlangBinary(text.getBytes("UTF-8"))});
+  }
+
+  @NotNull
+  private static OtpErlangTuple result(int requestId, @NotNull String status, @NotNull String... boundVariables) {
+    OtpErlangObject[] names = new OtpErlangObject[boundVariables.length];
+    for (int i = 0; i < boundVariables.length; i++) {
+      names[i] = new OtpErlangAtom(boundVariables[i]);
+    }
+    return new OtpErlangTuple(new OtpErlangObject[]{
+      new OtpErlangAtom("result"), new OtpErlangInt(requestId), new OtpErlangAtom(status), new OtpErlangList(names)});
+  }
+
+  /**
+   * Passes the term through the external term format, as it travels between the nodes.
+   */
+  @NotNull
+  private static OtpErlangObject transfer(@NotNull OtpErlangObject term) throws OtpErlangDecodeException {
+    OtpOutputStream out = new OtpOutputStream(term);
+    return new OtpInputStream(out.toByteArray(), 0).read_any();
+  }
+
+  private static class RecordingCallback implements ErlangConsoleSession.EvaluationCallback {
+    private final List<String> myEvents = ContainerUtil.newArrayList();
+
+    @Override
+    public void output(@NotNull String text) {
+      myEvents.add("output " + text);
+    }
+
+    @Override
+    public void evaluated(boolean success, @NotNull Set<String> boundVariables) {
+      myEvents.add("evaluated " + success + " " + new TreeSet<String>(boundVariables));
+    }
+
+    @Override
+    public void failed() {
+      myEvents.add("failed");
+    }
+
+    @NotNull
+    public String getEvents() {
+      return StringUtil.join(myEvents, "|");
+    }
+  }
+}
@@ -23,6 +23,7 @@ import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.testFramework.LightProjectDescriptor;
 import com.intellij.testFramework.fixtures.DefaultLightProjectDescriptor;
+import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
 import org.intellij.erlang.sdk.ErlangSdkRelease;
 import org.intellij.erlang.sdk.ErlangSdkType;
@@ -30,6 +31,7 @@ import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
+import java.util.List;
 import java.util.regex.Pattern;
 
 @SuppressWarnings("ConstantConditions")
@@ -113,6 +115,28 @@ public class FileReferenceFilterTest extends ErlangLightPlatformCodeInsightFixtu
     assertNotNull(result.hyperlinkInfo);
   }
 
+  public void testResolvedPathsAreCached() {
+    FileReferenceFilter compilationErrorFilter = new FileReferenceFilter(getProject(), ErlangConsoleUtil.COMPILATION_ERROR_PATH);
+    String consoleOutput = "some text||src/a_module.erl:123: more text here";
+    String missingFileOutput = "some text||src/missing_module.erl:123: more text here";
+    final List<String> resolvedPaths = ContainerUtil.newArrayList();
+    compilationErrorFilter.setResolver(new Function<String, VirtualFile>() {
+      @Override
+      public VirtualFile fun(String path) {
+        resolvedPaths.add(path);
+        return LocalFileSystem.getInstance().findFileByPath(getProject().getBasePath() + "/" + path);
+      }
+    });
+    for (int i = 0; i < 3; i++) {
+      Filter.Result result = compilationErrorFilter.applyFilter(consoleOutput, consoleOutput.length());
+      assertEquals(11, result.highlightStartOffset);
+      assertEquals(31, result.highlightEndOffset);
+      assertNotNull(result.hyperlinkInfo);
+      assertNull(compilationErrorFilter.applyFilter(missingFileOutput, missingFileOutput.length()).hyperlinkInfo);
+    }
+    assertEquals(ContainerUtil.newArrayList("src/a_module.erl", "src/missing_module.erl"), resolvedPaths);
+  }
+
   @NotNull
   @Override
   protected LightProjectDescriptor getProjectDescriptor() {
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.debugger.node;
+
+import com.ericsson.otp.erlang.*;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.debugger.node.events.ErlangDebuggerEvent;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+public class ErlangDebuggerNodeTest extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  private static final OtpErlangPid PID = new OtpErlangPid("node@host", 1, 2, 0);
+  private static final OtpErlangAtom SLICED = new OtpErlangAtom("$intellij_sliced");
+
+  private ErlangDebuggerNode myNode;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myNode = new ErlangDebuggerNode(new EmptyEventListener());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      myNode.stop();
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testListSlice() {
+    RecordingCallback<OtpErlangObject> callback = requestSlice();
+    // a page of small integers is encoded as a string
+    receive("term_slice_response", new OtpErlangInt(1), new OtpErlangString("abc"));
+    OtpErlangList slice = (OtpErlangList) callback.myResult;
+    assertEquals(3, slice.arity());
+    assertEquals(new OtpErlangLong('a'), slice.elementAt(0));
+  }
+
+  public void testSlicedElementsOfSlice() {
+    RecordingCallback<OtpErlangObject> callback = requestSlice();
+    OtpErlangTuple sliced = tuple(SLICED, new OtpErlangAtom("tuple"), new OtpErlangInt(5000));
+    receive("term_slice_response", new OtpErlangInt(1), new OtpErlangList(new OtpErlangObject[]{sliced, new OtpErlangAtom("ok")}));
+    assertEquals(sliced, ((OtpErlangList) callback.myResult).elementAt(0));
+  }
+
+  public void testBinarySlice() {
+    RecordingCallback<OtpErlangObject> callback = requestSlice();
+    receive("term_slice_response", new OtpErlangInt(1), new OtpErlangBinary(new byte[]{1, 2, 3}));
+    assertEquals(new OtpErlangBinary(new byte[]{1, 2, 3}), callback.myResult);
+  }
+
+  public void testSliceError() {
+    RecordingCallback<OtpErlangObject> callback = requestSlice();
+    receive("term_slice_response", new OtpErlangInt(1), tuple(new OtpErlangAtom("error"), new OtpErlangAtom("not_a_container")));
+    assertNull(callback.myResult);
+    assertEquals("not_a_container", callback.myError);
+  }
+
+  public void testReplyToUnknownRequestIsIgnored() {
+    RecordingCallback<OtpErlangObject> callback = requestSlice();
+    receive("term_slice_response", new OtpErlangInt(2), new OtpErlangList());
+    assertNull(callback.myResult);
+    assertNull(callback.myError);
+  }
+
+  public void testSlicedBindings() {
+    RecordingCallback<Collection<ErlangVariableBinding>> callback = new RecordingCallback<Collection<ErlangVariableBinding>>();
+    myNode.requestBindings(PID, null, callback);
+    OtpErlangTuple sliced = tuple(SLICED, new OtpErlangAtom("binary"), new OtpErlangInt(1 << 20));
+    receive("bindings_response", new OtpErlangInt(1), new OtpErlangList(tuple(new OtpErlangAtom("Data"), sliced)));
+    ErlangVariableBinding binding = callback.myResult.iterator().next();
+    assertEquals("Data", binding.getName());
+    assertEquals(sliced, binding.getValue());
+  }
+
+  public void testStringBindings() {
+    RecordingCallback<Collection<ErlangVariableBinding>> callback = new RecordingCallback<Collection<ErlangVariableBinding>>();
+    myNode.requestBindings(PID, null, callback);
+    // strings of up to 1024 characters are sent as is, longer ones as a prefix and the length
+    OtpErlangString text = new OtpErlangString(StringUtil.repeat("text ", 30));
+    OtpErlangString prefix = new OtpErlangString(StringUtil.repeat("x", 1024));
+    OtpErlangTuple sliced = tuple(SLICED, new OtpErlangAtom("string"), new OtpErlangInt(5000), prefix);
+    receive("bindings_response", new OtpErlangInt(1), new OtpErlangList(new OtpErlangObject[]{
+      tuple(new OtpErlangAtom("Text"), text), tuple(new OtpErlangAtom("Long"), sliced)}));
+    List<ErlangVariableBinding> bindings = ContainerUtil.newArrayList(callback.myResult);
+    assertEquals(2, bindings.size());
+    assertEquals(text, bindings.get(0).getValue());
+    assertEquals(150, ((OtpErlangString) bindings.get(0).getValue()).stringValue().length());
+    assertEquals(sliced, bindings.get(1).getValue());
+  }
+
+  public void testStringSlice() {
+    RecordingCallback<OtpErlangObject> callback = requestSlice();
+    OtpErlangString text = new OtpErlangString(StringUtil.repeat("text ", 1000));
+    receive("term_slice_response", new OtpErlangInt(1), text);
+    assertEquals(text, callback.myResult);
+  }
+
+  public void testStack() {
+    RecordingCallback<List<ErlangTraceElement>> callback = new RecordingCallback<List<ErlangTraceElement>>();
+    myNode.requestStack(PID, callback);
+    OtpErlangTuple call = tuple(new OtpErlangAtom("mod"), new OtpErlangAtom("fun"), new OtpErlangList(new OtpErlangAtom("arg")));
+    receive("stack_response", new OtpErlangInt(1), new OtpErlangList(tuple(new OtpErlangInt(3), call)));
+    ErlangTraceElement element = callback.myResult.get(0);
+    assertEquals(3, element.getStackPointer());
+    assertEquals("fun", element.getFunction());
+    assertEquals(1, element.getFunctionArgs().arity());
+  }
+
+  public void testPendingRequestsFailOnResume() {
+    RecordingCallback<OtpErlangObject> callback = requestSlice();
+    myNode.resume();
+    assertNotNull(callback.myError);
+    receive("term_slice_response", new OtpErlangInt(1), new OtpErlangList());
+    assertNull(callback.myResult);
+  }
+
+  public void testPendingRequestsFailOnStop() {
+    RecordingCallback<OtpErlangObject> callback = requestSlice();
+    myNode.stop();
+    assertNotNull(callback.myError);
+  }
+
+  @NotNull
+  private RecordingCallback<OtpErlangObject> requestSlice() {
+    RecordingCallback<OtpErlangObject> callback = new RecordingCallback<OtpErlangObject>();
+    myNode.requestTermSlice(PID, null, "Data", new OtpErlangList(new OtpErlangInt(0)), 0, 100, callback);
+    return callback;
+  }
+
+  private void receive(@NotNull String name, @NotNull OtpErlangObject... elements) {
+    OtpErlangObject[] message = new OtpErlangObject[elements.length + 1];
+    message[0] = new OtpErlangAtom(name);
+    System.arraycopy(elements, 0, message, 1, elements.length);
+    ErlangDebuggerEvent event = ErlangDebuggerEvent.create(new OtpErlangTuple(message));
+    assertNotNull(event);
+    event.process(myNode, new EmptyEventListener());
+  }
+
+  @NotNull
+  private static OtpErlangTuple tuple(@NotNull OtpErlangObject... elements) {
+    return new OtpErlangTuple(elements);
+  }
+
+  private static class RecordingCallback<T> implements ErlangDebuggerNode.RequestCallback<T> {
+    private T myResult;
+    private String myError;
+
+    @Override
+    public void received(@NotNull T result) {
+      myResult = result;
+    }
+
+    @Override
+    public void failed(@NotNull String error) {
+      myError = error;
+    }
+  }
+
+  private static class EmptyEventListener implements ErlangDebuggerEventListener {
+    @Override
+    public void debuggerStarted() {
+    }
+
+    @Override
+    public void failedToInterpretModules(String nodeName, List<String> modules) {
+    }
+
+    @Override
+    public void failedToDebugRemoteNode(String nodeName, String error) {
+    }
+
+    @Override
+    public void unknownMessage(String messageText) {
+      fail("Unexpected message: " + messageText);
+    }
+
+    @Override
+    public void failedToSetBreakpoint(String module, int line, String errorMessage) {
+    }
+
+    @Override
+    public void breakpointIsSet(String module, int line) {
+    }
+
+    @Override
+    public void breakpointReached(OtpErlangPid pid, List<ErlangProcessSnapshot> snapshots) {
+    }
+
+    @Override
+    public void debuggerStopped() {
+    }
+  }
+}
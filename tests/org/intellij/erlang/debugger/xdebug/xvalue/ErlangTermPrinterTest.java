@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.debugger.xdebug.xvalue;
+
+import com.ericsson.otp.erlang.*;
+import junit.framework.TestCase;
+
+public class ErlangTermPrinterTest extends TestCase {
+  private static final OtpErlangObject[] ELEMENTS = {
+    new OtpErlangAtom("ok"), new OtpErlangAtom("Quoted atom"), new OtpErlangString("str"), new OtpErlangLong(42),
+    new OtpErlangDouble(1.5), new OtpErlangBinary(new byte[]{1, 2, 3}), new OtpErlangBitstr(new byte[]{1, 2}, 3)
+  };
+
+  public void testTuple() { doTest(new OtpErlangTuple(ELEMENTS)); }
+  public void testList() { doTest(new OtpErlangList(ELEMENTS)); }
+  public void testEmptyList() { doTest(new OtpErlangList()); }
+  public void testEmptyMap() { doTest(new OtpErlangMap()); }
+
+  public void testImproperList() throws Exception {
+    doTest(new OtpErlangList(new OtpErlangObject[]{new OtpErlangLong(1)}, new OtpErlangLong(2)));
+  }
+
+  public void testMap() {
+    doTest(new OtpErlangMap(new OtpErlangObject[]{new OtpErlangAtom("key"), new OtpErlangLong(1)},
+                            new OtpErlangObject[]{new OtpErlangTuple(ELEMENTS), new OtpErlangList(ELEMENTS)}));
+  }
+
+  public void testHugeListIsNotPrintedInFull() {
+    OtpErlangObject[] elements = new OtpErlangObject[1000000];
+    for (int i = 0; i < elements.length; i++) {
+      elements[i] = new OtpErlangString("element");
+    }
+    assertEquals(11, ErlangTermPrinter.print(new OtpErlangList(elements), 10).length());
+  }
+
+  public void testSlicedValue() {
+    OtpErlangTuple sliced = new OtpErlangTuple(new OtpErlangObject[]{
+      new OtpErlangAtom("$intellij_sliced"), new OtpErlangAtom("list"), new OtpErlangLong(1000000)});
+    assertEquals("[...]", ErlangTermPrinter.print(sliced, 100));
+    assertEquals("{ok,[...]}", ErlangTermPrinter.print(new OtpErlangTuple(new OtpErlangObject[]{new OtpErlangAtom("ok"), sliced}), 100));
+  }
+
+  public void testSlicedString() {
+    OtpErlangTuple sliced = new OtpErlangTuple(new OtpErlangObject[]{
+      new OtpErlangAtom("$intellij_sliced"), new OtpErlangAtom("string"), new OtpErlangLong(5000), new OtpErlangString("abc")});
+    assertEquals("string", ErlangSlicedXValue.getKind(sliced));
+    assertEquals("{ok,\"abc...\"}", ErlangTermPrinter.print(new OtpErlangTuple(new OtpErlangObject[]{new OtpErlangAtom("ok"), sliced}), 100));
+  }
+
+  public void testSlicedMarkerShape() {
+    OtpErlangObject marker = new OtpErlangAtom("$intellij_sliced");
+    OtpErlangObject size = new OtpErlangLong(5000);
+    assertNull(ErlangSlicedXValue.getKind(new OtpErlangTuple(new OtpErlangObject[]{marker, new OtpErlangAtom("string"), size})));
+    assertNull(ErlangSlicedXValue.getKind(new OtpErlangTuple(new OtpErlangObject[]{marker, new OtpErlangAtom("list"), size, new OtpErlangString("abc")})));
+  }
+
+  private static void doTest(OtpErlangObject term) {
+    String expected = term.toString();
+    assertEquals(expected, ErlangTermPrinter.print(term, expected.length()));
+    for (int maxLength = 0; maxLength < expected.length(); maxLength++) {
+      assertEquals(expected.substring(0, maxLength + 1), ErlangTermPrinter.print(term, maxLength));
+    }
+  }
+}
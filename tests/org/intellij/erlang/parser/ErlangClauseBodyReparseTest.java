@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.parser;
+
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.intellij.erlang.ErlangLanguage;
+import org.intellij.erlang.psi.ErlangClauseBody;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+
+public class ErlangClauseBodyReparseTest extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  public void testFunctionBody()        { doTest("foo() -> <caret>ok.\nbar() -> ok.", "baz(), ", true); }
+  public void testCaseClauseBody()      { doTest("foo(X) -> case X of 1 -> <caret>ok; _ -> error end.", "{1, 2}", true); }
+  public void testBlockInBody()         { doTest("foo() -> begin <caret>ok end.", "case a of b -> c end, ", true); }
+  public void testRecordField()         { doTest("foo(X) -> <caret>ok.", "X#rec.field, ", true); }
+  public void testClauseSeparator()     { doTest("foo(1) -> <caret>ok.", "ok;\nfoo(2) -> ", false); }
+  public void testNewForm()             { doTest("foo() -> <caret>ok.", "ok.\nbar() -> ", false); }
+  public void testUnbalancedBlock()     { doTest("foo() -> <caret>ok.", "begin ", false); }
+  public void testFunInMacroBody()      { doTest("-define(F, fun() -> begin <caret>ok end end).", "a() -> b, ", true); }
+  public void testFunInCasePattern()    { doTest("foo(X) -> case X of fun() -> begin <caret>ok end end -> ok end.", "a() -> b, ", true); }
+  public void testFunInGuard()          { doTest("foo(X) when fun() -> begin <caret>ok end end -> ok.", "a() -> b, ", true); }
+  public void testFunInAfterTimeout()   { doTest("foo() -> receive after fun() -> begin <caret>ok end end -> ok end.", "a() -> b, ", true); }
+  public void testFunInFunctionBody()   { doTest("foo() -> fun() -> begin <caret>ok end end.", "a() -> b, ", true); }
+
+  private void doTest(String text, String toType, boolean reparsedLazily) {
+    PsiFile file = myFixture.configureByText("a.erl", text);
+    ErlangClauseBody body = PsiTreeUtil.getParentOfType(file.findElementAt(myFixture.getCaretOffset()), ErlangClauseBody.class);
+    assertNotNull(body);
+    PsiElement parent = body.getParent();
+
+    myFixture.type(toType);
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+    PsiFile fresh = PsiFileFactory.getInstance(getProject()).createFileFromText("a.erl", ErlangLanguage.INSTANCE, file.getText());
+    assertEquals(DebugUtil.psiToString(fresh, false), DebugUtil.psiToString(file, false));
+    if (reparsedLazily) {
+      // only the clause body node is replaced, a full reparse would merge the new tree into the old body
+      assertFalse(body.isValid());
+      assertTrue(parent.isValid());
+      ErlangClauseBody newBody = PsiTreeUtil.getParentOfType(file.findElementAt(myFixture.getCaretOffset() - 1), ErlangClauseBody.class);
+      assertNotNull(newBody);
+      assertSame(parent, newBody.getParent());
+    }
+  }
+}
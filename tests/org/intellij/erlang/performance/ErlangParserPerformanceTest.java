@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.ThrowableRunnable;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.ErlangLanguage;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the OTP sources of the mock SDK and the large parser test files and checks the parser throughput.
+ */
+public class ErlangParserPerformanceTest extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  private static final String[] SOURCE_ROOTS = {"testData/mockSdk-R15B02/lib", "testData/parser"};
+  private static final int EXPECTED_MS = 3000;
+
+  @Override
+  protected boolean isWriteActionRequired() {
+    return false;
+  }
+
+  public void testParseOtpSources() throws IOException {
+    final List<String> sources = loadSources();
+    PlatformTestUtil.startPerformanceTest("parsing of " + sources.size() + " files", EXPECTED_MS, new ThrowableRunnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < 5; i++) {
+          for (String source : sources) {
+            parse(source);
+          }
+        }
+      }
+    }).attempts(10).cpuBound().assertTiming();
+  }
+
+  private void parse(String source) {
+    PsiFile file = PsiFileFactory.getInstance(getProject()).createFileFromText("a.erl", ErlangLanguage.INSTANCE, source);
+    assertNotNull(file.getNode().getLastChildNode());
+  }
+
+  private static List<String> loadSources() throws IOException {
+    List<String> result = ContainerUtil.newArrayList();
+    for (String root : SOURCE_ROOTS) {
+      for (File file : FileUtil.findFilesByMask(Pattern.compile(".*\\.erl"), new File(root))) {
+        result.add(StringUtil.convertLineSeparators(FileUtil.loadFile(file)));
+      }
+    }
+    assertFalse(result.isEmpty());
+    return result;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance;
+
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.util.ThrowableRunnable;
+import org.intellij.erlang.psi.ErlangFile;
+import org.intellij.erlang.psi.ErlangFunction;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+
+/**
+ * Typing inside a function body reparses only the edited clause body, so the time per keystroke
+ * should not depend on the size of the module.
+ */
+public class ErlangReparsePerformanceTest extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  @Override
+  protected boolean isWriteActionRequired() {
+    return false;
+  }
+
+  public void testReparse100Functions()   { doTest(100, 500); }
+  public void testReparse1000Functions()  { doTest(1000, 500); }
+  public void testReparse10000Functions() { doTest(10000, 500); }
+
+  private void doTest(int functionsCount, int expectedMs) {
+    final ErlangFile file = (ErlangFile) myFixture.configureByText("reparse.erl", generateModule(functionsCount));
+    final ErlangFunction edited = file.getFunction("f" + functionsCount / 2, 1);
+    assertNotNull(edited);
+
+    PlatformTestUtil.startPerformanceTest("reparse of a module with " + functionsCount + " functions", expectedMs, new ThrowableRunnable() {
+      @Override
+      public void run() {
+        for (int i = 0; i < 10; i++) {
+          myFixture.type("X");
+          PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+          myFixture.type('\b');
+          PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+        }
+      }
+    }).attempts(10).cpuBound().assertTiming();
+
+    assertTrue(edited.isValid());
+    assertSame(edited, file.getFunction("f" + functionsCount / 2, 1));
+  }
+
+  private static String generateModule(int functionsCount) {
+    StringBuilder sb = new StringBuilder("-module(reparse).\n-export([f0/1]).\n\n");
+    for (int i = 0; i < functionsCount; i++) {
+      sb.append("f").append(i).append("(A) ->\n")
+        .append("  B = [X * 2 || X <- lists:seq(1, A)],\n")
+        .append("  case B of\n")
+        .append("    [] -> {error, ").append(i).append("};\n")
+        .append("    _ -> {ok, ").append(i == functionsCount / 2 ? "<caret>" : "").append("lists:sum(B)}\n")
+        .append("  end.\n\n");
+    }
+    return sb.toString();
+  }
+}
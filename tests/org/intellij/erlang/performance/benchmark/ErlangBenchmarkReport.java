@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance.benchmark;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A single benchmark result written as a JSON file named after the benchmark, so that results can be collected
+ * by the build server and compared across builds.
+ * The output directory is taken from the {@code erlang.benchmarks.output} system property.
+ */
+final class ErlangBenchmarkReport {
+  private static final String OUTPUT_DIRECTORY_PROPERTY = "erlang.benchmarks.output";
+
+  private final String myName;
+  private final Map<String, Integer> myParameters;
+  private final long myInputSize;
+  private final double[] myAttemptsMs;
+
+  ErlangBenchmarkReport(@NotNull String name, @NotNull Map<String, Integer> parameters, long inputSize, @NotNull double[] attemptsMs) {
+    myName = name;
+    myParameters = parameters;
+    myInputSize = inputSize;
+    myAttemptsMs = attemptsMs;
+  }
+
+  double getMinMs() {
+    double min = Double.MAX_VALUE;
+    for (double attempt : myAttemptsMs) {
+      min = Math.min(min, attempt);
+    }
+    return min;
+  }
+
+  double getMedianMs() {
+    double[] sorted = myAttemptsMs.clone();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2];
+  }
+
+  @NotNull
+  File write() throws IOException {
+    File directory = new File(System.getProperty(OUTPUT_DIRECTORY_PROPERTY, "build/benchmarks"));
+    File file = new File(directory, myName + ".json");
+    FileUtil.writeToFile(file, toJson());
+    return file;
+  }
+
+  @NotNull
+  String toJson() {
+    StringBuilder sb = new StringBuilder("{\n");
+    sb.append("  \"benchmark\": \"").append(StringUtil.escapeStringCharacters(myName)).append("\",\n");
+    sb.append("  \"timestamp\": ").append(System.currentTimeMillis()).append(",\n");
+    sb.append("  \"parameters\": {");
+    boolean first = true;
+    for (Map.Entry<String, Integer> parameter : myParameters.entrySet()) {
+      sb.append(first ? "" : ", ").append('"').append(StringUtil.escapeStringCharacters(parameter.getKey())).append("\": ").append(parameter.getValue());
+      first = false;
+    }
+    sb.append("},\n");
+    sb.append("  \"inputSize\": ").append(myInputSize).append(",\n");
+    sb.append("  \"attemptsMs\": [");
+    for (int i = 0; i < myAttemptsMs.length; i++) {
+      sb.append(i == 0 ? "" : ", ").append(format(myAttemptsMs[i]));
+    }
+    sb.append("],\n");
+    sb.append("  \"minMs\": ").append(format(getMinMs())).append(",\n");
+    sb.append("  \"medianMs\": ").append(format(getMedianMs())).append("\n");
+    sb.append("}\n");
+    return sb.toString();
+  }
+
+  @NotNull
+  private static String format(double ms) {
+    return String.format(Locale.US, "%.3f", ms);
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance.benchmark;
+
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Generates a synthetic Erlang project: modules calling each other, behaviours, a parse transform,
+ * a chain of nested includes and one module with a lot of functions.
+ */
+final class ErlangBenchmarkSources {
+  static final String SHARED_ATOM = "shared_atom";
+  static final String BIG_MODULE = "big";
+
+  private static final int BEHAVIOURS_COUNT = 10;
+
+  private ErlangBenchmarkSources() {
+  }
+
+  /**
+   * @return file paths relative to the source root mapped to file texts, in the order files should be added.
+   */
+  @NotNull
+  static Map<String, String> generateProject(int modulesCount, int functionsPerModule, int includeDepth) {
+    Map<String, String> files = ContainerUtil.newLinkedHashMap();
+    for (int i = 0; i < includeDepth; i++) {
+      files.put(header(i), generateHeader(i, includeDepth));
+    }
+    files.put("pt_0.erl", generateParseTransform());
+    for (int i = 0; i < BEHAVIOURS_COUNT; i++) {
+      files.put("beh_" + i + ".erl", generateBehaviour(i));
+    }
+    for (int i = 0; i < modulesCount; i++) {
+      files.put(module(i) + ".erl", generateModule(i, modulesCount, functionsPerModule, includeDepth));
+    }
+    return files;
+  }
+
+  @NotNull
+  static String module(int i) {
+    return "mod_" + i;
+  }
+
+  @NotNull
+  static String generateBigModule(int functionsCount) {
+    StringBuilder sb = new StringBuilder("-module(" + BIG_MODULE + ").\n-export([f0/1]).\n\n");
+    for (int i = 0; i < functionsCount; i++) {
+      sb.append("f").append(i).append("(A) when is_integer(A)->\n")
+        .append("  B = [X * 2 || X <- lists:seq(1, A)],\n")
+        .append("  case B of\n")
+        .append("    [] -> {error, ").append(SHARED_ATOM).append("};\n")
+        .append("    _ -> {ok, lists:sum(B), #{key => ").append(i).append("}}\n")
+        .append("  end;\n")
+        .append("f").append(i).append("(_)->\n")
+        .append("  f").append(i == 0 ? 0 : i - 1).append("(1).\n\n");
+    }
+    return sb.toString();
+  }
+
+  @NotNull
+  private static String header(int i) {
+    return "chain_" + i + ".hrl";
+  }
+
+  @NotNull
+  private static String generateHeader(int i, int includeDepth) {
+    StringBuilder sb = new StringBuilder();
+    if (i + 1 < includeDepth) {
+      sb.append("-include(\"").append(header(i + 1)).append("\").\n");
+    }
+    sb.append("-define(CHAIN_").append(i).append(", ").append(i).append(").\n");
+    sb.append("-record(chain_").append(i).append(", {a = ").append(i).append(", b}).\n");
+    return sb.toString();
+  }
+
+  @NotNull
+  private static String generateParseTransform() {
+    return "-module(pt_0).\n-export([parse_transform/2]).\n\nparse_transform(Forms, _Options) -> Forms.\n";
+  }
+
+  @NotNull
+  private static String generateBehaviour(int i) {
+    return "-module(beh_" + i + ").\n-export([behaviour_info/1]).\n\n" +
+           "behaviour_info(callbacks) -> [{handle, 1}];\nbehaviour_info(_) -> undefined.\n";
+  }
+
+  @NotNull
+  private static String generateModule(int i, int modulesCount, int functionsCount, int includeDepth) {
+    StringBuilder sb = new StringBuilder("-module(" + module(i) + ").\n");
+    sb.append("-behaviour(beh_").append(i % BEHAVIOURS_COUNT).append(").\n");
+    if (i % 50 == 0) {
+      sb.append("-compile({parse_transform, pt_0}).\n");
+    }
+    boolean includesChain = includeDepth > 0 && i % 10 == 0;
+    if (includesChain) {
+      sb.append("-include(\"").append(header(0)).append("\").\n");
+    }
+    sb.append("-export([handle/1");
+    for (int j = 0; j < functionsCount; j++) {
+      sb.append(", f").append(j).append("/1");
+    }
+    sb.append("]).\n\n");
+    sb.append("handle(X) -> {").append(SHARED_ATOM).append(", X}.\n\n");
+    String next = module((i + 1) % modulesCount);
+    for (int j = 0; j < functionsCount; j++) {
+      sb.append("f").append(j).append("(X) ->\n");
+      sb.append("  Y = ").append(next).append(":f").append((j + 1) % functionsCount).append("(X),\n");
+      if (includesChain) {
+        sb.append("  Z = #chain_").append(includeDepth - 1).append("{b = ?CHAIN_").append(includeDepth - 1).append("},\n");
+        sb.append("  {").append(SHARED_ATOM).append(", Y, Z}.\n\n");
+      }
+      else {
+        sb.append("  {").append(SHARED_ATOM).append(", Y}.\n\n");
+      }
+    }
+    return sb.toString();
+  }
+}
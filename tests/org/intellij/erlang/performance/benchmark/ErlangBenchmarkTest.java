@@ -0,0 +1,171 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance.benchmark;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupManager;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.util.ThrowableRunnable;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileContentImpl;
+import com.intellij.util.indexing.IndexingDataKeys;
+import org.intellij.erlang.ErlangLanguage;
+import org.intellij.erlang.index.ErlangAtomIndex;
+import org.intellij.erlang.parser.ErlangLexer;
+import org.intellij.erlang.psi.ErlangQAtom;
+import org.intellij.erlang.stubs.types.ErlangFileElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks of lexing, parsing, indexing, completion, find usages and formatting.
+ */
+public class ErlangBenchmarkTest extends ErlangBenchmarkTestCase {
+  public void testLexer() throws Throwable {
+    final ErlangLexer lexer = new ErlangLexer();
+    benchmark("lexer", mySourcesSize, new ThrowableRunnable() {
+      @Override
+      public void run() {
+        for (String text : mySources.values()) {
+          lexer.start(text);
+          while (lexer.getTokenType() != null) {
+            lexer.advance();
+          }
+        }
+      }
+    });
+  }
+
+  public void testParser() throws Throwable {
+    benchmark("parser", mySourcesSize, new ThrowableRunnable() {
+      @Override
+      public void run() {
+        for (Map.Entry<String, String> source : mySources.entrySet()) {
+          assertNotNull(parse(source.getKey(), source.getValue()).getNode().getLastChildNode());
+        }
+      }
+    });
+  }
+
+  public void testStubBuilding() throws Throwable {
+    final List<PsiFile> files = ContainerUtil.newArrayList();
+    for (Map.Entry<String, String> source : mySources.entrySet()) {
+      PsiFile file = parse(source.getKey(), source.getValue());
+      file.getNode().getLastChildNode();
+      files.add(file);
+    }
+    benchmark("stubs", mySourcesSize, new ThrowableRunnable() {
+      @Override
+      public void run() {
+        for (PsiFile file : files) {
+          StubElement stub = ErlangFileElementType.INSTANCE.getBuilder().buildStubTree(file);
+          assertNotNull(stub);
+        }
+      }
+    });
+  }
+
+  public void testAtomIndexing() throws Throwable {
+    final Collection<VirtualFile> files = addSourcesToProject();
+    final ErlangAtomIndex index = new ErlangAtomIndex();
+    benchmark("atom-index", mySourcesSize, new ThrowableRunnable() {
+      @Override
+      public void run() throws Exception {
+        for (VirtualFile file : files) {
+          FileContentImpl content = (FileContentImpl) FileContentImpl.createByFile(file);
+          content.putUserData(IndexingDataKeys.PROJECT, getProject());
+          index.getIndexer().map(content);
+        }
+      }
+    });
+  }
+
+  public void testQualifiedCompletion() throws Throwable {
+    addSourcesToProject();
+    myFixture.configureByText("completion.erl", "-module(completion).\nfoo() -> " +
+                                                ErlangBenchmarkSources.module(myModulesCount / 2) + ":<caret>");
+    benchmark("qualified-completion", mySourcesSize, new ThrowableRunnable() {
+      @Override
+      public void run() {
+        LookupElement[] elements = myFixture.completeBasic();
+        assertNotNull(elements);
+        assertTrue(elements.length >= myFunctionsPerModule);
+        LookupManager.getInstance(getProject()).hideActiveLookup();
+      }
+    });
+  }
+
+  public void testAtomFindUsages() throws Throwable {
+    addSourcesToProject();
+    myFixture.configureByText("usages.erl", "-module(usages).\nfoo() -> " + ErlangBenchmarkSources.SHARED_ATOM + "<caret>.");
+    final ErlangQAtom atom = getElementAtCaret(ErlangQAtom.class);
+    benchmark("atom-find-usages", mySourcesSize, new ThrowableRunnable() {
+      @Override
+      public void run() {
+        ReferencesSearch.search(atom, GlobalSearchScope.projectScope(getProject())).findAll();
+      }
+    });
+  }
+
+  public void testFormatting() throws Throwable {
+    final String bigModule = mySources.get(ErlangBenchmarkSources.BIG_MODULE + ".erl");
+    final PsiFile file = myFixture.addFileToProject(ErlangBenchmarkSources.BIG_MODULE + ".erl", bigModule);
+    final Document document = PsiDocumentManager.getInstance(getProject()).getDocument(file);
+    assertNotNull(document);
+    // every attempt formats the original text, not the one formatted by the previous attempt
+    Runnable restoreText = new Runnable() {
+      @Override
+      public void run() {
+        new WriteCommandAction.Simple(getProject(), file) {
+          @Override
+          protected void run() throws Throwable {
+            document.setText(bigModule);
+            PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+          }
+        }.execute();
+      }
+    };
+    benchmark("formatting", bigModule.length(), restoreText, new ThrowableRunnable() {
+      @Override
+      public void run() {
+        new WriteCommandAction.Simple(getProject(), file) {
+          @Override
+          protected void run() throws Throwable {
+            CodeStyleManager.getInstance(getProject()).reformat(file);
+          }
+        }.execute();
+      }
+    });
+  }
+
+  @NotNull
+  private PsiFile parse(@NotNull String name, @NotNull String text) {
+    return PsiFileFactory.getInstance(getProject()).createFileFromText(name, ErlangLanguage.INSTANCE, text);
+  }
+}
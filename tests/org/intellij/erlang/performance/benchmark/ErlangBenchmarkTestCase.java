@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.performance.benchmark;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.ThrowableRunnable;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks of the main code insight paths over a generated project.
+ * Each benchmark writes its timings with {@link ErlangBenchmarkReport}; nothing is asserted about the timings themselves.
+ * <p/>
+ * The project size is controlled by {@code erlang.benchmarks.modules}, {@code erlang.benchmarks.functions},
+ * {@code erlang.benchmarks.includeDepth} and {@code erlang.benchmarks.bigModuleFunctions} system properties.
+ */
+public abstract class ErlangBenchmarkTestCase extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  private static final int ATTEMPTS = 5;
+
+  protected final int myModulesCount = Integer.getInteger("erlang.benchmarks.modules", 1000);
+  protected final int myFunctionsPerModule = Integer.getInteger("erlang.benchmarks.functions", 10);
+  private final int myIncludeDepth = Integer.getInteger("erlang.benchmarks.includeDepth", 20);
+  private final int myBigModuleFunctions = Integer.getInteger("erlang.benchmarks.bigModuleFunctions", 5000);
+
+  protected Map<String, String> mySources;
+  protected long mySourcesSize;
+
+  @Override
+  protected boolean isWriteActionRequired() {
+    return false;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    mySources = ErlangBenchmarkSources.generateProject(myModulesCount, myFunctionsPerModule, myIncludeDepth);
+    mySources.put(ErlangBenchmarkSources.BIG_MODULE + ".erl", ErlangBenchmarkSources.generateBigModule(myBigModuleFunctions));
+    for (String text : mySources.values()) {
+      mySourcesSize += text.length();
+    }
+  }
+
+  @NotNull
+  protected Collection<VirtualFile> addSourcesToProject() {
+    List<VirtualFile> files = ContainerUtil.newArrayList();
+    for (Map.Entry<String, String> source : mySources.entrySet()) {
+      files.add(myFixture.addFileToProject(source.getKey(), source.getValue()).getVirtualFile());
+    }
+    return files;
+  }
+
+  protected void benchmark(@NotNull String name, long inputSize, @NotNull ThrowableRunnable<?> runnable) throws Throwable {
+    benchmark(name, inputSize, null, runnable);
+  }
+
+  /**
+   * @param setUp prepares the input of every attempt, it is not timed.
+   */
+  protected void benchmark(@NotNull String name,
+                           long inputSize,
+                           @Nullable Runnable setUp,
+                           @NotNull ThrowableRunnable<?> runnable) throws Throwable {
+    if (setUp != null) setUp.run();
+    runnable.run(); // warm up
+    double[] attemptsMs = new double[ATTEMPTS];
+    for (int i = 0; i < ATTEMPTS; i++) {
+      if (setUp != null) setUp.run();
+      PsiManager.getInstance(getProject()).dropResolveCaches();
+      long start = System.nanoTime();
+      runnable.run();
+      attemptsMs[i] = (System.nanoTime() - start) / 1e6;
+    }
+    Map<String, Integer> parameters = ContainerUtil.newLinkedHashMap();
+    parameters.put("modules", myModulesCount);
+    parameters.put("functionsPerModule", myFunctionsPerModule);
+    parameters.put("includeDepth", myIncludeDepth);
+    parameters.put("bigModuleFunctions", myBigModuleFunctions);
+    ErlangBenchmarkReport report = new ErlangBenchmarkReport(name, parameters, inputSize, attemptsMs);
+    System.out.println(String.format("%s: min %.1f ms, median %.1f ms, written to %s",
+                                     name, report.getMinMs(), report.getMedianMs(), report.write().getPath()));
+  }
+}
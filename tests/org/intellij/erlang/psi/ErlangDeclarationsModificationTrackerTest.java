@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.psi;
+
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFileFactory;
+import org.intellij.erlang.ErlangLanguage;
+import org.intellij.erlang.psi.impl.ErlangElementFactory;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+
+import java.util.List;
+
+public class ErlangDeclarationsModificationTrackerTest extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  public void testFunctionBody()   { doTest("-export([foo/0]).\nfoo() -> <caret>ok.", "bar(), ", false); }
+  public void testFunctionHead()   { doTest("-export([foo/0]).\nfoo(<caret>) -> ok.", "A", true); }
+  public void testExport()         { doTest("-export([foo/0<caret>]).\nfoo() -> ok.", ", bar/1", true); }
+  public void testNewFunction()    { doTest("foo() -> ok.\n<caret>", "bar() -> ok.", true); }
+  public void testBodyInNewClause(){ doTest("foo(1) -> ok;\nfoo(_) -> <caret>ok.", "bar(), ", false); }
+
+  public void testNonPhysicalFile() {
+    ErlangFile file = (ErlangFile) PsiFileFactory.getInstance(getProject()).createFileFromText("a.erl", ErlangLanguage.INSTANCE, "foo() -> ok.");
+    assertFalse(file.isPhysical());
+    assertSize(1, file.getFunctions());
+    long before = file.getDeclarationsModificationTracker().getModificationCount();
+    ErlangFunction bar = ErlangElementFactory.createFunctionFromText(getProject(), "bar() -> ok.");
+    file.add(bar);
+    assertTrue(before != file.getDeclarationsModificationTracker().getModificationCount());
+    assertSize(2, file.getFunctions());
+  }
+
+  private void doTest(String text, String toType, boolean declarationsChanged) {
+    ErlangFile file = (ErlangFile) myFixture.configureByText("a.erl", text);
+    List<ErlangFunction> functions = file.getFunctions();
+    long before = file.getDeclarationsModificationTracker().getModificationCount();
+    myFixture.type(toType);
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+    long after = file.getDeclarationsModificationTracker().getModificationCount();
+    assertEquals(declarationsChanged, before != after);
+    if (!declarationsChanged) {
+      assertSame(functions, file.getFunctions());
+    }
+  }
+}
@@ -25,6 +25,7 @@ import com.intellij.util.ObjectUtils;
 import org.intellij.erlang.psi.ErlangFunction;
 import org.intellij.erlang.psi.ErlangFunctionCallExpression;
 import org.intellij.erlang.psi.ErlangQAtom;
+import org.intellij.erlang.psi.impl.ResolveUtil;
 import org.intellij.erlang.sdk.ErlangSdkRelease;
 import org.intellij.erlang.sdk.ErlangSdkType;
 import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
@@ -63,6 +64,17 @@ public class ErlangFunctionResolutionTest extends ErlangLightPlatformCodeInsight
   public void testGetModuleFromParameter()     { doParameterTest("test.erl", "module.erl", "bar", 1); }
   public void testFunParameterInSpawnMonitor() { doParameterTest("test.erl", "test.erl", "foo", 1); }
 
+  public void testResolveResultIsCached() {
+    myFixture.configureByFiles("test.erl");
+    ErlangFunctionCallExpression functionCall = getElementAtCaret(ErlangFunctionCallExpression.class);
+
+    ResolveUtil.resetCacheStatistics();
+    assertResolvesTo(functionCall.getReference(), "test.erl", "bar", 1);
+    assertResolvesTo(functionCall.getReference(), "test.erl", "bar", 1);
+    assertEquals(1, ResolveUtil.getCacheMissCount());
+    assertEquals(1, ResolveUtil.getCacheHitCount());
+  }
+
   private void doFunctionCallTest(@NotNull String focusedFile, @NotNull String expectedFile,
                                   @NotNull String... otherFiles) {
     String[] files = {focusedFile, expectedFile};
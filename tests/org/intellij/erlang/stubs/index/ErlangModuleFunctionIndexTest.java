@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012-2015 Sergey Ignatov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.intellij.erlang.stubs.index;
+
+import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.containers.ContainerUtil;
+import org.intellij.erlang.psi.ErlangFunction;
+import org.intellij.erlang.psi.ErlangFunctionCallExpression;
+import org.intellij.erlang.utils.ErlangLightPlatformCodeInsightFixtureTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+public class ErlangModuleFunctionIndexTest extends ErlangLightPlatformCodeInsightFixtureTestCase {
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myFixture.addFileToProject("bar.erl",
+                               "-module(bar).\n" +
+                               "-export([exported/0, exported/1]).\n" +
+                               "exported() -> ok.\n" +
+                               "exported(A) -> A.\n" +
+                               "local() -> ok.\n");
+    // the code server loads this module by its file name, the -module attribute doesn't match it
+    myFixture.addFileToProject("renamed.erl",
+                               "-module(original).\n" +
+                               "-export([renamed_fun/0, renamed_fun/1]).\n" +
+                               "renamed_fun() -> ok.\n" +
+                               "renamed_fun(A) -> A.\n");
+  }
+
+  public void testFunctionKeys() {
+    assertFunction("bar", "exported", 0);
+    assertFunction("bar", "exported", 1);
+    assertFunction("bar", "local", 0);
+    assertNull(getFunction("bar", "exported", 2));
+  }
+
+  public void testExportedFunctions() {
+    assertSameElements(getExportedFunctionNames("bar"), "exported/0", "exported/1");
+  }
+
+  public void testModuleNameDiffersFromFileName() {
+    assertFunction("renamed", "renamed_fun", 0);
+    assertNull(getFunction("original", "renamed_fun", 0));
+    assertSameElements(getExportedFunctionNames("renamed"), "renamed_fun/0", "renamed_fun/1");
+    assertEmpty(getExportedFunctionNames("original"));
+  }
+
+  public void testResolveExported()            { doResolveTest("foo() -> bar:expor<caret>ted().", "bar", "exported", 0); }
+  public void testResolveNotExported()         { doResolveTest("foo() -> bar:lo<caret>cal().", "bar", "local", 0); }
+  public void testResolveByModuleFileName()    { doResolveTest("foo() -> renamed:renamed<caret>_fun(1).", "renamed", "renamed_fun", 1); }
+  public void testNoResolveByModuleAttribute() { doResolveTest("foo() -> original:renamed<caret>_fun(1).", null, null, 0); }
+
+  public void testQualifiedCompletion() {
+    List<String> variants = doCompletionTest("foo() -> bar:<caret>");
+    assertContainsElements(variants, "exported");
+    assertDoesntContain(variants, "local");
+  }
+
+  public void testQualifiedCompletionByModuleFileName() {
+    assertContainsElements(doCompletionTest("foo() -> renamed:<caret>"), "renamed_fun");
+  }
+
+  public void testModuleFunctionCompletion() {
+    List<String> variants = doCompletionTest("foo() -> ren:ren<caret>");
+    assertContainsElements(variants, "renamed:renamed_fun");
+    assertDoesntContain(variants, "original:renamed_fun");
+  }
+
+  public void testModuleFunctionCompletionSkipsNotExported() {
+    List<String> variants = doCompletionTest("foo() -> ba:<caret>");
+    assertContainsElements(variants, "bar:exported");
+    assertDoesntContain(variants, "bar:local");
+  }
+
+  private void doResolveTest(@NotNull String text, @Nullable String expectedModule, @Nullable String expectedName, int expectedArity) {
+    myFixture.configureByText("caller.erl", text);
+    ErlangFunctionCallExpression call = getElementAtCaret(ErlangFunctionCallExpression.class);
+    PsiReference reference = call.getReference();
+    assertNotNull(reference);
+    PsiElement resolved = reference.resolve();
+    if (expectedModule == null) {
+      assertNull(resolved);
+      return;
+    }
+    assertSame(getFunction(expectedModule, expectedName, expectedArity), resolved);
+    assertEquals(expectedModule + ".erl", resolved.getContainingFile().getName());
+  }
+
+  @NotNull
+  private List<String> doCompletionTest(@NotNull String text) {
+    myFixture.configureByText("caller.erl", text);
+    myFixture.complete(CompletionType.BASIC);
+    List<String> variants = myFixture.getLookupElementStrings();
+    assertNotNull(variants);
+    return variants;
+  }
+
+  private void assertFunction(@NotNull String module, @NotNull String name, int arity) {
+    ErlangFunction function = getFunction(module, name, arity);
+    assertNotNull(function);
+    assertEquals(name, function.getName());
+    assertEquals(arity, function.getArity());
+    assertEquals(module + ".erl", function.getContainingFile().getName());
+  }
+
+  @Nullable
+  private ErlangFunction getFunction(@NotNull String module, @NotNull String name, int arity) {
+    return ErlangModuleFunctionIndex.getFunction(getProject(), module, name, arity, GlobalSearchScope.allScope(getProject()));
+  }
+
+  @NotNull
+  private List<String> getExportedFunctionNames(@NotNull String module) {
+    Collection<ErlangFunction> functions =
+      ErlangModuleFunctionIndex.getExportedFunctions(getProject(), module, GlobalSearchScope.allScope(getProject()));
+    List<String> names = ContainerUtil.newArrayList();
+    for (ErlangFunction function : functions) {
+      names.add(function.getName() + "/" + function.getArity());
+    }
+    return names;
+  }
+}